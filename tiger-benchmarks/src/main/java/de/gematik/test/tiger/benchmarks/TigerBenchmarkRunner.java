@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the regular JMH command line options and always adds
+ * the GC profiler, so that every result is reported together with its allocation rate
+ * (gc.alloc.rate.norm). Throughput benchmarks report ops/s, the *Latency benchmarks report the
+ * sampled percentiles (p0.99 et al.).
+ *
+ * <pre>
+ * mvn -pl tiger-benchmarks -am package -DskipTests
+ * cd tiger-benchmarks
+ * java -jar target/benchmarks.jar RbelConverterBenchmark -rf json
+ * </pre>
+ */
+public class TigerBenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    new Runner(
+            new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
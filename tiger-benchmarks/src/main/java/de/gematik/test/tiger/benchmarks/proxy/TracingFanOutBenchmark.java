@@ -0,0 +1,209 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.proxy;
+
+import com.sun.net.httpserver.HttpServer;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TigerConfigurationRoute;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TigerProxyConfiguration;
+import de.gematik.test.tiger.proxy.TigerProxy;
+import de.gematik.test.tiger.proxy.TigerProxyApplication;
+import de.gematik.test.tiger.proxy.client.TigerRemoteProxyClient;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * One tiger proxy routes the traffic of {@link #connections} concurrent HTTP connections to a
+ * local backend and traces it to {@link #subscribers} remote proxy clients. One operation sends
+ * {@link #requestsPerConnection} requests on every connection and waits until every subscriber
+ * received all of the resulting messages.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TracingFanOutBenchmark {
+
+  private static final long TRACING_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+  private static final byte[] RESPONSE_BODY =
+      "{\"status\":\"ok\",\"items\":[1,2,3]}".getBytes(StandardCharsets.US_ASCII);
+
+  @Param({"1", "16", "64"})
+  public int connections;
+
+  @Param({"1", "4"})
+  public int subscribers;
+
+  @Param({"50"})
+  public int requestsPerConnection;
+
+  private final LongAdder receivedMessages = new LongAdder();
+  private final List<TigerRemoteProxyClient> remoteProxyClients = new ArrayList<>();
+  private final List<HttpClient> httpClients = new ArrayList<>();
+  private HttpServer backend;
+  private ServletWebServerApplicationContext proxyContext;
+  private TigerProxy tigerProxy;
+  private ExecutorService connectionExecutor;
+
+  @Setup(Level.Trial)
+  public void startProxyAndSubscribers() throws IOException {
+    backend = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    backend.createContext(
+        "/",
+        exchange -> {
+          exchange.getResponseHeaders().add("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, RESPONSE_BODY.length);
+          try (OutputStream body = exchange.getResponseBody()) {
+            body.write(RESPONSE_BODY);
+          }
+        });
+    backend.setExecutor(Executors.newFixedThreadPool(16));
+    backend.start();
+
+    final TigerProxyConfiguration proxyConfiguration =
+        TigerProxyConfiguration.builder()
+            .activateRbelParsing(false)
+            .proxyRoutes(
+                List.of(
+                    TigerConfigurationRoute.builder()
+                        .from("http://backend")
+                        .to("http://localhost:" + backend.getAddress().getPort())
+                        .build()))
+            .build();
+    proxyContext =
+        (ServletWebServerApplicationContext)
+            new SpringApplicationBuilder()
+                .bannerMode(Banner.Mode.OFF)
+                .sources(TigerProxyApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .registerShutdownHook(false)
+                .initializers(
+                    ac ->
+                        ((GenericApplicationContext) ac)
+                            .registerBean(
+                                "proxyConfig",
+                                TigerProxyConfiguration.class,
+                                () -> proxyConfiguration,
+                                bd -> bd.setPrimary(true)))
+                .properties(
+                    Map.of(
+                        "server.port", "0",
+                        "spring.mustache.enabled", "false",
+                        "spring.mustache.check-template-location", "false"))
+                .run();
+    tigerProxy = proxyContext.getBean(TigerProxy.class);
+
+    final String adminUrl = "http://localhost:" + proxyContext.getWebServer().getPort();
+    for (int i = 0; i < subscribers; i++) {
+      final TigerRemoteProxyClient remoteProxyClient =
+          new TigerRemoteProxyClient(
+              adminUrl, TigerProxyConfiguration.builder().activateRbelParsing(false).build());
+      remoteProxyClient.addRbelMessageListener(message -> receivedMessages.increment());
+      remoteProxyClient.connect();
+      remoteProxyClients.add(remoteProxyClient);
+    }
+
+    final ProxySelector proxySelector =
+        ProxySelector.of(new InetSocketAddress("localhost", tigerProxy.getProxyPort()));
+    for (int i = 0; i < connections; i++) {
+      // one client per connection, each client sends its requests over a single connection
+      httpClients.add(
+          HttpClient.newBuilder()
+              .version(HttpClient.Version.HTTP_1_1)
+              .proxy(proxySelector)
+              .build());
+    }
+    connectionExecutor = Executors.newFixedThreadPool(connections);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopProxyAndSubscribers() {
+    connectionExecutor.shutdownNow();
+    remoteProxyClients.forEach(TigerRemoteProxyClient::close);
+    proxyContext.close();
+    backend.stop(0);
+  }
+
+  @TearDown(Level.Invocation)
+  public void clearMessages() {
+    tigerProxy.clearAllMessages();
+    remoteProxyClients.forEach(TigerRemoteProxyClient::clearAllMessages);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long traceConcurrentConnections() throws Exception {
+    final long expectedMessages =
+        receivedMessages.sum() + 2L * subscribers * connections * requestsPerConnection;
+    final List<Future<?>> runningConnections = new ArrayList<>();
+    for (int i = 0; i < connections; i++) {
+      final HttpClient httpClient = httpClients.get(i);
+      final int connection = i;
+      runningConnections.add(
+          connectionExecutor.submit(
+              () -> {
+                for (int j = 0; j < requestsPerConnection; j++) {
+                  httpClient.send(
+                      HttpRequest.newBuilder(
+                              URI.create("http://backend/items/" + connection + "/" + j))
+                          .build(),
+                      HttpResponse.BodyHandlers.discarding());
+                }
+                return null;
+              }));
+    }
+    for (Future<?> runningConnection : runningConnections) {
+      runningConnection.get();
+    }
+
+    final long deadline = System.nanoTime() + TRACING_TIMEOUT_NANOS;
+    while (receivedMessages.sum() < expectedMessages) {
+      if (System.nanoTime() > deadline) {
+        throw new IllegalStateException(
+            "Only "
+                + receivedMessages.sum()
+                + " of "
+                + expectedMessages
+                + " messages were traced to the subscribers");
+      }
+      LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+    }
+    return receivedMessages.sum();
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.converter.RbelConverter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link RbelConverter#convertElement(byte[], de.gematik.rbellogger.data.RbelElement)}
+ * for every entry of the {@link RbelCorpusEntry} corpus. One operation converts all messages of
+ * the entry.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RbelConverterBenchmark {
+
+  @Param public RbelCorpusEntry corpusEntry;
+
+  private RbelConverter rbelConverter;
+  private List<byte[]> rawMessages;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var rbelLogger = RbelCorpusEntry.buildRbelLogger();
+    rawMessages = corpusEntry.loadRawMessages(rbelLogger);
+    rbelConverter = rbelLogger.getRbelConverter();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void convertElement(Blackhole blackhole) {
+    convertAllMessages(blackhole);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void convertElementLatency(Blackhole blackhole) {
+    convertAllMessages(blackhole);
+  }
+
+  private void convertAllMessages(Blackhole blackhole) {
+    for (byte[] rawMessage : rawMessages) {
+      blackhole.consume(rbelConverter.convertElement(rawMessage, null));
+    }
+  }
+}
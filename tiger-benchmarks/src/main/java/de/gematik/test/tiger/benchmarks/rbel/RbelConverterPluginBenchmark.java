@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.converter.RbelConverter;
+import de.gematik.rbellogger.converter.RbelConverterPlugin;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.RbelFacet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures single converter plugins in isolation. The input of each plugin is the raw content of
+ * the first element in the corpus that carries the facet produced by the plugin. Nested content is
+ * still converted by the full converter, so the numbers include the cost of the subtree.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RbelConverterPluginBenchmark {
+
+  @Param public RbelConverterPluginScenario scenario;
+
+  private RbelConverter rbelConverter;
+  private RbelConverterPlugin plugin;
+  private byte[] pluginInput;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var rbelLogger = RbelCorpusEntry.buildRbelLogger();
+    rbelConverter = rbelLogger.getRbelConverter();
+    pluginInput =
+        scenario.getCorpusEntry().loadRawMessages(rbelLogger).stream()
+            .map(rawMessage -> rbelConverter.convertElement(rawMessage, null))
+            .map(message -> findFirstElementWithFacet(message, scenario.getProducedFacet()))
+            .flatMap(Optional::stream)
+            .findFirst()
+            .map(RbelElement::getRawContent)
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        "No element with " + scenario.getProducedFacet().getSimpleName()));
+    plugin =
+        rbelConverter.getConverterPlugins().stream()
+            .filter(candidate -> candidate.getClass() == scenario.getConverterClass())
+            .findFirst()
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        "Plugin " + scenario.getConverterClass().getSimpleName() + " not active"));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public RbelElement consumeElement() {
+    return convertWithPlugin();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void consumeElementLatency(Blackhole blackhole) {
+    blackhole.consume(convertWithPlugin());
+  }
+
+  private RbelElement convertWithPlugin() {
+    final RbelElement element = RbelElement.builder().rawContent(pluginInput).build();
+    plugin.consumeElement(element, rbelConverter);
+    return element;
+  }
+
+  private static Optional<RbelElement> findFirstElementWithFacet(
+      RbelElement element, Class<? extends RbelFacet> facetClass) {
+    if (element.hasFacet(facetClass)) {
+      return Optional.of(element);
+    }
+    for (RbelElement child : element.getChildNodes()) {
+      final Optional<RbelElement> result = findFirstElementWithFacet(child, facetClass);
+      if (result.isPresent()) {
+        return result;
+      }
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.converter.*;
+import de.gematik.rbellogger.data.facet.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maps a converter plugin to the corpus entry containing an element the plugin is able to parse.
+ * The element is identified by the facet the plugin adds to it.
+ */
+@RequiredArgsConstructor
+@Getter
+public enum RbelConverterPluginScenario {
+  HTTP_REQUEST(
+      RbelHttpRequestConverter.class, RbelCorpusEntry.HTTP_GET, RbelHttpRequestFacet.class),
+  HTTP_RESPONSE(
+      RbelHttpResponseConverter.class, RbelCorpusEntry.HTTP_JSON, RbelHttpResponseFacet.class),
+  JSON(RbelJsonConverter.class, RbelCorpusEntry.HTTP_JSON, RbelJsonFacet.class),
+  XML(RbelXmlConverter.class, RbelCorpusEntry.HTTP_XML, RbelXmlFacet.class),
+  JWT(RbelJwtConverter.class, RbelCorpusEntry.HTTP_JWT, RbelJwtFacet.class),
+  JWE(RbelJweConverter.class, RbelCorpusEntry.HTTP_JWE, RbelJweFacet.class),
+  VAU_EPA(RbelVauEpaConverter.class, RbelCorpusEntry.VAU_EPA, RbelVauEpaFacet.class),
+  VAU_ERP(RbelErpVauDecrpytionConverter.class, RbelCorpusEntry.VAU_ERP, RbelVauErpFacet.class);
+
+  private final Class<? extends RbelConverterPlugin> converterClass;
+  private final RbelCorpusEntry corpusEntry;
+  private final Class<? extends RbelFacet> producedFacet;
+}
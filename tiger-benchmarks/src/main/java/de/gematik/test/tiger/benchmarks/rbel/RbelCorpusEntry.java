@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.RbelLogger;
+import de.gematik.rbellogger.configuration.RbelConfiguration;
+import de.gematik.rbellogger.converter.initializers.RbelKeyFolderInitializer;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.file.RbelFileWriter;
+import de.gematik.test.tiger.exceptions.GenericTigerException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The messages the RBel benchmarks run on. The files are taken from the test resources of
+ * tiger-rbel, the location can be overridden with the system property {@value
+ * #CORPUS_DIRECTORY_PROPERTY}.
+ */
+@RequiredArgsConstructor
+@Getter
+public enum RbelCorpusEntry {
+  HTTP_GET("sampleMessages/getRequest.curl"),
+  HTTP_JSON("sampleMessages/jsonMessage.curl"),
+  HTTP_XML("sampleMessages/xmlMessage.curl"),
+  HTTP_JWT("sampleMessages/jwtMessage.curl"),
+  HTTP_JWE("sampleMessages/jweMessage.curl"),
+  VAU_EPA("vauFlow.tgr"),
+  VAU_ERP("tgr1810VauErp.tgr");
+
+  public static final String CORPUS_DIRECTORY_PROPERTY = "tiger.benchmark.corpus";
+  private static final String DEFAULT_CORPUS_DIRECTORY = "../tiger-rbel/src/test/resources";
+
+  private final String fileName;
+
+  public static Path getCorpusDirectory() {
+    return Path.of(System.getProperty(CORPUS_DIRECTORY_PROPERTY, DEFAULT_CORPUS_DIRECTORY));
+  }
+
+  /**
+   * Builds a logger with all keys of the corpus directory and all optional converters activated,
+   * so that every corpus entry is parsed completely.
+   */
+  public static RbelLogger buildRbelLogger() {
+    return RbelLogger.build(
+        new RbelConfiguration()
+            .addInitializer(new RbelKeyFolderInitializer(getCorpusDirectory().toString()))
+            .activateConversionFor("epa-vau")
+            .activateConversionFor("erp-vau")
+            .activateConversionFor("epa3-vau"));
+  }
+
+  /**
+   * Loads the raw messages of this entry. For .tgr files the messages are parsed once with the
+   * given logger, which primes the key manager with the keys negotiated in the recorded
+   * handshakes.
+   */
+  public List<byte[]> loadRawMessages(RbelLogger rbelLogger) {
+    final Path file = getCorpusDirectory().resolve(fileName);
+    try {
+      if (fileName.endsWith(".tgr")) {
+        return new RbelFileWriter(rbelLogger.getRbelConverter())
+            .convertFromRbelFile(Files.readString(file, StandardCharsets.UTF_8)).stream()
+                .map(RbelElement::getRawContent)
+                .toList();
+      }
+      return List.of(readCurlWithCorrectedLineBreaks(file).getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new BenchmarkCorpusException(
+          "Unable to read corpus file '" + file.toAbsolutePath() + "'", e);
+    }
+  }
+
+  private static String readCurlWithCorrectedLineBreaks(Path file) throws IOException {
+    final String fromFile =
+        Files.readString(file, StandardCharsets.UTF_8).replaceAll("(?<!\\r)\\n", "\r\n");
+    if (fromFile.endsWith("\r\n")) {
+      return fromFile;
+    } else {
+      return fromFile + "\r\n";
+    }
+  }
+
+  private static class BenchmarkCorpusException extends GenericTigerException {
+    public BenchmarkCorpusException(String message, Exception e) {
+      super(message, e);
+    }
+  }
+}
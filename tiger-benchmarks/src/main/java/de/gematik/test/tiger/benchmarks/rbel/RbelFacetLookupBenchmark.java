@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.converter.RbelConverter;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Queries the facets of every element of the converted corpus, the access pattern of renderers and
+ * converters. The classes mix exact facet types with supertypes ({@link RbelMessageInfoFacet},
+ * {@link RbelNestedFacet}) and facets most elements do not have.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RbelFacetLookupBenchmark {
+
+  private static final List<Class<? extends RbelFacet>> QUERIED_FACETS =
+      List.of(
+          RbelHttpMessageFacet.class,
+          RbelHttpResponseFacet.class,
+          RbelMessageInfoFacet.class,
+          RbelNestedFacet.class,
+          RbelJwtFacet.class,
+          RbelJweFacet.class,
+          RbelVauEpaFacet.class,
+          RbelJsonFacet.class,
+          RbelValueFacet.class,
+          RbelNoteFacet.class);
+
+  @Param({"HTTP_JWT", "HTTP_JWE", "VAU_EPA", "VAU_ERP"})
+  public RbelCorpusEntry corpusEntry;
+
+  private List<RbelElement> elements;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var rbelLogger = RbelCorpusEntry.buildRbelLogger();
+    final RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+    elements = new ArrayList<>();
+    for (byte[] rawMessage : corpusEntry.loadRawMessages(rbelLogger)) {
+      collectAllElements(rbelConverter.convertElement(rawMessage, null), elements);
+    }
+  }
+
+  @Benchmark
+  public void hasFacet(Blackhole blackhole) {
+    for (RbelElement element : elements) {
+      for (Class<? extends RbelFacet> facetClass : QUERIED_FACETS) {
+        blackhole.consume(element.hasFacet(facetClass));
+      }
+    }
+  }
+
+  @Benchmark
+  public void getFacet(Blackhole blackhole) {
+    for (RbelElement element : elements) {
+      for (Class<? extends RbelFacet> facetClass : QUERIED_FACETS) {
+        blackhole.consume(element.getFacet(facetClass));
+      }
+    }
+  }
+
+  private static void collectAllElements(RbelElement element, List<RbelElement> result) {
+    result.add(element);
+    for (RbelElement child : element.getChildNodes()) {
+      collectAllElements(child, result);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.RbelLogger;
+import de.gematik.rbellogger.configuration.RbelConfiguration;
+import de.gematik.rbellogger.file.RbelFileWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Imports a .tgr file of {@link #messages} HTTP messages (request/response pairs spread over 64
+ * connections, responses reference their request via pairedMessageUuid). One operation reads the
+ * whole file into a fresh rbel logger, sequentially or with the parallel import.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class RbelFileImportBenchmark {
+
+  private static final int CONNECTIONS = 64;
+
+  @Param({"100000"})
+  public int messages;
+
+  @Param({"false", "true"})
+  public boolean parallelImport;
+
+  private Path trafficFile;
+  private RbelFileWriter rbelFileWriter;
+
+  @Setup(Level.Trial)
+  public void writeTrafficFile() throws IOException {
+    trafficFile = Files.createTempFile("rbelFileImportBenchmark", ".tgr");
+    try (BufferedWriter writer = Files.newBufferedWriter(trafficFile, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < messages / 2; i++) {
+        final String client = "client:" + (10_000 + i % CONNECTIONS);
+        final String body = "{\"id\":" + i + ",\"name\":\"item-" + i + "\",\"tags\":[\"a\",\"b\"]}";
+        final String requestUuid = UUID.randomUUID().toString();
+        final JSONObject request =
+            messageObject(
+                requestUuid,
+                "POST /api/items/" + i + " HTTP/1.1\r\nHost: server\r\n",
+                body,
+                client,
+                "server:443",
+                2L * i);
+        final JSONObject response =
+            messageObject(
+                UUID.randomUUID().toString(),
+                "HTTP/1.1 200 OK\r\n",
+                body,
+                "server:443",
+                client,
+                2L * i + 1);
+        response.put(RbelFileWriter.PAIRED_MESSAGE_UUID, requestUuid);
+        writer.write(request + "\n");
+        writer.write(response + "\n");
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteTrafficFile() throws IOException {
+    Files.deleteIfExists(trafficFile);
+  }
+
+  @Setup(Level.Invocation)
+  public void createRbelLogger() {
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder().manageBuffer(true).rbelBufferSizeInMb(512).build());
+    rbelFileWriter = new RbelFileWriter(rbelLogger.getRbelConverter());
+    rbelFileWriter.setParallelImport(parallelImport);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long importFile() throws IOException {
+    final LongAdder importedMessages = new LongAdder();
+    rbelFileWriter.readRbelFile(trafficFile, message -> importedMessages.increment());
+    return importedMessages.sum();
+  }
+
+  private static JSONObject messageObject(
+      String uuid, String head, String body, String sender, String receiver, long sequenceNumber) {
+    final String httpMessage =
+        head
+            + "Content-Type: application/json\r\nContent-Length: "
+            + body.length()
+            + "\r\n\r\n"
+            + body;
+    return new JSONObject()
+        .put(
+            RbelFileWriter.RAW_MESSAGE_CONTENT,
+            Base64.getEncoder().encodeToString(httpMessage.getBytes(StandardCharsets.US_ASCII)))
+        .put(RbelFileWriter.MESSAGE_UUID, uuid)
+        .put(RbelFileWriter.SENDER_HOSTNAME, sender)
+        .put(RbelFileWriter.RECEIVER_HOSTNAME, receiver)
+        .put(RbelFileWriter.SEQUENCE_NUMBER, Long.toString(sequenceNumber));
+  }
+}
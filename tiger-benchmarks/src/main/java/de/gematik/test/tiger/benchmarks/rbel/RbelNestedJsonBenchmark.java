@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.RbelLogger;
+import de.gematik.rbellogger.converter.RbelConverter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Converts a JSON document of about 10 MB whose content is spread over the given number of nesting
+ * levels. Child elements used to carry a re-serialized copy of their subtree, so the allocated
+ * bytes per operation ({@code gc.alloc.rate.norm} of the GC profiler) grew with the depth.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RbelNestedJsonBenchmark {
+
+  private static final int TARGET_SIZE_IN_BYTES = 10 * 1024 * 1024;
+
+  @Param({"1", "10", "100"})
+  public int nestingDepth;
+
+  private RbelConverter rbelConverter;
+  private byte[] jsonDocument;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    rbelConverter = RbelLogger.build().getRbelConverter();
+    jsonDocument = buildNestedJson(nestingDepth).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Object convertNestedJson() {
+    return rbelConverter.convertElement(jsonDocument, null);
+  }
+
+  private static String buildNestedJson(int depth) {
+    final String entry = "{\"id\":12345,\"name\":\"some name\",\"flag\":true},";
+    final int entriesPerLevel = TARGET_SIZE_IN_BYTES / depth / entry.length();
+    final StringBuilder result = new StringBuilder(TARGET_SIZE_IN_BYTES + 64 * depth);
+    for (int level = 0; level < depth; level++) {
+      result.append("{\"level\":").append(level).append(",\"entries\":[");
+      for (int i = 0; i < entriesPerLevel; i++) {
+        result.append(entry);
+      }
+      result.setLength(result.length() - 1);
+      result.append("],\"child\":");
+    }
+    result.append("null");
+    result.append("}".repeat(depth));
+    return result.toString();
+  }
+}
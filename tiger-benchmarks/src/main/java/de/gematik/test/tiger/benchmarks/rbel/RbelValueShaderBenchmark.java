@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.RbelLogger;
+import de.gematik.rbellogger.converter.RbelValueShader;
+import de.gematik.rbellogger.data.RbelElement;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs the value shader over every element of a large JSON message. The criteria are typical for
+ * shading rules: most of them only touch {@code key}, {@code path} or {@code isRequest}. Run with
+ * the GC profiler (the default of the benchmark runner) to see the allocations caused by building
+ * the JEXL context for each element.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RbelValueShaderBenchmark {
+
+  @Param({"100", "1000"})
+  public int numberOfEntries;
+
+  private RbelValueShader valueShader;
+  private List<RbelElement> elements;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final RbelElement message =
+        RbelLogger.build()
+            .getRbelConverter()
+            .convertElement(buildLargeJsonResponse(numberOfEntries), null);
+    elements = new ArrayList<>();
+    collectAllElements(message, elements);
+    valueShader =
+        new RbelValueShader()
+            .addSimpleShadingCriterion("nonExistingKey", "<shaded %s>")
+            .addJexlShadingCriterion("isRequest && path == 'body.entries.0.name'", "<shaded %s>")
+            .addJexlShadingCriterion("path == 'header.Content-Type'", "<shaded %s>");
+  }
+
+  @Benchmark
+  public void shadeAllElements(Blackhole blackhole) {
+    for (RbelElement element : elements) {
+      blackhole.consume(valueShader.shadeValue(element, Optional.empty()));
+    }
+  }
+
+  private static byte[] buildLargeJsonResponse(int numberOfEntries) {
+    final StringBuilder body = new StringBuilder("{\"entries\":[");
+    for (int i = 0; i < numberOfEntries; i++) {
+      if (i > 0) {
+        body.append(',');
+      }
+      body.append("{\"id\":")
+          .append(i)
+          .append(",\"name\":\"name-")
+          .append(i)
+          .append("\",\"nested\":{\"value\":\"value-")
+          .append(i)
+          .append("\",\"flag\":true}}");
+    }
+    body.append("]}");
+    final byte[] bodyBytes = body.toString().getBytes(StandardCharsets.UTF_8);
+    final String header =
+        "HTTP/1.1 200 OK\r\n"
+            + "Content-Type: application/json\r\n"
+            + "Content-Length: "
+            + bodyBytes.length
+            + "\r\n\r\n";
+    final byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+    final byte[] result = new byte[headerBytes.length + bodyBytes.length];
+    System.arraycopy(headerBytes, 0, result, 0, headerBytes.length);
+    System.arraycopy(bodyBytes, 0, result, headerBytes.length, bodyBytes.length);
+    return result;
+  }
+
+  private static void collectAllElements(RbelElement element, List<RbelElement> result) {
+    result.add(element);
+    for (RbelElement child : element.getChildNodes()) {
+      collectAllElements(child, result);
+    }
+  }
+}
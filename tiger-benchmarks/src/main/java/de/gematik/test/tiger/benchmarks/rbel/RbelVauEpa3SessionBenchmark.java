@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.benchmarks.rbel;
+
+import de.gematik.rbellogger.RbelLogger;
+import de.gematik.rbellogger.configuration.RbelConfiguration;
+import de.gematik.rbellogger.converter.RbelConverter;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.RbelElementConvertionPair;
+import de.gematik.rbellogger.data.RbelHostname;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Parses the traffic of many concurrent VAU3 sessions (gemSpec_Krypt A_24628 ff.). Each session
+ * runs on its own connection and announces its payload keys in the VAU-nonPU-Tracing header, the
+ * messages of all sessions are interleaved. One operation parses all messages asynchronously and
+ * waits for them, so the throughput shows how well messages of independent sessions are decrypted
+ * in parallel.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RbelVauEpa3SessionBenchmark {
+
+  private static final RbelHostname SERVER = new RbelHostname("vau.gematik.de", 443);
+  private static final int HEADER_LENGTH = 43;
+  private static final int IV_LENGTH = 12;
+
+  @Param({"1", "16", "64"})
+  public int sessions;
+
+  @Param({"16"})
+  public int requestsPerSession;
+
+  private RbelConverter rbelConverter;
+  private List<TracedMessage> messages;
+
+  @Setup(Level.Trial)
+  public void setUp() throws GeneralSecurityException {
+    rbelConverter =
+        RbelLogger.build(new RbelConfiguration().activateConversionFor("epa3-vau"))
+            .getRbelConverter();
+    final List<List<TracedMessage>> messagesPerSession = new ArrayList<>();
+    for (int session = 0; session < sessions; session++) {
+      messagesPerSession.add(buildSession(session));
+    }
+    messages = new ArrayList<>();
+    for (int i = 0; i < 2 * requestsPerSession; i++) {
+      for (List<TracedMessage> sessionMessages : messagesPerSession) {
+        messages.add(sessionMessages.get(i));
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void clearHistory() {
+    rbelConverter.clearAllMessages();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public List<RbelElement> parseInterleavedSessions() {
+    final List<CompletableFuture<RbelElement>> futures = new ArrayList<>(messages.size());
+    for (TracedMessage message : messages) {
+      futures.add(
+          rbelConverter.parseMessageAsync(
+              new RbelElementConvertionPair(
+                  RbelElement.builder().rawContent(message.rawContent()).build()),
+              message.sender(),
+              message.receiver(),
+              Optional.empty()));
+    }
+    return futures.stream().map(CompletableFuture::join).toList();
+  }
+
+  private List<TracedMessage> buildSession(int session) throws GeneralSecurityException {
+    final RbelHostname client = new RbelHostname("client", 10_000 + session);
+    final String cid = "/vau/benchmark-session-" + session;
+    final SecretKeySpec clientToServerKey = randomAesKey();
+    final SecretKeySpec serverToClientKey = randomAesKey();
+    final byte[] keyId = new byte[32];
+    ThreadLocalRandom.current().nextBytes(keyId);
+    final String tracingHeader =
+        "VAU-nonPU-Tracing: "
+            + Base64.getEncoder().encodeToString(clientToServerKey.getEncoded())
+            + " "
+            + Base64.getEncoder().encodeToString(serverToClientKey.getEncoded());
+
+    final List<TracedMessage> result = new ArrayList<>();
+    for (int counter = 1; counter <= requestsPerSession; counter++) {
+      final String innerRequest =
+          "GET /epa/medication/api/v1/fhir/Medication?_count=" + counter + " HTTP/1.1\r\n\r\n";
+      final String innerResponse = "HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\n{}";
+      final byte[] request = encrypt(clientToServerKey, (byte) 1, counter, keyId, innerRequest);
+      final byte[] response = encrypt(serverToClientKey, (byte) 2, counter, keyId, innerResponse);
+      final String requestHead = "POST " + cid + " HTTP/1.1\r\n" + tracingHeader + "\r\n";
+      result.add(new TracedMessage(buildHttpMessage(requestHead, request), client, SERVER));
+      result.add(
+          new TracedMessage(buildHttpMessage("HTTP/1.1 200 OK\r\n", response), SERVER, client));
+    }
+    return result;
+  }
+
+  private static byte[] buildHttpMessage(String head, byte[] body) {
+    final byte[] completeHead =
+        (head
+                + "Content-Type: application/octet-stream\r\n"
+                + "Content-Length: "
+                + body.length
+                + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    return ByteBuffer.allocate(completeHead.length + body.length)
+        .put(completeHead)
+        .put(body)
+        .array();
+  }
+
+  /** Version 2, nonPU, request/response, request counter, key id, then IV and ciphertext. */
+  private static byte[] encrypt(
+      SecretKeySpec key, byte direction, long counter, byte[] keyId, String cleartext)
+      throws GeneralSecurityException {
+    final byte[] header =
+        ByteBuffer.allocate(HEADER_LENGTH)
+            .put((byte) 2)
+            .put((byte) 0)
+            .put(direction)
+            .putLong(counter)
+            .put(keyId)
+            .array();
+    final byte[] iv = new byte[IV_LENGTH];
+    ThreadLocalRandom.current().nextBytes(iv);
+    final Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+    cipher.updateAAD(header);
+    final byte[] ciphertext = cipher.doFinal(cleartext.getBytes(StandardCharsets.US_ASCII));
+    return ByteBuffer.allocate(header.length + iv.length + ciphertext.length)
+        .put(header)
+        .put(iv)
+        .put(ciphertext)
+        .array();
+  }
+
+  private static SecretKeySpec randomAesKey() {
+    final byte[] key = new byte[32];
+    ThreadLocalRandom.current().nextBytes(key);
+    return new SecretKeySpec(key, "AES");
+  }
+
+  private record TracedMessage(byte[] rawContent, RbelHostname sender, RbelHostname receiver) {}
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.common.data.config.tigerproxy;
+
+/** Decides which messages are removed first once the rbel buffer is full. */
+public enum RbelBufferEvictionStrategy {
+  /** The oldest messages are removed first. */
+  FIFO,
+  /** The messages that were accessed least recently (e.g. by a validation) are removed first. */
+  LRU,
+  /** Like FIFO, but a request and its response are always removed together. */
+  KEEP_PAIRS
+}
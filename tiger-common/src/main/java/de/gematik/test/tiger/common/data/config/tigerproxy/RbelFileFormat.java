@@ -0,0 +1,25 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.common.data.config.tigerproxy;
+
+/** The format in which traffic is written to .tgr files. Readers detect the format themselves. */
+public enum RbelFileFormat {
+  /** One JSON object per line, with the raw message base64-encoded. */
+  JSON_LINES,
+  /** Length-prefixed binary records in optionally compressed blocks, with an index at the end. */
+  BINARY
+}
@@ -33,4 +33,12 @@ public class TigerFileSaveInfo {
   @Builder.Default private String filename = "tiger-proxy.tgr";
   @Builder.Default private boolean clearFileOnBoot = false;
   @Builder.Default private String readFilter = "";
+  @Builder.Default private boolean parallelImport = false;
+  @Builder.Default private RbelFileFormat fileFormat = RbelFileFormat.JSON_LINES;
+  @Builder.Default private boolean compressBinaryFile = true;
+  @Builder.Default private int maximumQueuedMessages = 10_000;
+  @Builder.Default private boolean dropMessagesWhenQueueFull = false;
+  @Builder.Default private long syncIntervalInMs = 1000;
+  @Builder.Default private long rotateFileAfterKb = 0;
+  @Builder.Default private long rotateFileAfterMinutes = 0;
 }
@@ -53,7 +53,13 @@ public class TigerProxyConfiguration {
   @Builder.Default private int connectionTimeoutInSeconds = 10;
   @Builder.Default private int stompClientBufferSizeInMb = 1;
   @Builder.Default private int perMessageBufferSizeInMb = 100;
+  @Builder.Default private boolean activateBinaryTracing = true;
+  @Builder.Default private boolean compressBinaryTracing = true;
   @Builder.Default private int rbelBufferSizeInMb = 1024;
+
+  @Builder.Default
+  private RbelBufferEvictionStrategy rbelBufferEvictionStrategy = RbelBufferEvictionStrategy.FIFO;
+
   @Builder.Default private int skipParsingWhenMessageLargerThanKb = 8_000;
   @Builder.Default private int skipDisplayWhenMessageLargerThanKb = 512;
   @Builder.Default private boolean activateRbelParsing = true;
@@ -68,10 +74,17 @@ public class TigerProxyConfiguration {
   private TrafficEndpointConfiguration trafficEndpointConfiguration =
       new TrafficEndpointConfiguration();
 
+  @Builder.Default
+  private TrafficParsingConfiguration trafficParsing = new TrafficParsingConfiguration();
+
+  @Builder.Default
+  private TrafficSpillConfiguration trafficSpill = new TrafficSpillConfiguration();
+
   @Builder.Default private List<RbelModificationDescription> modifications = new ArrayList<>();
   @Builder.Default private boolean localResources = true;
   @Builder.Default private int maximumTrafficDownloadPageSize = 100_000;
   @Builder.Default private int trafficDownloadPageSize = 50;
+  @Builder.Default private int trafficDownloadWindow = 4;
   private String name;
 
   @Builder.Default private boolean isStandalone = true;
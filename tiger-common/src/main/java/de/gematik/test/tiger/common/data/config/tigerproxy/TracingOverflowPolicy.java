@@ -0,0 +1,27 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.common.data.config.tigerproxy;
+
+/** Decides what happens when a tracing subscriber falls behind and its send queue is full. */
+public enum TracingOverflowPolicy {
+  /** The oldest queued messages are dropped. The subscriber misses them. */
+  DROP_OLDEST,
+  /** The subscriber is disconnected. It reconnects and downloads the missed traffic. */
+  DISCONNECT,
+  /** The queue is cleared and the subscriber is told to download the missed traffic. */
+  CATCH_UP
+}
@@ -30,4 +30,10 @@ public class TrafficEndpointConfiguration {
   @Builder.Default private String name = "tigerProxy Tracing Point";
   @Builder.Default private String wsEndpoint = "/tracing";
   @Builder.Default private String stompTopic = "/traces";
+  @Builder.Default private String binaryWsEndpoint = "/tracing-binary";
+  @Builder.Default private int subscriberQueueSize = 1_000;
+  @Builder.Default private int subscriberQueueSizeInMb = 64;
+
+  @Builder.Default
+  private TracingOverflowPolicy subscriberOverflowPolicy = TracingOverflowPolicy.CATCH_UP;
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.common.data.config.tigerproxy;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Configures the threads that parse the recorded traffic. */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class TrafficParsingConfiguration {
+
+  /**
+   * Number of parsing lanes. Messages of one connection are always parsed in the same lane, in the
+   * order they were recorded. 0 means one lane per available processor.
+   */
+  @Builder.Default private int parsingThreads = 0;
+
+  /** Maximum number of messages waiting to be parsed, shared evenly among the lanes. */
+  @Builder.Default private int maximumQueuedMessages = 10_000;
+
+  /** What happens to new messages while the queue of their lane is full. */
+  @Builder.Default
+  private TrafficParsingBackpressure backpressure = TrafficParsingBackpressure.BLOCK;
+
+  /** Runs the lanes on virtual threads. Ignored (with a warning) on JVMs without them. */
+  @Builder.Default private boolean useVirtualThreads = false;
+
+  public enum TrafficParsingBackpressure {
+    /** The recording thread waits until the lane has room again. */
+    BLOCK,
+    /** The message is discarded and does not show up in the message history. */
+    DROP,
+    /** The message is added to the history unparsed. */
+    SKIP_PARSING
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.common.data.config.tigerproxy;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configures the spill tier of the message history. When enabled, messages exceeding the buffer
+ * size (rbelBufferSizeInMb) are not dropped but moved to local spill files as raw bytes, and parsed
+ * again when they are accessed.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class TrafficSpillConfiguration {
+
+  @Builder.Default private boolean enabled = false;
+
+  /** Directory for the spill files. Empty means the temp directory of the JVM. */
+  @Builder.Default private String spillDirectory = "";
+
+  /** Budget of the spill tier. When exceeded the oldest spilled messages are dropped. */
+  @Builder.Default private int maximumSpillSizeInMb = 4096;
+
+  /** The spill files are mapped and deleted in chunks of this size. */
+  @Builder.Default private int spillChunkSizeInMb = 64;
+}
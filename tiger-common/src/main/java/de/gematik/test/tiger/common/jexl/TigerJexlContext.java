@@ -19,6 +19,7 @@ package de.gematik.test.tiger.common.jexl;
 import de.gematik.test.tiger.common.config.TigerConfigurationKey;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.jexl3.JexlContext;
@@ -27,6 +28,11 @@ import org.apache.commons.jexl3.JexlContext;
  * Context to be used in a JEXL-evaluation. The keys are of type string, but they are canonicalized
  * in accordance to the TigerConfigurationKey. The values are objects, which makes this a superset
  * of the TigerGlobalConfiguration.
+ *
+ * <p>Values that are expensive to compute can be registered via {@link #putLazy(String,
+ * Supplier)}. They are only computed when an expression accesses them and are then memoized. Lazy
+ * values which have not been accessed yet count for {@link #has(String)}, {@link
+ * #containsKey(Object)} and {@link #size()}. Iterating over the map computes all of them.
  */
 @Slf4j
 public class TigerJexlContext extends TreeMap<String, Object> implements JexlContext {
@@ -42,6 +48,8 @@ public class TigerJexlContext extends TreeMap<String, Object> implements JexlCon
           REMAINING_PATH_FROM_REQUEST.toLowerCase(),
           KEY_ELEMENT_MARKER.toLowerCase());
 
+  private final Map<String, LazyValue> lazyValues = new HashMap<>();
+
   public TigerJexlContext(Map<String, Object> initialMap) {
     this();
     putAll(initialMap);
@@ -87,7 +95,48 @@ public class TigerJexlContext extends TreeMap<String, Object> implements JexlCon
 
   @Override
   public Object put(String name, Object value) {
-    return super.put(canonicalize(name), value);
+    final String canonicalName = canonicalize(name);
+    lazyValues.remove(canonicalName);
+    return super.put(canonicalName, value);
+  }
+
+  /**
+   * Registers a value which is computed on first access. The supplier is called at most once, also
+   * when the context is cloned before the value is accessed.
+   */
+  public void putLazy(String name, Supplier<?> valueSupplier) {
+    final String canonicalName = canonicalize(name);
+    super.remove(canonicalName);
+    lazyValues.put(canonicalName, new LazyValue(valueSupplier));
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ?> map) {
+    if (!(map instanceof TigerJexlContext otherContext)) {
+      super.putAll(map);
+      return;
+    }
+    // copied without computing the lazy values of the other context
+    otherContext.resolvedEntrySet().forEach(entry -> put(entry.getKey(), entry.getValue()));
+    otherContext.lazyValues.forEach(
+        (name, lazyValue) -> {
+          super.remove(name);
+          lazyValues.put(name, lazyValue);
+        });
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (key instanceof String name) {
+      lazyValues.remove(canonicalize(name));
+    }
+    return super.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    lazyValues.clear();
+    super.clear();
   }
 
   private static String canonicalize(String name) {
@@ -97,14 +146,64 @@ public class TigerJexlContext extends TreeMap<String, Object> implements JexlCon
     return new TigerConfigurationKey(name).downsampleKey();
   }
 
+  @Override
+  public boolean containsKey(Object key) {
+    return super.containsKey(key) || lazyValues.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return super.size() + lazyValues.size();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    resolveLazyValues();
+    return super.entrySet();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    resolveLazyValues();
+    return super.keySet();
+  }
+
+  @Override
+  public Collection<Object> values() {
+    resolveLazyValues();
+    return super.values();
+  }
+
+  private Set<Entry<String, Object>> resolvedEntrySet() {
+    return super.entrySet();
+  }
+
+  private void resolveLazyValues() {
+    final Iterator<Entry<String, LazyValue>> iterator = lazyValues.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Entry<String, LazyValue> lazyEntry = iterator.next();
+      super.put(lazyEntry.getKey(), lazyEntry.getValue().get());
+      iterator.remove();
+    }
+  }
+
   @Override
   public boolean has(String name) {
-    return super.containsKey(canonicalize(name));
+    final String canonicalName = canonicalize(name);
+    return super.containsKey(canonicalName) || lazyValues.containsKey(canonicalName);
   }
 
   @Override
   public Object get(String name) {
-    return super.get(canonicalize(name));
+    final String canonicalName = canonicalize(name);
+    final LazyValue lazyValue = lazyValues.get(canonicalName);
+    if (lazyValue != null) {
+      final Object value = lazyValue.get();
+      lazyValues.remove(canonicalName);
+      super.put(canonicalName, value);
+      return value;
+    }
+    return super.get(canonicalName);
   }
 
   public Optional<Object> getOptional(String name) {
@@ -120,11 +219,9 @@ public class TigerJexlContext extends TreeMap<String, Object> implements JexlCon
   }
 
   public String getKey() {
-    if (super.containsKey(KEY_ELEMENT_MARKER)) {
-      final Object result = super.get(KEY_ELEMENT_MARKER);
-      if (result != null) {
-        return result.toString();
-      }
+    final Object result = get(KEY_ELEMENT_MARKER);
+    if (result != null) {
+      return result.toString();
     }
     return null;
   }
@@ -136,6 +233,25 @@ public class TigerJexlContext extends TreeMap<String, Object> implements JexlCon
   public Map<String, Object> allNonStandardValues() {
     return entrySet().stream()
         .filter(e -> !DEFAULT_KEYS.contains(e.getKey().toLowerCase()))
+        .filter(e -> e.getValue() != null)
         .collect(Collectors.toUnmodifiableMap(Entry::getKey, Entry::getValue));
   }
+
+  private static class LazyValue {
+    private final Supplier<?> supplier;
+    private boolean resolved = false;
+    private Object value;
+
+    private LazyValue(Supplier<?> supplier) {
+      this.supplier = supplier;
+    }
+
+    private synchronized Object get() {
+      if (!resolved) {
+        value = supplier.get();
+        resolved = true;
+      }
+      return value;
+    }
+  }
 }
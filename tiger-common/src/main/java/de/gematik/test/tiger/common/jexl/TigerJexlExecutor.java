@@ -33,6 +33,9 @@ public class TigerJexlExecutor {
 
   private static final Map<String, Object> NAMESPACE_MAP = new HashMap<>();
   private static final List<TigerJexlContextDecorator> CONTEXT_DECORATORS = new ArrayList<>();
+  private static final TigerJexlExpressionCache EXPRESSION_CACHE =
+      new TigerJexlExpressionCache(
+          TigerJexlExecutor::createJexlEngine, TigerJexlExpressionCache.DEFAULT_MAXIMUM_SIZE);
   @Setter @Getter private static boolean activateJexlDebugging = false;
 
   @Setter
@@ -99,7 +102,7 @@ public class TigerJexlExecutor {
     context.put("element", element);
     if (element != null) {
       context.put("type", element.getClass().getSimpleName());
-      context.put("content", getContent(element));
+      context.putLazy("content", () -> getContent(element));
     }
   }
 
@@ -107,10 +110,17 @@ public class TigerJexlExecutor {
     return element.toString();
   }
 
-  private static JexlEngine getJexlEngine() {
+  /**
+   * Returns hit/miss counters and the accumulated compile time of the shared expression cache.
+   */
+  public static TigerJexlExpressionCache.Statistics getExpressionCacheStatistics() {
+    return EXPRESSION_CACHE.getStatistics();
+  }
+
+  private static JexlEngine createJexlEngine() {
     JexlBuilder jexlBuilder =
         new JexlBuilder()
-            .namespaces(NAMESPACE_MAP)
+            .namespaces(new HashMap<>(NAMESPACE_MAP))
             .permissions(JexlPermissions.UNRESTRICTED)
             .strict(true);
     jexlBuilder.options().setStrictArithmetic(false);
@@ -119,10 +129,12 @@ public class TigerJexlExecutor {
 
   public static void registerAdditionalNamespace(String namespace, Object value) {
     NAMESPACE_MAP.put(namespace, value);
+    EXPRESSION_CACHE.invalidate();
   }
 
   public static void deregisterNamespace(String namespace) {
     NAMESPACE_MAP.remove(namespace);
+    EXPRESSION_CACHE.invalidate();
   }
 
   private boolean matchesAsJexlExpressionInternal(Object element, String jexlExpression) {
@@ -182,13 +194,13 @@ public class TigerJexlExecutor {
   private List<JexlExpression> buildExpressions(
       String jexlExpression, TigerJexlContext mapContext) {
     return expressionPreMapper.apply(jexlExpression, mapContext).stream()
-        .map(getJexlEngine()::createExpression)
+        .map(EXPRESSION_CACHE::getExpression)
         .toList();
   }
 
   public JexlScript buildScript(String jexlScript) {
     try {
-      return getJexlEngine().createScript(jexlScript);
+      return EXPRESSION_CACHE.getScript(jexlScript);
     } catch (RuntimeException e) {
       throw new TigerJexlException("Error while parsing script '" + jexlScript + "'", e);
     }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.common.jexl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Value;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlExpression;
+import org.apache.commons.jexl3.JexlScript;
+
+/**
+ * Shared JEXL engine together with a bounded cache of the compiled expressions and scripts, keyed
+ * by their source text. Compiled expressions are immutable and can be evaluated concurrently, so a
+ * single instance serves all threads. When the cache is full the least recently used entry is
+ * dropped, so the expressions evaluated for every message (shading, filters, route criteria) stay
+ * cached while one-off expressions come and go.
+ */
+public class TigerJexlExpressionCache {
+
+  public static final int DEFAULT_MAXIMUM_SIZE = 2048;
+
+  private final Supplier<JexlEngine> engineFactory;
+  @Getter private final int maximumSize;
+  private final Map<String, JexlExpression> expressions = createLeastRecentlyUsedMap();
+  private final Map<String, JexlScript> scripts = createLeastRecentlyUsedMap();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong compileTimeInNanos = new AtomicLong();
+  private volatile JexlEngine engine;
+
+  public TigerJexlExpressionCache(Supplier<JexlEngine> engineFactory, int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum size must be positive, was " + maximumSize);
+    }
+    this.engineFactory = engineFactory;
+    this.maximumSize = maximumSize;
+  }
+
+  public JexlEngine getEngine() {
+    JexlEngine result = engine;
+    if (result == null) {
+      synchronized (this) {
+        result = engine;
+        if (result == null) {
+          result = engineFactory.get();
+          engine = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  public JexlExpression getExpression(String expression) {
+    return lookupOrCompile(expressions, expression, e -> e.createExpression(expression));
+  }
+
+  public JexlScript getScript(String script) {
+    return lookupOrCompile(scripts, script, e -> e.createScript(script));
+  }
+
+  /** Drops the engine and all compiled entries, e.g. after the registered namespaces changed. */
+  public synchronized void invalidate() {
+    engine = null;
+    expressions.clear();
+    scripts.clear();
+  }
+
+  public Statistics getStatistics() {
+    return Statistics.builder()
+        .hits(hits.get())
+        .misses(misses.get())
+        .evictions(evictions.get())
+        .compileTimeInNanos(compileTimeInNanos.get())
+        .size(expressions.size() + scripts.size())
+        .build();
+  }
+
+  private <T> T lookupOrCompile(
+      Map<String, T> cache, String source, Function<JexlEngine, T> compiler) {
+    final T cached = cache.get(source);
+    if (cached != null) {
+      hits.incrementAndGet();
+      return cached;
+    }
+    misses.incrementAndGet();
+    final JexlEngine compilingEngine = getEngine();
+    final long compileStart = System.nanoTime();
+    final T compiled = compiler.apply(compilingEngine);
+    compileTimeInNanos.addAndGet(System.nanoTime() - compileStart);
+    // entries compiled by an engine that got invalidated in the meantime are not cached
+    synchronized (this) {
+      if (compilingEngine == engine) {
+        cache.put(source, compiled);
+      }
+    }
+    return compiled;
+  }
+
+  private <T> Map<String, T> createLeastRecentlyUsedMap() {
+    return Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+            final boolean evict = size() > maximumSize;
+            if (evict) {
+              evictions.incrementAndGet();
+            }
+            return evict;
+          }
+        });
+  }
+
+  @Value
+  @Builder
+  public static class Statistics {
+    long hits;
+    long misses;
+    long evictions;
+    long compileTimeInNanos;
+    int size;
+
+    public double getHitRatio() {
+      final long lookups = hits + misses;
+      return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+  }
+}
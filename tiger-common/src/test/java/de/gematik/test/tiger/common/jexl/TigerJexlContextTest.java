@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.common.jexl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class TigerJexlContextTest {
+
+  private final AtomicInteger numberOfComputations = new AtomicInteger();
+  private final TigerJexlContext context = new TigerJexlContext();
+
+  private String expensiveValue() {
+    numberOfComputations.incrementAndGet();
+    return "computed";
+  }
+
+  @Test
+  void lazyValueNotAccessed_shouldNotBeComputed() {
+    context.putLazy("lazy", this::expensiveValue);
+
+    assertThat(context.has("lazy")).isTrue();
+    assertThat(numberOfComputations).hasValue(0);
+  }
+
+  @Test
+  void lazyValueAccessedTwice_shouldBeComputedOnce() {
+    context.putLazy("lazy", this::expensiveValue);
+
+    assertThat(context.get("lazy")).isEqualTo("computed");
+    assertThat(context.get("lazy")).isEqualTo("computed");
+    assertThat(numberOfComputations).hasValue(1);
+  }
+
+  @Test
+  void clonedContext_shouldShareComputedLazyValue() {
+    context.putLazy("lazy", this::expensiveValue);
+    final TigerJexlContext clone = context.withCurrentElement("element");
+
+    assertThat(clone.get("lazy")).isEqualTo("computed");
+    assertThat(context.get("lazy")).isEqualTo("computed");
+    assertThat(numberOfComputations).hasValue(1);
+  }
+
+  @Test
+  void explicitValue_shouldReplaceLazyValue() {
+    context.putLazy("lazy", this::expensiveValue);
+    context.put("lazy", "explicit");
+
+    assertThat(context.get("lazy")).isEqualTo("explicit");
+    assertThat(numberOfComputations).hasValue(0);
+  }
+
+  @Test
+  void removedLazyValue_shouldBeGone() {
+    context.putLazy("lazy", this::expensiveValue);
+    context.remove("lazy");
+
+    assertThat(context.has("lazy")).isFalse();
+    assertThat(context.get("lazy")).isNull();
+  }
+
+  @Test
+  void lazyValueNotAccessed_shouldBeVisibleAsKey() {
+    context.put("explicit", "value");
+    context.putLazy("lazy", this::expensiveValue);
+
+    assertThat(context.containsKey("lazy")).isTrue();
+    assertThat(context).hasSize(2);
+    assertThat(numberOfComputations).hasValue(0);
+  }
+
+  @Test
+  void iteratingContext_shouldComputeLazyValues() {
+    context.put("explicit", "value");
+    context.putLazy("lazy", this::expensiveValue);
+
+    assertThat(context.entrySet())
+        .extracting(Map.Entry::getKey, Map.Entry::getValue)
+        .containsExactly(tuple("explicit", "value"), tuple("lazy", "computed"));
+    assertThat(context.allNonStandardValues()).containsEntry("lazy", "computed");
+    assertThat(numberOfComputations).hasValue(1);
+  }
+}
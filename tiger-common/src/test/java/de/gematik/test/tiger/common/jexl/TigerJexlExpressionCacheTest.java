@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.common.jexl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.MapContext;
+import org.junit.jupiter.api.Test;
+
+class TigerJexlExpressionCacheTest {
+
+  private final TigerJexlExpressionCache cache =
+      new TigerJexlExpressionCache(() -> new JexlBuilder().create(), 3);
+
+  @Test
+  void sameExpressionTwice_shouldBeCompiledOnce() {
+    final var first = cache.getExpression("1 + 2");
+    final var second = cache.getExpression("1 + 2");
+
+    assertThat(second).isSameAs(first);
+    assertThat(second.evaluate(new MapContext())).isEqualTo(3);
+    assertThat(cache.getStatistics())
+        .satisfies(
+            statistics -> {
+              assertThat(statistics.getHits()).isEqualTo(1);
+              assertThat(statistics.getMisses()).isEqualTo(1);
+              assertThat(statistics.getSize()).isEqualTo(1);
+              assertThat(statistics.getHitRatio()).isEqualTo(0.5);
+            });
+  }
+
+  @Test
+  void moreExpressionsThanMaximumSize_shouldEvictEntries() {
+    for (int i = 0; i < 10; i++) {
+      cache.getExpression("a == " + i);
+    }
+
+    assertThat(cache.getStatistics().getSize()).isLessThanOrEqualTo(3);
+    assertThat(cache.getStatistics().getEvictions()).isEqualTo(7);
+  }
+
+  @Test
+  void fullCache_shouldEvictTheLeastRecentlyUsedEntry() {
+    final var first = cache.getExpression("a == 1");
+    final var second = cache.getExpression("a == 2");
+    cache.getExpression("a == 3");
+    cache.getExpression("a == 1");
+
+    cache.getExpression("a == 4");
+
+    assertThat(cache.getExpression("a == 1")).isSameAs(first);
+    assertThat(cache.getExpression("a == 2")).isNotSameAs(second);
+    assertThat(cache.getStatistics().getEvictions()).isEqualTo(2);
+  }
+
+  @Test
+  void invalidate_shouldRecreateEngineAndDropEntries() {
+    final var engine = cache.getEngine();
+    final var script = cache.getScript("var x = 1; x + 1");
+
+    cache.invalidate();
+
+    assertThat(cache.getEngine()).isNotSameAs(engine);
+    assertThat(cache.getScript("var x = 1; x + 1")).isNotSameAs(script);
+    assertThat(cache.getStatistics().getMisses()).isEqualTo(2);
+  }
+}
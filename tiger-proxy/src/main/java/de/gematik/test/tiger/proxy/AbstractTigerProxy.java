@@ -25,8 +25,10 @@ import de.gematik.rbellogger.converter.initializers.RbelKeyFolderInitializer;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.facet.TracingMessagePairFacet;
 import de.gematik.rbellogger.file.RbelFileWriter;
+import de.gematik.rbellogger.file.RbelTrafficFileWriter;
 import de.gematik.rbellogger.key.RbelKey;
 import de.gematik.rbellogger.util.IRbelMessageListener;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TigerFileSaveInfo;
 import de.gematik.test.tiger.common.data.config.tigerproxy.TigerProxyConfiguration;
 import de.gematik.test.tiger.common.pki.KeyMgr;
 import de.gematik.test.tiger.proxy.certificate.TlsFacet;
@@ -36,7 +38,6 @@ import de.gematik.test.tiger.proxy.exceptions.TigerProxyStartupException;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.Key;
 import java.security.KeyPair;
@@ -46,10 +47,9 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import kong.unirest.core.Unirest;
 import lombok.Data;
@@ -78,9 +78,9 @@ public abstract class AbstractTigerProxy implements ITigerProxy, AutoCloseable {
   private final TigerProxyConfiguration tigerProxyConfiguration;
   private RbelLogger rbelLogger;
   private RbelFileWriter rbelFileWriter;
+  private RbelTrafficFileWriter trafficFileWriter;
   @Getter private Optional<String> name;
   @Getter protected final org.slf4j.Logger log;
-  @Getter private final ExecutorService trafficParserExecutor = Executors.newCachedThreadPool();
   private AtomicBoolean fileParsedCompletely = new AtomicBoolean(false);
   private AtomicReference<RuntimeException> fileParsingException = new AtomicReference<>();
   private boolean isShuttingDown = false;
@@ -107,7 +107,7 @@ public abstract class AbstractTigerProxy implements ITigerProxy, AutoCloseable {
       this.rbelLogger.getRbelConverter().removeAllConverterPlugins();
     }
     addFixVauKey();
-    initializeFileWriter();
+    initializeFileWriter(configuration);
     this.tigerProxyConfiguration = configuration;
     addNoteCriterions();
     if (configuration.getFileSaveInfo() != null
@@ -131,8 +131,11 @@ public abstract class AbstractTigerProxy implements ITigerProxy, AutoCloseable {
                     .addJexlNoteCriterion(note.getJexlCriterion(), note.getMessage()));
   }
 
-  private void initializeFileWriter() {
+  private void initializeFileWriter(TigerProxyConfiguration configuration) {
     rbelFileWriter = new RbelFileWriter(rbelLogger.getRbelConverter());
+    Optional.ofNullable(configuration.getFileSaveInfo())
+        .map(TigerFileSaveInfo::isParallelImport)
+        .ifPresent(rbelFileWriter::setParallelImport);
     rbelFileWriter.preSaveListener.add(
         (el, json) ->
             el.getFacet(TracingMessagePairFacet.class)
@@ -145,7 +148,7 @@ public abstract class AbstractTigerProxy implements ITigerProxy, AutoCloseable {
     new Thread(
             () -> {
               try {
-                readTrafficFromTgrFile(sourceFile);
+                readTrafficFromTgrFile(sourceFile, message -> {});
                 fileParsedCompletely.set(true);
               } catch (RuntimeException e) {
                 fileParsingException.set(e);
@@ -156,38 +159,66 @@ public abstract class AbstractTigerProxy implements ITigerProxy, AutoCloseable {
   }
 
   public synchronized List<RbelElement> readTrafficFromTgrFile(String sourceFile) {
+    final List<RbelElement> readElements = new ArrayList<>();
+    readTrafficFromTgrFile(sourceFile, readElements::add);
+    return readElements;
+  }
+
+  /**
+   * Streams the traffic of the file into the rbel logger, every message is handed to the consumer
+   * as soon as it is parsed. The file is never loaded into memory as a whole.
+   */
+  public synchronized void readTrafficFromTgrFile(
+      String sourceFile, Consumer<RbelElement> messageConsumer) {
     log.info("Trying to read traffic from file '{}'...", sourceFile);
     try {
-      String rbelFileContent = Files.readString(Path.of(sourceFile), StandardCharsets.UTF_8);
-      List<RbelElement> readElements = readTrafficFromString(rbelFileContent);
+      addFileReadingPostProcessors();
+      rbelFileWriter.readRbelFile(Path.of(sourceFile), messageConsumer);
       log.info("Successfully read and parsed traffic from file '{}'!", sourceFile);
-      return readElements;
     } catch (IOException | RuntimeException e) {
       throw new TigerProxyStartupException(
           "Error while parsing traffic file '" + sourceFile + "'", e);
+    } finally {
+      removeFileReadingPostProcessors();
     }
   }
 
   public synchronized List<RbelElement> readTrafficFromString(String tgrFileContent) {
     try {
-      rbelFileWriter.postConversionListener.add(TracingMessagePairFacet.pairingPostProcessor);
-      rbelFileWriter.postConversionListener.add(
-          TracingMessagePairFacet.updateHttpFacetsBasedOnPairsPostProcessor);
-      if (getTigerProxyConfiguration().getFileSaveInfo() != null
-          && StringUtils.isNotEmpty(
-              getTigerProxyConfiguration().getFileSaveInfo().getReadFilter())) {
-        rbelFileWriter.postConversionListener.add(
-            new ProxyFileReadingFilter(
-                getTigerProxyConfiguration().getFileSaveInfo().getReadFilter()));
-      }
+      addFileReadingPostProcessors();
+      return rbelFileWriter.convertFromRbelFile(tgrFileContent);
+    } finally {
+      removeFileReadingPostProcessors();
+    }
+  }
+
+  /** Reads the content of a .tgr file, in either the JSON lines or the binary format. */
+  public synchronized List<RbelElement> readTrafficFromBytes(byte[] tgrFileContent) {
+    try {
+      addFileReadingPostProcessors();
       return rbelFileWriter.convertFromRbelFile(tgrFileContent);
     } finally {
-      rbelFileWriter.postConversionListener.remove(TracingMessagePairFacet.pairingPostProcessor);
-      rbelFileWriter.postConversionListener.remove(
-          TracingMessagePairFacet.updateHttpFacetsBasedOnPairsPostProcessor);
+      removeFileReadingPostProcessors();
     }
   }
 
+  private void addFileReadingPostProcessors() {
+    rbelFileWriter.postConversionListener.add(TracingMessagePairFacet.pairingPostProcessor);
+    rbelFileWriter.postConversionListener.add(
+        TracingMessagePairFacet.updateHttpFacetsBasedOnPairsPostProcessor);
+    final TigerFileSaveInfo fileSaveInfo = getTigerProxyConfiguration().getFileSaveInfo();
+    if (fileSaveInfo != null && StringUtils.isNotEmpty(fileSaveInfo.getReadFilter())) {
+      rbelFileWriter.postConversionListener.add(
+          new ProxyFileReadingFilter(fileSaveInfo.getReadFilter()));
+    }
+  }
+
+  private void removeFileReadingPostProcessors() {
+    rbelFileWriter.postConversionListener.remove(TracingMessagePairFacet.pairingPostProcessor);
+    rbelFileWriter.postConversionListener.remove(
+        TracingMessagePairFacet.updateHttpFacetsBasedOnPairsPostProcessor);
+  }
+
   private void addFixVauKey() {
     final KeyPair keyPair =
         KeyMgr.readEcdsaKeypairFromPkcs8Pem(FIX_VAU_KEY.getBytes(StandardCharsets.UTF_8));
@@ -222,9 +253,12 @@ public abstract class AbstractTigerProxy implements ITigerProxy, AutoCloseable {
     }
     initializeFileSaver(configuration);
     rbelConfiguration.setRbelBufferSizeInMb(configuration.getRbelBufferSizeInMb());
+    rbelConfiguration.setRbelBufferEvictionStrategy(configuration.getRbelBufferEvictionStrategy());
     rbelConfiguration.setSkipParsingWhenMessageLargerThanKb(
         configuration.getSkipParsingWhenMessageLargerThanKb());
     rbelConfiguration.setManageBuffer(true);
+    rbelConfiguration.setTrafficParsing(configuration.getTrafficParsing());
+    rbelConfiguration.setTrafficSpill(configuration.getTrafficSpill());
     return rbelConfiguration;
   }
 
@@ -242,23 +276,9 @@ public abstract class AbstractTigerProxy implements ITigerProxy, AutoCloseable {
                   + "'");
         }
       }
+      trafficFileWriter = RbelTrafficFileWriter.create(configuration.getFileSaveInfo());
       addRbelMessageListener(
-          msg -> {
-            final String msgString = rbelFileWriter.convertToRbelFileString(msg);
-            try {
-              FileUtils.writeStringToFile(
-                  new File(configuration.getFileSaveInfo().getFilename()),
-                  msgString,
-                  StandardCharsets.UTF_8,
-                  true);
-            } catch (IOException e) {
-              log.warn(
-                  "Error while saving to file '"
-                      + configuration.getFileSaveInfo().getFilename()
-                      + "':",
-                  e);
-            }
-          });
+          msg -> trafficFileWriter.write(rbelFileWriter.convertToRbelFileRecord(msg)));
     }
   }
 
@@ -356,6 +376,10 @@ public abstract class AbstractTigerProxy implements ITigerProxy, AutoCloseable {
   @Override
   public void close() {
     isShuttingDown = true;
-    trafficParserExecutor.shutdown();
+    rbelLogger.getRbelConverter().getParsingExecutor().close();
+    rbelLogger.getRbelConverter().getSpillStore().close();
+    if (trafficFileWriter != null) {
+      trafficFileWriter.close();
+    }
   }
 }
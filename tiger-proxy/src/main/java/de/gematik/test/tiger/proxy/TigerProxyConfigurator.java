@@ -19,6 +19,7 @@ package de.gematik.test.tiger.proxy;
 import de.gematik.test.tiger.common.data.config.tigerproxy.TigerProxyConfiguration;
 import de.gematik.test.tiger.proxy.controller.TigerWebUiController;
 import de.gematik.test.tiger.proxy.data.TigerProxyRoute;
+import de.gematik.test.tiger.proxy.tracing.BinaryTracingWebSocketHandler;
 import de.gematik.test.tiger.proxy.tracing.TracingPushService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -43,13 +44,15 @@ public class TigerProxyConfigurator
   private final ServletWebServerApplicationContext webServerAppCtxt;
   private final TigerProxyConfiguration tigerProxyConfiguration;
   private final TigerWebUiController tigerWebUiController;
+  private final BinaryTracingWebSocketHandler binaryTracingWebSocketHandler;
 
   @Bean
   public TigerProxy tigerProxy() {
     var shouldSubscribeAfterStart = !tigerProxyConfiguration.isSkipTrafficEndpointsSubscription();
     tigerProxyConfiguration.setSkipTrafficEndpointsSubscription(false);
     tigerProxy = new TigerProxy(tigerProxyConfiguration);
-    tracingPushService = new TracingPushService(template, tigerProxy);
+    tracingPushService =
+        new TracingPushService(template, tigerProxy, binaryTracingWebSocketHandler);
     tracingPushService.addWebSocketListener();
     tigerWebUiController.setTigerProxy(tigerProxy);
     if (shouldSubscribeAfterStart) {
@@ -16,6 +16,10 @@
 
 package de.gematik.test.tiger.proxy;
 
+import de.gematik.rbellogger.converter.RbelConverter;
+import de.gematik.rbellogger.file.RbelTrafficFileWriter;
+import de.gematik.test.tiger.common.jexl.TigerJexlExecutor;
+import de.gematik.test.tiger.proxy.tracing.BinaryTracingWebSocketHandler;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import kong.unirest.core.Unirest;
@@ -32,22 +36,35 @@ import org.springframework.stereotype.Component;
 public class TigerProxyHealthIndicator implements HealthIndicator {
 
   private final TigerProxy tigerProxy;
+  private final BinaryTracingWebSocketHandler binaryTracingWebSocketHandler;
 
   private Optional<LocalDateTime> lastSuccessfulRequest = Optional.empty();
   private Optional<LocalDateTime> firstFailedRequest = Optional.empty();
 
-  public TigerProxyHealthIndicator(TigerProxy tigerProxy) {
+  public TigerProxyHealthIndicator(
+      TigerProxy tigerProxy, BinaryTracingWebSocketHandler binaryTracingWebSocketHandler) {
     this.tigerProxy = tigerProxy;
+    this.binaryTracingWebSocketHandler = binaryTracingWebSocketHandler;
   }
 
   @Override
   public Health health() {
     Status status = checkProxyAlive();
-    long bufferSize = tigerProxy.getRbelLogger().getRbelConverter().getCurrentBufferSize();
+    final RbelConverter rbelConverter = tigerProxy.getRbelLogger().getRbelConverter();
+    long bufferSize = rbelConverter.getCurrentBufferSize();
     return Health.status(status)
         .withDetail("tigerProxyHealthy", tigerProxyHealthy())
         .withDetail("rbelMessages", tigerProxy.getRbelLogger().getMessageHistory().size())
         .withDetail("rbelMessageBuffer", bufferSize)
+        .withDetail("jexlExpressionCache", TigerJexlExecutor.getExpressionCacheStatistics())
+        .withDetail("rbelConverters", rbelConverter.getConverterStatistics())
+        .withDetail("rbelParsing", rbelConverter.getParsingExecutor().getStatistics())
+        .withDetail("rbelSpill", rbelConverter.getSpillStore().getStatistics())
+        .withDetail(
+            "trafficFile",
+            Optional.ofNullable(tigerProxy.getTrafficFileWriter())
+                .map(RbelTrafficFileWriter::getStatistics))
+        .withDetail("tracingSubscribers", binaryTracingWebSocketHandler.getStatistics())
         .withDetail("lastSuccessfulMockserverRequest", lastSuccessfulRequest)
         .withDetail("firstFailedMockserverRequest", firstFailedRequest)
         .build();
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.proxy.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+/**
+ * Binary framing used to push traffic from a Tiger Proxy to its remote clients via plain WebSocket
+ * frames. One frame carries the metadata of a message (or of a request/response pair) together
+ * with the raw content, so neither base64 encoding nor chunking into several STOMP messages is
+ * needed.
+ *
+ * <p>Every frame starts with its type, the codec of the payload and the uncompressed length of the
+ * payload. The payload of a trace frame is the JSON metadata followed by the request and the
+ * response content, each prefixed with its length (-1 if absent). Error frames carry the JSON of a
+ * {@link TigerExceptionDto}.
+ *
+ * <p>Flow control is credit based: the client grants the server a number of frames it may send
+ * (credit frames, the only frames sent by the client). If the subscriber falls behind nevertheless,
+ * the server may send a catch-up frame, asking the client to download the missed traffic.
+ *
+ * <p>Whether payloads may be compressed is negotiated via the WebSocket sub-protocol: the client
+ * offers {@link #SUB_PROTOCOL_DEFLATE} and/or {@link #SUB_PROTOCOL}, the server picks one.
+ */
+public final class BinaryTracingProtocol {
+
+  public static final String SUB_PROTOCOL = "tiger-tracing.v1";
+  public static final String SUB_PROTOCOL_DEFLATE = "tiger-tracing.v1+deflate";
+  public static final List<String> SUPPORTED_SUB_PROTOCOLS =
+      List.of(SUB_PROTOCOL_DEFLATE, SUB_PROTOCOL);
+
+  /** Payloads smaller than this are never compressed, the gain would not be worth the CPU. */
+  public static final int MINIMUM_COMPRESSION_SIZE = 1024;
+
+  /** Number of frames a client allows to be in flight. */
+  public static final int CREDIT_WINDOW = 128;
+
+  static final byte TRACE_FRAME = 'T';
+  static final byte ERROR_FRAME = 'X';
+  static final byte CATCH_UP_FRAME = 'R';
+  static final byte CREDIT_FRAME = 'C';
+  static final byte CODEC_NONE = 0;
+  static final byte CODEC_DEFLATE = 1;
+  static final int FRAME_HEADER_SIZE = 2 + Integer.BYTES;
+  private static final int NO_CONTENT = -1;
+
+  private static final ObjectMapper OBJECT_MAPPER =
+      new ObjectMapper()
+          .registerModule(new JavaTimeModule())
+          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private BinaryTracingProtocol() {}
+
+  public static boolean isCompressionNegotiated(@Nullable String acceptedSubProtocol) {
+    return SUB_PROTOCOL_DEFLATE.equals(acceptedSubProtocol);
+  }
+
+  /** Encodes the payload of a trace frame. Use {@link #toTraceFrame} to send it. */
+  public static byte[] encodeTracePayload(
+      TigerTracingDto tracingDto,
+      @Nullable byte[] requestContent,
+      @Nullable byte[] responseContent) {
+    final byte[] metadata = writeJson(tracingDto);
+    final ByteBuffer payload =
+        ByteBuffer.allocate(
+            3 * Integer.BYTES
+                + metadata.length
+                + lengthOf(requestContent)
+                + lengthOf(responseContent));
+    payload.putInt(metadata.length).put(metadata);
+    putContent(payload, requestContent);
+    putContent(payload, responseContent);
+    return payload.array();
+  }
+
+  public static byte[] encodeErrorPayload(TigerExceptionDto exceptionDto) {
+    return writeJson(exceptionDto);
+  }
+
+  public static byte[] toTraceFrame(byte[] payload, boolean compress) {
+    return toFrame(TRACE_FRAME, payload, compress);
+  }
+
+  public static byte[] toErrorFrame(byte[] payload, boolean compress) {
+    return toFrame(ERROR_FRAME, payload, compress);
+  }
+
+  public static byte[] toCatchUpFrame() {
+    return toFrame(CATCH_UP_FRAME, new byte[0], false);
+  }
+
+  public static byte[] toCreditFrame(int credits) {
+    return toFrame(CREDIT_FRAME, ByteBuffer.allocate(Integer.BYTES).putInt(credits).array(), false);
+  }
+
+  static byte[] toFrame(byte frameType, byte[] payload, boolean compress) {
+    byte codec = CODEC_NONE;
+    byte[] storedPayload = payload;
+    if (compress && payload.length >= MINIMUM_COMPRESSION_SIZE) {
+      final byte[] compressed = compress(payload);
+      if (compressed.length < payload.length) {
+        codec = CODEC_DEFLATE;
+        storedPayload = compressed;
+      }
+    }
+    return ByteBuffer.allocate(FRAME_HEADER_SIZE + storedPayload.length)
+        .put(frameType)
+        .put(codec)
+        .putInt(payload.length)
+        .put(storedPayload)
+        .array();
+  }
+
+  /** Decodes a complete frame as received from the remote Tiger Proxy (or from a client). */
+  public static TracingFrame decodeFrame(ByteBuffer frame) {
+    try {
+      final byte frameType = frame.get();
+      final byte codec = frame.get();
+      final int uncompressedLength = frame.getInt();
+      final ByteBuffer payload = ByteBuffer.wrap(decompress(frame, codec, uncompressedLength));
+      return switch (frameType) {
+        case TRACE_FRAME -> decodeTracePayload(payload);
+        case ERROR_FRAME ->
+            new TracingFrame(
+                FrameType.ERROR,
+                null,
+                readJson(payload, payload.remaining(), TigerExceptionDto.class),
+                null,
+                null,
+                0);
+        case CATCH_UP_FRAME -> new TracingFrame(FrameType.CATCH_UP, null, null, null, null, 0);
+        case CREDIT_FRAME ->
+            new TracingFrame(FrameType.CREDIT, null, null, null, null, payload.getInt());
+        default ->
+            throw new TigerRemoteProxyClientException("Unknown tracing frame type " + frameType);
+      };
+    } catch (BufferUnderflowException e) {
+      throw new TigerRemoteProxyClientException("Truncated tracing frame", e);
+    }
+  }
+
+  private static TracingFrame decodeTracePayload(ByteBuffer payload) {
+    final TigerTracingDto tracingDto =
+        readJson(payload, payload.getInt(), TigerTracingDto.class);
+    final byte[] requestContent = getContent(payload);
+    final byte[] responseContent = getContent(payload);
+    return new TracingFrame(
+        FrameType.TRACE, tracingDto, null, requestContent, responseContent, 0);
+  }
+
+  private static int lengthOf(@Nullable byte[] content) {
+    return content == null ? 0 : content.length;
+  }
+
+  private static void putContent(ByteBuffer payload, @Nullable byte[] content) {
+    if (content == null) {
+      payload.putInt(NO_CONTENT);
+    } else {
+      payload.putInt(content.length).put(content);
+    }
+  }
+
+  @Nullable
+  private static byte[] getContent(ByteBuffer payload) {
+    final int length = payload.getInt();
+    if (length == NO_CONTENT) {
+      return null;
+    }
+    final byte[] content = new byte[length];
+    payload.get(content);
+    return content;
+  }
+
+  private static byte[] writeJson(Object value) {
+    try {
+      return OBJECT_MAPPER.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new TigerRemoteProxyClientException("Unable to serialize tracing metadata", e);
+    }
+  }
+
+  private static <T> T readJson(ByteBuffer payload, int length, Class<T> type) {
+    final byte[] json = new byte[length];
+    payload.get(json);
+    try {
+      return OBJECT_MAPPER.readValue(json, type);
+    } catch (IOException e) {
+      throw new TigerRemoteProxyClientException(
+          "Unable to read tracing metadata: " + new String(json, StandardCharsets.UTF_8), e);
+    }
+  }
+
+  private static byte[] compress(byte[] content) {
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(content);
+      deflater.finish();
+      final ByteArrayOutputStream result = new ByteArrayOutputStream(content.length / 2 + 64);
+      final byte[] buffer = new byte[64 * 1024];
+      while (!deflater.finished()) {
+        result.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return result.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] decompress(ByteBuffer frame, byte codec, int uncompressedLength) {
+    if (codec == CODEC_NONE) {
+      final byte[] payload = new byte[uncompressedLength];
+      frame.get(payload);
+      return payload;
+    }
+    if (codec != CODEC_DEFLATE) {
+      throw new TigerRemoteProxyClientException("Unsupported tracing frame codec " + codec);
+    }
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(frame);
+      final byte[] result = new byte[uncompressedLength];
+      int length = 0;
+      while (length < uncompressedLength && !inflater.finished()) {
+        final int inflated = inflater.inflate(result, length, uncompressedLength - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new TigerRemoteProxyClientException("Truncated compressed tracing frame");
+        }
+        length += inflated;
+      }
+      return result;
+    } catch (DataFormatException e) {
+      throw new TigerRemoteProxyClientException("Corrupt compressed tracing frame", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  public enum FrameType {
+    TRACE,
+    ERROR,
+    CATCH_UP,
+    CREDIT
+  }
+
+  /**
+   * A decoded frame. Trace frames carry the metadata and the content of the message(s), error
+   * frames only the exception and credit frames only the number of granted credits.
+   */
+  public record TracingFrame(
+      FrameType type,
+      @Nullable TigerTracingDto tracingDto,
+      @Nullable TigerExceptionDto exceptionDto,
+      @Nullable byte[] requestContent,
+      @Nullable byte[] responseContent,
+      int credits) {}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.proxy.client;
+
+import de.gematik.test.tiger.proxy.client.BinaryTracingProtocol.TracingFrame;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+/**
+ * Client side of the {@link BinaryTracingProtocol}. Reassembles the (possibly fragmented) frames
+ * and hands the decoded messages to the same handlers used for the STOMP based tracing. New credits
+ * are only granted once frames have been processed, so a slow client slows down the sending side
+ * instead of buffering without limit.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class BinaryTracingSessionHandler extends BinaryWebSocketHandler {
+
+  private final TigerRemoteProxyClient remoteProxyClient;
+  private final ByteArrayOutputStream pendingFrame = new ByteArrayOutputStream();
+  private int framesSinceLastCreditGrant = 0;
+
+  @Override
+  public boolean supportsPartialMessages() {
+    return true;
+  }
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession session) {
+    framesSinceLastCreditGrant = 0;
+    grantCredits(session, BinaryTracingProtocol.CREDIT_WINDOW);
+  }
+
+  @Override
+  protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+    final ByteBuffer frame;
+    if (message.isLast() && pendingFrame.size() == 0) {
+      frame = message.getPayload();
+    } else {
+      final ByteBuffer payload = message.getPayload();
+      final byte[] part = new byte[payload.remaining()];
+      payload.get(part);
+      pendingFrame.writeBytes(part);
+      if (!message.isLast()) {
+        return;
+      }
+      frame = ByteBuffer.wrap(pendingFrame.toByteArray());
+      pendingFrame.reset();
+    }
+    handleFrame(BinaryTracingProtocol.decodeFrame(frame));
+
+    if (++framesSinceLastCreditGrant >= BinaryTracingProtocol.CREDIT_WINDOW / 2) {
+      grantCredits(session, framesSinceLastCreditGrant);
+      framesSinceLastCreditGrant = 0;
+    }
+  }
+
+  private void handleFrame(TracingFrame frame) {
+    switch (frame.type()) {
+      case TRACE -> handleTraceFrame(frame);
+      case ERROR ->
+          remoteProxyClient
+              .getTigerStompSessionHandler()
+              .getErrorStompHandler()
+              .registerException(frame.exceptionDto());
+      case CATCH_UP -> {
+        log.info(
+            "Remote proxy {} dropped traffic for us, downloading the missed messages",
+            remoteProxyClient.getRemoteProxyUrl());
+        remoteProxyClient.downloadTrafficFromRemoteProxy();
+      }
+      default -> log.debug("Ignoring unexpected {} frame", frame.type());
+    }
+  }
+
+  private void handleTraceFrame(TracingFrame frame) {
+    final TigerTracingDto tracingDto = frame.tracingDto();
+    if (log.isTraceEnabled()) {
+      log.trace(
+          "Received binary frame with request-uuid {} and response-uuid {} (proxy {})",
+          tracingDto.getRequestUuid(),
+          tracingDto.getResponseUuid(),
+          remoteProxyClient.getName().orElse("<>"));
+    }
+    remoteProxyClient
+        .getTigerStompSessionHandler()
+        .getTracingStompHandler()
+        .registerTracingDto(tracingDto);
+    addContent(tracingDto.getRequestUuid(), frame.requestContent());
+    if (StringUtils.isNotEmpty(tracingDto.getResponseUuid())) {
+      addContent(tracingDto.getResponseUuid(), frame.responseContent());
+    }
+  }
+
+  private void addContent(String uuid, @Nullable byte[] content) {
+    if (content == null || content.length == 0) {
+      return;
+    }
+    remoteProxyClient.receiveNewMessagePart(
+        TracingMessagePart.builder()
+            .uuid(uuid)
+            .index(0)
+            .numberOfMessages(1)
+            .data(content)
+            .build());
+  }
+
+  private void grantCredits(WebSocketSession session, int credits) {
+    try {
+      session.sendMessage(new BinaryMessage(BinaryTracingProtocol.toCreditFrame(credits)));
+    } catch (IOException | RuntimeException e) {
+      log.warn(
+          "Unable to grant credits to remote proxy {}", remoteProxyClient.getRemoteProxyUrl(), e);
+    }
+  }
+
+  @Override
+  public void handleTransportError(WebSocketSession session, Throwable exception) {
+    log.warn(
+        "Transport error in binary tracing session with remote url '{}'",
+        remoteProxyClient.getRemoteProxyUrl(),
+        exception);
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+    pendingFrame.reset();
+    if (remoteProxyClient.isShuttingDown() || CloseStatus.NORMAL.equalsCode(status)) {
+      log.debug(
+          "Binary tracing session to url {} closed ({})",
+          remoteProxyClient.getRemoteProxyUrl(),
+          status);
+      return;
+    }
+    log.warn(
+        "Remote client lost binary tracing connection to url {} ({}). Reconnecting...",
+        remoteProxyClient.getRemoteProxyUrl(),
+        status);
+    remoteProxyClient.connectToRemoteUrl(
+        remoteProxyClient.getTigerStompSessionHandler(),
+        remoteProxyClient.getTigerProxyConfiguration().getConnectionTimeoutInSeconds(),
+        true);
+  }
+}
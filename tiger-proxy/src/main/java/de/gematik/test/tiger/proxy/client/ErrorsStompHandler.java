@@ -36,12 +36,16 @@ class ErrorsStompHandler implements StompFrameHandler {
   @Override
   public void handleFrame(StompHeaders stompHeaders, Object frameContent) {
     if (frameContent instanceof TigerExceptionDto exceptionDto) {
-      log.warn(
-          "Received remote exception: ({}) {}: {} ",
-          exceptionDto.getClassName(),
-          exceptionDto.getMessage(),
-          exceptionDto.getStacktrace());
-      remoteProxyClient.getReceivedRemoteExceptions().add(exceptionDto);
+      registerException(exceptionDto);
     }
   }
+
+  void registerException(TigerExceptionDto exceptionDto) {
+    log.warn(
+        "Received remote exception: ({}) {}: {} ",
+        exceptionDto.getClassName(),
+        exceptionDto.getMessage(),
+        exceptionDto.getStacktrace());
+    remoteProxyClient.getReceivedRemoteExceptions().add(exceptionDto);
+  }
 }
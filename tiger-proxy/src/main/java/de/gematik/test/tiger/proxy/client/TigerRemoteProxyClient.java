@@ -32,6 +32,8 @@ import de.gematik.test.tiger.proxy.exceptions.TigerProxyStartupException;
 import de.gematik.test.tiger.proxy.handler.BinaryChunksBuffer;
 import jakarta.websocket.ContainerProvider;
 import jakarta.websocket.WebSocketContainer;
+import java.io.IOException;
+import java.net.URI;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.*;
@@ -52,6 +54,9 @@ import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.simp.stomp.StompSession;
 import org.springframework.util.Assert;
 import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
@@ -81,11 +86,14 @@ public class TigerRemoteProxyClient extends AbstractTigerProxy implements AutoCl
       new BinaryChunksBuffer(getRbelLogger().getRbelConverter(), getTigerProxyConfiguration());
 
   @Getter private final TigerStompSessionHandler tigerStompSessionHandler;
+  private final BinaryTracingSessionHandler binaryTracingSessionHandler;
   @Nullable private final TigerProxy masterTigerProxy;
   @Getter @Setter private Duration maximumPartialMessageAge;
   private final AtomicReference<StompSession> stompSession = new AtomicReference<>();
+  private final AtomicReference<WebSocketSession> binaryTracingSession = new AtomicReference<>();
   @Getter private final AtomicReference<String> lastMessageUuid = new AtomicReference<>();
   private final SockJsClient webSocketClient;
+  private final StandardWebSocketClient binaryTracingClient;
   private final int connectionTimeoutInSeconds;
 
   public TigerRemoteProxyClient(String remoteProxyUrl) {
@@ -113,13 +121,14 @@ public class TigerRemoteProxyClient extends AbstractTigerProxy implements AutoCl
     final MappingJackson2MessageConverter messageConverter = new MappingJackson2MessageConverter();
     messageConverter.getObjectMapper().registerModule(new JavaTimeModule());
 
-    StandardWebSocketClient wsClient = new StandardWebSocketClient(container);
-    webSocketClient = new SockJsClient(List.of(new WebSocketTransport(wsClient)));
+    binaryTracingClient = new StandardWebSocketClient(container);
+    webSocketClient = new SockJsClient(List.of(new WebSocketTransport(binaryTracingClient)));
     tigerProxyStompClient = new WebSocketStompClient(webSocketClient);
     tigerProxyStompClient.setMessageConverter(messageConverter);
     tigerProxyStompClient.setInboundMessageSizeLimit(
         1024 * 1024 * configuration.getStompClientBufferSizeInMb());
     tigerStompSessionHandler = new TigerStompSessionHandler(this);
+    binaryTracingSessionHandler = new BinaryTracingSessionHandler(this);
     maximumPartialMessageAge =
         Duration.ofSeconds(configuration.getMaximumPartialMessageAgeInSeconds());
     connectionTimeoutInSeconds = configuration.getConnectionTimeoutInSeconds();
@@ -144,7 +153,11 @@ public class TigerRemoteProxyClient extends AbstractTigerProxy implements AutoCl
     return remoteProxyUrl.replaceFirst("http", "ws") + "/tracing";
   }
 
-  private void downloadTrafficFromRemoteProxy() {
+  private String getBinaryTracingWebSocketUrl(String remoteProxyUrl) {
+    return remoteProxyUrl.replaceFirst("http", "ws") + "/tracing-binary";
+  }
+
+  void downloadTrafficFromRemoteProxy() {
     new TigerRemoteTrafficDownloader(this).execute();
   }
 
@@ -160,6 +173,10 @@ public class TigerRemoteProxyClient extends AbstractTigerProxy implements AutoCl
       return;
     }
     log.info("remote proxy at {} is online, now connecting...", remoteProxyUrl);
+    if (getTigerProxyConfiguration().isActivateBinaryTracing()
+        && connectBinaryTracing(connectionTimeoutInSeconds, downloadTraffic)) {
+      return;
+    }
     final String tracingWebSocketUrl = getTracingWebSocketUrl(remoteProxyUrl);
     final ListenableFuture<StompSession> connectFuture =
         tigerProxyStompClient.connect(tracingWebSocketUrl, tigerStompSessionHandler);
@@ -193,6 +210,62 @@ public class TigerRemoteProxyClient extends AbstractTigerProxy implements AutoCl
     }
   }
 
+  /**
+   * Tries to open a binary tracing session. Returns false if the remote proxy does not offer the
+   * binary protocol (older versions), in which case the caller falls back to STOMP.
+   */
+  private boolean connectBinaryTracing(int connectionTimeoutInSeconds, boolean downloadTraffic) {
+    final String binaryTracingUrl = getBinaryTracingWebSocketUrl(remoteProxyUrl);
+    final WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+    headers.setSecWebSocketProtocol(
+        getTigerProxyConfiguration().isCompressBinaryTracing()
+            ? BinaryTracingProtocol.SUPPORTED_SUB_PROTOCOLS
+            : List.of(BinaryTracingProtocol.SUB_PROTOCOL));
+    final WebSocketSession session;
+    try {
+      session =
+          binaryTracingClient
+              .execute(binaryTracingSessionHandler, headers, URI.create(binaryTracingUrl))
+              .get(connectionTimeoutInSeconds, TimeUnit.SECONDS);
+    } catch (RuntimeException | ExecutionException | TimeoutException e) {
+      log.info(
+          "Binary tracing not available at {}, falling back to STOMP: {}",
+          binaryTracingUrl,
+          e.getMessage());
+      return false;
+    } catch (InterruptedException e) {
+      log.error(
+          "InterruptedException while opening binary tracing-connection to {}", binaryTracingUrl);
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    if (!BinaryTracingProtocol.SUPPORTED_SUB_PROTOCOLS.contains(session.getAcceptedProtocol())) {
+      log.info(
+          "Remote proxy at {} did not accept a binary tracing protocol, falling back to STOMP",
+          binaryTracingUrl);
+      closeQuietly(session);
+      return false;
+    }
+    binaryTracingSession.set(session);
+    log.info(
+        "Successfully opened binary tracing session {} to url {} (protocol {})",
+        session.getId(),
+        binaryTracingUrl,
+        session.getAcceptedProtocol());
+    if (downloadTraffic) {
+      downloadTrafficFromRemoteProxy();
+    }
+    return true;
+  }
+
+  private void closeQuietly(WebSocketSession session) {
+    try {
+      session.close(CloseStatus.NORMAL);
+    } catch (IOException e) {
+      log.debug("Error while closing binary tracing session {}", session.getId(), e);
+    }
+  }
+
   @Override
   public TigerProxyRoute addRoute(TigerProxyRoute tigerRoute) {
     return Unirest.put(remoteProxyUrl + "/route")
@@ -330,22 +403,27 @@ public class TigerRemoteProxyClient extends AbstractTigerProxy implements AutoCl
         sender, receiver, messageContent, Optional.empty(), transmissionTime, uuid);
   }
 
-  Optional<CompletableFuture<RbelElement>> tryParseMessage(PartialTracingMessage message) {
+  /** Unparsed chunks may complete several buffered messages, or none at all. */
+  List<CompletableFuture<RbelElement>> tryParseMessage(PartialTracingMessage message) {
     if (message.isUnparsedChunk()) {
       return getBinaryChunksBuffer()
-          .tryToConvertMessageAndBufferUnusedBytes(
+          .tryToConvertMessagesAndBufferUnusedBytes(
               message.buildCompleteContent(),
               message.getSender().asSocketAddress(),
               message.getReceiver().asSocketAddress())
-          .map(CompletableFuture::completedFuture);
+          .stream()
+          .map(CompletableFuture::completedFuture)
+          .toList();
 
     } else {
       return buildNewRbelMessage(
-          message.getSender(),
-          message.getReceiver(),
-          message.buildCompleteContent(),
-          Optional.ofNullable(message.getTransmissionTime()),
-          message.getTracingDto().getRequestUuid());
+              message.getSender(),
+              message.getReceiver(),
+              message.buildCompleteContent(),
+              Optional.ofNullable(message.getTransmissionTime()),
+              message.getTracingDto().getRequestUuid())
+          .stream()
+          .toList();
     }
   }
 
@@ -412,6 +490,9 @@ public class TigerRemoteProxyClient extends AbstractTigerProxy implements AutoCl
     if (stompSession.get() != null && stompSession.get().isConnected()) {
       stompSession.get().disconnect();
     }
+    if (binaryTracingSession.get() != null && binaryTracingSession.get().isOpen()) {
+      closeQuietly(binaryTracingSession.get());
+    }
     tigerProxyStompClient.stop();
     webSocketClient.stop();
   }
@@ -475,8 +556,16 @@ public class TigerRemoteProxyClient extends AbstractTigerProxy implements AutoCl
 
   public boolean isConnected() {
     return Optional.ofNullable(stompSession)
-        .map(AtomicReference::get)
-        .map(StompSession::isConnected)
+            .map(AtomicReference::get)
+            .map(StompSession::isConnected)
+            .orElse(false)
+        || isBinaryTracingActive();
+  }
+
+  /** Whether the traffic is received via the {@link BinaryTracingProtocol} instead of STOMP. */
+  public boolean isBinaryTracingActive() {
+    return Optional.ofNullable(binaryTracingSession.get())
+        .map(WebSocketSession::isOpen)
         .orElse(false);
   }
 
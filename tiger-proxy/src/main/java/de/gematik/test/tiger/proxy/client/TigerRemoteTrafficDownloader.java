@@ -20,23 +20,45 @@ import de.gematik.rbellogger.RbelLogger;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.facet.RbelTcpIpMessageFacet;
 import de.gematik.rbellogger.data.facet.TracingMessagePairFacet;
+import de.gematik.rbellogger.file.RbelFileRecord;
+import de.gematik.rbellogger.file.RbelFileWriter;
 import de.gematik.test.tiger.proxy.data.TigerDownloadedMessageFacet;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import kong.unirest.core.HttpResponse;
+import kong.unirest.core.Headers;
+import kong.unirest.core.RawResponse;
 import kong.unirest.core.Unirest;
 import lombok.*;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Downloads the traffic of a remote proxy that is not known locally yet. The first page follows
+ * the last known message. Proxies that report sequence numbers are then read by ranges of sequence
+ * numbers up to the end of their history at the time of the first page: up to {@code
+ * trafficDownloadWindow} pages are downloaded and decoded concurrently, and parsed in order.
+ * Traffic after that end is received via the tracing connection, which is opened beforehand.
+ */
 @RequiredArgsConstructor
 public class TigerRemoteTrafficDownloader {
 
+  private static final AtomicInteger DOWNLOADER_COUNTER = new AtomicInteger();
+  // only applies to older proxies, which do not report sequence numbers
+  private static final int MAXIMUM_PAGES_WITHOUT_SEQUENCE_NUMBERS = 100;
+
   private final TigerRemoteProxyClient tigerRemoteProxyClient;
   private Logger log = LoggerFactory.getLogger(TigerRemoteTrafficDownloader.class);
 
@@ -57,15 +79,18 @@ public class TigerRemoteTrafficDownloader {
         getRbelLogger().getMessageHistory().size());
   }
 
-  private void parseTrafficChunk(String rawTraffic) {
+  private void parseTrafficPage(TrafficPage trafficPage) {
     final List<RbelElement> convertedMessages =
-        tigerRemoteProxyClient.getRbelFileWriter().convertFromRbelFile(rawTraffic);
-    final long expectedNumberOfMessages = rawTraffic.lines().count();
+        tigerRemoteProxyClient
+            .getRbelFileWriter()
+            .convertFromRbelFileRecords(trafficPage.getRecords());
 
-    doMessageBatchPostProcessing(convertedMessages, expectedNumberOfMessages);
+    doMessageBatchPostProcessing(
+        convertedMessages, trafficPage.getPaginationInfo().getReturnedMessages());
   }
 
-  private void doMessageBatchPostProcessing(List<RbelElement> convertedMessages, long count) {
+  private void doMessageBatchPostProcessing(
+      List<RbelElement> convertedMessages, int returnedMessages) {
     convertedMessages.forEach(
         msg -> {
           msg.addFacet(new TigerDownloadedMessageFacet());
@@ -74,11 +99,10 @@ public class TigerRemoteTrafficDownloader {
     addSequenceNumbersForOlderTigerProxies(convertedMessages);
     if (log.isTraceEnabled()) {
       log.trace(
-          "Just parsed another traffic batch of {} lines, got {} messages, expected {} (rest was"
+          "Just parsed another traffic batch, got {} messages, expected {} (rest was"
               + " filtered). Now standing at {} messages overall",
-          count,
           convertedMessages.size(),
-          (count + 2) / 3,
+          returnedMessages,
           getRbelLogger().getMessageHistory().size());
     }
     if (!convertedMessages.isEmpty()) {
@@ -125,55 +149,206 @@ public class TigerRemoteTrafficDownloader {
   }
 
   private void downloadAllTrafficFromRemote() {
-    PaginationInfo paginationInfo;
-    int pageNumber = 0;
     // we make a copy of the last uuid because the traffic parsing will be commenced in parallel,
     // meaning the tigerRemoteProxyClient.getLastMessageUuid() can shift
-    Optional<String> currentLastUuid =
+    final Optional<String> currentLastUuid =
         Optional.ofNullable(tigerRemoteProxyClient.getLastMessageUuid().get());
     final int pageSize =
-        tigerRemoteProxyClient.getTigerProxyConfiguration().getTrafficDownloadPageSize();
-    do {
-      paginationInfo = downloadTrafficPageFromRemoteAndAddToQueue(pageSize, currentLastUuid);
-      pageNumber++;
-      currentLastUuid =
-          Optional.ofNullable(paginationInfo.getLastUuid()).filter(StringUtils::isNotEmpty);
+        Math.max(
+            1, tigerRemoteProxyClient.getTigerProxyConfiguration().getTrafficDownloadPageSize());
+
+    final Map<String, Object> parameters = new HashMap<>();
+    parameters.put("pageSize", pageSize);
+    currentLastUuid.ifPresent(uuid -> parameters.put("lastMsgUuid", uuid));
+    final TrafficPage firstPage = downloadTrafficPage(parameters);
+    parseTrafficPage(firstPage);
+
+    final PaginationInfo paginationInfo = firstPage.getPaginationInfo();
+    if (paginationInfo.supportsSequenceNumbers()) {
+      downloadTrafficBySequenceNumbers(
+          paginationInfo.getNextSequenceNumber(), paginationInfo.getEndSequenceNumber(), pageSize);
+    } else {
+      downloadTrafficByUuid(paginationInfo, pageSize);
+    }
+  }
+
+  /**
+   * Downloads the sequence numbers from {@code startSequenceNumber} (inclusive) to {@code
+   * endSequenceNumber} (exclusive) in ranges of {@code pageSize}. The next ranges are requested
+   * while the current one is parsed, the pages are parsed in the order of their ranges.
+   */
+  private void downloadTrafficBySequenceNumbers(
+      long startSequenceNumber, long endSequenceNumber, int pageSize) {
+    if (startSequenceNumber >= endSequenceNumber) {
+      return;
+    }
+    log.debug(
+        "Downloading sequence numbers {} to {} from '{}'",
+        startSequenceNumber,
+        endSequenceNumber,
+        getRemoteProxyUrl());
+    final int window =
+        Math.max(1, tigerRemoteProxyClient.getTigerProxyConfiguration().getTrafficDownloadWindow());
+    final ExecutorService downloadExecutor = createDownloadExecutor(window);
+    final Deque<CompletableFuture<TrafficPage>> pagesInFlight = new ArrayDeque<>();
+    try {
+      long nextRangeStart = startSequenceNumber;
+      while (nextRangeStart < endSequenceNumber || !pagesInFlight.isEmpty()) {
+        while (pagesInFlight.size() < window && nextRangeStart < endSequenceNumber) {
+          final Map<String, Object> parameters =
+              rangeParameters(
+                  nextRangeStart, Math.min(endSequenceNumber, nextRangeStart + pageSize), pageSize);
+          pagesInFlight.add(
+              CompletableFuture.supplyAsync(
+                  () -> downloadTrafficPage(parameters), downloadExecutor));
+          nextRangeStart = Math.min(endSequenceNumber, nextRangeStart + pageSize);
+        }
+        parseTrafficPageWithRemainder(awaitTrafficPage(pagesInFlight.poll()), pageSize);
+      }
+    } finally {
+      pagesInFlight.forEach(page -> page.cancel(true));
+      downloadExecutor.shutdownNow();
+    }
+  }
+
+  /** A range is only returned partially if the remote limits the page size further. */
+  private void parseTrafficPageWithRemainder(TrafficPage trafficPage, int pageSize) {
+    TrafficPage currentPage = trafficPage;
+    parseTrafficPage(currentPage);
+    while (currentPage.getPaginationInfo().getNextSequenceNumber()
+        < currentPage.getRangeEndSequenceNumber()) {
+      if (currentPage.getPaginationInfo().getNextSequenceNumber()
+          <= currentPage.getRangeStartSequenceNumber()) {
+        // e.g. the remote was restarted and no longer knows the requested range
+        log.warn(
+            "Interrupting traffic-download: remote '{}' made no progress in range {} to {}",
+            getRemoteProxyUrl(),
+            currentPage.getRangeStartSequenceNumber(),
+            currentPage.getRangeEndSequenceNumber());
+        return;
+      }
+      currentPage =
+          downloadTrafficPage(
+              rangeParameters(
+                  currentPage.getPaginationInfo().getNextSequenceNumber(),
+                  currentPage.getRangeEndSequenceNumber(),
+                  pageSize));
+      parseTrafficPage(currentPage);
+    }
+  }
+
+  private TrafficPage awaitTrafficPage(CompletableFuture<TrafficPage> pageDownload) {
+    try {
+      return pageDownload.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof TigerRemoteProxyClientException clientException) {
+        throw clientException;
+      }
+      throw new TigerRemoteProxyClientException(
+          "Error while downloading traffic from remote '" + getRemoteProxyUrl() + "'",
+          e.getCause());
+    }
+  }
+
+  private static Map<String, Object> rangeParameters(
+      long fromSequenceNumber, long toSequenceNumber, int pageSize) {
+    final Map<String, Object> parameters = new HashMap<>();
+    parameters.put("pageSize", pageSize);
+    parameters.put("fromSequenceNumber", fromSequenceNumber);
+    parameters.put("toSequenceNumber", toSequenceNumber);
+    return parameters;
+  }
+
+  private static ExecutorService createDownloadExecutor(int window) {
+    final String namePrefix =
+        "tiger-traffic-download-" + DOWNLOADER_COUNTER.incrementAndGet() + "-";
+    final AtomicInteger threadCounter = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        window,
+        runnable -> {
+          final Thread thread = new Thread(runnable, namePrefix + threadCounter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
 
-      if (pageNumber > 100) {
+  /** Older proxies only support following the last uuid, one page after another. */
+  private void downloadTrafficByUuid(PaginationInfo firstPaginationInfo, int pageSize) {
+    PaginationInfo paginationInfo = firstPaginationInfo;
+    int pageNumber = 1;
+    while (paginationInfo.getAvailableMessages() > pageSize) {
+      if (pageNumber >= MAXIMUM_PAGES_WITHOUT_SEQUENCE_NUMBERS) {
         log.warn(
-            "Interrupting traffic-download: Reached 100 downloads! (Maybe the influx of traffic on"
-                + " the upstream proxy is greater then our downstream-sped?)");
+            "Interrupting traffic-download: Reached {} downloads! (Maybe the influx of traffic on"
+                + " the upstream proxy is greater then our downstream-sped?)",
+            MAXIMUM_PAGES_WITHOUT_SEQUENCE_NUMBERS);
         return;
       }
-    } while (paginationInfo.getAvailableMessages() > pageSize);
+      final Map<String, Object> parameters = new HashMap<>();
+      parameters.put("pageSize", pageSize);
+      Optional.ofNullable(paginationInfo.getLastUuid())
+          .filter(StringUtils::isNotEmpty)
+          .ifPresent(uuid -> parameters.put("lastMsgUuid", uuid));
+      final TrafficPage trafficPage = downloadTrafficPage(parameters);
+      parseTrafficPage(trafficPage);
+      paginationInfo = trafficPage.getPaginationInfo();
+      pageNumber++;
+    }
   }
 
-  private PaginationInfo downloadTrafficPageFromRemoteAndAddToQueue(
-      int pageSize, Optional<String> currentLastUuid) {
+  /** Downloads a page and decodes the records while reading the response, without parsing them. */
+  private TrafficPage downloadTrafficPage(Map<String, Object> parameters) {
     final String downloadUrl = getRemoteProxyUrl() + "/webui/trafficLog.tgr";
     log.debug(
-        "Downloading missed traffic from '{}', starting from {}. page-size {} (currently cached {}"
-            + " messages)",
-        currentLastUuid,
+        "Downloading missed traffic from '{}' with {} (currently cached {} messages)",
         downloadUrl,
-        pageSize,
+        parameters,
         getRbelLogger().getMessageHistory().size());
 
-    final Map<String, Object> parameters = new HashMap<>();
-    parameters.put("pageSize", pageSize);
-    currentLastUuid.ifPresent(uuid -> parameters.put("lastMsgUuid", uuid));
+    final Map<String, Object> queryParameters = new HashMap<>(parameters);
+    // older proxies ignore the parameter and answer with JSON lines, the format is detected
+    queryParameters.put("format", "binary");
 
-    final HttpResponse<String> response =
-        Unirest.get(downloadUrl).queryString(parameters).asString();
-    if (response.getStatus() != 200) {
+    final TrafficPage trafficPage =
+        Unirest.get(downloadUrl)
+            .queryString(queryParameters)
+            .asObject(rawResponse -> decodeTrafficPage(rawResponse, parameters))
+            .getBody();
+    if (trafficPage.getError() != null) {
       throw new TigerRemoteProxyClientException(
           "Error while downloading message from remote '"
               + downloadUrl
               + "': "
-              + response.getBody());
+              + trafficPage.getError());
+    }
+    return trafficPage;
+  }
+
+  private static TrafficPage decodeTrafficPage(
+      RawResponse rawResponse, Map<String, Object> parameters) {
+    final long rangeStartSequenceNumber =
+        Optional.ofNullable(parameters.get("fromSequenceNumber"))
+            .map(Long.class::cast)
+            .orElse(0L);
+    final long rangeEndSequenceNumber =
+        Optional.ofNullable(parameters.get("toSequenceNumber"))
+            .map(Long.class::cast)
+            .orElse(Long.MAX_VALUE);
+    if (rawResponse.getStatus() != 200) {
+      return TrafficPage.builder()
+          .error(rawResponse.getStatus() + ": " + rawResponse.getContentAsString())
+          .build();
+    }
+    try {
+      return TrafficPage.builder()
+          .paginationInfo(PaginationInfo.of(rawResponse.getHeaders()))
+          .records(RbelFileWriter.readRbelFileRecords(rawResponse.getContent()))
+          .rangeStartSequenceNumber(rangeStartSequenceNumber)
+          .rangeEndSequenceNumber(rangeEndSequenceNumber)
+          .build();
+    } catch (IOException | RuntimeException e) {
+      return TrafficPage.builder().error("Unable to decode traffic: " + e.getMessage()).build();
     }
-    parseTrafficChunk(response.getBody());
-    return PaginationInfo.of(response);
   }
 
   private RbelLogger getRbelLogger() {
@@ -184,25 +359,48 @@ public class TigerRemoteTrafficDownloader {
     return tigerRemoteProxyClient.getRemoteProxyUrl();
   }
 
+  @Data
+  @Builder
+  private static class TrafficPage {
+
+    private final PaginationInfo paginationInfo;
+    private final List<RbelFileRecord> records;
+    private final long rangeStartSequenceNumber;
+    // exclusive end of the requested range, Long.MAX_VALUE if no range was requested
+    private final long rangeEndSequenceNumber;
+    private final String error;
+  }
+
   @Data
   @Builder
   private static class PaginationInfo {
 
     private final int availableMessages;
+    private final int returnedMessages;
     private final String lastUuid;
+    // -1 if the remote proxy does not report sequence numbers
+    private final long nextSequenceNumber;
+    private final long endSequenceNumber;
 
-    public static PaginationInfo of(HttpResponse<String> response) {
+    public static PaginationInfo of(Headers headers) {
       return PaginationInfo.builder()
-          .availableMessages(convertHeaderFieldToInt(response, "available-messages"))
-          .lastUuid(response.getHeaders().getFirst("last-uuid"))
+          .availableMessages((int) convertHeaderFieldToLong(headers, "available-messages"))
+          .returnedMessages((int) convertHeaderFieldToLong(headers, "returned-messages"))
+          .lastUuid(headers.getFirst("last-uuid"))
+          .nextSequenceNumber(convertHeaderFieldToLong(headers, "next-sequence-number"))
+          .endSequenceNumber(convertHeaderFieldToLong(headers, "end-sequence-number"))
           .build();
     }
 
-    private static Integer convertHeaderFieldToInt(HttpResponse<String> response, String key) {
-      return java.util.Optional.ofNullable(response.getHeaders().getFirst(key))
+    public boolean supportsSequenceNumbers() {
+      return nextSequenceNumber >= 0 && endSequenceNumber >= 0;
+    }
+
+    private static long convertHeaderFieldToLong(Headers headers, String key) {
+      return Optional.ofNullable(headers.getFirst(key))
           .filter(StringUtils::isNotEmpty)
-          .map(Integer::parseInt)
-          .orElse(-1);
+          .map(Long::parseLong)
+          .orElse(-1L);
     }
   }
 }
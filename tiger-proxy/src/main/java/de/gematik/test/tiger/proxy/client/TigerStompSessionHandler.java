@@ -19,30 +19,33 @@ package de.gematik.test.tiger.proxy.client;
 import de.gematik.test.tiger.proxy.handler.TigerExceptionUtils;
 import java.net.ConnectException;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.stomp.*;
 
-@RequiredArgsConstructor
 @Slf4j
 class TigerStompSessionHandler extends StompSessionHandlerAdapter {
 
   private final TigerRemoteProxyClient remoteProxyClient;
-  @Getter private TracingStompHandler tracingStompHandler;
-  @Getter private DataStompHandler dataStompHandler;
-  @Getter private ErrorsStompHandler errorStompHandler;
+  @Getter private final TracingStompHandler tracingStompHandler;
+  @Getter private final DataStompHandler dataStompHandler;
+  @Getter private final ErrorsStompHandler errorStompHandler;
   @Setter private Runnable onConnectedCallback;
 
+  TigerStompSessionHandler(TigerRemoteProxyClient remoteProxyClient) {
+    this.remoteProxyClient = remoteProxyClient;
+    // the handlers are shared with the binary tracing protocol, so they exist independent of STOMP
+    this.tracingStompHandler = new TracingStompHandler(remoteProxyClient);
+    this.dataStompHandler = new DataStompHandler(remoteProxyClient);
+    this.errorStompHandler = new ErrorsStompHandler(remoteProxyClient);
+  }
+
   @Override
   public void afterConnected(final StompSession stompSession, final StompHeaders stompHeaders) {
     log.info("Connecting to tracing point {}", remoteProxyClient.getRemoteProxyUrl());
 
-    tracingStompHandler = new TracingStompHandler(remoteProxyClient);
     stompSession.subscribe(TigerRemoteProxyClient.WS_TRACING, tracingStompHandler);
-    dataStompHandler = new DataStompHandler(remoteProxyClient);
     stompSession.subscribe(TigerRemoteProxyClient.WS_DATA, dataStompHandler);
-    errorStompHandler = new ErrorsStompHandler(remoteProxyClient);
     stompSession.subscribe(TigerRemoteProxyClient.WS_ERRORS, errorStompHandler);
 
     if (onConnectedCallback != null) {
@@ -55,40 +55,35 @@ public class TracingMessageIsolani implements TracingMessageFrame {
       return;
     }
 
-    Optional<CompletableFuture<RbelElement>> messageParsed =
-        remoteProxyClient.tryParseMessage(message);
-
-    if (messageParsed.isEmpty()) {
-      return;
-    }
-
-    messageParsed
-        .get()
-        .thenAccept(
-            msg -> {
-              try {
-                doPostConversion(msg);
-              } catch (RuntimeException e) {
+    for (CompletableFuture<RbelElement> messageParsed :
+        remoteProxyClient.tryParseMessage(message)) {
+      messageParsed
+          .thenAccept(
+              msg -> {
+                try {
+                  doPostConversion(msg);
+                } catch (RuntimeException e) {
+                  log.error(
+                      "{} - Error while processing message with UUID {}",
+                      remoteProxyClient.proxyName(),
+                      message.getTracingDto().getRequestUuid(),
+                      e);
+                  throw e;
+                } finally {
+                  RbelConverter.setMessageFullyProcessed(msg);
+                }
+              })
+          .exceptionally(
+              e -> {
                 log.error(
                     "{} - Error while processing message with UUID {}",
                     remoteProxyClient.proxyName(),
                     message.getTracingDto().getRequestUuid(),
                     e);
-                throw e;
-              } finally {
-                RbelConverter.setMessageFullyProcessed(msg);
-              }
-            })
-        .exceptionally(
-            e -> {
-              log.error(
-                  "{} - Error while processing message with UUID {}",
-                  remoteProxyClient.proxyName(),
-                  message.getTracingDto().getRequestUuid(),
-                  e);
-              return null;
-            })
-        .join();
+                return null;
+              })
+          .join();
+    }
   }
 
   private void doPostConversion(RbelElement msg) {
@@ -50,11 +50,15 @@ class TracingStompHandler implements StompFrameHandler {
             tigerTracingDto.getResponseUuid(),
             remoteProxyClient.getName().orElse("<>"));
       }
-      if (StringUtils.isEmpty(tigerTracingDto.getResponseUuid())) {
-        registerNewIsolaniMessage(tigerTracingDto);
-      } else {
-        registerNewMessagePair(tigerTracingDto);
-      }
+      registerTracingDto(tigerTracingDto);
+    }
+  }
+
+  void registerTracingDto(TigerTracingDto tigerTracingDto) {
+    if (StringUtils.isEmpty(tigerTracingDto.getResponseUuid())) {
+      registerNewIsolaniMessage(tigerTracingDto);
+    } else {
+      registerNewMessagePair(tigerTracingDto);
     }
   }
 
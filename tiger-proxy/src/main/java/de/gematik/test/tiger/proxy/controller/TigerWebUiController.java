@@ -16,7 +16,9 @@
 
 package de.gematik.test.tiger.proxy.controller;
 
+import de.gematik.rbellogger.converter.RbelConverter;
 import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.RbelTcpIpMessageFacet;
 import de.gematik.rbellogger.data.facet.TracingMessagePairFacet;
 import de.gematik.rbellogger.data.util.RbelElementTreePrinter;
 import de.gematik.rbellogger.exceptions.RbelPathException;
@@ -144,9 +146,10 @@ public class TigerWebUiController implements ApplicationContextAware {
     var response = JexlQueryResponseScrollableDto.builder().messageUuid(messageUuid).query(query);
 
     final var targetMessage =
-        getTigerProxy().getRbelLogger().getMessageHistory().stream()
-            .filter(msg -> msg.getUuid().equals(messageUuid))
-            .findFirst()
+        getTigerProxy()
+            .getRbelLogger()
+            .getRbelConverter()
+            .findMessageByUuid(messageUuid)
             .orElseThrow();
 
     final var messageContext =
@@ -181,8 +184,7 @@ public class TigerWebUiController implements ApplicationContextAware {
     List<RbelElement> targetElements;
     try {
       targetElements =
-          getTigerProxy().getRbelLogger().getMessageHistory().stream()
-              .filter(msg -> msg.getUuid().equals(msgUuid))
+          getTigerProxy().getRbelLogger().getRbelConverter().findMessageByUuid(msgUuid).stream()
               .map(msg -> msg.findRbelPathMembers(query))
               .flatMap(List::stream)
               .toList();
@@ -436,51 +438,144 @@ public class TigerWebUiController implements ApplicationContextAware {
       @RequestParam(name = "lastMsgUuid", required = false) final String lastMsgUuid,
       @RequestParam(name = "filterRbelPath", required = false) final String filterCriterion,
       @RequestParam(name = "pageSize", required = false) final Optional<Integer> pageSize,
+      @RequestParam(name = "fromSequenceNumber", required = false)
+          final Optional<Long> fromSequenceNumber,
+      @RequestParam(name = "toSequenceNumber", required = false)
+          final Optional<Long> toSequenceNumber,
+      HttpServletResponse response) {
+    return loadTrafficPage(
+            lastMsgUuid,
+            filterCriterion,
+            pageSize,
+            fromSequenceNumber,
+            toSequenceNumber,
+            response)
+        .stream()
+        .map(tigerProxy.getRbelFileWriter()::convertToRbelFileString)
+        .collect(Collectors.joining("\n\n"));
+  }
+
+  /**
+   * The same page of traffic as {@link #downloadTraffic}, as a binary .tgr file. Proxies that do
+   * not know the format parameter answer with JSON lines, so clients have to detect the format.
+   */
+  @GetMapping(
+      value = "/trafficLog*.tgr",
+      params = "format=binary",
+      produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public byte[] downloadBinaryTraffic(
+      @RequestParam(name = "lastMsgUuid", required = false) final String lastMsgUuid,
+      @RequestParam(name = "filterRbelPath", required = false) final String filterCriterion,
+      @RequestParam(name = "pageSize", required = false) final Optional<Integer> pageSize,
+      @RequestParam(name = "compress", required = false, defaultValue = "true")
+          final boolean compress,
+      @RequestParam(name = "fromSequenceNumber", required = false)
+          final Optional<Long> fromSequenceNumber,
+      @RequestParam(name = "toSequenceNumber", required = false)
+          final Optional<Long> toSequenceNumber,
+      HttpServletResponse response) {
+    return tigerProxy
+        .getRbelFileWriter()
+        .convertToBinaryRbelFile(
+            loadTrafficPage(
+                lastMsgUuid,
+                filterCriterion,
+                pageSize,
+                fromSequenceNumber,
+                toSequenceNumber,
+                response),
+            compress);
+  }
+
+  /**
+   * Loads a page of traffic, either following the message with the given uuid or, if a sequence
+   * number is given, from the range of sequence numbers (the end is exclusive). Every page reports
+   * the sequence number to continue with ("next-sequence-number") and the end of the history at
+   * the time of the request ("end-sequence-number"), so that clients can request the following
+   * ranges concurrently.
+   */
+  private List<RbelElement> loadTrafficPage(
+      String lastMsgUuid,
+      String filterCriterion,
+      Optional<Integer> pageSize,
+      Optional<Long> fromSequenceNumber,
+      Optional<Long> toSequenceNumber,
       HttpServletResponse response) {
     int actualPageSize =
         pageSize.orElse(getProxyConfiguration().getMaximumTrafficDownloadPageSize());
+    final RbelConverter rbelConverter = getTigerProxy().getRbelLogger().getRbelConverter();
+    final long endSequenceNumber = rbelConverter.getEndSequenceNumber();
+    final long startSequenceNumber =
+        fromSequenceNumber.orElseGet(
+            () ->
+                Optional.ofNullable(lastMsgUuid)
+                    .filter(StringUtils::hasText)
+                    .flatMap(rbelConverter::findSequenceNumberByUuid)
+                    .map(sequenceNumber -> sequenceNumber + 1)
+                    .orElse(0L));
+    final long rangeEnd = Math.min(toSequenceNumber.orElse(Long.MAX_VALUE), endSequenceNumber);
     final List<RbelElement> filteredMessages =
-        loadMessagesMatchingFilter(lastMsgUuid, filterCriterion);
+        fromSequenceNumber.isPresent()
+            ? rbelConverter
+                .findMessagesBySequenceNumberRange(startSequenceNumber, rangeEnd)
+                .stream()
+                .filter(matchesFilter(filterCriterion))
+                .toList()
+            : loadMessagesMatchingFilter(lastMsgUuid, filterCriterion);
     final int returnedMessages = Math.min(filteredMessages.size(), actualPageSize);
     response.addHeader("available-messages", String.valueOf(filteredMessages.size()));
     response.addHeader("returned-messages", String.valueOf(returnedMessages));
 
-    final String result =
-        filteredMessages.stream()
-            .limit(actualPageSize)
-            .map(tigerProxy.getRbelFileWriter()::convertToRbelFileString)
-            .collect(Collectors.joining("\n\n"));
-
-    if (!result.isEmpty()) {
+    if (returnedMessages > 0) {
       response.addHeader("last-uuid", filteredMessages.get(returnedMessages - 1).getUuid());
     }
-    return result;
+    final long nextSequenceNumber;
+    if (returnedMessages == 0) {
+      nextSequenceNumber =
+          filteredMessages.isEmpty()
+              ? Math.max(startSequenceNumber, rangeEnd)
+              : startSequenceNumber;
+    } else if (returnedMessages < filteredMessages.size()) {
+      nextSequenceNumber = getSequenceNumber(filteredMessages.get(returnedMessages - 1)) + 1;
+    } else {
+      // following a uuid, messages added after the request may have been returned as well
+      nextSequenceNumber =
+          Math.max(rangeEnd, getSequenceNumber(filteredMessages.get(returnedMessages - 1)) + 1);
+    }
+    response.addHeader("next-sequence-number", String.valueOf(nextSequenceNumber));
+    response.addHeader("end-sequence-number", String.valueOf(endSequenceNumber));
+    return filteredMessages.subList(0, returnedMessages);
+  }
+
+  private static long getSequenceNumber(RbelElement msg) {
+    return msg.getFacetOrFail(RbelTcpIpMessageFacet.class).getSequenceNumber();
   }
 
   private List<RbelElement> loadMessagesMatchingFilter(String lastMsgUuid, String filterCriterion) {
     return getTigerProxy().getRbelLogger().getMessageHistory().stream()
-        .filter(
-            msg -> {
-              if (!StringUtils.hasText(filterCriterion)) {
-                return true;
-              }
-              if (filterCriterion.startsWith("\"") && filterCriterion.endsWith("\"")) {
-                final String textFilter =
-                    filterCriterion.substring(1, filterCriterion.length() - 1);
-                return RbelJexlExecutor.matchAsTextExpression(msg, textFilter)
-                    || RbelJexlExecutor.matchAsTextExpression(findPartner(msg), textFilter);
-              } else {
-                return TigerJexlExecutor.matchesAsJexlExpression(
-                        msg, filterCriterion, Optional.empty())
-                    || TigerJexlExecutor.matchesAsJexlExpression(
-                        findPartner(msg), filterCriterion, Optional.empty());
-              }
-            })
         .dropWhile(messageIsBefore(lastMsgUuid))
         .filter(msg -> !msg.getUuid().equals(lastMsgUuid))
+        .filter(matchesFilter(filterCriterion))
         .toList();
   }
 
+  private Predicate<RbelElement> matchesFilter(String filterCriterion) {
+    return msg -> {
+      if (!StringUtils.hasText(filterCriterion)) {
+        return true;
+      }
+      if (filterCriterion.startsWith("\"") && filterCriterion.endsWith("\"")) {
+        final String textFilter = filterCriterion.substring(1, filterCriterion.length() - 1);
+        return RbelJexlExecutor.matchAsTextExpression(msg, textFilter)
+            || RbelJexlExecutor.matchAsTextExpression(findPartner(msg), textFilter);
+      } else {
+        return TigerJexlExecutor.matchesAsJexlExpression(msg, filterCriterion, Optional.empty())
+            || TigerJexlExecutor.matchesAsJexlExpression(
+                findPartner(msg), filterCriterion, Optional.empty());
+      }
+    };
+  }
+
   private static Predicate<RbelElement> messageIsBefore(String lastMsgUuid) {
     return msg -> {
       if (StringUtils.hasText(lastMsgUuid)) {
@@ -517,7 +612,7 @@ public class TigerWebUiController implements ApplicationContextAware {
   }
 
   @PostMapping(value = "/importTraffic")
-  public void importTraffic(@RequestBody String rawTraffic) {
-    tigerProxy.readTrafficFromString(rawTraffic);
+  public void importTraffic(@RequestBody byte[] rawTraffic) {
+    tigerProxy.readTrafficFromBytes(rawTraffic);
   }
 }
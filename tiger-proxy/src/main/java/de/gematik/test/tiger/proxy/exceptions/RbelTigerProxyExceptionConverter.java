@@ -28,6 +28,11 @@ import lombok.val;
 @Slf4j
 public class RbelTigerProxyExceptionConverter extends RbelConverterPlugin {
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.elementWithFacet(TigerRoutingErrorFacet.class);
+  }
+
   @Override
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
     if (!rbelElement.hasFacet(TigerRoutingErrorFacet.class)) {
@@ -18,6 +18,7 @@
 package de.gematik.test.tiger.proxy.handler;
 
 import de.gematik.rbellogger.converter.RbelConverter;
+import de.gematik.rbellogger.converter.RbelMessageFrame;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelElementConvertionPair;
 import de.gematik.rbellogger.data.RbelHostname;
@@ -30,16 +31,25 @@ import de.gematik.test.tiger.common.data.config.tigerproxy.TigerProxyConfigurati
 import de.gematik.test.tiger.proxy.data.SenderReceiverPair;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-/** Buffers incomplete messages and tries to convert them to RbelElements if they are parsable */
+/**
+ * Buffers incomplete messages and tries to convert them to RbelElements if they are parsable.
+ * Before converting, the converters are asked where the buffered message ends (see {@link
+ * RbelConverter#findMessageFrame(RbelContent)}): incomplete messages are not converted at all and a
+ * complete message is converted without the bytes following it, which are framed again: one chunk
+ * may carry several messages.
+ */
 @Slf4j
 public class BinaryChunksBuffer {
   private final BundledServerNamesAdder bundledServerNamesAdder = new BundledServerNamesAdder();
-  private final Map<SenderReceiverPair, RbelContent> bufferedParts = new ConcurrentHashMap<>();
+  private final Map<SenderReceiverPair, BufferedStream> bufferedParts = new ConcurrentHashMap<>();
   private final RbelConverter rbelConverter;
   private final TigerProxyConfiguration proxyConfiguration;
 
@@ -53,23 +63,84 @@ public class BinaryChunksBuffer {
     bufferedParts.remove(key);
   }
 
-  /** returns the complete message for this key with the given part appended to it */
-  private RbelContent addToBuffer(SenderReceiverPair key, RbelContent part) {
-    RbelContent bufferedContent =
-        bufferedParts.computeIfAbsent(key, k -> RbelContent.builder().build());
-    bufferedContent.append(part);
-    return bufferedContent;
+  /** returns the buffer for this key with the given part appended to it */
+  private BufferedStream addToBuffer(SenderReceiverPair key, RbelContent part) {
+    BufferedStream bufferedStream =
+        bufferedParts.computeIfAbsent(
+            key, k -> new BufferedStream(RbelContent.builder().build(), 0));
+    bufferedStream.content.append(part);
+    return bufferedStream;
   }
 
-  public Optional<RbelElement> tryToConvertMessageAndBufferUnusedBytes(
+  /**
+   * Appends the part to the buffer of the connection and converts all messages that are complete by
+   * now, in the order they were sent. The bytes following the last complete message stay buffered.
+   */
+  public List<RbelElement> tryToConvertMessagesAndBufferUnusedBytes(
       RbelContent message, SocketAddress senderAddress, SocketAddress receiverAddress) {
     var key = new SenderReceiverPair(senderAddress, receiverAddress);
-    final Optional<RbelElement> requestOptional =
-        tryToConvertMessage(addToBuffer(key, message), key);
-    if (requestOptional.isPresent()) {
+    final List<RbelElement> convertedMessages = new ArrayList<>();
+    Optional<BufferedStream> bufferedStream = Optional.of(addToBuffer(key, message));
+    while (bufferedStream.isPresent()) {
+      bufferedStream = convertNextMessage(key, bufferedStream.get(), convertedMessages);
+    }
+    return convertedMessages;
+  }
+
+  /**
+   * Converts the message at the start of the buffer. Returns the remaining buffer if it may hold
+   * another complete message.
+   */
+  private Optional<BufferedStream> convertNextMessage(
+      SenderReceiverPair key, BufferedStream bufferedStream, List<RbelElement> convertedMessages) {
+    final RbelContent bufferedContent = bufferedStream.content;
+    if (bufferedContent.size() < bufferedStream.sizeNeededForNextAttempt) {
+      return Optional.empty();
+    }
+    final RbelMessageFrame frame =
+        proxyConfiguration.isActivateRbelParsing()
+            ? rbelConverter.findMessageFrame(bufferedContent)
+            : RbelMessageFrame.unknown();
+    switch (frame.getState()) {
+      case INCOMPLETE -> {
+        bufferedStream.sizeNeededForNextAttempt = bufferedContent.size() + frame.getBytes();
+        return Optional.empty();
+      }
+      case COMPLETE -> {
+        final Optional<RbelElement> messageOptional =
+            tryToConvertMessage(bufferedContent.subContent(0, frame.getBytes()), key);
+        if (messageOptional.isPresent()) {
+          convertedMessages.add(messageOptional.get());
+        } else {
+          // the frame is complete, waiting for more bytes would block the stream for good
+          log.debug(
+              "Dropping {} bytes of a complete but unconvertible message from {}",
+              frame.getBytes(),
+              key);
+        }
+        return keepUnusedBytes(key, bufferedContent, frame.getBytes());
+      }
+      default -> {
+        final Optional<RbelElement> messageOptional = tryToConvertMessage(bufferedContent, key);
+        if (messageOptional.isPresent()) {
+          convertedMessages.add(messageOptional.get());
+          removePart(key);
+        }
+        return Optional.empty();
+      }
+    }
+  }
+
+  private Optional<BufferedStream> keepUnusedBytes(
+      SenderReceiverPair key, RbelContent bufferedContent, int usedBytes) {
+    if (usedBytes == bufferedContent.size()) {
       removePart(key);
+      return Optional.empty();
     }
-    return requestOptional;
+    final BufferedStream remainder =
+        new BufferedStream(bufferedContent.subContent(usedBytes, bufferedContent.size()), 0);
+    bufferedParts.put(key, remainder);
+    return Optional.of(remainder).filter(r -> usedBytes > 0);
   }
 
   private Optional<RbelElement> tryToConvertMessage(
@@ -114,4 +185,10 @@ public class BinaryChunksBuffer {
       return null;
     }
   }
+
+  @AllArgsConstructor
+  private static class BufferedStream {
+    private final RbelContent content;
+    private int sizeNeededForNextAttempt;
+  }
 }
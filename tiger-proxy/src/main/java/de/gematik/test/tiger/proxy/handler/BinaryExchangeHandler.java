@@ -34,6 +34,7 @@ import de.gematik.test.tiger.proxy.exceptions.TigerRoutingErrorFacet;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
@@ -159,32 +160,42 @@ public class BinaryExchangeHandler {
         .anyMatch(RbelFacet::shouldExpectReplyMessage);
   }
 
+  /**
+   * Converts the buffered messages completed by this binary message. All but the last of them are
+   * propagated right away as unpaired messages, the last one is returned to be paired.
+   */
   private Optional<RbelElement> convertBinaryMessageOrPushToBuffer(
       BinaryMessage message, SocketAddress senderAddress, SocketAddress receiverAddress) {
     if (message == null) {
       return Optional.empty();
     }
-    Optional<RbelElement> rbelMessageOptional =
-        binaryChunksBuffer.tryToConvertMessageAndBufferUnusedBytes(
+    final List<RbelElement> rbelMessages =
+        binaryChunksBuffer.tryToConvertMessagesAndBufferUnusedBytes(
             RbelContent.of(message.getBytes()), senderAddress, receiverAddress);
-    if (rbelMessageOptional.isEmpty()) {
+    if (rbelMessages.isEmpty()) {
       return Optional.empty();
     }
-    rbelMessageOptional
-        .get()
-        .addFacet(
-            RbelMessageTimingFacet.builder()
-                .transmissionTime(message.getTimestamp().atZone(ZoneId.systemDefault()))
-                .build());
-    rbelMessageOptional.get().addFacet(new RbelBinaryFacet());
-    log.debug(
-        "Finalized binary exchange {}",
-        rbelMessageOptional
-            .flatMap(msg -> msg.getFacet(RbelTcpIpMessageFacet.class))
-            .map(RbelTcpIpMessageFacet::getSenderHostname)
-            .map(Objects::toString)
-            .orElse(""));
-    return rbelMessageOptional;
+    for (RbelElement rbelMessage : rbelMessages) {
+      rbelMessage.addFacet(
+          RbelMessageTimingFacet.builder()
+              .transmissionTime(message.getTimestamp().atZone(ZoneId.systemDefault()))
+              .build());
+      rbelMessage.addFacet(new RbelBinaryFacet());
+      log.debug(
+          "Finalized binary exchange {}",
+          rbelMessage
+              .getFacet(RbelTcpIpMessageFacet.class)
+              .map(RbelTcpIpMessageFacet::getSenderHostname)
+              .map(Objects::toString)
+              .orElse(""));
+    }
+    rbelMessages.subList(0, rbelMessages.size() - 1).forEach(this::propagateUnpairedMessage);
+    return Optional.of(rbelMessages.get(rbelMessages.size() - 1));
+  }
+
+  private void propagateUnpairedMessage(RbelElement message) {
+    message.addOrReplaceFacet(new TigerNonPairedMessageFacet());
+    getTigerProxy().triggerListener(message);
   }
 
   public void propagateExceptionMessageSafe(
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.proxy.tracing;
+
+import de.gematik.test.tiger.common.data.config.tigerproxy.TracingOverflowPolicy;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficEndpointConfiguration;
+import de.gematik.test.tiger.proxy.client.BinaryTracingProtocol;
+import de.gematik.test.tiger.proxy.client.BinaryTracingProtocol.FrameType;
+import de.gematik.test.tiger.proxy.client.BinaryTracingProtocol.TracingFrame;
+import de.gematik.test.tiger.proxy.client.TigerExceptionDto;
+import de.gematik.test.tiger.proxy.client.TigerRemoteProxyClientException;
+import de.gematik.test.tiger.proxy.client.TigerTracingDto;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import javax.annotation.Nullable;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+/**
+ * Server side of the {@link BinaryTracingProtocol}. Remote clients connect via a plain WebSocket
+ * and receive every traced message as a single binary frame. Each frame is encoded (and, if
+ * negotiated, compressed) once and then queued for every {@link TracingSubscriber}.
+ */
+@Slf4j
+public class BinaryTracingWebSocketHandler extends BinaryWebSocketHandler
+    implements SubProtocolCapable {
+
+  private static final AtomicInteger SENDER_COUNTER = new AtomicInteger();
+
+  private final Map<String, TracingSubscriber> subscribers = new ConcurrentHashMap<>();
+  private final int maximumQueuedFrames;
+  private final long maximumQueuedBytes;
+  private final TracingOverflowPolicy overflowPolicy;
+  private final ExecutorService senderExecutor;
+  private final LongAdder disconnectedSubscribers = new LongAdder();
+
+  public BinaryTracingWebSocketHandler(TrafficEndpointConfiguration configuration) {
+    this.maximumQueuedFrames = Math.max(1, configuration.getSubscriberQueueSize());
+    this.maximumQueuedBytes = 1024L * 1024 * configuration.getSubscriberQueueSizeInMb();
+    this.overflowPolicy = configuration.getSubscriberOverflowPolicy();
+    final String namePrefix = "tracing-sender-" + SENDER_COUNTER.incrementAndGet() + "-";
+    final AtomicInteger threadCounter = new AtomicInteger();
+    this.senderExecutor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, namePrefix + threadCounter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @Override
+  public List<String> getSubProtocols() {
+    return BinaryTracingProtocol.SUPPORTED_SUB_PROTOCOLS;
+  }
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession session) {
+    log.info(
+        "Binary tracing session {} opened from {} (protocol {})",
+        session.getId(),
+        session.getRemoteAddress(),
+        session.getAcceptedProtocol());
+    subscribers.put(
+        session.getId(),
+        new TracingSubscriber(
+            session,
+            maximumQueuedFrames,
+            maximumQueuedBytes,
+            overflowPolicy,
+            senderExecutor,
+            disconnectedSubscribers::increment));
+  }
+
+  @Override
+  protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+    final TracingSubscriber subscriber = subscribers.get(session.getId());
+    if (subscriber == null) {
+      return;
+    }
+    try {
+      final TracingFrame frame = BinaryTracingProtocol.decodeFrame(message.getPayload());
+      if (frame.type() == FrameType.CREDIT) {
+        subscriber.grantCredits(frame.credits());
+      } else {
+        log.debug(
+            "Ignoring {} frame from binary tracing session {}", frame.type(), session.getId());
+      }
+    } catch (TigerRemoteProxyClientException e) {
+      log.warn("Invalid frame from binary tracing session {}, closing it", session.getId(), e);
+      subscriber.close(CloseStatus.PROTOCOL_ERROR);
+    }
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+    log.info("Binary tracing session {} closed ({})", session.getId(), status);
+    final TracingSubscriber subscriber = subscribers.remove(session.getId());
+    if (subscriber != null) {
+      subscriber.markClosed();
+    }
+  }
+
+  @Override
+  public void handleTransportError(WebSocketSession session, Throwable exception) {
+    log.warn("Transport error in binary tracing session {}", session.getId(), exception);
+  }
+
+  public boolean hasSessions() {
+    return !subscribers.isEmpty();
+  }
+
+  public void sendTrace(
+      TigerTracingDto tracingDto,
+      @Nullable byte[] requestContent,
+      @Nullable byte[] responseContent) {
+    if (!hasSessions()) {
+      return;
+    }
+    broadcast(
+        BinaryTracingProtocol.encodeTracePayload(tracingDto, requestContent, responseContent),
+        BinaryTracingProtocol::toTraceFrame);
+  }
+
+  public void sendError(TigerExceptionDto exceptionDto) {
+    if (!hasSessions()) {
+      return;
+    }
+    broadcast(
+        BinaryTracingProtocol.encodeErrorPayload(exceptionDto),
+        BinaryTracingProtocol::toErrorFrame);
+  }
+
+  private void broadcast(byte[] payload, BiFunction<byte[], Boolean, byte[]> frameBuilder) {
+    byte[] plainFrame = null;
+    byte[] compressedFrame = null;
+    for (TracingSubscriber subscriber : subscribers.values()) {
+      if (subscriber.isCompressionNegotiated()) {
+        if (compressedFrame == null) {
+          compressedFrame = frameBuilder.apply(payload, true);
+        }
+        subscriber.enqueue(compressedFrame);
+      } else {
+        if (plainFrame == null) {
+          plainFrame = frameBuilder.apply(payload, false);
+        }
+        subscriber.enqueue(plainFrame);
+      }
+    }
+  }
+
+  public Statistics getStatistics() {
+    return Statistics.builder()
+        .subscribers(subscribers.values().stream().map(TracingSubscriber::getStatistics).toList())
+        .maximumQueuedFrames(maximumQueuedFrames)
+        .maximumQueuedBytes(maximumQueuedBytes)
+        .overflowPolicy(overflowPolicy)
+        .disconnectedSubscribers(disconnectedSubscribers.sum())
+        .build();
+  }
+
+  @Value
+  @Builder
+  public static class Statistics {
+    List<SubscriberStatistics> subscribers;
+    int maximumQueuedFrames;
+    long maximumQueuedBytes;
+    TracingOverflowPolicy overflowPolicy;
+
+    /** Subscribers that were disconnected because they fell behind. */
+    long disconnectedSubscribers;
+  }
+
+  @Value
+  @Builder
+  public static class SubscriberStatistics {
+    String id;
+    String remoteAddress;
+    boolean compressed;
+    int queuedFrames;
+    long queuedBytes;
+
+    /** -1 if the subscriber does not use flow control. */
+    int credits;
+
+    long sentFrames;
+    long droppedFrames;
+    long catchUps;
+  }
+}
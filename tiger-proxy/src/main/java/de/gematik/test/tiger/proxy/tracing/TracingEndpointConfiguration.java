@@ -19,23 +19,31 @@ package de.gematik.test.tiger.proxy.tracing;
 import de.gematik.test.tiger.common.data.config.tigerproxy.TigerProxyConfiguration;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ContextStoppedEvent;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.standard.TomcatRequestUpgradeStrategy;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@EnableWebSocket
 @RequiredArgsConstructor
 public class TracingEndpointConfiguration
-    implements WebSocketMessageBrokerConfigurer, ApplicationListener<ContextStoppedEvent> {
+    implements WebSocketMessageBrokerConfigurer,
+        WebSocketConfigurer,
+        ApplicationListener<ContextStoppedEvent> {
 
   private final TigerProxyConfiguration tigerProxyConfiguration;
   private final ThreadPoolTaskExecutor taskExecutor = getThreadPoolTaskExecutor();
@@ -83,6 +91,30 @@ public class TracingEndpointConfiguration
         .withSockJS();
   }
 
+  @Bean
+  public BinaryTracingWebSocketHandler binaryTracingWebSocketHandler() {
+    return new BinaryTracingWebSocketHandler(
+        tigerProxyConfiguration.getTrafficEndpointConfiguration());
+  }
+
+  @Override
+  public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+    registry
+        .addHandler(
+            binaryTracingWebSocketHandler(),
+            tigerProxyConfiguration.getTrafficEndpointConfiguration().getBinaryWsEndpoint())
+        .setHandshakeHandler(new DefaultHandshakeHandler(new TomcatRequestUpgradeStrategy()))
+        .setAllowedOrigins("*");
+  }
+
+  @Override
+  public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+    // STOMP subscribers get the same bound, they are disconnected when they exceed it
+    final int queueSizeInMb =
+        tigerProxyConfiguration.getTrafficEndpointConfiguration().getSubscriberQueueSizeInMb();
+    registration.setSendBufferSizeLimit(1024 * 1024 * queueSizeInMb);
+  }
+
   @Override
   public void configureClientOutboundChannel(ChannelRegistration registration) {
     registration.taskExecutor(taskExecutor);
@@ -20,6 +20,7 @@ import de.gematik.rbellogger.converter.RbelConverter;
 import de.gematik.rbellogger.converter.RbelConverterPlugin;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelHostname;
+import de.gematik.rbellogger.data.facet.PreviousConnectionMessageFacet;
 import de.gematik.rbellogger.data.facet.PreviousMessageFacet;
 import de.gematik.rbellogger.data.facet.ProxyTransmissionHistory;
 import de.gematik.rbellogger.data.facet.RbelHttpResponseFacet;
@@ -39,7 +40,9 @@ import de.gematik.test.tiger.proxy.TigerProxy;
 import de.gematik.test.tiger.proxy.client.*;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.json.JSONObject;
@@ -47,12 +50,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+/**
+ * Pushes traced messages to remote subscribers (STOMP and binary). Messages of one connection are
+ * pushed in order, each one only after its predecessor on the same connection. Messages of
+ * different connections are pushed concurrently from the threads that processed them.
+ */
 @RequiredArgsConstructor
 public class TracingPushService {
 
   public static final int MAX_MESSAGE_SIZE = 512 * 1024;
   private final SimpMessagingTemplate template;
   private final TigerProxy tigerProxy;
+  private final BinaryTracingWebSocketHandler binaryTracingHandler;
   private Logger log = LoggerFactory.getLogger(TracingPushService.class);
 
   public void addWebSocketListener() {
@@ -96,7 +105,7 @@ public class TracingPushService {
         return;
       }
 
-      waitForPreviousMessageFullyProcessed(msg);
+      waitForPreviousMessageOfConnectionFullyProcessed(msg);
       propagateRbelMessage(msg);
     } catch (RuntimeException e) {
       log.error("Error while propagating new Rbel-Message", e);
@@ -104,7 +113,7 @@ public class TracingPushService {
     }
   }
 
-  private synchronized void propagateRbelMessage(RbelElement msg) {
+  private void propagateRbelMessage(RbelElement msg) {
     log.atTrace()
         .addArgument(() -> getSequenceNumber(msg))
         .addArgument(msg::printHttpDescription)
@@ -141,8 +150,7 @@ public class TracingPushService {
 
       log.trace("Propagating new non-paired message (ID: {})", msg.getUuid());
 
-      template.convertAndSend(
-          TigerRemoteProxyClient.WS_TRACING,
+      final TigerTracingDto tracingDto =
           TigerTracingDto.builder()
               .receiver(receiver)
               .sender(sender)
@@ -159,9 +167,13 @@ public class TracingPushService {
                       tigerProxy.getTigerProxyConfiguration().getName(),
                       List.of(rbelTcpIpMessageFacet.getSequenceNumber()),
                       msg.getFacet(ProxyTransmissionHistory.class).orElse(null)))
-              .build());
+              .build();
+      template.convertAndSend(TigerRemoteProxyClient.WS_TRACING, tracingDto);
 
       mapRbelMessageAndSent(msg);
+      if (binaryTracingHandler.hasSessions()) {
+        binaryTracingHandler.sendTrace(tracingDto, getContentBytes(msg), null);
+      }
     } catch (RuntimeException e) {
       log.error("Error while sending non-paired message: {}", e.getMessage());
       throw e;
@@ -195,8 +207,7 @@ public class TracingPushService {
         "Propagating new request/response pair (IDs: {} and {})",
         request.getUuid(),
         response.getUuid());
-    template.convertAndSend(
-        TigerRemoteProxyClient.WS_TRACING,
+    final TigerTracingDto tracingDto =
         TigerTracingDto.builder()
             .receiver(receiver)
             .sender(sender)
@@ -226,10 +237,21 @@ public class TracingPushService {
                     tigerProxy.getTigerProxyConfiguration().getName(),
                     List.of(responseTcpIpFacet.getSequenceNumber()),
                     response.getFacet(ProxyTransmissionHistory.class).orElse(null)))
-            .build());
+            .build();
+    template.convertAndSend(TigerRemoteProxyClient.WS_TRACING, tracingDto);
 
     mapRbelMessageAndSent(request);
     mapRbelMessageAndSent(response);
+    if (binaryTracingHandler.hasSessions()) {
+      binaryTracingHandler.sendTrace(
+          tracingDto, getContentBytes(request), getContentBytes(response));
+    }
+  }
+
+  @Nullable
+  private static byte[] getContentBytes(RbelElement msg) {
+    final RbelContent content = msg.getContent();
+    return content.isNull() ? null : content.toByteArray();
   }
 
   private Map<String, String> gatherAdditionalInformation(RbelElement msg) {
@@ -246,13 +268,14 @@ public class TracingPushService {
   }
 
   private void propagateException(Throwable exception) {
-    template.convertAndSend(
-        TigerRemoteProxyClient.WS_ERRORS,
+    final TigerExceptionDto exceptionDto =
         TigerExceptionDto.builder()
             .className(exception.getClass().getName())
             .message(exception.getMessage())
             .stacktrace(ExceptionUtils.getStackTrace(exception))
-            .build());
+            .build();
+    template.convertAndSend(TigerRemoteProxyClient.WS_ERRORS, exceptionDto);
+    binaryTracingHandler.sendError(exceptionDto);
   }
 
   private void mapRbelMessageAndSent(RbelElement rbelMessage) {
@@ -295,18 +318,15 @@ public class TracingPushService {
         .orElse(-1L);
   }
 
-  private void waitForMessageFullyProcessed(RbelElement msg) {
-    log.atTrace().addArgument(() -> getSequenceNumber(msg)).log("Waiting for message #{}");
-    RbelConverter.waitUntilFullyProcessed(msg);
-  }
-
-  private void waitForPreviousMessageFullyProcessed(RbelElement msg) {
+  private void waitForPreviousMessageOfConnectionFullyProcessed(RbelElement msg) {
     log.atTrace()
         .addArgument(() -> getSequenceNumber(msg))
-        .log("Waiting for previous message of #{}");
-    msg.getFacet(PreviousMessageFacet.class)
-        .map(PreviousMessageFacet::getMessage)
-        .ifPresent(this::waitForMessageFullyProcessed);
+        .log("Waiting for previous message on the connection of #{}");
+    msg.getFacet(PreviousConnectionMessageFacet.class)
+        .map(PreviousConnectionMessageFacet::getProcessed)
+        .ifPresent(CompletableFuture::join);
+    msg.removeFacetsOfType(PreviousConnectionMessageFacet.class);
+    // the global predecessor is not needed for propagation, drop it to not retain the history
     msg.removeFacetsOfType(PreviousMessageFacet.class);
   }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.proxy.tracing;
+
+import de.gematik.test.tiger.common.data.config.tigerproxy.TracingOverflowPolicy;
+import de.gematik.test.tiger.proxy.client.BinaryTracingProtocol;
+import de.gematik.test.tiger.proxy.tracing.BinaryTracingWebSocketHandler.SubscriberStatistics;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * A remote client connected via the {@link BinaryTracingProtocol}. Frames are queued per
+ * subscriber and sent by a sender task, so a slow subscriber never blocks the proxy or the other
+ * subscribers. The queue is bounded by the number of frames and by their size; what happens when
+ * it is full is decided by the {@link TracingOverflowPolicy}.
+ *
+ * <p>Frames are only sent while the subscriber has credits left. Until the first credit frame is
+ * received the subscriber is treated as having unlimited credits (clients without flow control).
+ */
+@Slf4j
+class TracingSubscriber {
+
+  private static final CloseStatus QUEUE_OVERFLOW =
+      new CloseStatus(4001, "Subscriber queue overflow");
+  private static final int UNLIMITED_CREDITS = -1;
+  private static final byte[] CATCH_UP_FRAME = BinaryTracingProtocol.toCatchUpFrame();
+
+  @Getter private final WebSocketSession session;
+  @Getter private final boolean compressionNegotiated;
+  private final int maximumQueuedFrames;
+  private final long maximumQueuedBytes;
+  private final TracingOverflowPolicy overflowPolicy;
+  private final Executor senderExecutor;
+  private final Runnable onOverflowDisconnect;
+
+  // guarded by this
+  private final Deque<byte[]> queue = new ArrayDeque<>();
+  private long queuedBytes = 0;
+  private int credits = UNLIMITED_CREDITS;
+  private boolean catchUpPending = false;
+  private boolean sending = false;
+  private boolean closed = false;
+
+  private final LongAdder sentFrames = new LongAdder();
+  private final LongAdder droppedFrames = new LongAdder();
+  private final LongAdder catchUps = new LongAdder();
+
+  TracingSubscriber(
+      WebSocketSession session,
+      int maximumQueuedFrames,
+      long maximumQueuedBytes,
+      TracingOverflowPolicy overflowPolicy,
+      Executor senderExecutor,
+      Runnable onOverflowDisconnect) {
+    this.session = session;
+    this.compressionNegotiated =
+        BinaryTracingProtocol.isCompressionNegotiated(session.getAcceptedProtocol());
+    this.maximumQueuedFrames = maximumQueuedFrames;
+    this.maximumQueuedBytes = maximumQueuedBytes;
+    this.overflowPolicy = overflowPolicy;
+    this.senderExecutor = senderExecutor;
+    this.onOverflowDisconnect = onOverflowDisconnect;
+  }
+
+  /** Queues the frame for sending. Never blocks. */
+  void enqueue(byte[] frame) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      if (isFull(frame.length) && !makeRoom(frame.length)) {
+        return;
+      }
+      queue.addLast(frame);
+      queuedBytes += frame.length;
+    }
+    scheduleSending();
+  }
+
+  void grantCredits(int grantedCredits) {
+    synchronized (this) {
+      credits = Math.max(credits, 0) + grantedCredits;
+    }
+    scheduleSending();
+  }
+
+  synchronized void markClosed() {
+    closed = true;
+    queue.clear();
+    queuedBytes = 0;
+  }
+
+  void close(CloseStatus closeStatus) {
+    markClosed();
+    try {
+      session.close(closeStatus);
+    } catch (IOException | RuntimeException e) {
+      log.debug("Error while closing binary tracing session {}", session.getId(), e);
+    }
+  }
+
+  private boolean isFull(int additionalBytes) {
+    return !queue.isEmpty()
+        && (queue.size() >= maximumQueuedFrames
+            || queuedBytes + additionalBytes > maximumQueuedBytes);
+  }
+
+  /** Applies the overflow policy. Returns false if the frame must not be queued. */
+  private boolean makeRoom(int additionalBytes) {
+    switch (overflowPolicy) {
+      case DROP_OLDEST -> {
+        while (isFull(additionalBytes)) {
+          queuedBytes -= queue.removeFirst().length;
+          droppedFrames.increment();
+        }
+        return true;
+      }
+      case CATCH_UP -> {
+        log.info(
+            "Binary tracing subscriber {} fell behind, dropping {} queued frames and requesting a"
+                + " catch-up",
+            session.getId(),
+            queue.size());
+        droppedFrames.add(queue.size());
+        queue.clear();
+        queuedBytes = 0;
+        if (!catchUpPending) {
+          catchUpPending = true;
+          catchUps.increment();
+        }
+        return true;
+      }
+      default -> {
+        log.warn(
+            "Binary tracing subscriber {} fell behind ({} queued frames), disconnecting",
+            session.getId(),
+            queue.size());
+        droppedFrames.add(queue.size() + 1L);
+        onOverflowDisconnect.run();
+        senderExecutor.execute(() -> close(QUEUE_OVERFLOW));
+        closed = true;
+        return false;
+      }
+    }
+  }
+
+  private void scheduleSending() {
+    synchronized (this) {
+      if (sending || !hasSendableFrame()) {
+        return;
+      }
+      sending = true;
+    }
+    senderExecutor.execute(this::sendQueuedFrames);
+  }
+
+  private boolean hasSendableFrame() {
+    return !closed && credits != 0 && (catchUpPending || !queue.isEmpty());
+  }
+
+  private void sendQueuedFrames() {
+    while (true) {
+      final byte[] frame;
+      synchronized (this) {
+        if (!hasSendableFrame()) {
+          sending = false;
+          return;
+        }
+        if (catchUpPending) {
+          catchUpPending = false;
+          frame = CATCH_UP_FRAME;
+        } else {
+          frame = queue.removeFirst();
+          queuedBytes -= frame.length;
+        }
+        if (credits > 0) {
+          credits--;
+        }
+      }
+      try {
+        session.sendMessage(new BinaryMessage(frame));
+        sentFrames.increment();
+      } catch (IOException | RuntimeException e) {
+        log.warn(
+            "Unable to push traffic to binary tracing session {}, closing it", session.getId(), e);
+        close(CloseStatus.SESSION_NOT_RELIABLE);
+        synchronized (this) {
+          sending = false;
+        }
+        return;
+      }
+    }
+  }
+
+  synchronized SubscriberStatistics getStatistics() {
+    return SubscriberStatistics.builder()
+        .id(session.getId())
+        .remoteAddress(String.valueOf(session.getRemoteAddress()))
+        .compressed(compressionNegotiated)
+        .queuedFrames(queue.size())
+        .queuedBytes(queuedBytes)
+        .credits(credits)
+        .sentFrames(sentFrames.sum())
+        .droppedFrames(droppedFrames.sum())
+        .catchUps(catchUps.sum())
+        .build();
+  }
+}
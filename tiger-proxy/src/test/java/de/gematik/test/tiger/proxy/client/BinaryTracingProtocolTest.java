@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.proxy.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.gematik.rbellogger.data.RbelHostname;
+import de.gematik.test.tiger.proxy.client.BinaryTracingProtocol.TracingFrame;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class BinaryTracingProtocolTest {
+
+  private static final TigerTracingDto TRACING_DTO =
+      TigerTracingDto.builder()
+          .requestUuid("request")
+          .responseUuid("response")
+          .sender(new RbelHostname("sender", 1234))
+          .receiver(new RbelHostname("receiver", 443))
+          .requestTransmissionTime(ZonedDateTime.now())
+          .additionalInformationRequest(Map.of("foo", "bar"))
+          .sequenceNumberRequest(4L)
+          .sequenceNumberResponse(5L)
+          .build();
+
+  @Test
+  void traceFrame_shouldContainMetadataAndContent() {
+    final byte[] request = "GET / HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.UTF_8);
+    final byte[] response = "HTTP/1.1 200 OK\r\n\r\n".getBytes(StandardCharsets.UTF_8);
+
+    final TracingFrame frame =
+        BinaryTracingProtocol.decodeFrame(
+            ByteBuffer.wrap(
+                BinaryTracingProtocol.toTraceFrame(
+                    BinaryTracingProtocol.encodeTracePayload(TRACING_DTO, request, response),
+                    true)));
+
+    assertThat(frame.exceptionDto()).isNull();
+    assertThat(frame.requestContent()).isEqualTo(request);
+    assertThat(frame.responseContent()).isEqualTo(response);
+    assertThat(frame.tracingDto())
+        .usingRecursiveComparison()
+        .ignoringFields("requestTransmissionTime")
+        .isEqualTo(TRACING_DTO);
+    assertThat(frame.tracingDto().getRequestTransmissionTime().toInstant())
+        .isEqualTo(TRACING_DTO.getRequestTransmissionTime().toInstant());
+  }
+
+  @Test
+  void largeContent_shouldOnlyBeCompressedWhenNegotiated() {
+    final byte[] content = new byte[100_000];
+    Arrays.fill(content, (byte) 'a');
+    final byte[] payload = BinaryTracingProtocol.encodeTracePayload(TRACING_DTO, content, null);
+
+    final byte[] plainFrame = BinaryTracingProtocol.toTraceFrame(payload, false);
+    final byte[] compressedFrame = BinaryTracingProtocol.toTraceFrame(payload, true);
+
+    assertThat(plainFrame).hasSize(payload.length + BinaryTracingProtocol.FRAME_HEADER_SIZE);
+    assertThat(compressedFrame.length).isLessThan(payload.length / 10);
+    final TracingFrame frame = BinaryTracingProtocol.decodeFrame(ByteBuffer.wrap(compressedFrame));
+    assertThat(frame.requestContent()).isEqualTo(content);
+    assertThat(frame.responseContent()).isNull();
+  }
+
+  @Test
+  void errorFrame_shouldContainException() {
+    final TigerExceptionDto exceptionDto =
+        TigerExceptionDto.builder()
+            .className("java.lang.RuntimeException")
+            .message("boom")
+            .stacktrace("at somewhere")
+            .build();
+
+    final TracingFrame frame =
+        BinaryTracingProtocol.decodeFrame(
+            ByteBuffer.wrap(
+                BinaryTracingProtocol.toErrorFrame(
+                    BinaryTracingProtocol.encodeErrorPayload(exceptionDto), true)));
+
+    assertThat(frame.tracingDto()).isNull();
+    assertThat(frame.exceptionDto()).isEqualTo(exceptionDto);
+  }
+
+  @Test
+  void truncatedFrame_shouldBeRejected() {
+    final byte[] frame =
+        BinaryTracingProtocol.toTraceFrame(
+            BinaryTracingProtocol.encodeTracePayload(TRACING_DTO, new byte[10], null), false);
+
+    assertThatThrownBy(
+            () ->
+                BinaryTracingProtocol.decodeFrame(
+                    ByteBuffer.wrap(Arrays.copyOf(frame, frame.length - 5))))
+        .isInstanceOf(TigerRemoteProxyClientException.class);
+  }
+}
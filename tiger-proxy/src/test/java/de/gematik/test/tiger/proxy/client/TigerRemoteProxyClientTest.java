@@ -643,6 +643,29 @@ class TigerRemoteProxyClientTest {
     assertThat(tigerRemoteProxyClient.getPartiallyReceivedMessageMap()).isEmpty();
   }
 
+  @Test
+  void remoteClient_shouldUseBinaryTracingByDefault() {
+    assertThat(tigerRemoteProxyClient.isBinaryTracingActive()).isTrue();
+  }
+
+  @Test
+  void stompTracing_shouldStillReceiveMessages() {
+    try (final var stompClient =
+        new TigerRemoteProxyClient(
+            "http://localhost:" + springServerPort,
+            TigerProxyConfiguration.builder().activateBinaryTracing(false).build())) {
+      stompClient.connect();
+      assertThat(stompClient.isBinaryTracingActive()).isFalse();
+
+      unirestInstance.get("http://myserv.er/foo").asString();
+
+      TigerProxyTestHelper.waitUntilMessageListInRemoteProxyClientContainsCountMessagesWithTimeout(
+          stompClient, 2, 10);
+      TigerProxyTestHelper.waitUntilMessageListInRemoteProxyClientContainsCountMessagesWithTimeout(
+          tigerRemoteProxyClient, 2, 10);
+    }
+  }
+
   @Test
   void nonExistentRemoteProxy_shouldStartWhenIgnored() {
     try (final var tigerProxy =
@@ -24,13 +24,20 @@ import static org.hamcrest.core.StringContains.containsString;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelElementAssertion;
+import de.gematik.rbellogger.data.facet.RbelTcpIpMessageFacet;
 import de.gematik.rbellogger.data.facet.TracingMessagePairFacet;
+import de.gematik.rbellogger.file.RbelBinaryFileReader;
+import de.gematik.rbellogger.file.RbelFileWriter;
 import de.gematik.test.tiger.config.ResetTigerConfiguration;
 import de.gematik.test.tiger.proxy.TigerProxy;
 import de.gematik.test.tiger.proxy.TigerProxyTestHelper;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
 import kong.unirest.core.Unirest;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -338,6 +345,61 @@ class TigerWebUiControllerTest {
         tigerProxy, TOTAL_OF_EXCHANGED_MESSAGES, 20);
   }
 
+  @Test
+  @ResourceLock(value = "TigerWebUiController")
+  void downloadBinaryTraffic_shouldContainAllMessages() {
+    final List<String> expectedUuids =
+        tigerProxy.getRbelMessagesList().stream().map(RbelElement::getUuid).toList();
+    final byte[] downloadedTraffic =
+        RestAssured.given()
+            .get(getWebUiUrl() + "/trafficLog.tgr?format=binary")
+            .body()
+            .asByteArray();
+
+    RestAssured.given().get(getWebUiUrl() + "/resetMessages").then().statusCode(200);
+
+    assertThat(RbelBinaryFileReader.isBinaryContent(downloadedTraffic)).isTrue();
+    assertThat(tigerProxy.getRbelFileWriter().convertFromRbelFile(downloadedTraffic))
+        .map(RbelElement::getUuid)
+        .containsExactlyElementsOf(expectedUuids);
+  }
+
+  @Test
+  @ResourceLock(value = "TigerWebUiController")
+  void downloadTrafficBySequenceNumbers_shouldReturnRangeAndCursor() throws IOException {
+    final List<RbelElement> messages = tigerProxy.getRbelMessagesList();
+    final long fromSequenceNumber = getSequenceNumber(messages.get(1));
+    final long endSequenceNumber = getSequenceNumber(messages.get(messages.size() - 1)) + 1;
+    final List<String> expectedUuids =
+        messages.stream()
+            .filter(
+                msg ->
+                    getSequenceNumber(msg) >= fromSequenceNumber
+                        && getSequenceNumber(msg) < fromSequenceNumber + 2)
+            .map(RbelElement::getUuid)
+            .toList();
+
+    final Response response =
+        RestAssured.given()
+            .get(
+                getWebUiUrl()
+                    + "/trafficLog.tgr?format=binary&fromSequenceNumber="
+                    + fromSequenceNumber
+                    + "&toSequenceNumber="
+                    + (fromSequenceNumber + 2));
+
+    response
+        .then()
+        .statusCode(200)
+        .header("next-sequence-number", String.valueOf(fromSequenceNumber + 2))
+        .header("end-sequence-number", String.valueOf(endSequenceNumber));
+    assertThat(
+            RbelFileWriter.readRbelFileRecords(
+                new ByteArrayInputStream(response.body().asByteArray())))
+        .extracting(fileRecord -> fileRecord.messageObject().getString(RbelFileWriter.MESSAGE_UUID))
+        .containsExactlyElementsOf(expectedUuids);
+  }
+
   @Test
   @ResourceLock(value = "TigerWebUiController")
   void downloadTraffic_without_filterRbelPath() {
@@ -422,4 +484,8 @@ class TigerWebUiControllerTest {
     assertThat(requestFacet.getResponse().getUuid()).isEqualTo(rbelMessages.get(1).getUuid());
     assertThat(responseFacet.getRequest().getUuid()).isEqualTo(rbelMessages.get(0).getUuid());
   }
+
+  private static long getSequenceNumber(RbelElement msg) {
+    return msg.getFacetOrFail(RbelTcpIpMessageFacet.class).getSequenceNumber();
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.proxy.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.gematik.rbellogger.RbelLogger;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.util.RbelContent;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TigerProxyConfiguration;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BinaryChunksBufferTest {
+
+  private static final InetSocketAddress CLIENT = new InetSocketAddress("localhost", 1234);
+  private static final InetSocketAddress SERVER = new InetSocketAddress("localhost", 443);
+
+  private final BinaryChunksBuffer buffer =
+      new BinaryChunksBuffer(
+          RbelLogger.build().getRbelConverter(), TigerProxyConfiguration.builder().build());
+
+  @Test
+  void twoCompleteMessagesInOneChunk_shouldBothBeConverted() {
+    final List<RbelElement> messages =
+        buffer.tryToConvertMessagesAndBufferUnusedBytes(
+            content(request("/first", "foo") + request("/second", "bar")), CLIENT, SERVER);
+
+    assertThat(messages)
+        .extracting(RbelElement::getRawStringContent)
+        .containsExactly(request("/first", "foo"), request("/second", "bar"));
+  }
+
+  @Test
+  void incompleteRemainder_shouldBeConvertedOnceComplete() {
+    final String second = request("/second", "bar");
+
+    assertThat(
+            buffer.tryToConvertMessagesAndBufferUnusedBytes(
+                content(request("/first", "foo") + second.substring(0, 20)), CLIENT, SERVER))
+        .extracting(RbelElement::getRawStringContent)
+        .containsExactly(request("/first", "foo"));
+    assertThat(
+            buffer.tryToConvertMessagesAndBufferUnusedBytes(
+                content(second.substring(20)), CLIENT, SERVER))
+        .extracting(RbelElement::getRawStringContent)
+        .containsExactly(second);
+  }
+
+  @Test
+  void unconvertibleCompleteMessage_shouldBeSkipped() {
+    final String withoutHost = "POST /broken HTTP/1.1\r\nContent-Length: 3\r\n\r\nfoo";
+
+    assertThat(
+            buffer.tryToConvertMessagesAndBufferUnusedBytes(
+                content(withoutHost + request("/second", "bar")), CLIENT, SERVER))
+        .extracting(RbelElement::getRawStringContent)
+        .containsExactly(request("/second", "bar"));
+    assertThat(
+            buffer.tryToConvertMessagesAndBufferUnusedBytes(
+                content(request("/third", "baz")), CLIENT, SERVER))
+        .extracting(RbelElement::getRawStringContent)
+        .containsExactly(request("/third", "baz"));
+  }
+
+  private static String request(String path, String body) {
+    return "POST "
+        + path
+        + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+        + body.length()
+        + "\r\n\r\n"
+        + body;
+  }
+
+  private static RbelContent content(String message) {
+    return RbelContent.of(message.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.proxy.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.gematik.rbellogger.RbelLogger;
+import de.gematik.rbellogger.converter.RbelConverter;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.RbelElementConvertionPair;
+import de.gematik.rbellogger.data.RbelHostname;
+import de.gematik.rbellogger.data.facet.TigerNonPairedMessageFacet;
+import de.gematik.rbellogger.util.IRbelMessageListener;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TigerProxyConfiguration;
+import de.gematik.test.tiger.proxy.TigerProxy;
+import de.gematik.test.tiger.proxy.client.TigerRemoteProxyClient;
+import de.gematik.test.tiger.proxy.client.TigerTracingDto;
+import de.gematik.test.tiger.proxy.client.TracingMessagePart;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+class TracingPushServiceTest {
+
+  private static final RbelHostname CLIENT = RbelHostname.fromString("client:1234").orElseThrow();
+  private static final RbelHostname OTHER_CLIENT =
+      RbelHostname.fromString("client:5678").orElseThrow();
+  private static final RbelHostname SERVER = RbelHostname.fromString("server:443").orElseThrow();
+
+  private final RbelLogger rbelLogger = RbelLogger.build();
+  private final RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+  private final List<TigerTracingDto> pushedTraces = new CopyOnWriteArrayList<>();
+  private final List<String> pushedDataUuids = new CopyOnWriteArrayList<>();
+  private IRbelMessageListener messageListener;
+
+  @BeforeEach
+  void setUp() {
+    final SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+    doAnswer(
+            invocation -> {
+              pushedTraces.add(invocation.getArgument(1));
+              return null;
+            })
+        .when(template)
+        .convertAndSend(eq(TigerRemoteProxyClient.WS_TRACING), any(Object.class));
+    doAnswer(
+            invocation -> {
+              pushedDataUuids.add(invocation.<TracingMessagePart>getArgument(1).getUuid());
+              return null;
+            })
+        .when(template)
+        .convertAndSend(eq(TigerRemoteProxyClient.WS_DATA), any(Object.class));
+    final TigerProxy tigerProxy = mock(TigerProxy.class);
+    when(tigerProxy.getRbelLogger()).thenReturn(rbelLogger);
+    when(tigerProxy.getTigerProxyConfiguration())
+        .thenReturn(TigerProxyConfiguration.builder().name("upstream").build());
+
+    new TracingPushService(template, tigerProxy, mock(BinaryTracingWebSocketHandler.class))
+        .addWebSocketListener();
+
+    final ArgumentCaptor<IRbelMessageListener> listenerCaptor =
+        ArgumentCaptor.forClass(IRbelMessageListener.class);
+    verify(tigerProxy).addRbelMessageListener(listenerCaptor.capture());
+    messageListener = listenerCaptor.getValue();
+  }
+
+  @Test
+  void messagesOfOneConnection_shouldBePushedInOrder() throws InterruptedException {
+    final RbelElement first = parseNonPairedMessage("/first", CLIENT, SERVER);
+    final RbelElement second = parseNonPairedMessage("/second", SERVER, CLIENT);
+
+    final Thread secondPusher = new Thread(() -> messageListener.triggerNewReceivedMessage(second));
+    secondPusher.start();
+    await()
+        .atMost(10, TimeUnit.SECONDS)
+        .until(() -> secondPusher.getState() == Thread.State.WAITING);
+    assertThat(pushedTraces).isEmpty();
+
+    messageListener.triggerNewReceivedMessage(first);
+    RbelConverter.setMessageFullyProcessed(first);
+    secondPusher.join(10_000);
+
+    assertThat(pushedTraces)
+        .extracting(TigerTracingDto::getRequestUuid)
+        .containsExactly(first.getUuid(), second.getUuid());
+  }
+
+  @Test
+  void messagesOfDifferentConnections_shouldNotWaitForEachOther() {
+    final RbelElement first = parseNonPairedMessage("/first", CLIENT, SERVER);
+    final RbelElement other = parseNonPairedMessage("/other", OTHER_CLIENT, SERVER);
+
+    // the first message is neither pushed nor processed yet
+    messageListener.triggerNewReceivedMessage(other);
+
+    assertThat(pushedTraces)
+        .extracting(TigerTracingDto::getRequestUuid)
+        .containsExactly(other.getUuid());
+    assertThat(first.getUuid()).isNotIn(pushedDataUuids);
+  }
+
+  @Test
+  void response_shouldBePushedTogetherWithItsRequest() {
+    final RbelElement request =
+        parseMessage(
+            new RbelElementConvertionPair(
+                new RbelElement("GET / HTTP/1.1\r\nHost: server\r\n\r\n".getBytes(), null)),
+            CLIENT,
+            SERVER);
+    final RbelElement response =
+        parseMessage(
+            new RbelElementConvertionPair(
+                new RbelElement("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes(), null),
+                CompletableFuture.completedFuture(request)),
+            SERVER,
+            CLIENT);
+
+    messageListener.triggerNewReceivedMessage(request);
+    assertThat(pushedTraces).isEmpty();
+    RbelConverter.setMessageFullyProcessed(request);
+    messageListener.triggerNewReceivedMessage(response);
+
+    assertThat(pushedTraces)
+        .singleElement()
+        .satisfies(
+            trace -> {
+              assertThat(trace.getRequestUuid()).isEqualTo(request.getUuid());
+              assertThat(trace.getResponseUuid()).isEqualTo(response.getUuid());
+            });
+    assertThat(pushedDataUuids).containsExactly(request.getUuid(), response.getUuid());
+  }
+
+  private RbelElement parseNonPairedMessage(
+      String path, RbelHostname sender, RbelHostname receiver) {
+    final RbelElement message =
+        parseMessage(
+            new RbelElementConvertionPair(
+                new RbelElement(
+                    ("GET " + path + " HTTP/1.1\r\nHost: server\r\n\r\n").getBytes(), null)),
+            sender,
+            receiver);
+    message.addFacet(new TigerNonPairedMessageFacet());
+    return message;
+  }
+
+  private RbelElement parseMessage(
+      RbelElementConvertionPair messagePair, RbelHostname sender, RbelHostname receiver) {
+    return rbelConverter.parseMessage(
+        messagePair, sender, receiver, Optional.empty(), RbelConverter.FinishProcessing.NO);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.test.tiger.proxy.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.gematik.test.tiger.common.data.config.tigerproxy.TracingOverflowPolicy;
+import de.gematik.test.tiger.proxy.client.BinaryTracingProtocol;
+import de.gematik.test.tiger.proxy.client.BinaryTracingProtocol.FrameType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+class TracingSubscriberTest {
+
+  private WebSocketSession session;
+  private final List<ByteBuffer> sentFrames = new ArrayList<>();
+  private final AtomicInteger disconnects = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    session = mock(WebSocketSession.class);
+    when(session.getId()).thenReturn("session");
+    doAnswer(
+            invocation -> {
+              sentFrames.add(invocation.<BinaryMessage>getArgument(0).getPayload());
+              return null;
+            })
+        .when(session)
+        .sendMessage(any());
+  }
+
+  @Test
+  void frames_shouldOnlyBeSentWhileCreditsAreLeft() {
+    final TracingSubscriber subscriber = createSubscriber(TracingOverflowPolicy.DROP_OLDEST);
+    subscriber.grantCredits(2);
+
+    for (int i = 0; i < 5; i++) {
+      subscriber.enqueue(buildFrame(i));
+    }
+
+    assertThat(sentFrames).hasSize(2);
+    assertThat(subscriber.getStatistics().getQueuedFrames()).isEqualTo(3);
+
+    subscriber.grantCredits(10);
+
+    assertThat(sentFrames).hasSize(5);
+    assertThat(subscriber.getStatistics().getCredits()).isEqualTo(7);
+  }
+
+  @Test
+  void dropOldest_shouldKeepNewestFrames() {
+    final TracingSubscriber subscriber = createSubscriber(TracingOverflowPolicy.DROP_OLDEST);
+    subscriber.grantCredits(0);
+
+    for (int i = 0; i < 5; i++) {
+      subscriber.enqueue(buildFrame(i));
+    }
+    subscriber.grantCredits(10);
+
+    assertThat(sentFrames).extracting(this::readFrameNumber).containsExactly(2, 3, 4);
+    assertThat(subscriber.getStatistics().getDroppedFrames()).isEqualTo(2);
+  }
+
+  @Test
+  void catchUp_shouldClearQueueAndRequestCatchUp() {
+    final TracingSubscriber subscriber = createSubscriber(TracingOverflowPolicy.CATCH_UP);
+    subscriber.grantCredits(0);
+
+    for (int i = 0; i < 5; i++) {
+      subscriber.enqueue(buildFrame(i));
+    }
+    subscriber.grantCredits(10);
+
+    assertThat(sentFrames).hasSize(3);
+    assertThat(BinaryTracingProtocol.decodeFrame(sentFrames.get(0)).type())
+        .isEqualTo(FrameType.CATCH_UP);
+    assertThat(sentFrames.subList(1, 3)).extracting(this::readFrameNumber).containsExactly(3, 4);
+    assertThat(subscriber.getStatistics().getCatchUps()).isEqualTo(1);
+  }
+
+  @Test
+  void disconnect_shouldCloseSession() throws IOException {
+    final TracingSubscriber subscriber = createSubscriber(TracingOverflowPolicy.DISCONNECT);
+    subscriber.grantCredits(0);
+
+    for (int i = 0; i < 5; i++) {
+      subscriber.enqueue(buildFrame(i));
+    }
+
+    verify(session).close(any(CloseStatus.class));
+    assertThat(disconnects.get()).isEqualTo(1);
+    subscriber.grantCredits(10);
+    assertThat(sentFrames).isEmpty();
+  }
+
+  private TracingSubscriber createSubscriber(TracingOverflowPolicy overflowPolicy) {
+    return new TracingSubscriber(
+        session, 3, 1024 * 1024, overflowPolicy, Runnable::run, disconnects::incrementAndGet);
+  }
+
+  private static byte[] buildFrame(int number) {
+    return BinaryTracingProtocol.toCreditFrame(number);
+  }
+
+  private int readFrameNumber(ByteBuffer frame) {
+    return BinaryTracingProtocol.decodeFrame(frame.duplicate()).credits();
+  }
+}
@@ -19,6 +19,7 @@ package de.gematik.rbellogger;
 import de.gematik.rbellogger.captures.RbelCapturer;
 import de.gematik.rbellogger.configuration.RbelConfiguration;
 import de.gematik.rbellogger.converter.*;
+import de.gematik.rbellogger.converter.eviction.RbelBufferEvictionPolicy;
 import de.gematik.rbellogger.converter.listener.RbelJwkReader;
 import de.gematik.rbellogger.converter.listener.RbelX5cKeyReader;
 import de.gematik.rbellogger.data.RbelElement;
@@ -54,9 +55,13 @@ public class RbelLogger {
             .rbelKeyManager(new RbelKeyManager())
             .manageBuffer(configuration.isManageBuffer())
             .rbelBufferSizeInMb(configuration.getRbelBufferSizeInMb())
+            .evictionPolicy(
+                RbelBufferEvictionPolicy.forStrategy(configuration.getRbelBufferEvictionStrategy()))
             .skipParsingWhenMessageLargerThanKb(
                 configuration.getSkipParsingWhenMessageLargerThanKb())
             .activateRbelParsingFor(configuration.getActivateRbelParsingFor())
+            .parsingExecutor(RbelParsingExecutor.create(configuration.getTrafficParsing()))
+            .spillStore(RbelMessageSpillStore.create(configuration.getTrafficSpill()))
             .build();
 
     rbelConverter.initializeConverters(configuration);
@@ -21,8 +21,6 @@ import de.gematik.rbellogger.file.RbelFileWriter;
 import de.gematik.test.tiger.exceptions.GenericTigerException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import lombok.Builder;
 
@@ -39,8 +37,7 @@ public class RbelFileReaderCapturer extends RbelCapturer {
   @Override
   public RbelCapturer initialize() {
     try {
-      new RbelFileWriter(getRbelConverter())
-          .convertFromRbelFile(Files.readString(Paths.get(rbelFile), StandardCharsets.UTF_8));
+      new RbelFileWriter(getRbelConverter()).readRbelFile(Paths.get(rbelFile), message -> {});
       return this;
     } catch (UncheckedIOException | IOException e) {
       throw new RbelFileIoException(
@@ -21,6 +21,9 @@ import de.gematik.rbellogger.captures.RbelCapturer;
 import de.gematik.rbellogger.converter.RbelConverter;
 import de.gematik.rbellogger.converter.RbelConverterPlugin;
 import de.gematik.rbellogger.key.RbelKey;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficParsingConfiguration;
+import de.gematik.test.tiger.common.data.config.tigerproxy.RbelBufferEvictionStrategy;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficSpillConfiguration;
 import java.security.Key;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -46,10 +49,20 @@ public class RbelConfiguration {
   @Builder.Default private Map<String, RbelKey> keys = new HashMap<>();
   private RbelCapturer capturer;
   @Builder.Default private int rbelBufferSizeInMb = 1024;
+
+  @Builder.Default
+  private RbelBufferEvictionStrategy rbelBufferEvictionStrategy = RbelBufferEvictionStrategy.FIFO;
+
   @Builder.Default private int skipParsingWhenMessageLargerThanKb = 16_000;
   @Builder.Default private boolean manageBuffer = false;
   private Boolean lenientHttpParsing;
 
+  @Builder.Default
+  private TrafficParsingConfiguration trafficParsing = new TrafficParsingConfiguration();
+
+  @Builder.Default
+  private TrafficSpillConfiguration trafficSpill = new TrafficSpillConfiguration();
+
   public RbelConfiguration addPostConversionListener(RbelConverterPlugin listener) {
     postConversionListener.add(listener);
     return this;
@@ -21,12 +21,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelMultiMap;
 import de.gematik.rbellogger.data.facet.*;
+import de.gematik.rbellogger.util.RbelContent;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -62,25 +64,40 @@ public abstract class AbstractJacksonConverter<F extends RbelFacet> extends Rbel
     return true;
   }
 
+  /**
+   * Source ranges allow child elements to share the content of the parsed element. Formats whose
+   * child elements are not a verbatim part of the source (e.g. CBOR, rendered as JSON) return
+   * empty, their children are re-serialized from the Jackson node.
+   */
+  Optional<JsonSourceRange> findSourceRanges(RbelElement target) {
+    return Optional.empty();
+  }
+
   @Override
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
     convertToJacksonNode(rbelElement)
         .filter(json -> json.isContainerNode() && !json.isEmpty())
         .ifPresent(
             json -> {
-              augmentRbelElementWithFacet(json, converter, rbelElement);
+              final RbelContent rootContent = rbelElement.getContent();
+              final JsonSourceRange sourceRange = findSourceRanges(rbelElement).orElse(null);
+              augmentRbelElementWithFacet(json, converter, rbelElement, sourceRange, rootContent);
               rbelElement.addFacet(new RbelRootFacet<>(rbelElement.getFacetOrFail(facetClass)));
             });
   }
 
   @SneakyThrows
   private void augmentRbelElementWithFacet(
-      final JsonNode node, final RbelConverter context, final RbelElement parentElement) {
+      final JsonNode node,
+      final RbelConverter context,
+      final RbelElement parentElement,
+      @Nullable final JsonSourceRange sourceRange,
+      final RbelContent rootContent) {
     parentElement.addFacet(buildFacetForNode(node));
     if (node.isObject()) {
-      convertObject(node, context, parentElement);
+      convertObject(node, context, parentElement, sourceRange, rootContent);
     } else if (node.isArray()) {
-      convertArray(node, context, parentElement);
+      convertArray(node, context, parentElement, sourceRange, rootContent);
     } else if (node.isValueNode()) {
       convertPrimitive(node, context, parentElement);
     } else {
@@ -109,34 +126,62 @@ public abstract class AbstractJacksonConverter<F extends RbelFacet> extends Rbel
     }
   }
 
-  private void convertArray(JsonNode node, RbelConverter context, RbelElement parentElement) {
+  private void convertArray(
+      JsonNode node,
+      RbelConverter context,
+      RbelElement parentElement,
+      @Nullable JsonSourceRange sourceRange,
+      RbelContent rootContent) {
     final ArrayList<RbelElement> elementList = new ArrayList<>();
 
     parentElement.addFacet(RbelListFacet.builder().childNodes(elementList).build());
 
-    for (Iterator<JsonNode> it = node.elements(); it.hasNext(); ) {
+    int index = 0;
+    for (Iterator<JsonNode> it = node.elements(); it.hasNext(); index++) {
       JsonNode el = it.next();
-      RbelElement newChild =
-          new RbelElement(el.toString().getBytes(parentElement.getElementCharset()), parentElement);
-      augmentRbelElementWithFacet(el, context, newChild);
+      final JsonSourceRange childRange =
+          sourceRange == null ? null : sourceRange.getElement(index);
+      RbelElement newChild = buildChildElement(el, parentElement, childRange, rootContent);
+      augmentRbelElementWithFacet(el, context, newChild, childRange, rootContent);
       elementList.add(newChild);
     }
   }
 
-  private void convertObject(JsonNode node, RbelConverter context, RbelElement parentElement) {
+  private void convertObject(
+      JsonNode node,
+      RbelConverter context,
+      RbelElement parentElement,
+      @Nullable JsonSourceRange sourceRange,
+      RbelContent rootContent) {
     final RbelMultiMap<RbelElement> elementMap = new RbelMultiMap<>();
     parentElement.addFacet(RbelMapFacet.builder().childNodes(elementMap).build());
     for (Iterator<Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
       Entry<String, JsonNode> entry = it.next();
+      final JsonSourceRange childRange =
+          sourceRange == null ? null : sourceRange.getField(entry.getKey());
       RbelElement newChild =
-          new RbelElement(
-              entry.getValue().toString().getBytes(parentElement.getElementCharset()),
-              parentElement);
-      augmentRbelElementWithFacet(entry.getValue(), context, newChild);
+          buildChildElement(entry.getValue(), parentElement, childRange, rootContent);
+      augmentRbelElementWithFacet(entry.getValue(), context, newChild, childRange, rootContent);
       elementMap.put(entry.getKey(), newChild);
     }
   }
 
+  /** Slices the child out of the parsed content if possible, re-serializes it otherwise. */
+  private static RbelElement buildChildElement(
+      JsonNode node,
+      RbelElement parentElement,
+      @Nullable JsonSourceRange sourceRange,
+      RbelContent rootContent) {
+    if (sourceRange != null) {
+      return RbelElement.builder()
+          .content(rootContent.subContent(sourceRange.getStart(), sourceRange.getEnd()))
+          .parentNode(parentElement)
+          .build();
+    }
+    return new RbelElement(
+        node.toString().getBytes(parentElement.getElementCharset()), parentElement);
+  }
+
   private void addFacetAndConvertNestedElement(
       RbelElement parentElement, Object value, RbelConverter context) {
     final RbelElement nestedElement = RbelElement.wrap(parentElement, value);
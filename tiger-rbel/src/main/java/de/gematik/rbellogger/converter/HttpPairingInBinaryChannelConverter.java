@@ -26,6 +26,12 @@ import lombok.val;
 
 @ConverterInfo(addAutomatically = false)
 public class HttpPairingInBinaryChannelConverter extends RbelConverterPlugin {
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.rootElement()
+        .and(RbelConverterApplicability.elementWithFacet(RbelHttpResponseFacet.class));
+  }
+
   @Override
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
     if (rbelElement.getParentNode() != null) {
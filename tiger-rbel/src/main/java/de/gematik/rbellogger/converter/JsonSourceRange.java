@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.gematik.rbellogger.util.RbelContent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Byte range of a JSON value inside the content it was parsed from, together with the ranges of
+ * its members. Lets the JSON converter hand out slices of the parent content to child elements
+ * instead of re-serializing every subtree.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+class JsonSourceRange {
+
+  @Getter private final int start;
+  @Getter private int end;
+  // duplicate keys: the last one wins, as in Jacksons tree model
+  private Map<String, JsonSourceRange> fields;
+  private List<JsonSourceRange> elements;
+
+  /** Scans the first JSON value of the content. Empty if the content is not valid JSON. */
+  static Optional<JsonSourceRange> scan(JsonFactory jsonFactory, RbelContent content) {
+    try (JsonParser parser = jsonFactory.createParser(content.toInputStream())) {
+      if (parser.nextToken() == null) {
+        return Optional.empty();
+      }
+      final JsonSourceRange result = readValue(parser);
+      if (result.start < 0 || result.end > content.size()) {
+        return Optional.empty();
+      }
+      return Optional.of(result);
+    } catch (IOException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static JsonSourceRange readValue(JsonParser parser) throws IOException {
+    final JsonToken token = parser.currentToken();
+    final JsonSourceRange range =
+        new JsonSourceRange((int) parser.currentTokenLocation().getByteOffset());
+    if (token == JsonToken.START_OBJECT) {
+      range.fields = new HashMap<>();
+      while (nextToken(parser) == JsonToken.FIELD_NAME) {
+        final String fieldName = parser.currentName();
+        nextToken(parser);
+        range.fields.put(fieldName, readValue(parser));
+      }
+      range.end = (int) parser.currentTokenLocation().getByteOffset() + 1;
+    } else if (token == JsonToken.START_ARRAY) {
+      range.elements = new ArrayList<>();
+      while (nextToken(parser) != JsonToken.END_ARRAY) {
+        range.elements.add(readValue(parser));
+      }
+      range.end = (int) parser.currentTokenLocation().getByteOffset() + 1;
+    } else {
+      parser.finishToken();
+      range.end = (int) parser.currentLocation().getByteOffset();
+    }
+    if (range.start < 0 || range.end <= range.start) {
+      throw new JsonParseException(parser, "No byte offsets available");
+    }
+    return range;
+  }
+
+  private static JsonToken nextToken(JsonParser parser) throws IOException {
+    final JsonToken token = parser.nextToken();
+    if (token == null) {
+      throw new JsonParseException(parser, "Unexpected end of JSON content");
+    }
+    return token;
+  }
+
+  @Nullable
+  JsonSourceRange getField(String name) {
+    return fields == null ? null : fields.get(name);
+  }
+
+  @Nullable
+  JsonSourceRange getElement(int index) {
+    return elements == null || index >= elements.size() ? null : elements.get(index);
+  }
+}
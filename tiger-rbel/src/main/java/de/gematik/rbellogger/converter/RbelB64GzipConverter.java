@@ -31,6 +31,11 @@ public class RbelB64GzipConverter extends RbelConverterPlugin {
   // base 64 encoded gzip prefix
   private final byte[] b64GzipPrefix = "H4s".getBytes();
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.contentStartingWith(b64GzipPrefix);
+  }
+
   @Override
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
     val potentiallyB64Gzip = rbelElement.getContent().startsWith(b64GzipPrefix);
@@ -23,6 +23,11 @@ import java.nio.charset.StandardCharsets;
 public class RbelBearerTokenConverter extends RbelConverterPlugin {
   private static final byte[] BEARER_TOKEN_PREFIX = "Bearer ".getBytes(StandardCharsets.UTF_8);
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.contentStartingWith(BEARER_TOKEN_PREFIX);
+  }
+
   @Override
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
     var content = rbelElement.getContent();
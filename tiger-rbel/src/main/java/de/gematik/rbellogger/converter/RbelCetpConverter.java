@@ -29,6 +29,11 @@ public class RbelCetpConverter extends RbelConverterPlugin {
     return true;
   }
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.contentStartingWith(CETP_INTRO_MARKER);
+  }
+
   @Override
   public void consumeElement(final RbelElement targetElement, final RbelConverter converter) {
     var content = targetElement.getContent();
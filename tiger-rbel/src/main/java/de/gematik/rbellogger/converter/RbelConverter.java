@@ -19,6 +19,8 @@ package de.gematik.rbellogger.converter;
 import de.gematik.rbellogger.RbelConverterInitializer;
 import de.gematik.rbellogger.configuration.RbelConfiguration;
 import de.gematik.rbellogger.converter.brainpool.BrainpoolCurves;
+import de.gematik.rbellogger.converter.eviction.FifoEvictionPolicy;
+import de.gematik.rbellogger.converter.eviction.RbelBufferEvictionPolicy;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelElementConvertionPair;
 import de.gematik.rbellogger.data.RbelHostname;
@@ -26,17 +28,25 @@ import de.gematik.rbellogger.data.RbelMultiMap;
 import de.gematik.rbellogger.data.facet.*;
 import de.gematik.rbellogger.exceptions.RbelConversionException;
 import de.gematik.rbellogger.key.RbelKeyManager;
+import de.gematik.rbellogger.util.RbelContent;
+import de.gematik.rbellogger.util.RbelElementSizeEstimator;
+import de.gematik.rbellogger.util.RbelMessageHistory;
 import de.gematik.rbellogger.util.RbelMessagesDequeFacade;
 import de.gematik.test.tiger.common.config.TigerTypedConfigurationKey;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficParsingConfiguration;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficSpillConfiguration;
 import de.gematik.test.tiger.common.util.TigerSecurityProviderInitialiser;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import lombok.*;
@@ -53,8 +63,10 @@ public class RbelConverter {
     TigerSecurityProviderInitialiser.initialize();
   }
 
-  private final Deque<RbelElement> messageHistory = new ConcurrentLinkedDeque<>();
-  private final Set<String> knownMessageUuids = ConcurrentHashMap.newKeySet();
+  private final RbelMessageHistory messageHistory = new RbelMessageHistory();
+  private final Map<String, IndexedMessage> messagesByUuid = new ConcurrentHashMap<>();
+  // messages used by a validation, by uuid with the number of pins
+  private final Map<String, Integer> pinnedMessages = new ConcurrentHashMap<>();
   private final RbelMultiMap<CompletableFuture<RbelElement>> messagesWaitingForCompletion =
       new RbelMultiMap<>();
   @Getter private final RbelKeyManager rbelKeyManager;
@@ -63,16 +75,28 @@ public class RbelConverter {
   private final List<RbelConverterPlugin> converterPlugins = new ArrayList<>();
   @Builder.Default private int rbelBufferSizeInMb = 1024;
   @Builder.Default private boolean manageBuffer = false;
-  @Getter @Builder.Default private long currentBufferSize = 0;
-  @Builder.Default private long messageSequenceNumber = 0;
+  private final AtomicLong currentBufferSize = new AtomicLong();
   @Builder.Default private int skipParsingWhenMessageLargerThanKb = -1;
   @Builder.Default private List<String> activateRbelParsingFor = List.of();
 
   @Builder.Default private volatile boolean shallInitializeConverters = true;
 
-  private final AtomicReference<PreviousMessageFacet> lastConvertedMessage =
+  private final Map<String, CompletableFuture<Boolean>> lastMessageOfConnection =
+      new ConcurrentHashMap<>();
+  private final AtomicReference<RbelConverterDispatchIndex> dispatchIndex =
       new AtomicReference<>();
 
+  @Getter @Builder.Default
+  private RbelParsingExecutor parsingExecutor =
+      RbelParsingExecutor.create(new TrafficParsingConfiguration());
+
+  @Getter @Builder.Default
+  private RbelMessageSpillStore spillStore =
+      RbelMessageSpillStore.create(new TrafficSpillConfiguration());
+
+  @Getter @Builder.Default
+  private RbelBufferEvictionPolicy evictionPolicy = new FifoEvictionPolicy();
+
   public static final TigerTypedConfigurationKey<Integer> RAW_STRING_MAX_TRACE_LENGTH =
       new TigerTypedConfigurationKey<>(
           "tiger.rbel.rawstring.max.trace.length", Integer.class, 1000);
@@ -129,18 +153,23 @@ public class RbelConverter {
     boolean elementIsOversized =
         skipParsingWhenMessageLargerThanKb > -1
             && (convertedInput.getSize() > skipParsingWhenMessageLargerThanKb * 1024L);
-    boolean inputWasIgnoredDueToOversize = false;
-    for (RbelConverterPlugin plugin : converterPlugins) {
-      if (elementIsOversized && !plugin.ignoreOversize()) {
-        inputWasIgnoredDueToOversize = true;
+    final RbelConverterDispatchIndex index = getDispatchIndex();
+    boolean inputWasIgnoredDueToOversize =
+        elementIsOversized && index.anyPluginSkipsOversizedElements();
+    for (RbelConverterDispatchIndex.Candidate candidate : index.findCandidates(convertedInput)) {
+      final RbelConverterPlugin plugin = candidate.plugin();
+      if ((elementIsOversized && !plugin.ignoreOversize())
+          || !plugin.isActive()
+          || !candidate.applicability().isApplicableTo(convertedInput)) {
         continue;
       }
+      final int facetsBeforeConversion = convertedInput.getFacets().size();
       try {
-        if (plugin.isActive()) {
-
-          plugin.consumeElement(convertedInput, this);
-        }
+        plugin.consumeElement(convertedInput, this);
+        plugin.recordConversionAttempt(
+            convertedInput.getFacets().size() > facetsBeforeConversion);
       } catch (RuntimeException e) {
+        plugin.recordConversionAttempt(false);
         val conversionException =
             RbelConversionException.wrapIfNotAConversionException(e, plugin, convertedInput);
         conversionException.printDetailsToLog(log);
@@ -162,6 +191,31 @@ public class RbelConverter {
     return convertedInput;
   }
 
+  /**
+   * Asks the active converters where the message at the start of the given stream content ends.
+   * The first converter that recognizes the message decides.
+   */
+  public RbelMessageFrame findMessageFrame(RbelContent bufferedContent) {
+    initializeConverters(new RbelConfiguration());
+    for (RbelConverterPlugin plugin : converterPlugins) {
+      if (!plugin.isActive()) {
+        continue;
+      }
+      try {
+        final RbelMessageFrame frame = plugin.findMessageFrame(bufferedContent);
+        if (frame.getState() != RbelMessageFrame.State.UNKNOWN) {
+          return frame;
+        }
+      } catch (RuntimeException e) {
+        log.atTrace()
+            .addArgument(() -> plugin.getClass().getSimpleName())
+            .setCause(e)
+            .log("Error while framing message with {}");
+      }
+    }
+    return RbelMessageFrame.unknown();
+  }
+
   public void registerListener(final RbelConverterPlugin listener) {
     postConversionListeners.add(listener);
   }
@@ -177,6 +231,33 @@ public class RbelConverter {
   public void addConverter(RbelConverterPlugin converter) {
     synchronized (converterPlugins) {
       converterPlugins.add(converter);
+      dispatchIndex.set(null);
+    }
+  }
+
+  private RbelConverterDispatchIndex getDispatchIndex() {
+    final RbelConverterDispatchIndex index = dispatchIndex.get();
+    if (index != null) {
+      return index;
+    }
+    synchronized (converterPlugins) {
+      return dispatchIndex.updateAndGet(
+          current -> current != null ? current : new RbelConverterDispatchIndex(converterPlugins));
+    }
+  }
+
+  /** Conversion statistics of the registered converters, keyed by converter class name. */
+  public Map<String, RbelConverterPlugin.Statistics> getConverterStatistics() {
+    final Map<String, RbelConverterPlugin.Statistics> result = new LinkedHashMap<>();
+    for (RbelConverterPlugin plugin : getConverterPlugins()) {
+      result.put(plugin.getClass().getName(), plugin.getStatistics());
+    }
+    return result;
+  }
+
+  public List<RbelConverterPlugin> getConverterPlugins() {
+    synchronized (converterPlugins) {
+      return List.copyOf(converterPlugins);
     }
   }
 
@@ -223,6 +304,8 @@ public class RbelConverter {
     } finally {
       if (finishProcessing == FinishProcessing.YES) {
         setMessageFullyProcessed(messagePair.getMessage());
+        // the message could not be evicted while it was processed
+        manageRbelBufferSize();
       }
     }
   }
@@ -236,7 +319,42 @@ public class RbelConverter {
     if (messageElement.getContent().isNull()) {
       throw new RbelConversionException("content is empty");
     }
+    final CompletableFuture<RbelElement> result = new CompletableFuture<>();
+    final Runnable parsingTask = () -> parseQueuedMessage(messagePair, transmissionTime, result);
+    final String connectionKey = RbelParsingExecutor.connectionKey(sender, receiver);
+    final AtomicBoolean addedToHistory = new AtomicBoolean();
+    // Sequence numbers and lane order must agree: a message only ever waits for earlier messages,
+    // which therefore must not be queued behind it. The executor adds the message while it holds
+    // the lane, after having waited for room in it. Messages of other lanes are appended
+    // concurrently, the history publishes them in sequence order.
+    final Runnable addToHistory =
+        () -> {
+          addMessageToHistory(messageElement, sender, receiver, connectionKey);
+          addedToHistory.set(true);
+        };
+    try {
+      parsingExecutor.execute(connectionKey, addToHistory, parsingTask);
+    } catch (RejectedExecutionException e) {
+      log.atTrace().addArgument(e::getMessage).log("Message not queued for parsing: {}");
+      if (!addedToHistory.get()) {
+        // rejected before the executor got to add it: the lane was full
+        addToHistory.run();
+      }
+      handleRejectedMessage(messagePair, transmissionTime, result, parsingTask);
+    }
+    manageRbelBufferSize();
+    return result;
+  }
+
+  private void addMessageToHistory(
+      RbelElement messageElement,
+      RbelHostname sender,
+      RbelHostname receiver,
+      String connectionKey) {
+    // added before the message becomes visible, so the parsed watermark can not pass it
+    messageElement.addFacet(new RbelParsingNotCompleteFacet(this));
     long seqNumber = addMessageToHistoryWithNextSequenceNumber(messageElement);
+    linkToPreviousMessageOfConnection(messageElement, connectionKey);
 
     messageElement.addFacet(
         RbelTcpIpMessageFacet.builder()
@@ -244,22 +362,71 @@ public class RbelConverter {
             .sender(RbelHostnameFacet.buildRbelHostnameFacet(messageElement, sender))
             .sequenceNumber(seqNumber)
             .build());
+  }
 
-    messageElement.addFacet(new RbelParsingNotCompleteFacet(this));
+  private void parseQueuedMessage(
+      RbelElementConvertionPair messagePair,
+      Optional<ZonedDateTime> transmissionTime,
+      CompletableFuture<RbelElement> result) {
+    final var messageElement = messagePair.getMessage();
+    final long start = System.nanoTime();
+    try {
+      final var facetTypesBeforeParsing = RbelMessageSpillStore.getFacetTypes(messageElement);
+      convertElement(messageElement);
+      spillStore.recordParsedFacets(messageElement, facetTypesBeforeParsing);
+      doMessagePostConversion(messagePair, transmissionTime);
+      accountParsedMessage(messageElement);
+      result.complete(messageElement);
+    } catch (RuntimeException e) {
+      setMessageFullyProcessed(messageElement);
+      result.completeExceptionally(e);
+    } finally {
+      messageElement.removeFacetsOfType(RbelParsingNotCompleteFacet.class);
+      parsingExecutor.recordParsedMessage(System.nanoTime() - start);
+    }
+  }
 
-    return CompletableFuture.supplyAsync(
-        () -> {
-          try {
-            convertElement(messageElement);
-            doMessagePostConversion(messagePair, transmissionTime);
-            return messageElement;
-          } catch (Exception e) {
-            setMessageFullyProcessed(messageElement);
-            throw e;
-          } finally {
-            messageElement.removeFacetsOfType(RbelParsingNotCompleteFacet.class);
-          }
-        });
+  private void handleRejectedMessage(
+      RbelElementConvertionPair messagePair,
+      Optional<ZonedDateTime> transmissionTime,
+      CompletableFuture<RbelElement> result,
+      Runnable parsingTask) {
+    final var messageElement = messagePair.getMessage();
+    if (parsingExecutor.isShutdown()) {
+      parsingTask.run();
+      return;
+    }
+    switch (parsingExecutor.getBackpressure()) {
+      case DROP -> {
+        parsingExecutor.recordRejectedMessage();
+        removeMessage(messageElement);
+        messageElement.removeFacetsOfType(RbelParsingNotCompleteFacet.class);
+        setMessageFullyProcessed(messageElement);
+        result.completeExceptionally(
+            new RbelConversionException(
+                "Parsing queue is full, dropped message " + messageElement.getUuid()));
+      }
+      case SKIP_PARSING -> {
+        parsingExecutor.recordRejectedMessage();
+        messageElement.addFacet(
+            new RbelNoteFacet(
+                "Parsing skipped: the parsing queue was full", RbelNoteFacet.NoteStyling.WARN));
+        spillStore.recordParsedFacets(
+            messageElement, RbelMessageSpillStore.getFacetTypes(messageElement));
+        try {
+          doMessagePostConversion(messagePair, transmissionTime);
+          accountParsedMessage(messageElement);
+          result.complete(messageElement);
+        } catch (RuntimeException e) {
+          setMessageFullyProcessed(messageElement);
+          result.completeExceptionally(e);
+        } finally {
+          messageElement.removeFacetsOfType(RbelParsingNotCompleteFacet.class);
+        }
+      }
+      // BLOCK only rejects if the caller was interrupted while waiting
+      default -> parsingTask.run();
+    }
   }
 
   public RbelElement doMessagePostConversion(
@@ -295,19 +462,44 @@ public class RbelConverter {
   }
 
   private long addMessageToHistoryWithNextSequenceNumber(RbelElement rbelElement) {
-    long seqNumber;
-    synchronized (messageHistory) {
-      Optional.ofNullable(lastConvertedMessage.getAndSet(new PreviousMessageFacet(rbelElement)))
-          .ifPresent(rbelElement::addFacet);
-      currentBufferSize += rbelElement.getSize();
-      knownMessageUuids.add(rbelElement.getUuid());
-      messageHistory.add(rbelElement);
-      seqNumber = messageSequenceNumber++;
+    rbelElement.addFacet(new MessageProcessingStateFacet());
+    final long rawSize = rbelElement.getSize();
+    currentBufferSize.addAndGet(rawSize);
+    final long seqNumber = messageHistory.append(rbelElement);
+    // derived from the sequence number, other lanes may have appended messages in the meantime
+    messageHistory
+        .get(seqNumber - 1)
+        .map(PreviousMessageFacet::new)
+        .ifPresent(rbelElement::addFacet);
+    final IndexedMessage replacedMessage =
+        messagesByUuid.put(
+            rbelElement.getUuid(),
+            new IndexedMessage(rbelElement, seqNumber, new AtomicLong(rawSize)));
+    if (replacedMessage != null) {
+      // a message with the same uuid was added again, it is no longer accounted for
+      currentBufferSize.addAndGet(-replacedMessage.release());
     }
-    manageRbelBufferSize();
+    evictionPolicy.messageAdded(rbelElement, seqNumber);
     return seqNumber;
   }
 
+  private void linkToPreviousMessageOfConnection(RbelElement rbelElement, String connectionKey) {
+    rbelElement
+        .getFacet(MessageProcessingStateFacet.class)
+        .map(MessageProcessingStateFacet::getProcessed)
+        .ifPresent(
+            processed -> {
+              final CompletableFuture<Boolean> previous =
+                  lastMessageOfConnection.put(connectionKey, processed);
+              if (previous != null && !previous.isDone()) {
+                rbelElement.addFacet(new PreviousConnectionMessageFacet(previous));
+              }
+              // only connections with messages still being processed are tracked
+              processed.whenComplete(
+                  (result, error) -> lastMessageOfConnection.remove(connectionKey, processed));
+            });
+  }
+
   public RbelConverter addLastPostConversionListener(RbelConverterPlugin postConversionListener) {
     postConversionListeners.add(postConversionListener);
     return this;
@@ -319,43 +511,188 @@ public class RbelConverter {
   }
 
   public void removeAllConverterPlugins() {
-    converterPlugins.clear();
+    synchronized (converterPlugins) {
+      converterPlugins.clear();
+      dispatchIndex.set(null);
+    }
   }
 
   public void manageRbelBufferSize() {
-    if (manageBuffer) {
-      synchronized (messageHistory) {
-        if (rbelBufferSizeInMb <= 0 && !messageHistory.isEmpty()) {
-          currentBufferSize = 0;
-          messageHistory.clear();
-          knownMessageUuids.clear();
-        }
-        if (rbelBufferSizeInMb > 0) {
-          long exceedingLimit = getExceedingLimit(currentBufferSize);
-          if (exceedingLimit > 0) {
-            log.trace(
-                "Buffer is currently at {} Mb which exceeds the limit of {} Mb",
-                currentBufferSize / (1024 ^ 2),
-                rbelBufferSizeInMb);
-          }
-          while (exceedingLimit > 0 && !messageHistory.isEmpty()) {
-            log.trace("Exceeded buffer size, dropping oldest message in history");
-            final RbelElement messageToDrop = messageHistory.removeFirst();
-            exceedingLimit -= messageToDrop.getSize();
-            currentBufferSize -= messageToDrop.getSize();
-            knownMessageUuids.remove(messageToDrop.getUuid());
-          }
-        }
+    if (!manageBuffer) {
+      return;
+    }
+    if (spillStore.isEnabled()) {
+      spillMessagesExceedingBuffer();
+      return;
+    }
+    if (rbelBufferSizeInMb <= 0) {
+      while (evictMessages()) {
+        // the buffer is disabled, keep nothing
       }
+      return;
+    }
+    if (getExceedingLimit(currentBufferSize.get()) > 0) {
+      log.trace(
+          "Buffer is currently at {} Mb which exceeds the limit of {} Mb",
+          currentBufferSize.get() / (1024 ^ 2),
+          rbelBufferSizeInMb);
+    }
+    while (getExceedingLimit(currentBufferSize.get()) > 0 && evictMessages()) {
+      log.trace("Exceeded buffer size, evicted messages from history");
+    }
+  }
+
+  /**
+   * Removes the messages selected by the eviction policy. Returns false if nothing was evicted,
+   * e.g. because all candidates are still being parsed or are pinned.
+   */
+  private boolean evictMessages() {
+    boolean evicted = false;
+    for (RbelElement message :
+        evictionPolicy.selectMessagesToEvict(messageHistory, this::isEvictable)) {
+      evicted |= removeFromHistory(message);
+    }
+    if (evicted) {
+      messageHistory.discardRemovedMessagesAtFront();
+      messageHistory.advanceParsedWatermark();
+    }
+    return evicted;
+  }
+
+  private boolean isEvictable(RbelElement message) {
+    return !message.hasFacet(RbelParsingNotCompleteFacet.class)
+        && !message.hasFacet(MessageProcessingStateFacet.class)
+        && !pinnedMessages.containsKey(message.getUuid());
+  }
+
+  /**
+   * Protects the message from being evicted or spilled until it is unpinned again, e.g. while a
+   * validation works on it. Pins are counted, every pin needs its own {@link #unpinMessage}.
+   */
+  public void pinMessage(RbelElement message) {
+    pinnedMessages.merge(message.getUuid(), 1, Integer::sum);
+    recordMessageAccess(message);
+  }
+
+  public void unpinMessage(RbelElement message) {
+    pinnedMessages.computeIfPresent(message.getUuid(), (uuid, pins) -> pins > 1 ? pins - 1 : null);
+  }
+
+  private boolean dropOldestMessage() {
+    final RbelElement messageToDrop = messageHistory.pollFirst();
+    if (messageToDrop == null) {
+      return false;
+    }
+    releaseMessage(messageToDrop);
+    return true;
+  }
+
+  private void spillMessagesExceedingBuffer() {
+    final long bufferSizeInBytes = Math.max(0, rbelBufferSizeInMb) * 1024L * 1024;
+    spillStore.spillMessages(
+        messageHistory,
+        () -> currentBufferSize.get() > bufferSizeInBytes,
+        message -> !pinnedMessages.containsKey(message.getUuid()),
+        message -> updateAccountedSize(message, 0));
+    final List<Long> lostSequenceNumbers = spillStore.dropChunksExceedingBudget();
+    if (lostSequenceNumbers.isEmpty()) {
+      return;
+    }
+    log.trace("Spill files exceeded their budget, dropping {}", lostSequenceNumbers.size());
+    for (Long seqNumber : lostSequenceNumbers) {
+      messageHistory
+          .get(seqNumber)
+          .filter(spillStore::isSpilled)
+          .filter(msg -> messageHistory.remove(seqNumber, msg))
+          .ifPresent(this::releaseMessage);
+    }
+    messageHistory.discardRemovedMessagesAtFront();
+    messageHistory.advanceParsedWatermark();
+  }
+
+  /**
+   * Updates the buffer accounting, the indexes and the eviction policy for a message that left the
+   * history.
+   */
+  private void releaseMessage(RbelElement message) {
+    if (spillStore.isSpilled(message)) {
+      spillStore.recordDroppedMessage(message);
+    }
+    final IndexedMessage indexedMessage = messagesByUuid.get(message.getUuid());
+    if (indexedMessage != null && indexedMessage.message() == message) {
+      currentBufferSize.addAndGet(-indexedMessage.release());
+      messagesByUuid.remove(message.getUuid(), indexedMessage);
+      evictionPolicy.messageRemoved(message, indexedMessage.sequenceNumber());
+    }
+  }
+
+  /**
+   * Accounts a parsed message with the estimated size of its whole tree (facets and decoded
+   * children included) instead of its raw size.
+   */
+  private void accountParsedMessage(RbelElement message) {
+    updateAccountedSize(message, RbelElementSizeEstimator.estimateRetainedSize(message));
+  }
+
+  private void updateAccountedSize(RbelElement message, long accountedSize) {
+    final IndexedMessage indexedMessage = messagesByUuid.get(message.getUuid());
+    if (indexedMessage != null && indexedMessage.message() == message) {
+      currentBufferSize.addAndGet(indexedMessage.account(accountedSize));
+    }
+  }
+
+  /**
+   * Tells the eviction policy that the message is in use and parses it again if it was spilled.
+   * Scans over the history only restore the content, see {@link #promoteSpilledMessage}.
+   */
+  public void recordMessageAccess(RbelElement message) {
+    if (message == null) {
+      return;
+    }
+    final IndexedMessage indexedMessage = messagesByUuid.get(message.getUuid());
+    if (indexedMessage != null && indexedMessage.message() == message) {
+      evictionPolicy.messageAccessed(message, indexedMessage.sequenceNumber());
+    }
+    promoteSpilledMessage(message);
+  }
+
+  /**
+   * Parses a spilled message again, so that its content and facets are available. Does nothing for
+   * messages that are not spilled. Does not count as an access of the message.
+   */
+  public void promoteSpilledMessage(RbelElement message) {
+    if (message == null || !spillStore.isEnabled() || !spillStore.isSpilled(message)) {
+      return;
+    }
+    final long seqNumber = findSequenceNumber(message).orElse(-1L);
+    if (spillStore.promote(message, seqNumber, this::parseSpilledMessageAgain)) {
+      accountParsedMessage(message);
+      manageRbelBufferSize();
     }
   }
 
+  private void parseSpilledMessageAgain(RbelElement message) {
+    final var facetTypesBeforeParsing = RbelMessageSpillStore.getFacetTypes(message);
+    convertElement(message);
+    spillStore.recordParsedFacets(message, facetTypesBeforeParsing);
+    message
+        .getFacet(TracingMessagePairFacet.class)
+        .ifPresent(
+            pair -> {
+              if (pair.getRequest() == message) {
+                RbelHttpRequestFacet.updateResponseOfRequestFacet(message, pair.getResponse());
+              } else {
+                RbelHttpResponseFacet.updateRequestOfResponseFacet(message, pair.getRequest());
+              }
+            });
+  }
+
   private long getExceedingLimit(long messageHistorySize) {
     return messageHistorySize - ((long) rbelBufferSizeInMb * 1024 * 1024);
   }
 
   public boolean isMessageUuidAlreadyKnown(String msgUuid) {
-    return knownMessageUuids.contains(msgUuid);
+    return messagesByUuid.containsKey(msgUuid);
   }
 
   public Stream<RbelElement> messagesStreamLatestFirst() {
@@ -368,18 +705,72 @@ public class RbelConverter {
   /**
    * Returns a list of all fully parsed messages. This list does not include messages that are not
    * parsed yet. To guarantee consistent sequence numbers the list stops before the first unparsed
-   * message.
+   * message. Spilled messages are parsed again when they are read from the list, see {@link
+   * #promoteSpilledMessage}.
    */
   public List<RbelElement> getMessageList() {
-    synchronized (messageHistory) {
-      return messageHistory.stream()
-          .takeWhile(msg -> !msg.hasFacet(RbelParsingNotCompleteFacet.class))
-          .toList();
-    }
+    return restoringSpilledMessages(messageHistory.getParsedMessages());
+  }
+
+  public long getCurrentBufferSize() {
+    return currentBufferSize.get();
   }
 
+  /**
+   * Looks the message up in the history and waits for it to be parsed. Counts as an access of the
+   * message, see {@link #recordMessageAccess}.
+   */
   public Optional<RbelElement> findMessageByUuid(String uuid) {
-    return getMessageHistoryAsync().stream().filter(msg -> msg.getUuid().equals(uuid)).findAny();
+    final Optional<RbelElement> result =
+        Optional.ofNullable(messagesByUuid.get(uuid)).map(IndexedMessage::message);
+    result.ifPresent(this::waitForGivenElementToBeParsed);
+    result.ifPresent(this::recordMessageAccess);
+    return result;
+  }
+
+  /**
+   * Looks the message up by the sequence number it was given when added to the history and waits
+   * for it to be parsed. Counts as an access of the message, see {@link #recordMessageAccess}.
+   */
+  public Optional<RbelElement> findMessageBySequenceNumber(long sequenceNumber) {
+    final Optional<RbelElement> result = messageHistory.get(sequenceNumber);
+    result.ifPresent(this::waitForGivenElementToBeParsed);
+    result.ifPresent(this::recordMessageAccess);
+    return result;
+  }
+
+  /**
+   * Looks the messages up by sequence number, from {@code startSequenceNumber} (inclusive) to
+   * {@code endSequenceNumber} (exclusive), and waits for them to be parsed. Evicted messages are
+   * skipped, spilled messages are parsed again when they are read from the list.
+   */
+  public List<RbelElement> findMessagesBySequenceNumberRange(
+      long startSequenceNumber, long endSequenceNumber) {
+    final List<RbelElement> result =
+        messageHistory.getMessages(startSequenceNumber, endSequenceNumber);
+    result.forEach(this::waitForGivenElementToBeParsed);
+    return restoringSpilledMessages(result);
+  }
+
+  /**
+   * Promotes spilled messages lazily when they are read from the list, so that scans over a large
+   * history do not pull all spilled messages back into memory at once.
+   */
+  private List<RbelElement> restoringSpilledMessages(List<RbelElement> messages) {
+    if (!spillStore.isEnabled()) {
+      return messages;
+    }
+    return new SpillRestoringList(messages);
+  }
+
+  /** The sequence number of the given message, if it is still in the history. */
+  public Optional<Long> findSequenceNumberByUuid(String uuid) {
+    return Optional.ofNullable(messagesByUuid.get(uuid)).map(IndexedMessage::sequenceNumber);
+  }
+
+  /** The sequence number following the newest message in the history (exclusive end). */
+  public long getEndSequenceNumber() {
+    return messageHistory.getEndSequenceNumber();
   }
 
   /**
@@ -387,54 +778,75 @@ public class RbelConverter {
    * parsed.
    */
   public RbelMessagesDequeFacade getMessageHistoryAsync() {
-    synchronized (messageHistory) {
-      return new RbelMessagesDequeFacade(messageHistory, this);
-    }
+    return new RbelMessagesDequeFacade(messageHistory, this);
   }
 
   public void clearAllMessages() {
-    synchronized (messageHistory) {
-      currentBufferSize = 0;
-      messageHistory.clear();
-      knownMessageUuids.clear();
+    while (dropOldestMessage()) {
+      // drain the history
     }
   }
 
   public void removeMessage(RbelElement rbelMessage) {
-    synchronized (messageHistory) {
-      final Iterator<RbelElement> iterator = messageHistory.descendingIterator();
-      while (iterator.hasNext()) {
-        if (iterator.next().equals(rbelMessage)) {
-          iterator.remove();
-          currentBufferSize -= rbelMessage.getSize();
-          knownMessageUuids.remove(rbelMessage.getUuid());
-        }
-      }
+    if (removeFromHistory(rbelMessage)) {
+      messageHistory.advanceParsedWatermark();
+    }
+  }
+
+  private boolean removeFromHistory(RbelElement rbelMessage) {
+    final boolean removed =
+        findSequenceNumber(rbelMessage)
+            .filter(seqNumber -> messageHistory.remove(seqNumber, rbelMessage))
+            .isPresent();
+    if (removed) {
+      releaseMessage(rbelMessage);
     }
+    return removed;
   }
 
+  private Optional<Long> findSequenceNumber(RbelElement message) {
+    final IndexedMessage indexedMessage = messagesByUuid.get(message.getUuid());
+    if (indexedMessage != null && indexedMessage.message() == message) {
+      return Optional.of(indexedMessage.sequenceNumber());
+    }
+    return message
+        .getFacet(RbelTcpIpMessageFacet.class)
+        .map(RbelTcpIpMessageFacet::getSequenceNumber);
+  }
+
+  /**
+   * Waits for the message to be parsed. Does not count as an access: scans over the history use
+   * this as well, see {@link #recordMessageAccess}.
+   */
   public void waitForGivenElementToBeParsed(RbelElement result) {
     waitForGivenMessagesToBeParsed(List.of(result));
   }
 
   public void waitForAllElementsBeforeGivenToBeParsed(RbelElement element) {
-    // Collect unfinished messages
-    List<RbelElement> unfinishedMessages = new ArrayList<>();
-    synchronized (messageHistory) {
-      for (RbelElement msg : messageHistory) {
-        if (msg == element || msg.getUuid().equals(element.getUuid())) {
-          break;
-        }
-        if (msg.hasFacet(RbelParsingNotCompleteFacet.class)) {
-          unfinishedMessages.add(msg);
-        }
-      }
-    }
+    waitForAllElementsBeforeGivenToBeParsed(element, msg -> true);
+  }
+
+  /**
+   * Waits only for those unfinished messages before the given one that match the filter. The
+   * filter is evaluated on messages that are still being parsed, so it should only rely on the
+   * raw content and the {@link RbelTcpIpMessageFacet}.
+   */
+  public void waitForAllElementsBeforeGivenToBeParsed(
+      RbelElement element, Predicate<RbelElement> relevantMessages) {
+    // Collect unfinished messages, everything below the watermark is parsed already
+    final long seqNumber = findSequenceNumber(element).orElse(Long.MAX_VALUE);
+    final List<RbelElement> unfinishedMessages =
+        messageHistory.getMessagesAboveParsedWatermark(seqNumber).stream()
+            .filter(msg -> msg != element && !msg.getUuid().equals(element.getUuid()))
+            .filter(msg -> msg.hasFacet(RbelParsingNotCompleteFacet.class))
+            .filter(relevantMessages)
+            .toList();
     waitForGivenMessagesToBeParsed(unfinishedMessages);
   }
 
   public void waitForAllCurrentMessagesToBeParsed() {
-    waitForGivenMessagesToBeParsed(new ArrayList<>(messageHistory));
+    waitForGivenMessagesToBeParsed(
+        messageHistory.getMessagesAboveParsedWatermark(Long.MAX_VALUE));
   }
 
   private void waitForGivenMessagesToBeParsed(List<RbelElement> unfinishedMessages) {
@@ -466,6 +878,7 @@ public class RbelConverter {
   }
 
   public void signalMessageParsingIsComplete(RbelElement element) {
+    messageHistory.advanceParsedWatermark();
     final List<CompletableFuture<RbelElement>> completableFutures;
     synchronized (messagesWaitingForCompletion) {
       completableFutures = messagesWaitingForCompletion.removeAll(element.getUuid());
@@ -486,4 +899,46 @@ public class RbelConverter {
         .map(MessageProcessingStateFacet::getProcessed)
         .ifPresent(CompletableFuture::join);
   }
+
+  @RequiredArgsConstructor
+  private class SpillRestoringList extends AbstractList<RbelElement> implements RandomAccess {
+
+    private final List<RbelElement> messages;
+
+    @Override
+    public RbelElement get(int index) {
+      final RbelElement message = messages.get(index);
+      promoteSpilledMessage(message);
+      return message;
+    }
+
+    @Override
+    public int size() {
+      return messages.size();
+    }
+  }
+
+  /** Index entry of a message, also holds the number of bytes the message is accounted with. */
+  private record IndexedMessage(
+      RbelElement message, long sequenceNumber, AtomicLong accountedSize) {
+
+    private static final long RELEASED = -1;
+
+    /** Changes the accounted size and returns the difference, 0 once the message is released. */
+    long account(long newSize) {
+      long oldSize;
+      do {
+        oldSize = accountedSize.get();
+        if (oldSize == RELEASED) {
+          return 0;
+        }
+      } while (!accountedSize.compareAndSet(oldSize, newSize));
+      return newSize - oldSize;
+    }
+
+    /** Returns the accounted size, the message is not accounted for afterwards. */
+    long release() {
+      return Math.max(0, accountedSize.getAndSet(RELEASED));
+    }
+  }
 }
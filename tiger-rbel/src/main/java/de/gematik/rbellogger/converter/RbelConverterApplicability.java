@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.RbelFacet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+/**
+ * Cheap preconditions a converter declares for the elements it can convert at all. The {@link
+ * RbelConverter} indexes the converters by the leading bytes they accept and only offers an element
+ * to the converters that accept its leading bytes and whose element conditions hold when it is
+ * their turn.
+ *
+ * <p>Preconditions must never reject an element the converter would have converted: they are a
+ * shortcut for the checks the converter does anyway, not a replacement.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class RbelConverterApplicability {
+
+  private static final RbelConverterApplicability ALWAYS =
+      new RbelConverterApplicability((firstByte, firstNonWhitespaceByte) -> true, element -> true);
+
+  private final LeadingBytesFilter leadingBytesFilter;
+  private final Predicate<RbelElement> elementFilter;
+
+  /** Leading bytes are passed as unsigned values, -1 if there is no such byte. */
+  @FunctionalInterface
+  interface LeadingBytesFilter {
+    boolean accepts(int firstByte, int firstNonWhitespaceByte);
+  }
+
+  public static RbelConverterApplicability always() {
+    return ALWAYS;
+  }
+
+  /** The content starts with one of the given prefixes. */
+  public static RbelConverterApplicability contentStartingWith(byte[]... prefixes) {
+    final boolean[] acceptedBytes = firstBytesOf(prefixes);
+    return new RbelConverterApplicability(
+        (firstByte, firstNonWhitespaceByte) -> firstByte >= 0 && acceptedBytes[firstByte],
+        element -> true);
+  }
+
+  /** The content starts with one of the given prefixes after leading whitespace. */
+  public static RbelConverterApplicability trimmedContentStartingWith(byte[]... prefixes) {
+    final boolean[] acceptedBytes = firstBytesOf(prefixes);
+    return new RbelConverterApplicability(
+        (firstByte, firstNonWhitespaceByte) ->
+            firstNonWhitespaceByte >= 0 && acceptedBytes[firstNonWhitespaceByte],
+        element -> true);
+  }
+
+  public static RbelConverterApplicability elementWithFacet(Class<? extends RbelFacet> facet) {
+    return new RbelConverterApplicability(
+        ALWAYS.leadingBytesFilter, element -> element.hasFacet(facet));
+  }
+
+  @SafeVarargs
+  public static RbelConverterApplicability childOfElementWithAnyFacet(
+      Class<? extends RbelFacet>... facets) {
+    final List<Class<? extends RbelFacet>> facetList = List.of(facets);
+    return new RbelConverterApplicability(
+        ALWAYS.leadingBytesFilter,
+        element ->
+            element.getParentNode() != null
+                && facetList.stream().anyMatch(element.getParentNode()::hasFacet));
+  }
+
+  public static RbelConverterApplicability rootElement() {
+    return new RbelConverterApplicability(
+        ALWAYS.leadingBytesFilter, element -> element.getParentNode() == null);
+  }
+
+  public RbelConverterApplicability and(RbelConverterApplicability other) {
+    return new RbelConverterApplicability(
+        (firstByte, firstNonWhitespaceByte) ->
+            leadingBytesFilter.accepts(firstByte, firstNonWhitespaceByte)
+                && other.leadingBytesFilter.accepts(firstByte, firstNonWhitespaceByte),
+        elementFilter.and(other.elementFilter));
+  }
+
+  public RbelConverterApplicability or(RbelConverterApplicability other) {
+    return new RbelConverterApplicability(
+        (firstByte, firstNonWhitespaceByte) ->
+            leadingBytesFilter.accepts(firstByte, firstNonWhitespaceByte)
+                || other.leadingBytesFilter.accepts(firstByte, firstNonWhitespaceByte),
+        element ->
+            (leadingBytesFilter.accepts(firstByte(element), firstNonWhitespaceByte(element))
+                    && elementFilter.test(element))
+                || (other.leadingBytesFilter.accepts(
+                        firstByte(element), firstNonWhitespaceByte(element))
+                    && other.elementFilter.test(element)));
+  }
+
+  boolean acceptsLeadingBytes(int firstByte, int firstNonWhitespaceByte) {
+    return leadingBytesFilter.accepts(firstByte, firstNonWhitespaceByte);
+  }
+
+  boolean isApplicableTo(RbelElement element) {
+    return elementFilter.test(element);
+  }
+
+  static int firstByte(RbelElement element) {
+    final var content = element.getContent();
+    return content.isEmpty() ? -1 : content.get(0) & 0xff;
+  }
+
+  static int firstNonWhitespaceByte(RbelElement element) {
+    final var content = element.getContent();
+    for (int i = 0; i < content.size(); i++) {
+      final byte b = content.get(i);
+      if (!Character.isWhitespace(b)) {
+        return b & 0xff;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean[] firstBytesOf(byte[][] prefixes) {
+    final boolean[] result = new boolean[256];
+    Arrays.stream(prefixes)
+        .filter(prefix -> prefix.length > 0)
+        .forEach(prefix -> result[prefix[0] & 0xff] = true);
+    return result;
+  }
+}
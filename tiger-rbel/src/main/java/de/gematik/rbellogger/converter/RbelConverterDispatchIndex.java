@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import de.gematik.rbellogger.data.RbelElement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot of the registered converters, indexed by the leading bytes they accept. The candidate
+ * lists keep the registration order and are built on first use for each combination of first byte
+ * and first non-whitespace byte.
+ */
+class RbelConverterDispatchIndex {
+
+  private final List<Candidate> plugins;
+  private final Map<Integer, List<Candidate>> candidatesByLeadingBytes =
+      new ConcurrentHashMap<>();
+
+  private final boolean anyPluginSkipsOversizedElements;
+
+  RbelConverterDispatchIndex(List<RbelConverterPlugin> plugins) {
+    this.plugins =
+        plugins.stream().map(plugin -> new Candidate(plugin, plugin.getApplicability())).toList();
+    this.anyPluginSkipsOversizedElements =
+        plugins.stream().anyMatch(plugin -> !plugin.ignoreOversize());
+  }
+
+  /** Whether an oversized element is skipped by at least one converter. */
+  boolean anyPluginSkipsOversizedElements() {
+    return anyPluginSkipsOversizedElements;
+  }
+
+  List<Candidate> findCandidates(RbelElement element) {
+    final int firstByte = RbelConverterApplicability.firstByte(element);
+    final int firstNonWhitespaceByte =
+        firstByte < 0 || !Character.isWhitespace((byte) firstByte)
+            ? firstByte
+            : RbelConverterApplicability.firstNonWhitespaceByte(element);
+    return candidatesByLeadingBytes.computeIfAbsent(
+        (firstByte + 1) * 257 + firstNonWhitespaceByte + 1,
+        key ->
+            plugins.stream()
+                .filter(
+                    candidate ->
+                        candidate
+                            .applicability()
+                            .acceptsLeadingBytes(firstByte, firstNonWhitespaceByte))
+                .toList());
+  }
+
+  record Candidate(RbelConverterPlugin plugin, RbelConverterApplicability applicability) {}
+}
@@ -17,11 +17,15 @@
 package de.gematik.rbellogger.converter;
 
 import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.util.RbelContent;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
+import lombok.Builder;
 import lombok.Getter;
+import lombok.Value;
 import lombok.val;
 import org.apache.commons.lang3.ArrayUtils;
 
@@ -32,12 +36,47 @@ public abstract class RbelConverterPlugin {
 
   private boolean isActive = true;
 
+  private final LongAdder conversionAttempts = new LongAdder();
+  private final LongAdder successfulConversions = new LongAdder();
+
   public abstract void consumeElement(RbelElement rbelElement, RbelConverter converter);
 
   public boolean ignoreOversize() {
     return false;
   }
 
+  /**
+   * Preconditions under which {@link #consumeElement(RbelElement, RbelConverter)} can convert an
+   * element. Elements not meeting them are not offered to this converter.
+   */
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.always();
+  }
+
+  void recordConversionAttempt(boolean successful) {
+    conversionAttempts.increment();
+    if (successful) {
+      successfulConversions.increment();
+    }
+  }
+
+  /** Counts the elements offered to this converter and those it added a facet to. */
+  public Statistics getStatistics() {
+    return Statistics.builder()
+        .attempts(conversionAttempts.sum())
+        .successes(successfulConversions.sum())
+        .build();
+  }
+
+  /**
+   * Finds the end of the message at the start of a buffered TCP stream without converting it.
+   * Converters for streamed protocols override this so that a message is only converted once it
+   * is complete.
+   */
+  public RbelMessageFrame findMessageFrame(RbelContent bufferedContent) {
+    return RbelMessageFrame.unknown();
+  }
+
   public boolean isParserFor(String parserIdentifier) {
     return getParserIdentifiers().contains(parserIdentifier);
   }
@@ -81,4 +120,15 @@ public abstract class RbelConverterPlugin {
       }
     };
   }
+
+  @Value
+  @Builder
+  public static class Statistics {
+    long attempts;
+    long successes;
+
+    public double getSuccessRatio() {
+      return attempts == 0 ? 0 : (double) successes / attempts;
+    }
+  }
 }
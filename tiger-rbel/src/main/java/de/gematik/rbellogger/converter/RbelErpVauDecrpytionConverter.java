@@ -24,6 +24,7 @@ import de.gematik.rbellogger.data.facet.RbelRootFacet;
 import de.gematik.rbellogger.data.facet.RbelVauErpFacet;
 import de.gematik.rbellogger.exceptions.RbelConversionException;
 import de.gematik.rbellogger.key.RbelKey;
+import de.gematik.rbellogger.key.RbelKeyManager;
 import de.gematik.rbellogger.util.CryptoUtils;
 import de.gematik.rbellogger.util.RbelContent;
 import java.math.BigInteger;
@@ -36,6 +37,7 @@ import java.security.spec.ECPublicKeySpec;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
 import java.util.Optional;
+import java.util.stream.Stream;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import lombok.extern.slf4j.Slf4j;
@@ -46,6 +48,9 @@ import org.bouncycastle.util.encoders.Hex;
 @Slf4j
 public class RbelErpVauDecrpytionConverter extends RbelConverterPlugin {
 
+  private static final String REQUEST_CONTEXT = "erp-vau:request";
+  private static final String RESPONSE_CONTEXT = "erp-vau:response";
+
   @Override
   public void consumeElement(RbelElement element, RbelConverter context) {
     decipherVauMessage(element, context)
@@ -58,16 +63,42 @@ public class RbelErpVauDecrpytionConverter extends RbelConverterPlugin {
 
   private Optional<RbelVauErpFacet> decipherVauMessage(
       RbelElement element, RbelConverter converter) {
-    return converter
-        .getRbelKeyManager()
-        .getAllKeys()
-        .filter(key -> key.getKey() instanceof ECPrivateKey || key.getKey() instanceof SecretKey)
-        .map(key -> tryToDecipherWithKey(element, converter, key))
+    final RbelKeyManager keyManager = converter.getRbelKeyManager();
+    final RbelContent content = element.getContent();
+    final boolean mightBeRequest = !content.isEmpty() && content.get(0) == 1;
+    final String decryptionContext = mightBeRequest ? REQUEST_CONTEXT : RESPONSE_CONTEXT;
+    return keyManager
+        .withLastSuccessfulKeyFirst(
+            decryptionContext, findCandidateKeys(keyManager, mightBeRequest))
+        .map(
+            key ->
+                tryToDecipherWithKey(element, converter, key)
+                    .map(
+                        vauMessage -> {
+                          keyManager.rememberSuccessfulKey(decryptionContext, key);
+                          return vauMessage;
+                        }))
         .filter(Optional::isPresent)
         .map(Optional::get)
         .findFirst();
   }
 
+  /**
+   * Requests are encrypted for the EC key of the VAU and start with the version byte 1, responses
+   * are encrypted with the AES response key transmitted in the request.
+   */
+  private static Stream<RbelKey> findCandidateKeys(
+      RbelKeyManager keyManager, boolean mightBeRequest) {
+    final Stream<RbelKey> secretKeys =
+        keyManager.findKeysByAlgorithm("AES").filter(key -> key.getKey() instanceof SecretKey);
+    if (!mightBeRequest) {
+      return secretKeys;
+    }
+    return Stream.concat(
+        keyManager.findKeysByAlgorithm("EC").filter(key -> key.getKey() instanceof ECPrivateKey),
+        secretKeys);
+  }
+
   private Optional<RbelVauErpFacet> tryToDecipherWithKey(
       RbelElement element, RbelConverter converter, RbelKey rbelKey) {
     var content = element.getContent();
@@ -152,7 +183,11 @@ public class RbelErpVauDecrpytionConverter extends RbelConverterPlugin {
       RbelElement parentNode) {
     String[] vauMessageParts = new String(decryptedBytes, UTF_8).split(" ", 5);
     final SecretKeySpec responseKey = buildAesKeyFromHex(vauMessageParts[3]);
-    converter.getRbelKeyManager().addKey("VAU Response-Key", responseKey, 0);
+    final RbelKey responseRbelKey =
+        RbelKey.builder().keyName("VAU Response-Key").key(responseKey).precedence(0).build();
+    converter.getRbelKeyManager().addKey(responseRbelKey);
+    // the response to this request is most likely the next message to be decrypted
+    converter.getRbelKeyManager().rememberSuccessfulKey(RESPONSE_CONTEXT, responseRbelKey);
     return Optional.of(
         RbelVauErpFacet.builder()
             .message(converter.convertElement(vauMessageParts[4], parentNode))
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import de.gematik.rbellogger.util.RbelContent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Line structure of the head (start line and header fields) of an HTTP/1.x message. The head is
+ * scanned once on byte level, the body is not looked at. The line ending is taken from the start
+ * line: CRLF if the first LF is preceded by CR, a bare LF otherwise.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+class RbelHttpHead {
+
+  static final String CRLF = "\r\n";
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final String eol;
+  private final int startLineEnd;
+  private final List<Line> headerLines;
+
+  /** Index of the first body byte, -1 if no empty line terminates the head. */
+  private final int bodyStart;
+
+  record Line(int from, int to) {
+    boolean isEmpty() {
+      return from == to;
+    }
+  }
+
+  static Optional<RbelHttpHead> scan(RbelContent content) {
+    final int firstLineFeed = content.indexOf(LF);
+    if (firstLineFeed < 0) {
+      return Optional.empty();
+    }
+    final boolean crlf = firstLineFeed > 0 && content.get(firstLineFeed - 1) == CR;
+    final String eol = crlf ? CRLF : "\n";
+    final byte[] eolBytes = crlf ? new byte[] {CR, LF} : new byte[] {LF};
+
+    final List<Line> headerLines = new ArrayList<>();
+    int lineStart = firstLineFeed + 1;
+    while (lineStart < content.size()) {
+      final int lineEnd = content.indexOf(eolBytes, lineStart);
+      if (lineEnd == lineStart) {
+        return Optional.of(
+            new RbelHttpHead(
+                eol, firstLineFeed + 1 - eolBytes.length, headerLines, lineEnd + eolBytes.length));
+      }
+      if (lineEnd < 0) {
+        headerLines.add(new Line(lineStart, content.size()));
+        break;
+      }
+      headerLines.add(new Line(lineStart, lineEnd));
+      lineStart = lineEnd + eolBytes.length;
+    }
+    return Optional.of(
+        new RbelHttpHead(eol, firstLineFeed + 1 - eolBytes.length, headerLines, -1));
+  }
+
+  boolean isTerminated() {
+    return bodyStart >= 0;
+  }
+
+  static boolean regionStartsWith(RbelContent content, Line line, byte[] prefix) {
+    if (line.to() - line.from() < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (content.get(line.from() + i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static int indexOf(RbelContent content, byte value, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (content.get(i) == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Byte-level counterpart of String.trim(). */
+  static Line trim(RbelContent content, Line line) {
+    int from = line.from();
+    int to = line.to();
+    while (from < to && isWhitespace(content.get(from))) {
+      from++;
+    }
+    while (to > from && isWhitespace(content.get(to - 1))) {
+      to--;
+    }
+    return new Line(from, to);
+  }
+
+  static boolean isWhitespace(byte b) {
+    return (b & 0xff) <= ' ';
+  }
+}
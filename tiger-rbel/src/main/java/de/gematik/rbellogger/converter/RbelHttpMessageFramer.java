@@ -0,0 +1,183 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import de.gematik.rbellogger.converter.RbelHttpHead.Line;
+import de.gematik.rbellogger.util.RbelContent;
+import java.util.Locale;
+
+/**
+ * Finds the end of an HTTP/1.x message in a buffered stream from its head alone (RFC 9112, section
+ * 6.3). Messages whose end is only marked by the closing connection are reported as unknown.
+ */
+class RbelHttpMessageFramer {
+
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+  private static final byte COLON = ':';
+  private static final byte SEMICOLON = ';';
+
+  private final RbelContent content;
+  private final RbelHttpHead head;
+  private String transferEncoding;
+  private long contentLength = -1;
+  private boolean contentLengthInvalid = false;
+
+  private RbelHttpMessageFramer(RbelContent content, RbelHttpHead head) {
+    this.content = content;
+    this.head = head;
+  }
+
+  static RbelMessageFrame frameRequest(RbelContent content) {
+    return frame(content, true);
+  }
+
+  static RbelMessageFrame frameResponse(RbelContent content) {
+    return frame(content, false);
+  }
+
+  private static RbelMessageFrame frame(RbelContent content, boolean isRequest) {
+    final var head = RbelHttpHead.scan(content);
+    if (head.isEmpty() || !head.get().isTerminated()) {
+      return RbelMessageFrame.incomplete(1);
+    }
+    return new RbelHttpMessageFramer(content, head.get()).frameBody(isRequest);
+  }
+
+  private RbelMessageFrame frameBody(boolean isRequest) {
+    head.getHeaderLines().forEach(this::readFramingHeader);
+    final int bodyStart = head.getBodyStart();
+    if (!isRequest && hasNoBody()) {
+      return RbelMessageFrame.completeAt(bodyStart);
+    }
+    if (transferEncoding != null) {
+      return transferEncoding.endsWith("chunked")
+          ? frameChunkedBody(bodyStart)
+          : RbelMessageFrame.unknown();
+    }
+    if (contentLengthInvalid) {
+      return RbelMessageFrame.unknown();
+    }
+    if (contentLength >= 0) {
+      final long end = bodyStart + contentLength;
+      return end <= content.size()
+          ? RbelMessageFrame.completeAt((int) end)
+          : RbelMessageFrame.incomplete(end - content.size());
+    }
+    return isRequest ? RbelMessageFrame.completeAt(bodyStart) : RbelMessageFrame.unknown();
+  }
+
+  private void readFramingHeader(Line line) {
+    final int colon = RbelHttpHead.indexOf(content, COLON, line.from(), line.to());
+    if (colon < 0) {
+      return;
+    }
+    final String name = asString(RbelHttpHead.trim(content, new Line(line.from(), colon)));
+    if (name.equalsIgnoreCase("Transfer-Encoding")) {
+      final String value =
+          asString(RbelHttpHead.trim(content, new Line(colon + 1, line.to())))
+              .toLowerCase(Locale.ROOT);
+      transferEncoding = transferEncoding == null ? value : transferEncoding + ", " + value;
+    } else if (name.equalsIgnoreCase("Content-Length")) {
+      final String value = asString(RbelHttpHead.trim(content, new Line(colon + 1, line.to())));
+      try {
+        final long length = Long.parseLong(value);
+        contentLengthInvalid |= length < 0 || (contentLength >= 0 && contentLength != length);
+        contentLength = length;
+      } catch (NumberFormatException e) {
+        contentLengthInvalid = true;
+      }
+    }
+  }
+
+  /** Responses to HEAD requests are not detected and treated like any other response. */
+  private boolean hasNoBody() {
+    final int codeStart = RbelHttpHead.indexOf(content, (byte) ' ', 0, head.getStartLineEnd()) + 1;
+    if (codeStart == 0 || codeStart + 3 > head.getStartLineEnd()) {
+      return false;
+    }
+    final String statusCode = asString(new Line(codeStart, codeStart + 3));
+    return statusCode.startsWith("1") || statusCode.equals("204") || statusCode.equals("304");
+  }
+
+  private RbelMessageFrame frameChunkedBody(int bodyStart) {
+    int position = bodyStart;
+    while (true) {
+      final int lineEnd = content.indexOf(LF, position);
+      if (lineEnd < 0) {
+        return RbelMessageFrame.incomplete(1);
+      }
+      final long chunkSize = parseChunkSize(new Line(position, lineEnd));
+      if (chunkSize < 0) {
+        return RbelMessageFrame.unknown();
+      }
+      if (chunkSize == 0) {
+        return frameTrailerSection(lineEnd + 1);
+      }
+      final long chunkEnd = lineEnd + 1 + chunkSize;
+      if (chunkEnd >= content.size()) {
+        return RbelMessageFrame.incomplete(chunkEnd - content.size() + 1);
+      }
+      position = (int) chunkEnd;
+      if (content.get(position) == CR) {
+        position++;
+      }
+      if (position >= content.size()) {
+        return RbelMessageFrame.incomplete(1);
+      }
+      if (content.get(position) != LF) {
+        return RbelMessageFrame.unknown();
+      }
+      position++;
+    }
+  }
+
+  private RbelMessageFrame frameTrailerSection(int position) {
+    while (true) {
+      final int lineEnd = content.indexOf(LF, position);
+      if (lineEnd < 0) {
+        return RbelMessageFrame.incomplete(1);
+      }
+      final boolean emptyLine =
+          lineEnd == position || (lineEnd == position + 1 && content.get(position) == CR);
+      if (emptyLine) {
+        return RbelMessageFrame.completeAt(lineEnd + 1);
+      }
+      position = lineEnd + 1;
+    }
+  }
+
+  private long parseChunkSize(Line line) {
+    final int extensionStart = RbelHttpHead.indexOf(content, SEMICOLON, line.from(), line.to());
+    final int sizeEnd = extensionStart < 0 ? line.to() : extensionStart;
+    final Line size = RbelHttpHead.trim(content, new Line(line.from(), sizeEnd));
+    if (size.isEmpty() || size.to() - size.from() > 15) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(asString(size), 16);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private String asString(Line range) {
+    return new String(content.subArray(range.from(), range.to()), US_ASCII);
+  }
+}
@@ -41,23 +41,28 @@ public class RbelHttpRequestConverter extends RbelHttpResponseConverter {
     super(configuration);
   }
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.contentStartingWith(
+        HTTP_METHODS.stream().map(String::getBytes).toArray(byte[][]::new));
+  }
+
   @Override
   public void consumeElement(final RbelElement targetElement, final RbelConverter converter) {
     var content = targetElement.getContent();
     if (!startsWithHttpVerb(content)) {
       return;
     }
-    var eolOpt = findEolInHttpMessage(content);
-    if (eolOpt.isEmpty()) {
+    var headOpt = RbelHttpHead.scan(content);
+    if (headOpt.isEmpty()) {
       return;
     }
-    var eol = eolOpt.get();
-    var firstLineOpt = extractFirstLine(targetElement, eol, content);
+    var head = headOpt.get();
+    var firstLineOpt = extractFirstLine(targetElement, head, content);
     if (firstLineOpt.isEmpty()) {
       return;
     }
-    checkEolValue(eol, targetElement);
-    int endOfHeadIndex = findEndOfHeadIndex(content, eol);
+    checkEolValue(head.getEol(), targetElement);
 
     var firstLineParts = firstLineOpt.get();
     var path = firstLineParts.path;
@@ -69,20 +74,16 @@ public class RbelHttpRequestConverter extends RbelHttpResponseConverter {
       throw new RbelConversionException("Encountered ill-formatted path: " + path);
     }
 
-    var stringContent = targetElement.getRawStringContent();
-    if (stringContent == null) {
-      return;
-    }
-
-    final RbelElement headerElement =
-        extractHeaderFromMessage(targetElement, converter, eol, stringContent);
+    final RbelElement headerElement = extractHeaderFromMessage(targetElement, converter, head);
     RbelHttpHeaderFacet httpHeader = headerElement.getFacetOrFail(RbelHttpHeaderFacet.class);
     verifyHeader(httpHeader, httpVersion, targetElement);
 
-    final byte[] bodyData =
-        extractBodyData(targetElement, endOfHeadIndex + 2 * eol.length(), httpHeader, eol);
+    // without an empty line ending the head there is no room left for a body
+    final int bodyStart =
+        head.isTerminated() ? head.getBodyStart() : content.size() + 2 * head.getEol().length();
+    final RbelContent bodyData = extractBodyData(targetElement, bodyStart, httpHeader);
     final RbelElement bodyElement =
-        new RbelElement(bodyData, targetElement, findCharsetInHeader(httpHeader));
+        new RbelElement(null, bodyData, targetElement, findCharsetInHeader(httpHeader));
 
     final RbelHttpRequestFacet httpRequest =
         RbelHttpRequestFacet.builder()
@@ -100,6 +101,14 @@ public class RbelHttpRequestConverter extends RbelHttpResponseConverter {
     converter.convertElement(bodyElement);
   }
 
+  @Override
+  public RbelMessageFrame findMessageFrame(RbelContent bufferedContent) {
+    if (!startsWithHttpVerb(bufferedContent)) {
+      return RbelMessageFrame.unknown();
+    }
+    return RbelHttpMessageFramer.frameRequest(bufferedContent);
+  }
+
   private void verifyHeader(
       RbelHttpHeaderFacet httpHeader, RbelElement httpVersion, RbelElement targetElement) {
     if (httpVersion.getContent().startsWith(HTTP_11_BYTES)) {
@@ -125,11 +134,10 @@ public class RbelHttpRequestConverter extends RbelHttpResponseConverter {
   }
 
   private static Optional<RequestFirstLineParts> extractFirstLine(
-      RbelElement targetElement, String eol, RbelContent content) {
-    var firstEndLineIndex = content.indexOf(eol.getBytes());
-
+      RbelElement targetElement, RbelHttpHead head, RbelContent content) {
     String firstLine =
-        new String(content.subArray(0, firstEndLineIndex), targetElement.getElementCharset());
+        new String(
+            content.subArray(0, head.getStartLineEnd()), targetElement.getElementCharset());
 
     final String[] firstLineParts = StringUtils.split(firstLine, " ", 3);
 
@@ -148,14 +156,6 @@ public class RbelHttpRequestConverter extends RbelHttpResponseConverter {
         RequestFirstLineParts.builder().method(method).path(path).version(httpVersion).build());
   }
 
-  private static int findEndOfHeadIndex(RbelContent content, String eol) {
-    int endOfHeadIndex = content.indexOf((eol + eol).getBytes());
-    if (endOfHeadIndex < 0) {
-      endOfHeadIndex = content.size();
-    }
-    return endOfHeadIndex;
-  }
-
   public boolean startsWithHttpVerb(RbelContent data) {
     if (data.isEmpty()) {
       return false;
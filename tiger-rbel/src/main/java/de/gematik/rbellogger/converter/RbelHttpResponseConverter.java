@@ -21,15 +21,16 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.net.MediaType;
 import de.gematik.rbellogger.configuration.RbelConfiguration;
+import de.gematik.rbellogger.converter.RbelHttpHead.Line;
+import de.gematik.rbellogger.converter.http.RbelChunkedInputStream;
 import de.gematik.rbellogger.converter.http.RbelHttpCodingConverter;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelMultiMap;
 import de.gematik.rbellogger.data.facet.*;
 import de.gematik.rbellogger.data.facet.RbelNoteFacet.NoteStyling;
 import de.gematik.rbellogger.exceptions.RbelConversionException;
-import de.gematik.rbellogger.util.RbelArrayUtils;
 import de.gematik.rbellogger.util.RbelContent;
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -47,52 +48,18 @@ import org.bouncycastle.util.encoders.Hex;
 @Slf4j
 public class RbelHttpResponseConverter extends RbelConverterPlugin {
 
-  static final String CRLF = "\r\n";
-  private static final byte[] CRLF_BYTES = CRLF.getBytes(UTF_8);
   private static final String HTTP_PREFIX = "HTTP/";
   private static final byte[] HTTP_PREFIX_BYTES = HTTP_PREFIX.getBytes(UTF_8);
+  private static final byte COLON = ':';
+  private static final byte COMMA = ',';
+  private static final byte SPACE = ' ';
   @Getter private final boolean lenientParsingMode;
 
   public static final Map<String, RbelHttpCodingConverter> HTTP_CODINGS_MAP =
       Map.of(
-          "chunked", RbelHttpResponseConverter::decodeChunked,
-          "deflate", RbelHttpResponseConverter::decodeDeflate,
-          "gzip", RbelHttpResponseConverter::decodeGzip);
-
-  private static byte[] decodeGzip(byte[] bytes, String eol, Charset charset) {
-    log.atTrace().log(() -> "Decoding data with gzip");
-    try (final InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
-      return inputStream.readAllBytes();
-    } catch (Exception e) {
-      throw new RbelConversionException("Error while decoding gzip content", e);
-    }
-  }
-
-  private static byte[] decodeDeflate(byte[] bytes, String eol, Charset charset) {
-    log.atTrace().log(() -> "Decoding data with deflate");
-    try (final InputStream inputStream = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
-      return inputStream.readAllBytes();
-    } catch (Exception e) {
-      throw new RbelConversionException("Error while decoding gzip content", e);
-    }
-  }
-
-  private static byte[] decodeChunked(byte[] inputData, String eol, Charset charset) {
-    log.atTrace().log(() -> "Decoding data with chunked encoding");
-    int chunkSeparator = new String(inputData, charset).indexOf(eol) + eol.length();
-
-    final int indexOfChunkTerminator =
-        RbelArrayUtils.indexOf(inputData, (eol + "0" + eol).getBytes(charset), chunkSeparator);
-    if (indexOfChunkTerminator >= 0) {
-      return Arrays.copyOfRange(
-          inputData, Math.min(inputData.length, chunkSeparator), indexOfChunkTerminator);
-    } else {
-      throw new RbelConversionException(
-          "Detected incorrect use of chunked encoding: Chunked was given as"
-              + " transfer-encoding, but the chunk-separator could not be found in the"
-              + " content. Message will not be parsed.");
-    }
-  }
+          "chunked", RbelChunkedInputStream::new,
+          "deflate", InflaterInputStream::new,
+          "gzip", GZIPInputStream::new);
 
   public RbelHttpResponseConverter(RbelConfiguration configuration) {
     this.lenientParsingMode =
@@ -105,6 +72,11 @@ public class RbelHttpResponseConverter extends RbelConverterPlugin {
     return true;
   }
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.contentStartingWith(HTTP_PREFIX_BYTES);
+  }
+
   @Override
   public void consumeElement(RbelElement targetElement, final RbelConverter converter) {
     var content = targetElement.getContent();
@@ -115,6 +87,14 @@ public class RbelHttpResponseConverter extends RbelConverterPlugin {
     new Parser(targetElement, converter, content).parse();
   }
 
+  @Override
+  public RbelMessageFrame findMessageFrame(RbelContent bufferedContent) {
+    if (!bufferedContent.startsWith(HTTP_PREFIX_BYTES)) {
+      return RbelMessageFrame.unknown();
+    }
+    return RbelHttpMessageFramer.frameResponse(bufferedContent);
+  }
+
   @AllArgsConstructor
   private class Parser {
     private final RbelElement targetElement;
@@ -122,52 +102,48 @@ public class RbelHttpResponseConverter extends RbelConverterPlugin {
     private final RbelContent content;
 
     private void parse() {
-      var eolOpt = findEolInHttpMessage(content);
-      if (eolOpt.isEmpty()) {
+      var headOpt = RbelHttpHead.scan(content);
+      if (headOpt.isEmpty()) {
         return;
       }
-      var eol = eolOpt.get();
-      checkEolValue(eol, targetElement);
-      var endOfHeaderIndexOpt = findEndOfHeaderIndex(eol);
-      if (endOfHeaderIndexOpt.isEmpty()) {
-        if (lenientParsingMode || !isTcpMessage(targetElement)) {
-          endOfHeaderIndexOpt = Optional.of(content.size());
-        } else {
-          targetElement.addFacet(
-              RbelNoteFacet.builder()
-                  .style(NoteStyling.WARN)
-                  .value(
-                      "Unable to determine end of HTTP header. Does the header end with double"
-                          + " CRLF?")
-                  .build());
-          return;
-        }
+      var head = headOpt.get();
+      var versionEnd = RbelHttpHead.indexOf(content, SPACE, 0, head.getStartLineEnd());
+      if (versionEnd < 0) {
+        return;
       }
-      var endOfHeaderIndex = endOfHeaderIndexOpt.get();
-      var stringContent = targetElement.getRawStringContent();
-      if (stringContent == null) {
+      checkEolValue(head.getEol(), targetElement);
+      final int bodyStart;
+      if (head.isTerminated()) {
+        bodyStart = head.getBodyStart();
+      } else if (lenientParsingMode || !isTcpMessage(targetElement)) {
+        bodyStart = content.size();
+      } else {
+        targetElement.addFacet(
+            RbelNoteFacet.builder()
+                .style(NoteStyling.WARN)
+                .value(
+                    "Unable to determine end of HTTP header. Does the header end with double"
+                        + " CRLF?")
+                .build());
         return;
       }
 
-      RbelElement headerElement =
-          extractHeaderFromMessage(targetElement, converter, eol, stringContent);
+      RbelElement headerElement = extractHeaderFromMessage(targetElement, converter, head);
       RbelHttpHeaderFacet httpHeaderFacet = headerElement.getFacetOrFail(RbelHttpHeaderFacet.class);
-      final byte[] rawBodyData =
-          extractBodyData(targetElement, endOfHeaderIndex, httpHeaderFacet, eol);
+      final RbelContent bodyData = extractBodyData(targetElement, bodyStart, httpHeaderFacet);
       final RbelElement bodyElement =
-          new RbelElement(rawBodyData, targetElement, findCharsetInHeader(httpHeaderFacet));
-      final RbelElement responseCode = extractResponseCodeFromMessage(stringContent);
+          new RbelElement(null, bodyData, targetElement, findCharsetInHeader(httpHeaderFacet));
+      final Line statusCode = findStatusCode(versionEnd + 1, head.getStartLineEnd());
+      final RbelElement responseCode = buildChild(statusCode);
       final RbelHttpResponseFacet rbelHttpResponse =
           RbelHttpResponseFacet.builder()
               .responseCode(responseCode)
-              .reasonPhrase(extractReasonPhraseFromMessage(stringContent))
+              .reasonPhrase(extractReasonPhrase(statusCode.to(), head.getStartLineEnd()))
               .build();
 
       targetElement.addFacet(rbelHttpResponse);
       targetElement.addFacet(new RbelResponseFacet(responseCode.getRawStringContent()));
-      final var httpVersion =
-          new RbelElement(
-              stringContent.substring(0, stringContent.indexOf(" ")).getBytes(), targetElement);
+      final var httpVersion = buildChild(new Line(0, versionEnd));
       targetElement.addFacet(
           RbelHttpMessageFacet.builder()
               .header(headerElement)
@@ -178,63 +154,69 @@ public class RbelHttpResponseConverter extends RbelConverterPlugin {
       converter.convertElement(bodyElement);
     }
 
-    private Optional<Integer> findEndOfHeaderIndex(String eol) {
-      int endOfHeadIndex = content.indexOf((eol + eol).getBytes());
-      if (endOfHeadIndex == -1) {
-        return Optional.empty();
+    private Line findStatusCode(int from, int startLineEnd) {
+      int to = from;
+      while (to < startLineEnd && !RbelHttpHead.isWhitespace(content.get(to))) {
+        to++;
       }
-      endOfHeadIndex += 2 * eol.length();
-      return Optional.of(endOfHeadIndex);
-    }
-
-    private RbelElement extractResponseCodeFromMessage(String content) {
-      return RbelElement.builder()
-          .parentNode(targetElement)
-          .rawContent(content.split("\\s")[1].getBytes(UTF_8))
-          .build();
+      return new Line(from, to);
     }
 
-    private RbelElement extractReasonPhraseFromMessage(String content) {
-      String[] responseStatusLineSplit = content.split("\\r\\n")[0].trim().split("\\s", 3);
-      if (responseStatusLineSplit.length == 2) {
+    private RbelElement extractReasonPhrase(int from, int startLineEnd) {
+      final Line reasonPhrase = RbelHttpHead.trim(content, new Line(from, startLineEnd));
+      if (reasonPhrase.isEmpty()) {
         return RbelElement.builder().parentNode(targetElement).build();
       } else {
-        return RbelElement.builder()
-            .parentNode(targetElement)
-            .rawContent(
-                responseStatusLineSplit[2].trim().getBytes(targetElement.getElementCharset()))
-            .build();
+        return buildChild(reasonPhrase);
       }
     }
-  }
-
-  public RbelElement extractHeaderFromMessage(
-      RbelElement rbel, RbelConverter converter, String eol, String content) {
-    int endOfBodyPosition = content.indexOf(eol + eol);
-    int endOfFirstLine = content.indexOf(eol) + eol.length();
 
-    if (endOfBodyPosition < 0) {
-      endOfBodyPosition = content.length();
-    } else {
-      endOfBodyPosition += 2 * eol.length();
+    private RbelElement buildChild(Line range) {
+      return RbelElement.builder()
+          .parentNode(targetElement)
+          .content(content.subContent(range.from(), range.to()))
+          .build();
     }
+  }
 
-    final List<String> headerList =
-        Arrays.stream(content.substring(endOfFirstLine, endOfBodyPosition).split(eol))
-            .filter(line -> !line.isEmpty() && !line.startsWith(HTTP_PREFIX))
+  RbelElement extractHeaderFromMessage(
+      RbelElement rbel, RbelConverter converter, RbelHttpHead head) {
+    final RbelContent content = rbel.getContent();
+    final List<Line> headerLines =
+        head.getHeaderLines().stream()
+            .filter(line -> !RbelHttpHead.regionStartsWith(content, line, HTTP_PREFIX_BYTES))
             .toList();
 
     RbelElement headerElement =
-        new RbelElement(String.join(eol, headerList).getBytes(rbel.getElementCharset()), rbel);
+        new RbelElement(null, joinLines(content, headerLines, head), rbel, Optional.empty());
     final RbelMultiMap<RbelElement> headerMap =
-        headerList.stream()
-            .map(line -> parseStringToKeyValuePair(line, converter, headerElement))
+        headerLines.stream()
+            .map(line -> parseHeaderLine(content, line, converter, headerElement))
             .collect(RbelMultiMap.COLLECTOR);
     headerElement.addFacet(new RbelHttpHeaderFacet(headerMap));
 
     return headerElement;
   }
 
+  private static RbelContent joinLines(RbelContent content, List<Line> lines, RbelHttpHead head) {
+    if (lines.isEmpty()) {
+      return content.subContent(head.getStartLineEnd(), head.getStartLineEnd());
+    }
+    if (lines.size() == head.getHeaderLines().size()) {
+      // the header lines are adjacent, so the header shares the bytes of the message
+      return content.subContent(lines.get(0).from(), lines.get(lines.size() - 1).to());
+    }
+    final RbelContent result = RbelContent.builder().build();
+    final byte[] eol = head.getEol().getBytes(UTF_8);
+    for (Line line : lines) {
+      if (!result.isEmpty()) {
+        result.append(eol);
+      }
+      result.append(content.subArray(line.from(), line.to()));
+    }
+    return result;
+  }
+
   private Optional<Charset> strictParsingOfCharset(String s) {
     try {
       return Optional.ofNullable(s)
@@ -269,82 +251,132 @@ public class RbelHttpResponseConverter extends RbelConverterPlugin {
         .orElse(StandardCharsets.UTF_8);
   }
 
-  protected SimpleImmutableEntry<String, RbelElement> parseStringToKeyValuePair(
-      final String line, final RbelConverter context, RbelElement headerElement) {
-    final int colon = line.indexOf(':');
+  private SimpleImmutableEntry<String, RbelElement> parseHeaderLine(
+      RbelContent content, Line line, RbelConverter context, RbelElement headerElement) {
+    final Charset elementCharset = headerElement.getElementCharset();
+    final int colon = RbelHttpHead.indexOf(content, COLON, line.from(), line.to());
     if (colon == -1) {
-      throw new IllegalArgumentException("Header malformed: '" + line + "'");
+      throw new IllegalArgumentException(
+          "Header malformed: '"
+              + new String(content.subArray(line.from(), line.to()), elementCharset)
+              + "'");
     }
-    val key = line.substring(0, colon).trim();
-    val value = line.substring(colon + 1).trim();
-    Charset elementCharset = headerElement.getElementCharset();
-    val rbelElement =
-        context.convertElement(new RbelElement(value.getBytes(elementCharset), headerElement));
+    val key = new String(content.subArray(line.from(), colon), elementCharset).trim();
+    val value = RbelHttpHead.trim(content, new Line(colon + 1, line.to()));
+    val rbelElement = context.convertElement(buildHeaderValue(content, value, headerElement));
 
-    if (value.contains(",")) {
+    if (RbelHttpHead.indexOf(content, COMMA, value.from(), value.to()) >= 0) {
       val childNodes = new ArrayList<RbelElement>();
       rbelElement.addFacet(new RbelListFacet(childNodes));
-      for (String part : value.split(",")) {
+      for (Line part : splitAtCommas(content, value)) {
         childNodes.add(
             context.convertElement(
-                new RbelElement(part.trim().getBytes(elementCharset), rbelElement)));
+                buildHeaderValue(content, RbelHttpHead.trim(content, part), rbelElement)));
       }
     }
 
     return new SimpleImmutableEntry<>(key, rbelElement);
   }
 
+  private static RbelElement buildHeaderValue(RbelContent content, Line value, RbelElement parent) {
+    return new RbelElement(
+        null, content.subContent(value.from(), value.to()), parent, Optional.empty());
+  }
+
+  /** Same parts as String.split(","), which drops trailing empty parts. */
+  private static List<Line> splitAtCommas(RbelContent content, Line value) {
+    final List<Line> parts = new ArrayList<>();
+    int partStart = value.from();
+    int comma;
+    while ((comma = RbelHttpHead.indexOf(content, COMMA, partStart, value.to())) >= 0) {
+      parts.add(new Line(partStart, comma));
+      partStart = comma + 1;
+    }
+    parts.add(new Line(partStart, value.to()));
+    while (!parts.isEmpty() && parts.get(parts.size() - 1).isEmpty()) {
+      parts.remove(parts.size() - 1);
+    }
+    return parts;
+  }
+
+  private List<RbelHttpCodingConverter> findCodings(
+      RbelHttpHeaderFacet headerMap, String codingKey) {
+    return headerMap
+        .getCaseInsensitiveMatches(codingKey)
+        .map(RbelElement::getRawStringContent)
+        .filter(Objects::nonNull)
+        .map(s -> s.split(","))
+        .flatMap(Arrays::stream)
+        .map(String::toLowerCase)
+        .map(String::trim)
+        .map(
+            encoding -> {
+              if (!HTTP_CODINGS_MAP.containsKey(encoding)) {
+                throw new RbelConversionException(
+                    "Unsupported encoding found in HTTP header: " + encoding);
+              }
+              log.atTrace().addArgument(() -> encoding).log("Adding decoder for encoding: {}");
+              return HTTP_CODINGS_MAP.get(encoding);
+            })
+        .toList();
+  }
+
+  /**
+   * Returns the body as a view on the message content. Bodies with transfer- or content-codings are
+   * decoded in one streaming pass: the codings are removed in reverse order of their application,
+   * transfer-codings first.
+   */
+  public RbelContent extractBodyData(
+      RbelElement targetElement, int bodyDataStartOffset, final RbelHttpHeaderFacet headerMap) {
+    bodyDataStartOffset = checkContentLength(targetElement, bodyDataStartOffset, headerMap);
+    var content = targetElement.getContent();
+    final RbelContent rawBody = content.subContent(bodyDataStartOffset, content.size());
+
+    final List<RbelHttpCodingConverter> decoders =
+        new ArrayList<>(findCodings(headerMap, "Content-Encoding"));
+    decoders.addAll(findCodings(headerMap, "Transfer-Encoding"));
+    Collections.reverse(decoders);
+    if (decoders.isEmpty()) {
+      return rawBody;
+    }
+    try (InputStream decodedBody = decode(rawBody.toInputStream(), decoders)) {
+      return RbelContent.from(decodedBody);
+    } catch (IOException e) {
+      throw new RbelConversionException("Error while decoding HTTP body", e);
+    }
+  }
+
+  /**
+   * Removes the codings listed in the header {@code codingKey} from the data, in reverse order of
+   * their application. {@code eol} and {@code charset} are no longer needed, the data is decoded on
+   * byte level.
+   */
   public byte[] applyCodings(
       final byte[] inputData,
       final RbelHttpHeaderFacet headerMap,
       final String eol,
       Charset charset,
       String codingKey) {
-    final List<RbelHttpCodingConverter> codingConverters =
-        headerMap
-            .getCaseInsensitiveMatches(codingKey)
-            .map(RbelElement::getRawStringContent)
-            .filter(Objects::nonNull)
-            .map(s -> s.split(","))
-            .flatMap(Arrays::stream)
-            .map(String::toLowerCase)
-            .map(String::trim)
-            .map(
-                encoding -> {
-                  if (!HTTP_CODINGS_MAP.containsKey(encoding)) {
-                    throw new RbelConversionException(
-                        "Unsupported encoding found in HTTP header: " + encoding);
-                  }
-                  log.atTrace().addArgument(() -> encoding).log("Adding decoder for encoding: {}");
-                  return HTTP_CODINGS_MAP.get(encoding);
-                })
-            .toList();
-
-    byte[] data = inputData;
-
-    for (RbelHttpCodingConverter codingConverter : codingConverters) {
-      data = codingConverter.decode(data, eol, charset);
+    final List<RbelHttpCodingConverter> decoders =
+        new ArrayList<>(findCodings(headerMap, codingKey));
+    if (decoders.isEmpty()) {
+      return inputData;
+    }
+    Collections.reverse(decoders);
+    try (InputStream decodedData = decode(RbelContent.of(inputData).toInputStream(), decoders)) {
+      return decodedData.readAllBytes();
+    } catch (IOException e) {
+      throw new RbelConversionException("Error while decoding HTTP body", e);
     }
-
-    return data;
   }
 
-  public byte[] extractBodyData(
-      RbelElement targetElement,
-      int bodyDataStartOffset,
-      final RbelHttpHeaderFacet headerMap,
-      final String eol) {
-    bodyDataStartOffset = checkContentLength(targetElement, bodyDataStartOffset, headerMap);
-    var content = targetElement.getContent();
-    byte[] inputData = content.subArray(bodyDataStartOffset, content.size());
-
-    Charset elementCharset = targetElement.getElementCharset();
-    return applyCodings(
-        applyCodings(inputData, headerMap, eol, elementCharset, "Content-Encoding"),
-        headerMap,
-        eol,
-        elementCharset,
-        "Transfer-Encoding");
+  private static InputStream decode(InputStream encoded, List<RbelHttpCodingConverter> decoders)
+      throws IOException {
+    InputStream result = encoded;
+    for (RbelHttpCodingConverter decoder : decoders) {
+      result = decoder.decode(result);
+    }
+    return result;
   }
 
   private int checkContentLength(
@@ -397,18 +429,8 @@ public class RbelHttpResponseConverter extends RbelConverterPlugin {
     return targetElement.hasFacet(RbelTcpIpMessageFacet.class);
   }
 
-  public Optional<String> findEolInHttpMessage(RbelContent content) {
-    if (content.indexOf(CRLF_BYTES) >= 0) {
-      return Optional.of(CRLF);
-    } else if (content.indexOf((byte) '\n') >= 0) {
-      return Optional.of("\n");
-    } else {
-      return Optional.empty();
-    }
-  }
-
   void checkEolValue(String eol, RbelElement targetElement) {
-    if (!eol.equals(CRLF)) {
+    if (!eol.equals(RbelHttpHead.CRLF)) {
       targetElement.addFacet(
           RbelNoteFacet.builder()
               .style(NoteStyling.INFO)
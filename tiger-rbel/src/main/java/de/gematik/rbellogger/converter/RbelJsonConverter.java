@@ -24,6 +24,9 @@ import de.gematik.rbellogger.data.facet.*;
 import de.gematik.rbellogger.util.RbelContent;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 public class RbelJsonConverter extends AbstractJacksonConverter<RbelJsonFacet> {
 
@@ -45,6 +48,16 @@ public class RbelJsonConverter extends AbstractJacksonConverter<RbelJsonFacet> {
             new InputStreamReader(target.getContent().toInputStream(), target.getElementCharset()));
   }
 
+  @Override
+  Optional<JsonSourceRange> findSourceRanges(RbelElement target) {
+    // Jackson only reports byte offsets when reading bytes, which requires UTF-8 (or ASCII) input
+    final Charset charset = target.getElementCharset();
+    if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII)) {
+      return Optional.empty();
+    }
+    return JsonSourceRange.scan(getMapper().getFactory(), target.getContent());
+  }
+
   @Override
   RbelJsonFacet buildFacetForNode(JsonNode node) {
     return RbelJsonFacet.builder().jsonElement(node).build();
@@ -21,7 +21,11 @@ import de.gematik.rbellogger.data.elements.RbelJweEncryptionInfo;
 import de.gematik.rbellogger.data.facet.RbelJweFacet;
 import de.gematik.rbellogger.data.facet.RbelRootFacet;
 import de.gematik.rbellogger.key.RbelKey;
+import de.gematik.rbellogger.key.RbelKeyManager;
+import java.util.Iterator;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
@@ -82,16 +86,62 @@ public class RbelJweConverter extends RbelConverterPlugin {
   @SuppressWarnings("java:S108")
   private Optional<Pair<String, String>> findCorrectKeyAndReturnPayload(
       RbelConverter context, JsonWebEncryption jwe) {
-    for (RbelKey keyEntry : context.getRbelKeyManager().getAllKeys().toList()) {
+    final RbelKeyManager keyManager = context.getRbelKeyManager();
+    final String decryptionContext = buildDecryptionContext(jwe);
+    final Iterator<RbelKey> candidates =
+        findCandidateKeys(keyManager, jwe, decryptionContext).iterator();
+    while (candidates.hasNext()) {
+      final RbelKey keyEntry = candidates.next();
       try {
         jwe.setKey(keyEntry.getKey());
-        return Optional.of(Pair.of(keyEntry.getKeyName(), jwe.getPayload()));
+        final String payload = jwe.getPayload();
+        keyManager.rememberSuccessfulKey(decryptionContext, keyEntry);
+        return Optional.of(Pair.of(keyEntry.getKeyName(), payload));
       } catch (Exception ignored) {
       }
     }
     return Optional.empty();
   }
 
+  /**
+   * Keys referenced by the "kid" header and keys fitting the "alg" header come first. All other
+   * keys are still tried afterwards, since neither header is reliable.
+   */
+  private static Stream<RbelKey> findCandidateKeys(
+      RbelKeyManager keyManager, JsonWebEncryption jwe, String decryptionContext) {
+    final Optional<String> keyId = Optional.ofNullable(jwe.getKeyIdHeaderValue());
+    final Stream<RbelKey> preferredKeys =
+        Stream.of(
+                keyId.flatMap(keyManager::findKeyByName).stream(),
+                keyId.flatMap(keyManager::findCorrespondingPrivateKey).stream(),
+                findKeysMatchingAlgorithm(keyManager, jwe.getAlgorithmHeaderValue()),
+                keyManager.getAllKeys())
+            .flatMap(Function.identity())
+            .distinct();
+    return keyManager.withLastSuccessfulKeyFirst(decryptionContext, preferredKeys);
+  }
+
+  private static Stream<RbelKey> findKeysMatchingAlgorithm(
+      RbelKeyManager keyManager, String jweAlgorithm) {
+    if (jweAlgorithm == null) {
+      return Stream.empty();
+    } else if (jweAlgorithm.startsWith("ECDH-ES")) {
+      return keyManager.findKeysByAlgorithm("EC").filter(RbelKey::isPrivateKey);
+    } else if (jweAlgorithm.startsWith("RSA")) {
+      return keyManager.findKeysByAlgorithm("RSA").filter(RbelKey::isPrivateKey);
+    } else {
+      return keyManager.findKeysByAlgorithm("AES");
+    }
+  }
+
+  private static String buildDecryptionContext(JsonWebEncryption jwe) {
+    final String keyId = jwe.getKeyIdHeaderValue();
+    if (keyId != null) {
+      return "jwe:" + keyId;
+    }
+    return "jwe:" + jwe.getAlgorithmHeaderValue() + "/" + jwe.getEncryptionMethodHeaderParameter();
+  }
+
   @SneakyThrows
   private Optional<JsonWebEncryption> initializeJwe(RbelElement rbel) {
     int dotCount =
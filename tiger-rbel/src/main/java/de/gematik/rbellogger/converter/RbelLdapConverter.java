@@ -39,6 +39,11 @@ public class RbelLdapConverter extends RbelConverterPlugin {
 
   private final byte[] ldapMessagePrefix = {0x30};
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.contentStartingWith(ldapMessagePrefix);
+  }
+
   @Override
   public void consumeElement(final RbelElement rbelElement, final RbelConverter converter) {
     val potentiallyLdap = rbelElement.getContent().startsWith(ldapMessagePrefix);
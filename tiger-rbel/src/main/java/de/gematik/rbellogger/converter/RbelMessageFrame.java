@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Where the message at the start of a buffered byte stream ends, as far as a converter can tell
+ * without converting it. Used to convert streamed messages once, after they are complete.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class RbelMessageFrame {
+
+  private static final RbelMessageFrame UNKNOWN = new RbelMessageFrame(State.UNKNOWN, 0);
+
+  public enum State {
+    /** The converter does not recognize the message or cannot tell where it ends. */
+    UNKNOWN,
+    /** The message has started but at least {@link #getBytes()} more bytes are needed. */
+    INCOMPLETE,
+    /** The message ends before offset {@link #getBytes()}. */
+    COMPLETE
+  }
+
+  State state;
+  int bytes;
+
+  public static RbelMessageFrame unknown() {
+    return UNKNOWN;
+  }
+
+  public static RbelMessageFrame incomplete(long missingBytes) {
+    return new RbelMessageFrame(
+        State.INCOMPLETE, (int) Math.min(Integer.MAX_VALUE, Math.max(1, missingBytes)));
+  }
+
+  public static RbelMessageFrame completeAt(int endOffset) {
+    return new RbelMessageFrame(State.COMPLETE, endOffset);
+  }
+}
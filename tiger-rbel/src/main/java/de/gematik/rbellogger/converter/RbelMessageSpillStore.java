@@ -0,0 +1,310 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.MessageProcessingStateFacet;
+import de.gematik.rbellogger.data.facet.RbelFacet;
+import de.gematik.rbellogger.data.facet.RbelMessageSpillFacet;
+import de.gematik.rbellogger.file.RbelSpillFile;
+import de.gematik.rbellogger.util.RbelContent;
+import de.gematik.rbellogger.util.RbelMessageHistory;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficSpillConfiguration;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The spill tier of the message history. Instead of dropping the oldest messages when the buffer
+ * is full, their raw content is written to a {@link RbelSpillFile} and the facets created by
+ * parsing are removed. The element itself stays in the history (so all references to it remain
+ * valid) and is parsed again when it is accessed through the history.
+ *
+ * <p>Messages that were promoted back are spilled first, except for the most recently promoted
+ * ones, then the oldest parsed messages. Parsing a message again runs all converters a second
+ * time, post conversion listeners are not triggered again.
+ */
+@Slf4j
+public class RbelMessageSpillStore implements AutoCloseable {
+
+  private static final int RECENTLY_PROMOTED_MESSAGES_KEPT = 100;
+
+  private final TrafficSpillConfiguration configuration;
+  private final ReentrantLock spillLock = new ReentrantLock();
+  private final Queue<SpillCandidate> promotedMessages = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger promotedMessageCount = new AtomicInteger();
+  private final AtomicLong spilledMessages = new AtomicLong();
+  private final AtomicLong spilledBytes = new AtomicLong();
+  private final LongAdder demotions = new LongAdder();
+  private final LongAdder promotions = new LongAdder();
+  private final LongAdder droppedMessages = new LongAdder();
+  private volatile RbelSpillFile spillFile;
+  // guarded by spillLock, every message below was spilled at least once
+  private long spillCursor = 0;
+
+  private RbelMessageSpillStore(TrafficSpillConfiguration configuration) {
+    this.configuration = configuration;
+  }
+
+  public static RbelMessageSpillStore create(TrafficSpillConfiguration configuration) {
+    return new RbelMessageSpillStore(configuration);
+  }
+
+  public boolean isEnabled() {
+    return configuration.isEnabled();
+  }
+
+  public boolean isSpilled(RbelElement message) {
+    return message.getFacet(RbelMessageSpillFacet.class).map(this::isSpilled).orElse(false);
+  }
+
+  /** Remembers which facets were added by parsing, they are removed again when spilling. */
+  void recordParsedFacets(
+      RbelElement message, Set<Class<? extends RbelFacet>> facetTypesBeforeParsing) {
+    if (!isEnabled()) {
+      return;
+    }
+    final Set<Class<? extends RbelFacet>> parsedFacetTypes =
+        message.getFacets().stream()
+            .<Class<? extends RbelFacet>>map(RbelFacet::getClass)
+            .filter(type -> !facetTypesBeforeParsing.contains(type))
+            .filter(type -> type != RbelMessageSpillFacet.class)
+            .collect(Collectors.toUnmodifiableSet());
+    final Optional<RbelMessageSpillFacet> spillFacet =
+        message.getFacet(RbelMessageSpillFacet.class);
+    if (spillFacet.isPresent()) {
+      synchronized (spillFacet.get()) {
+        spillFacet.get().setParsedFacetTypes(parsedFacetTypes);
+      }
+    } else {
+      message.addFacet(new RbelMessageSpillFacet(parsedFacetTypes));
+    }
+  }
+
+  static Set<Class<? extends RbelFacet>> getFacetTypes(RbelElement message) {
+    return message.getFacets().stream()
+        .<Class<? extends RbelFacet>>map(RbelFacet::getClass)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Spills messages as long as the buffer is {@code overBudget}. Only parsed messages (below the
+   * parsed watermark of the history) accepted by {@code spillable} are spilled, {@code
+   * spilledMessage} is called for every one of them. Does nothing if another thread is spilling
+   * already.
+   */
+  void spillMessages(
+      RbelMessageHistory history,
+      BooleanSupplier overBudget,
+      Predicate<RbelElement> spillable,
+      Consumer<RbelElement> spilledMessage) {
+    if (!spillLock.tryLock()) {
+      return;
+    }
+    try {
+      while (overBudget.getAsBoolean()) {
+        final Optional<SpillCandidate> candidate = nextSpillCandidate(history, spillable);
+        if (candidate.isEmpty()) {
+          break;
+        }
+        if (spill(candidate.get())) {
+          spilledMessage.accept(candidate.get().message());
+        }
+      }
+    } finally {
+      spillLock.unlock();
+    }
+  }
+
+  /**
+   * Deletes the oldest spill chunks exceeding the budget of the spill tier and returns the
+   * sequence numbers of the messages that were stored in them.
+   */
+  List<Long> dropChunksExceedingBudget() {
+    if (spillFile == null) {
+      return List.of();
+    }
+    return spillFile.dropChunksExceedingBudget();
+  }
+
+  /**
+   * Reads the raw content of a spilled message back and parses it again using the given parser.
+   * Returns false if the message was not spilled (anymore) or its content is lost.
+   */
+  boolean promote(RbelElement message, long sequenceNumber, Consumer<RbelElement> parser) {
+    final Optional<RbelMessageSpillFacet> spillFacet =
+        message.getFacet(RbelMessageSpillFacet.class);
+    if (spillFacet.isEmpty()) {
+      return false;
+    }
+    synchronized (spillFacet.get()) {
+      if (!spillFacet.get().isSpilled()) {
+        return false;
+      }
+      final Optional<byte[]> content = spillFile.read(spillFacet.get().getSpillLocation());
+      if (content.isEmpty()) {
+        return false;
+      }
+      message.swapContent(RbelContent.of(content.get()));
+      spillFacet.get().setSpilled(false);
+      parser.accept(message);
+    }
+    promotions.increment();
+    spilledMessages.decrementAndGet();
+    spilledBytes.addAndGet(-message.getSize());
+    promotedMessages.add(new SpillCandidate(message, sequenceNumber));
+    promotedMessageCount.incrementAndGet();
+    return true;
+  }
+
+  /** To be called when a spilled message leaves the history. */
+  void recordDroppedMessage(RbelElement message) {
+    droppedMessages.increment();
+    spilledMessages.decrementAndGet();
+    spilledBytes.addAndGet(-message.getSize());
+  }
+
+  public Statistics getStatistics() {
+    return Statistics.builder()
+        .enabled(isEnabled())
+        .spilledMessages(spilledMessages.get())
+        .spilledBytes(spilledBytes.get())
+        .spillFileBytes(spillFile == null ? 0 : spillFile.getSize())
+        .demotions(demotions.sum())
+        .promotions(promotions.sum())
+        .droppedMessages(droppedMessages.sum())
+        .build();
+  }
+
+  @Override
+  public void close() {
+    spillLock.lock();
+    try {
+      if (spillFile != null) {
+        spillFile.close();
+      }
+    } finally {
+      spillLock.unlock();
+    }
+  }
+
+  private Optional<SpillCandidate> nextSpillCandidate(
+      RbelMessageHistory history, Predicate<RbelElement> spillable) {
+    while (promotedMessageCount.get() > RECENTLY_PROMOTED_MESSAGES_KEPT) {
+      final SpillCandidate candidate = promotedMessages.poll();
+      promotedMessageCount.decrementAndGet();
+      if (candidate != null
+          && history.get(candidate.sequenceNumber()).orElse(null) == candidate.message()
+          && spillable.test(candidate.message())) {
+        return Optional.of(candidate);
+      }
+    }
+    spillCursor = Math.max(spillCursor, history.getFirstSequenceNumber());
+    while (spillCursor < history.getParsedWatermark()) {
+      final Optional<RbelElement> message = history.get(spillCursor);
+      if (message.isPresent() && message.get().hasFacet(MessageProcessingStateFacet.class)) {
+        // still needed by the post processing (e.g. tracing), retry later
+        break;
+      }
+      final long sequenceNumber = spillCursor++;
+      // messages that are not spillable now (e.g. pinned) stay in memory
+      if (message.isPresent() && spillable.test(message.get())) {
+        return Optional.of(new SpillCandidate(message.get(), sequenceNumber));
+      }
+    }
+    return Optional.empty();
+  }
+
+  private boolean spill(SpillCandidate candidate) {
+    final RbelElement message = candidate.message();
+    final Optional<RbelMessageSpillFacet> spillFacet =
+        message.getFacet(RbelMessageSpillFacet.class);
+    if (spillFacet.isEmpty() || message.getContent().isNull()) {
+      return false;
+    }
+    synchronized (spillFacet.get()) {
+      if (spillFacet.get().isSpilled()) {
+        return false;
+      }
+      final RbelSpillFile.Location knownLocation = spillFacet.get().getSpillLocation();
+      if (knownLocation == null || !getSpillFile().contains(knownLocation)) {
+        spillFacet
+            .get()
+            .setSpillLocation(
+                getSpillFile().write(candidate.sequenceNumber(), message.getRawContent()));
+      }
+      spillFacet.get().getParsedFacetTypes().forEach(message::removeFacetsOfType);
+      message.swapContent(RbelContent.of(new byte[0]));
+      spillFacet.get().setSpilled(true);
+    }
+    demotions.increment();
+    spilledMessages.incrementAndGet();
+    spilledBytes.addAndGet(message.getSize());
+    return true;
+  }
+
+  private boolean isSpilled(RbelMessageSpillFacet spillFacet) {
+    synchronized (spillFacet) {
+      return spillFacet.isSpilled();
+    }
+  }
+
+  private RbelSpillFile getSpillFile() {
+    if (spillFile == null) {
+      final Path directory =
+          Path.of(
+              StringUtils.defaultIfBlank(
+                  configuration.getSpillDirectory(), System.getProperty("java.io.tmpdir")));
+      spillFile =
+          new RbelSpillFile(
+              directory,
+              configuration.getSpillChunkSizeInMb() * 1024 * 1024,
+              configuration.getMaximumSpillSizeInMb() * 1024L * 1024);
+      log.info("Spilling messages exceeding the buffer size to {}", directory);
+    }
+    return spillFile;
+  }
+
+  private record SpillCandidate(RbelElement message, long sequenceNumber) {}
+
+  @Value
+  @Builder
+  public static class Statistics {
+    boolean enabled;
+    long spilledMessages;
+    long spilledBytes;
+    long spillFileBytes;
+    long demotions;
+    long promotions;
+    long droppedMessages;
+  }
+}
@@ -53,6 +53,15 @@ public class RbelMimeConverter extends RbelConverterPlugin {
   private static final String TRANSFER_ENCODING_7_BIT = "7bit";
   public static final String CONTENT_TRANSFER_ENCODING = "content-transfer-encoding";
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.childOfElementWithAnyFacet(
+        RbelPop3ResponseFacet.class,
+        RbelDecryptedEmailFacet.class,
+        RbelSmtpCommandFacet.class,
+        RbelMimeBodyFacet.class);
+  }
+
   @Override
   public void consumeElement(final RbelElement element, final RbelConverter context) {
     Optional.ofNullable(element.getParentNode())
@@ -40,6 +40,11 @@ public class RbelMtomConverter extends RbelConverterPlugin {
   public static final String CONTENT_ID = "Content-ID";
   private static final byte[] DOUBLE_DASH = "--".getBytes();
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.trimmedContentStartingWith(DOUBLE_DASH);
+  }
+
   @Override
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
     if (!stringStartIsMtom(rbelElement)) {
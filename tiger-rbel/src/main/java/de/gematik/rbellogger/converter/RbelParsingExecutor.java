@@ -0,0 +1,263 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import de.gematik.rbellogger.data.RbelHostname;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficParsingConfiguration;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficParsingConfiguration.TrafficParsingBackpressure;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the asynchronous parsing of {@link RbelConverter#parseMessageAsync}. The work is spread over
+ * a fixed number of lanes, each a single thread with a bounded queue. All messages of a connection
+ * go to the same lane, so they are parsed in the order they were recorded, while different
+ * connections are parsed in parallel. What happens when a lane is full is decided by the {@link
+ * TrafficParsingBackpressure}. Idle lanes give their thread back after a minute.
+ */
+@Slf4j
+public class RbelParsingExecutor implements AutoCloseable {
+
+  private static final long LANE_KEEP_ALIVE_SECONDS = 60;
+  private static final AtomicInteger EXECUTOR_COUNTER = new AtomicInteger();
+
+  private final ThreadPoolExecutor[] lanes;
+  // free places in the queue of each lane, taken before a task is queued
+  private final Semaphore[] laneSlots;
+  @Getter private final TrafficParsingBackpressure backpressure;
+  private final int maximumQueuedMessages;
+  private final LongAdder parsedMessages = new LongAdder();
+  private final LongAdder droppedMessages = new LongAdder();
+  private final LongAdder skippedMessages = new LongAdder();
+  private final LongAdder totalParseNanos = new LongAdder();
+  private final LongAccumulator maximumParseNanos = new LongAccumulator(Math::max, 0);
+
+  private RbelParsingExecutor(TrafficParsingConfiguration configuration) {
+    final int laneCount =
+        configuration.getParsingThreads() > 0
+            ? configuration.getParsingThreads()
+            : Runtime.getRuntime().availableProcessors();
+    final int laneCapacity = Math.max(1, configuration.getMaximumQueuedMessages() / laneCount);
+    this.backpressure = configuration.getBackpressure();
+    this.maximumQueuedMessages = laneCapacity * laneCount;
+    final ThreadFactory threadFactory = buildThreadFactory(configuration.isUseVirtualThreads());
+    this.lanes = new ThreadPoolExecutor[laneCount];
+    this.laneSlots = new Semaphore[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      // the queue is bounded by the slots, it only rejects once the lane is shut down
+      lanes[i] =
+          new ThreadPoolExecutor(
+              1,
+              1,
+              LANE_KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              threadFactory,
+              new ThreadPoolExecutor.AbortPolicy());
+      lanes[i].allowCoreThreadTimeOut(true);
+      laneSlots[i] = new Semaphore(laneCapacity);
+    }
+  }
+
+  public static RbelParsingExecutor create(TrafficParsingConfiguration configuration) {
+    return new RbelParsingExecutor(configuration);
+  }
+
+  /**
+   * Queues the task in the lane of the given connection.
+   *
+   * @throws RejectedExecutionException if the lane is full and the backpressure does not block, or
+   *     if the executor is shut down
+   */
+  public void execute(String connectionKey, Runnable task) {
+    execute(connectionKey, () -> {}, task);
+  }
+
+  /**
+   * Queues the task in the lane of the given connection. The {@code ordering} step runs right
+   * before the task is queued, while the lane is locked, so concurrent callers queue their tasks in
+   * the order their ordering steps ran. Waiting for room in a full lane happens before and without
+   * holding the lane, so a full lane never stalls the callers of other lanes.
+   *
+   * @throws RejectedExecutionException if the lane is full and the backpressure does not block, or
+   *     if the executor is shut down. The ordering step did not run if the lane was full.
+   */
+  public void execute(String connectionKey, Runnable ordering, Runnable task) {
+    final int laneIndex = Math.floorMod(connectionKey.hashCode(), lanes.length);
+    final ThreadPoolExecutor lane = lanes[laneIndex];
+    final Semaphore slots = laneSlots[laneIndex];
+    reserveSlot(lane, slots);
+    try {
+      synchronized (lane) {
+        ordering.run();
+        lane.execute(
+            () -> {
+              slots.release();
+              task.run();
+            });
+      }
+    } catch (RuntimeException e) {
+      slots.release();
+      throw e;
+    }
+  }
+
+  /** Both directions of a connection share the key (and thereby the lane). */
+  public static String connectionKey(RbelHostname sender, RbelHostname receiver) {
+    final String senderString = Objects.toString(sender);
+    final String receiverString = Objects.toString(receiver);
+    return senderString.compareTo(receiverString) < 0
+        ? senderString + " <-> " + receiverString
+        : receiverString + " <-> " + senderString;
+  }
+
+  void recordParsedMessage(long parseNanos) {
+    parsedMessages.increment();
+    totalParseNanos.add(parseNanos);
+    maximumParseNanos.accumulate(parseNanos);
+  }
+
+  void recordRejectedMessage() {
+    if (backpressure == TrafficParsingBackpressure.DROP) {
+      droppedMessages.increment();
+    } else {
+      skippedMessages.increment();
+    }
+  }
+
+  public int getQueuedMessages() {
+    return Arrays.stream(lanes).mapToInt(lane -> lane.getQueue().size()).sum();
+  }
+
+  public Statistics getStatistics() {
+    final long parsed = parsedMessages.sum();
+    return Statistics.builder()
+        .lanes(lanes.length)
+        .queuedMessages(getQueuedMessages())
+        .maximumQueuedMessages(maximumQueuedMessages)
+        .parsedMessages(parsed)
+        .droppedMessages(droppedMessages.sum())
+        .skippedMessages(skippedMessages.sum())
+        .averageParseLatencyMicros(
+            parsed == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalParseNanos.sum() / parsed))
+        .maximumParseLatencyMicros(TimeUnit.NANOSECONDS.toMicros(maximumParseNanos.get()))
+        .build();
+  }
+
+  public boolean isShutdown() {
+    return lanes[0].isShutdown();
+  }
+
+  @Override
+  public void close() {
+    for (ThreadPoolExecutor lane : lanes) {
+      lane.shutdown();
+    }
+  }
+
+  private void reserveSlot(ThreadPoolExecutor lane, Semaphore slots) {
+    if (lane.isShutdown()) {
+      throw new RejectedExecutionException("Parsing executor is shut down");
+    }
+    if (backpressure != TrafficParsingBackpressure.BLOCK) {
+      if (!slots.tryAcquire()) {
+        throw new RejectedExecutionException("Parsing queue is full");
+      }
+      return;
+    }
+    try {
+      slots.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for the parsing queue", e);
+    }
+  }
+
+  private static ThreadFactory buildThreadFactory(boolean useVirtualThreads) {
+    final String namePrefix = "rbel-parser-" + EXECUTOR_COUNTER.incrementAndGet() + "-";
+    if (useVirtualThreads) {
+      final Optional<ThreadFactory> virtualThreadFactory = findVirtualThreadFactory(namePrefix);
+      if (virtualThreadFactory.isPresent()) {
+        return virtualThreadFactory.get();
+      }
+      log.warn("Virtual threads are not available in this JVM, parsing on platform threads");
+    }
+    final AtomicInteger threadCounter = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, namePrefix + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** Thread.ofVirtual().name(prefix, 0).factory(), looked up reflectively (Java 21+). */
+  private static Optional<ThreadFactory> findVirtualThreadFactory(String namePrefix) {
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      final Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      final Object builder =
+          lookup
+              .findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass))
+              .invoke();
+      final Object namedBuilder =
+          lookup
+              .findVirtual(
+                  builderClass,
+                  "name",
+                  MethodType.methodType(builderClass, String.class, long.class))
+              .invoke(builder, namePrefix, 0L);
+      return Optional.of(
+          (ThreadFactory)
+              lookup
+                  .findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class))
+                  .invoke(namedBuilder));
+    } catch (Throwable e) { // NOSONAR - any failure means there are no virtual threads
+      log.debug("Unable to create virtual thread factory", e);
+      return Optional.empty();
+    }
+  }
+
+  @Value
+  @Builder
+  public static class Statistics {
+    int lanes;
+    int queuedMessages;
+    int maximumQueuedMessages;
+    long parsedMessages;
+    long droppedMessages;
+    long skippedMessages;
+    long averageParseLatencyMicros;
+    long maximumParseLatencyMicros;
+  }
+}
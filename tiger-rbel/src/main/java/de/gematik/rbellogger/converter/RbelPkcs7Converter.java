@@ -31,6 +31,11 @@ import org.bouncycastle.cms.CMSException;
 @ConverterInfo(onlyActivateFor = "mime")
 public class RbelPkcs7Converter extends RbelConverterPlugin {
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.childOfElementWithAnyFacet(RbelMimeMessageFacet.class);
+  }
+
   @Override
   @SneakyThrows
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
@@ -28,6 +28,12 @@ import org.apache.commons.lang3.ArrayUtils;
 @Slf4j
 public class RbelSicctCommandConverter extends RbelConverterPlugin {
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.childOfElementWithAnyFacet(
+        RbelSicctEnvelopeFacet.class, RbelSicctCommandFacet.class);
+  }
+
   @Override
   public void consumeElement(final RbelElement element, final RbelConverter context) {
     if (element.getParentNode() == null) {
@@ -27,6 +27,11 @@ import org.bouncycastle.util.encoders.Hex;
 @Slf4j
 public class RbelSicctEnvelopeConverter extends RbelConverterPlugin {
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.rootElement();
+  }
+
   @Override
   public void consumeElement(final RbelElement element, final RbelConverter context) {
     if (element.getParentNode() != null
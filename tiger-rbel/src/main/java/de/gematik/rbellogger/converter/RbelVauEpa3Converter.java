@@ -17,12 +17,15 @@
 
 package de.gematik.rbellogger.converter;
 
+import de.gematik.rbellogger.converter.RbelVauEpa3SessionRegistry.HandshakeState;
+import de.gematik.rbellogger.converter.RbelVauEpa3SessionRegistry.Session;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelMultiMap;
 import de.gematik.rbellogger.data.facet.*;
 import de.gematik.rbellogger.key.RbelKey;
 import de.gematik.rbellogger.key.RbelKeyManager;
 import de.gematik.rbellogger.util.CryptoUtils;
+import de.gematik.rbellogger.util.RbelContent;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.security.*;
@@ -45,6 +48,7 @@ import org.bouncycastle.math.ec.ECPoint;
 import org.bouncycastle.pqc.crypto.crystals.kyber.KyberParameters;
 import org.bouncycastle.pqc.crypto.crystals.kyber.KyberPublicKeyParameters;
 import org.bouncycastle.pqc.jcajce.provider.kyber.BCKyberPublicKey;
+import org.bouncycastle.util.encoders.Hex;
 
 @ConverterInfo(onlyActivateFor = "epa3-vau")
 @Slf4j
@@ -69,35 +73,87 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
   private static final String VAU_DEBUG_K1_S2C = "VAU-DEBUG-S_K1_s2c";
   private static final String K1_S2C_NOTE = "S_K1_s2c, absent in a real-life implementation";
   private static final String VAU_3_PAYLOAD_KEYS = "vau_non_pu_tracing_";
+  private static final String VAU_CID = "VAU-CID";
+  private static final int GCM_TAG_LENGTH = 16;
   private static final String AEAD_CT_KEY_CONFIRMATION_NOTE =
       "Decrypted AEAD_ct_key_confirmation. This is the server's transcript hash. Decryption for"
           + " clarification purposes only. In a real-life implementation, this would be done by the"
           + " client.";
   public static final String CONTENT = "content";
 
+  private final RbelVauEpa3SessionRegistry sessions = new RbelVauEpa3SessionRegistry();
+
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.elementWithFacet(RbelCborFacet.class)
+        .or(RbelConverterApplicability.childOfElementWithAnyFacet(RbelHttpMessageFacet.class));
+  }
+
   @Override
   public void consumeElement(RbelElement element, RbelConverter context) {
     if (log.isTraceEnabled()) {
       log.trace("Trying to decipher '{}'...", element.getRawStringContent());
     }
-    context.waitForAllElementsBeforeGivenToBeParsed(element.findRootElement());
     if (element.hasFacet(RbelCborFacet.class)) {
       tryToParseVauEpa3HandshakeMessage(element, context);
-    } else if (element.getParentNode() != null
-        && element.getParentNode().hasFacet(RbelHttpMessageFacet.class)) {
-      tryToExtractVauNonPuTracingKeys(element, context);
-      tryToParseVauEpa3Message(element, context);
+    } else if (isBodyOfHttpMessage(element) && looksLikeVauEpa3Message(element.getContent())) {
+      final RbelElement message = element.findRootElement();
+      waitForEarlierMessagesOfTheSameSession(message, context, true);
+      final Optional<Session> session = sessions.findSession(message);
+      tryToExtractVauNonPuTracingKeys(element, context, session);
+      tryToParseVauEpa3Message(element, context, session);
     }
   }
 
-  private void tryToParseVauEpa3Message(RbelElement element, RbelConverter context) {
-    context
-        .getRbelKeyManager()
-        .getAllKeys()
-        .filter(key -> key.getKey() instanceof SecretKeySpec)
-        .filter(key -> key.getKey().getAlgorithm().equals("AES"))
-        .filter(key -> key.getKeyName().startsWith(VAU_3_PAYLOAD_KEYS))
-        .anyMatch(key -> decryptEpa3VauSuccessfull(element, key.getKey(), context)); // NOSONAR
+  /**
+   * Instead of waiting for all earlier messages only the messages of the same session are awaited
+   * (see {@link RbelVauEpa3SessionRegistry#messagesOfTheSameSession}), so that independent sessions
+   * are decrypted in parallel.
+   */
+  private static void waitForEarlierMessagesOfTheSameSession(
+      RbelElement message, RbelConverter context, boolean matchRequestPath) {
+    context.waitForAllElementsBeforeGivenToBeParsed(
+        message, RbelVauEpa3SessionRegistry.messagesOfTheSameSession(message, matchRequestPath));
+  }
+
+  private static boolean isBodyOfHttpMessage(RbelElement element) {
+    return element.getParentNode() != null
+        && element
+            .getParentNode()
+            .getFacet(RbelHttpMessageFacet.class)
+            .filter(httpMessage -> httpMessage.getBody() == element)
+            .isPresent();
+  }
+
+  /** Version 2, PU or nonPU, request or response, followed by at least IV and GCM tag. */
+  private static boolean looksLikeVauEpa3Message(RbelContent content) {
+    return content.size() >= BODY_CT_INDEX + GCM_TAG_LENGTH
+        && content.get(HEADER_VERSION_INDEX) == 2
+        && (content.get(HEADER_PU_INDEX) == 0 || content.get(HEADER_PU_INDEX) == 1)
+        && (content.get(HEADER_REQ_INDEX) == 1 || content.get(HEADER_REQ_INDEX) == 2);
+  }
+
+  private void tryToParseVauEpa3Message(
+      RbelElement element, RbelConverter context, Optional<Session> session) {
+    final RbelKeyManager keyManager = context.getRbelKeyManager();
+    // the key id in the header identifies the session, so the key that worked before will work
+    final String decryptionContext =
+        "vau3:" + Hex.toHexString(element.getContent().subArray(HEADER_KEY_ID_INDEX, BODY_INDEX));
+    final Stream<RbelKey> knownPayloadKeys =
+        keyManager
+            .findKeysWithNamePrefix(VAU_3_PAYLOAD_KEYS)
+            .filter(key -> key.getKey() instanceof SecretKeySpec)
+            .filter(key -> key.getKey().getAlgorithm().equals("AES"));
+    keyManager
+        .withLastSuccessfulKeyFirst(
+            decryptionContext,
+            Stream.concat(
+                    session.map(Session::getPayloadKeys).stream().flatMap(List::stream),
+                    knownPayloadKeys)
+                .distinct())
+        .filter(key -> decryptEpa3VauSuccessfull(element, key.getKey(), context))
+        .findFirst()
+        .ifPresent(key -> keyManager.rememberSuccessfulKey(decryptionContext, key));
   }
 
   private boolean decryptEpa3VauSuccessfull(RbelElement element, Key key, RbelConverter context) {
@@ -170,7 +226,8 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
     return cipher.doFinal(ciphertext);
   }
 
-  private void tryToExtractVauNonPuTracingKeys(RbelElement element, RbelConverter context) {
+  private void tryToExtractVauNonPuTracingKeys(
+      RbelElement element, RbelConverter context, Optional<Session> session) {
     Optional.ofNullable(element.getParentNode())
         .flatMap(el -> el.getFacet(RbelHttpMessageFacet.class))
         .map(RbelHttpMessageFacet::getHeader)
@@ -182,7 +239,11 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
         .map(Base64.getDecoder()::decode)
         .map(key -> new SecretKeySpec(key, "AES"))
         .map(key -> new RbelKey(key, VAU_3_PAYLOAD_KEYS + UUID.randomUUID(), 0))
-        .forEach(key -> context.getRbelKeyManager().addKey(key));
+        .forEach(
+            key -> {
+              context.getRbelKeyManager().addKey(key);
+              session.ifPresent(vauSession -> vauSession.addPayloadKey(key));
+            });
   }
 
   private void tryToParseVauEpa3HandshakeMessage(RbelElement element, RbelConverter context) {
@@ -191,11 +252,14 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
       if (messageType.isPresent()) {
         String messageTypeContent =
             messageType.get().getFirst(CONTENT).map(RbelElement::getRawStringContent).orElse("");
+        final RbelElement message = element.findRootElement();
+        // only M3 is sent to the CID, all other handshake messages stay on their connection
+        waitForEarlierMessagesOfTheSameSession(message, context, messageTypeContent.equals("M3"));
         switch (messageTypeContent) {
-          case "M1" -> parseM1(element, context);
-          case "M2" -> parseM2(element, context);
-          case "M3" -> parseM3(element, context);
-          case "M4" -> parseM4(element, context);
+          case "M1" -> parseM1(element, context, message);
+          case "M2" -> parseM2(element, context, message);
+          case "M3" -> parseM3(element, context, message);
+          case "M4" -> parseM4(element, message);
           default -> element.addFacet(
               new RbelNoteFacet("Unknown VAU EPA3 message type: " + messageTypeContent));
         }
@@ -205,7 +269,7 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
     }
   }
 
-  private void parseM3(RbelElement element, RbelConverter context) {
+  private void parseM3(RbelElement element, RbelConverter context, RbelElement message) {
     final Optional<RbelElement> aeadCtKeyConfirmation =
         element.getFirst("AEAD_ct_key_confirmation");
     final Optional<RbelElement> aeadCt = element.getFirst("AEAD_ct");
@@ -214,16 +278,27 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
     }
     aeadCtKeyConfirmation.get().addFacet(new RbelNoteFacet("aead_ciphertext_key_confirmation"));
     aeadCt.get().addFacet(new RbelNoteFacet("aead_ciphertext_msg_3"));
-    for (RbelKey key : context.getRbelKeyManager().getAllKeys().toList())
+    final Optional<SecretKeySpec> sessionKey =
+        sessions
+            .findSession(message)
+            .map(
+                session -> {
+                  session.advanceTo(HandshakeState.M3_SENT);
+                  return session.getClientToServerHandshakeKey();
+                });
+    if (sessionKey.isPresent() && tryToDecipherAeadCt(aeadCt.get(), context, sessionKey.get())) {
+      return;
+    }
+    for (RbelKey key :
+        context.getRbelKeyManager().findKeysWithNamePrefix(VAU_3_HANDSHAKE_S_K1_C2S).toList())
       if (key.getKey() instanceof SecretKeySpec secretKeySpec
           && key.getKey().getAlgorithm().equals("AES")
-          && key.getKeyName().startsWith(VAU_3_HANDSHAKE_S_K1_C2S)
           && tryToDecipherAeadCt(aeadCt.get(), context, secretKeySpec)) {
         break;
       }
   }
 
-  private void parseM2(RbelElement element, RbelConverter context) {
+  private void parseM2(RbelElement element, RbelConverter context, RbelElement message) {
     final Optional<RbelElement> ecdhCt = element.getFirst("ECDH_ct");
     final Optional<RbelElement> kyber768Ct = element.getFirst("Kyber768_ct");
     final Optional<RbelElement> aeadCt = element.getFirst("AEAD_ct");
@@ -235,15 +310,23 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
         .get()
         .addFacet(new RbelNoteFacet("Kyber768 ciphertext of the server for this handshake"));
     aeadCt.get().addFacet(new RbelNoteFacet("aead_ciphertext_msg_2"));
+    final Session session =
+        sessions.findSession(message).orElseGet(() -> sessions.startSession(message));
+    session.advanceTo(HandshakeState.M2_RECEIVED);
+    RbelVauEpa3SessionRegistry.findHeaderValue(message, VAU_CID)
+        .ifPresent(cid -> sessions.registerCid(session, cid));
     final Optional<byte[]> s2cKey =
         extractKeyFromHttpHeader(aeadCt.get(), VAU_DEBUG_K1_S2C, K1_S2C_NOTE);
     if (s2cKey.isEmpty()) return;
 
     tryToDecipherAeadCt(aeadCt.get(), context, new SecretKeySpec(s2cKey.get(), "AES"));
-    manageClientToServerKey(element, context);
+    manageClientToServerKey(element, context, session);
   }
 
-  private void parseM4(RbelElement element, RbelConverter context) {
+  private void parseM4(RbelElement element, RbelElement message) {
+    sessions
+        .findSession(message)
+        .ifPresent(session -> session.advanceTo(HandshakeState.ESTABLISHED));
     final RbelElement ctKeyConfirmation =
         element.getFirst("AEAD_ct_key_confirmation").orElseThrow();
 
@@ -267,12 +350,18 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
             });
   }
 
-  private static void manageClientToServerKey(RbelElement element, RbelConverter context) {
+  private static void manageClientToServerKey(
+      RbelElement element, RbelConverter context, Session session) {
     extractKeyFromHttpHeader(
             element, VAU_DEBUG_K1_C2S, "S_K1_c2s, absent in a real-life implementation")
         .map(key -> new SecretKeySpec(key, "AES"))
-        .map(key -> new RbelKey(key, VAU_3_HANDSHAKE_S_K1_C2S + UUID.randomUUID(), 0))
-        .ifPresent(rbelKey -> context.getRbelKeyManager().addKey(rbelKey));
+        .ifPresent(
+            key -> {
+              session.setClientToServerHandshakeKey(key);
+              context
+                  .getRbelKeyManager()
+                  .addKey(new RbelKey(key, VAU_3_HANDSHAKE_S_K1_C2S + UUID.randomUUID(), 0));
+            });
   }
 
   private boolean tryToDecipherAeadCt(
@@ -307,7 +396,7 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
         .map(Base64.getDecoder()::decode);
   }
 
-  private void parseM1(RbelElement element, RbelConverter context) {
+  private void parseM1(RbelElement element, RbelConverter context, RbelElement message) {
     final Optional<RbelElement> ecdhPk = element.getFirst("ECDH_PK");
     final Optional<RbelElement> kyber768Pk = element.getFirst("Kyber768_PK");
     if (ecdhPk.isEmpty() || kyber768Pk.isEmpty()) {
@@ -320,6 +409,7 @@ public class RbelVauEpa3Converter extends RbelConverterPlugin {
             new RbelNoteFacet(
                 "Kyber public key of the client for this handshake (Concatenation of the two kyber"
                     + " parameters)"));
+    sessions.startSession(message);
     tryToAddEccKeyToKeyManager(element, context);
   }
 
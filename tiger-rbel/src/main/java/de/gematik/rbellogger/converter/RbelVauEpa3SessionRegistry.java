@@ -0,0 +1,186 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.RbelHttpMessageFacet;
+import de.gematik.rbellogger.data.facet.RbelHttpRequestFacet;
+import de.gematik.rbellogger.data.facet.RbelTcpIpMessageFacet;
+import de.gematik.rbellogger.key.RbelKey;
+import de.gematik.rbellogger.util.RbelContent;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks the VAU3 sessions seen in the traffic. A session is started by the M1 message of a
+ * handshake and is found again through the TCP connection it was started on and, once the server
+ * has chosen it in M2, through its VAU-CID (the path of all later requests of the session). The
+ * session keeps the keys learned during the handshake and from the debug headers, and it decides
+ * which earlier messages a message may depend on: messages of other sessions can be decrypted in
+ * parallel.
+ */
+@Slf4j
+class RbelVauEpa3SessionRegistry {
+
+  public static final int MAXIMUM_TRACKED_SESSIONS = 1024;
+  private static final byte[] END_OF_HEAD = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+  private final Map<String, Session> sessionsByConnection = createSessionMap();
+  private final Map<String, Session> sessionsByCid = createSessionMap();
+
+  /** Called for M1: any earlier session on the same connection is replaced. */
+  Session startSession(RbelElement message) {
+    final Session session = new Session(connectionId(message));
+    sessionsByConnection.put(session.getConnectionId(), session);
+    return session;
+  }
+
+  /**
+   * Requests are assigned to a session by their path (the VAU-CID), responses (and requests not yet
+   * sent to a CID) by their connection.
+   */
+  Optional<Session> findSession(RbelElement message) {
+    final Optional<Session> sessionByCid = requestPath(message).map(sessionsByCid::get);
+    if (sessionByCid.isPresent()) {
+      final Session session = sessionByCid.get();
+      sessionsByConnection.put(connectionId(message), session);
+      return sessionByCid;
+    }
+    return Optional.ofNullable(sessionsByConnection.get(connectionId(message)));
+  }
+
+  void registerCid(Session session, String cid) {
+    session.setCid(cid);
+    sessionsByCid.put(cid, session);
+  }
+
+  /**
+   * The earlier messages the given message may depend on: everything on the same connection and,
+   * for requests sent to a CID, every message mentioning that CID in its head (the M2 response that
+   * announced it and the earlier requests of the session).
+   */
+  static Predicate<RbelElement> messagesOfTheSameSession(
+      RbelElement message, boolean matchRequestPath) {
+    final String connectionId = connectionId(message);
+    final Optional<byte[]> cid =
+        matchRequestPath
+            ? requestPath(message).map(path -> path.getBytes(StandardCharsets.UTF_8))
+            : Optional.empty();
+    return earlierMessage ->
+        connectionId.equals(connectionId(earlierMessage))
+            || cid.filter(bytes -> headContains(earlierMessage.getContent(), bytes)).isPresent();
+  }
+
+  private static boolean headContains(RbelContent content, byte[] searchContent) {
+    final int position = content.indexOf(searchContent);
+    if (position < 0) {
+      return false;
+    }
+    final int endOfHead = content.indexOf(END_OF_HEAD);
+    return endOfHead < 0 || position < endOfHead;
+  }
+
+  /** Identifies the connection independent of the direction of the message. */
+  static String connectionId(RbelElement message) {
+    return message
+        .getFacet(RbelTcpIpMessageFacet.class)
+        .map(
+            tcpFacet -> {
+              final String sender = Objects.toString(tcpFacet.getSender().getRawStringContent());
+              final String receiver =
+                  Objects.toString(tcpFacet.getReceiver().getRawStringContent());
+              return sender.compareTo(receiver) < 0
+                  ? sender + " <-> " + receiver
+                  : receiver + " <-> " + sender;
+            })
+        .orElse("");
+  }
+
+  static Optional<String> requestPath(RbelElement message) {
+    return message
+        .getFacet(RbelHttpRequestFacet.class)
+        .map(RbelHttpRequestFacet::getPath)
+        .map(RbelElement::getRawStringContent);
+  }
+
+  static Optional<String> findHeaderValue(RbelElement message, String headerName) {
+    return message
+        .getFacet(RbelHttpMessageFacet.class)
+        .map(RbelHttpMessageFacet::getHeader)
+        .flatMap(header -> header.getFirst(headerName))
+        .map(RbelElement::getRawStringContent);
+  }
+
+  /** Access ordered and bounded: the session used least recently is dropped first. */
+  private static Map<String, Session> createSessionMap() {
+    return Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+            return size() > MAXIMUM_TRACKED_SESSIONS;
+          }
+        });
+  }
+
+  /** The handshake steps of a VAU3 session (A_24428 ff. in gemSpec_Krypt). */
+  enum HandshakeState {
+    M1_SENT,
+    M2_RECEIVED,
+    M3_SENT,
+    ESTABLISHED
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  static class Session {
+    private final String connectionId;
+    private final List<RbelKey> payloadKeys = new CopyOnWriteArrayList<>();
+    private volatile HandshakeState state = HandshakeState.M1_SENT;
+    @Setter private volatile String cid;
+    @Setter private volatile SecretKeySpec clientToServerHandshakeKey;
+
+    void advanceTo(HandshakeState nextState) {
+      if (nextState.ordinal() != state.ordinal() + 1) {
+        log.trace(
+            "VAU3 session on {} jumps from {} to {} (handshake only partially logged?)",
+            connectionId,
+            state,
+            nextState);
+      }
+      state = nextState;
+    }
+
+    /** Keeps the most recently announced keys in front. */
+    void addPayloadKey(RbelKey payloadKey) {
+      if (!payloadKeys.contains(payloadKey)) {
+        payloadKeys.add(0, payloadKey);
+      }
+    }
+  }
+}
@@ -78,12 +78,17 @@ public class RbelVauEpaConverter extends RbelConverterPlugin {
       return Optional.empty();
     }
     final Pair<byte[], byte[]> splitVauMessage = splitOptional.get();
+    final String keyId = Hex.toHexString(splitVauMessage.getKey());
+    final String decryptionContext = "vau-epa:" + keyId;
     final List<RbelKey> potentialVauKeys =
         converter
             .getRbelKeyManager()
-            .getAllKeys()
-            .filter(key -> key.getKeyName().startsWith(Hex.toHexString(splitVauMessage.getKey())))
-            .filter(key -> key.getKey() instanceof SecretKey)
+            .withLastSuccessfulKeyFirst(
+                decryptionContext,
+                converter
+                    .getRbelKeyManager()
+                    .findKeysWithNamePrefix(keyId)
+                    .filter(key -> key.getKey() instanceof SecretKey))
             .toList();
 
     for (RbelKey rbelKey : potentialVauKeys) {
@@ -105,6 +110,7 @@ public class RbelVauEpaConverter extends RbelConverterPlugin {
         decryptedBytes = Optional.empty();
       }
       if (decryptedBytes.isPresent()) {
+        converter.getRbelKeyManager().rememberSuccessfulKey(decryptionContext, rbelKey);
         try {
           if (log.isTraceEnabled()) {
             log.trace("Succesfully deciphered VAU message! ({})", new String(decryptedBytes.get()));
@@ -122,7 +128,7 @@ public class RbelVauEpaConverter extends RbelConverterPlugin {
           RbelNoteFacet.builder()
               .value(
                   "Found no matching key! (Was the handshake logged?) key-name: '"
-                      + Hex.toHexString(splitVauMessage.getKey())
+                      + keyId
                       + "'")
               .style(NoteStyling.WARN)
               .build());
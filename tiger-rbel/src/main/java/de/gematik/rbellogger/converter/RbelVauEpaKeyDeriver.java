@@ -49,6 +49,11 @@ public class RbelVauEpaKeyDeriver extends RbelConverterPlugin {
   private static final String AES_256_GCM_KEY_SERVER_TO_CLIENT = "AES-256-GCM-Key-Server-to-Client";
   private static final String AES_256_GCM_KEY_CLIENT_TO_SERVER = "AES-256-GCM-Key-Client-to-Server";
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.elementWithFacet(RbelJsonFacet.class);
+  }
+
   @Override
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
     final Optional<PublicKey> otherSidePublicKey =
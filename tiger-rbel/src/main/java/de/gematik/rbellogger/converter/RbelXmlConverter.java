@@ -20,6 +20,7 @@ import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelMultiMap;
 import de.gematik.rbellogger.data.facet.*;
 import de.gematik.rbellogger.exceptions.RbelConversionException;
+import de.gematik.rbellogger.util.RbelContent;
 import de.gematik.rbellogger.util.RbelException;
 import java.io.ByteArrayInputStream;
 import java.io.StringReader;
@@ -27,6 +28,7 @@ import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.dom4j.*;
 import org.dom4j.io.SAXReader;
@@ -44,6 +46,11 @@ public class RbelXmlConverter extends RbelConverterPlugin {
   private static final byte[] OPEN_TAG = "<".getBytes();
   private static final byte[] CLOSE_TAG = ">".getBytes();
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.trimmedContentStartingWith(OPEN_TAG);
+  }
+
   @Override
   public void consumeElement(final RbelElement rbel, final RbelConverter context) {
     final var content = rbel.getContent();
@@ -53,7 +60,10 @@ public class RbelXmlConverter extends RbelConverterPlugin {
     try {
       InputSource source = buildInputSource(rbel);
       final Document parsedXml = parseXml(source);
-      buildXmlElementForNode(parsedXml, rbel, context);
+      final XmlSourceRanges sourceRanges =
+          XmlSourceRanges.locate(content, parsedXml, findSourceCharset(parsedXml, rbel))
+              .orElse(null);
+      buildXmlElementForNode(parsedXml, rbel, context, sourceRanges);
       setCharset(parsedXml, rbel);
       rbel.addFacet(new RbelRootFacet<>(rbel.getFacetOrFail(RbelXmlFacet.class)));
     } catch (DocumentException e) {
@@ -69,6 +79,16 @@ public class RbelXmlConverter extends RbelConverterPlugin {
     }
   }
 
+  private static Charset findSourceCharset(Document source, RbelElement rbel) {
+    try {
+      return Optional.ofNullable(source.getXMLEncoding())
+          .map(Charset::forName)
+          .orElseGet(rbel::getElementCharset);
+    } catch (IllegalArgumentException e) {
+      return rbel.getElementCharset();
+    }
+  }
+
   private void setCharset(Document source, RbelElement rbel) {
     Optional.ofNullable(source.getXMLEncoding())
         .map(Charset::forName)
@@ -97,7 +117,10 @@ public class RbelXmlConverter extends RbelConverterPlugin {
   }
 
   private void buildXmlElementForNode(
-      Branch branch, RbelElement parentElement, RbelConverter converter) {
+      Branch branch,
+      RbelElement parentElement,
+      RbelConverter converter,
+      @Nullable XmlSourceRanges sourceRanges) {
     final RbelMultiMap<RbelElement> childElements = new RbelMultiMap<>();
     final RbelXmlFacet xmlFacet =
         RbelXmlFacet.builder()
@@ -109,7 +132,7 @@ public class RbelXmlConverter extends RbelConverterPlugin {
 
     addAttributes(branch, parentElement, converter, childElements);
 
-    addChildElements(branch, parentElement, converter, childElements);
+    addChildElements(branch, parentElement, converter, childElements, sourceRanges);
 
     if (childElements.stream().map(Map.Entry::getKey).noneMatch(key -> key.equals(XML_TEXT_KEY))) {
       childElements.put(XML_TEXT_KEY, new RbelElement(new byte[] {}, parentElement));
@@ -120,15 +143,15 @@ public class RbelXmlConverter extends RbelConverterPlugin {
       Branch branch,
       RbelElement parentElement,
       RbelConverter converter,
-      RbelMultiMap<RbelElement> childElements) {
+      RbelMultiMap<RbelElement> childElements,
+      @Nullable XmlSourceRanges sourceRanges) {
     for (Object child : branch.content()) {
       if (child instanceof Text text) {
         childElements.put(XML_TEXT_KEY, converter.convertElement(text.getText(), parentElement));
       } else if (child instanceof AbstractBranch abstractBranch) {
         final RbelElement element =
-            new RbelElement(
-                abstractBranch.asXML().getBytes(parentElement.getElementCharset()), parentElement);
-        buildXmlElementForNode(abstractBranch, element, converter);
+            buildBranchElement(abstractBranch, parentElement, sourceRanges);
+        buildXmlElementForNode(abstractBranch, element, converter, sourceRanges);
         childElements.put(((AbstractBranch) child).getName(), element);
       } else if (child instanceof Namespace namespace) {
         final String childXmlName = namespace.asXML().split("=")[0];
@@ -150,6 +173,19 @@ public class RbelXmlConverter extends RbelConverterPlugin {
     }
   }
 
+  /** Uses the source bytes of the element where they could be located, re-serializes otherwise. */
+  private static RbelElement buildBranchElement(
+      AbstractBranch branch, RbelElement parentElement, @Nullable XmlSourceRanges sourceRanges) {
+    if (sourceRanges != null && branch instanceof Element element) {
+      final Optional<RbelContent> sourceContent = sourceRanges.getSourceContent(element);
+      if (sourceContent.isPresent()) {
+        return RbelElement.builder().content(sourceContent.get()).parentNode(parentElement).build();
+      }
+    }
+    return new RbelElement(
+        branch.asXML().getBytes(parentElement.getElementCharset()), parentElement);
+  }
+
   private static RbelElement convertProcessingInstruction(
       RbelElement parentElement,
       RbelConverter converter,
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import de.gematik.rbellogger.util.RbelContent;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+
+/**
+ * Byte ranges of the elements of a parsed XML document inside its source content. The source is
+ * scanned for start and end tags (skipping comments, CDATA sections, processing instructions and
+ * the doctype) and the tags are matched against the dom4j elements in document order. If anything
+ * does not line up, no ranges are returned and the converter falls back to re-serializing.
+ *
+ * <p>Elements using a namespace prefix that is only declared on one of their ancestors get no
+ * range: their verbatim source would not be well-formed on its own, so these are re-serialized
+ * together with the inherited declarations.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+class XmlSourceRanges {
+
+  private static final byte[] COMMENT_START = "<!--".getBytes();
+  private static final byte[] COMMENT_END = "-->".getBytes();
+  private static final byte[] CDATA_START = "<![CDATA[".getBytes();
+  private static final byte[] CDATA_END = "]]>".getBytes();
+  private static final byte[] PROCESSING_INSTRUCTION_END = "?>".getBytes();
+  private static final String XML_PREFIX = "xml";
+
+  private final RbelContent content;
+  private final Map<Element, int[]> elementRanges;
+
+  static Optional<XmlSourceRanges> locate(RbelContent content, Document document, Charset charset) {
+    final List<TagRange> tags = new Scanner(content).scan();
+    if (tags == null) {
+      return Optional.empty();
+    }
+    final Map<Element, int[]> elementRanges = new IdentityHashMap<>();
+    final Iterator<TagRange> tagIterator = tags.iterator();
+    if (document.getRootElement() == null
+        || !matchElements(
+            document.getRootElement(),
+            tagIterator,
+            content,
+            charset,
+            elementRanges,
+            new HashSet<>())
+        || tagIterator.hasNext()) {
+      return Optional.empty();
+    }
+    return Optional.of(new XmlSourceRanges(content, elementRanges));
+  }
+
+  private static boolean matchElements(
+      Element element,
+      Iterator<TagRange> tags,
+      RbelContent content,
+      Charset charset,
+      Map<Element, int[]> elementRanges,
+      Set<String> undeclaredPrefixes) {
+    if (!tags.hasNext()) {
+      return false;
+    }
+    final TagRange tag = tags.next();
+    final byte[] expectedName = element.getQualifiedName().getBytes(charset);
+    if (!Arrays.equals(expectedName, content.subArray(tag.nameStart, tag.nameEnd))) {
+      return false;
+    }
+    final Set<String> usedPrefixes = new HashSet<>();
+    addUsedPrefixes(element, usedPrefixes);
+    for (Element child : element.elements()) {
+      if (!matchElements(child, tags, content, charset, elementRanges, usedPrefixes)) {
+        return false;
+      }
+    }
+    element.declaredNamespaces().forEach(namespace -> usedPrefixes.remove(namespace.getPrefix()));
+    if (usedPrefixes.isEmpty()) {
+      elementRanges.put(element, new int[] {tag.start, tag.end});
+    }
+    undeclaredPrefixes.addAll(usedPrefixes);
+    return true;
+  }
+
+  private static void addUsedPrefixes(Element element, Set<String> prefixes) {
+    addUsedPrefix(element.getNamespace(), prefixes);
+    element.attributes().forEach(attribute -> addUsedPrefix(attribute.getNamespace(), prefixes));
+  }
+
+  private static void addUsedPrefix(Namespace namespace, Set<String> prefixes) {
+    if (namespace != null
+        && !namespace.getURI().isEmpty()
+        && !XML_PREFIX.equals(namespace.getPrefix())) {
+      prefixes.add(namespace.getPrefix());
+    }
+  }
+
+  /** The source bytes of the given element as a view of the scanned content, if located. */
+  Optional<RbelContent> getSourceContent(Element element) {
+    final int[] range = elementRanges.get(element);
+    return Optional.ofNullable(range).map(r -> content.subContent(r[0], r[1]));
+  }
+
+  @RequiredArgsConstructor
+  private static class TagRange {
+    private final int start;
+    private final int nameStart;
+    private final int nameEnd;
+    private int end;
+  }
+
+  @RequiredArgsConstructor
+  private static class Scanner {
+    private final RbelContent content;
+    private final List<TagRange> tags = new ArrayList<>();
+    private final Deque<TagRange> openTags = new ArrayDeque<>();
+
+    /** All elements in document order, or null if the source could not be scanned. */
+    List<TagRange> scan() {
+      int position = 0;
+      while (position >= 0 && position < content.size()) {
+        final int tagStart = content.indexOf((byte) '<', position);
+        if (tagStart < 0) {
+          break;
+        }
+        position = skipTag(tagStart);
+      }
+      return position < 0 || !openTags.isEmpty() ? null : tags;
+    }
+
+    /** Returns the position after the tag, or -1 if the source is not well-formed. */
+    private int skipTag(int tagStart) {
+      if (startsWithAt(COMMENT_START, tagStart)) {
+        return endOf(COMMENT_END, tagStart + COMMENT_START.length);
+      } else if (startsWithAt(CDATA_START, tagStart)) {
+        return endOf(CDATA_END, tagStart + CDATA_START.length);
+      } else if (byteAt(tagStart + 1) == '?') {
+        return endOf(PROCESSING_INSTRUCTION_END, tagStart + 2);
+      } else if (byteAt(tagStart + 1) == '!') {
+        return skipDeclaration(tagStart + 2);
+      } else if (byteAt(tagStart + 1) == '/') {
+        return closeTag(tagStart);
+      } else {
+        return openTag(tagStart);
+      }
+    }
+
+    private int openTag(int tagStart) {
+      final int nameEnd = findNameEnd(tagStart + 1);
+      final int tagEnd = findTagEnd(nameEnd);
+      if (nameEnd == tagStart + 1 || tagEnd < 0) {
+        return -1;
+      }
+      final TagRange tag = new TagRange(tagStart, tagStart + 1, nameEnd);
+      tags.add(tag);
+      if (byteAt(tagEnd - 1) == '/') {
+        tag.end = tagEnd + 1;
+      } else {
+        openTags.push(tag);
+      }
+      return tagEnd + 1;
+    }
+
+    private int closeTag(int tagStart) {
+      final int nameEnd = findNameEnd(tagStart + 2);
+      final int tagEnd = content.indexOf((byte) '>', nameEnd);
+      final TagRange openTag = openTags.poll();
+      if (tagEnd < 0
+          || openTag == null
+          || !Arrays.equals(
+              content.subArray(openTag.nameStart, openTag.nameEnd),
+              content.subArray(tagStart + 2, nameEnd))) {
+        return -1;
+      }
+      openTag.end = tagEnd + 1;
+      return tagEnd + 1;
+    }
+
+    /** Skips a doctype or other markup declaration including an internal subset. */
+    private int skipDeclaration(int position) {
+      int depth = 0;
+      for (int i = position; i < content.size(); i++) {
+        final byte current = content.get(i);
+        if (current == '"' || current == '\'') {
+          i = content.indexOf(current, i + 1);
+          if (i < 0) {
+            return -1;
+          }
+        } else if (current == '[') {
+          depth++;
+        } else if (current == ']') {
+          depth--;
+        } else if (current == '>' && depth == 0) {
+          return i + 1;
+        }
+      }
+      return -1;
+    }
+
+    private int findNameEnd(int position) {
+      int i = position;
+      while (i < content.size()) {
+        final byte current = content.get(i);
+        if (current == '>' || current == '/' || Character.isWhitespace(current)) {
+          break;
+        }
+        i++;
+      }
+      return i;
+    }
+
+    /** Position of the closing '>' of a start tag, skipping quoted attribute values. */
+    private int findTagEnd(int position) {
+      for (int i = position; i < content.size(); i++) {
+        final byte current = content.get(i);
+        if (current == '"' || current == '\'') {
+          i = content.indexOf(current, i + 1);
+          if (i < 0) {
+            return -1;
+          }
+        } else if (current == '>') {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private int endOf(byte[] terminator, int position) {
+      final int index = content.indexOf(terminator, position);
+      return index < 0 ? -1 : index + terminator.length;
+    }
+
+    private boolean startsWithAt(byte[] prefix, int position) {
+      if (position + prefix.length > content.size()) {
+        return false;
+      }
+      for (int i = 0; i < prefix.length; i++) {
+        if (content.get(position + i) != prefix[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private int byteAt(int position) {
+      return position < content.size() ? content.get(position) : -1;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter.eviction;
+
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.util.RbelMessageHistory;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/** Evicts the oldest evictable message of the history. */
+public class FifoEvictionPolicy implements RbelBufferEvictionPolicy {
+
+  @Override
+  public List<RbelElement> selectMessagesToEvict(
+      RbelMessageHistory history, Predicate<RbelElement> evictable) {
+    final Iterator<RbelElement> iterator = history.iterator();
+    for (int i = 0; i < MAX_MESSAGES_SCANNED && iterator.hasNext(); i++) {
+      final RbelElement message = iterator.next();
+      if (evictable.test(message)) {
+        return List.of(message);
+      }
+    }
+    return List.of();
+  }
+}
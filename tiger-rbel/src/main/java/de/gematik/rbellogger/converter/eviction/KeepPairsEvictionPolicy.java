@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter.eviction;
+
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.RbelHttpRequestFacet;
+import de.gematik.rbellogger.data.facet.RbelHttpResponseFacet;
+import de.gematik.rbellogger.data.facet.TracingMessagePairFacet;
+import de.gematik.rbellogger.util.RbelMessageHistory;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Evicts the oldest message together with its partner (the response of a request or the request
+ * of a response), so that no pair is left with only one half in the history. If the partner can
+ * not be evicted yet, both messages are kept.
+ */
+public class KeepPairsEvictionPolicy implements RbelBufferEvictionPolicy {
+
+  @Override
+  public List<RbelElement> selectMessagesToEvict(
+      RbelMessageHistory history, Predicate<RbelElement> evictable) {
+    final Iterator<RbelElement> iterator = history.iterator();
+    for (int i = 0; i < MAX_MESSAGES_SCANNED && iterator.hasNext(); i++) {
+      final RbelElement message = iterator.next();
+      if (!evictable.test(message)) {
+        continue;
+      }
+      final Optional<RbelElement> partner = findPartner(message);
+      if (partner.isEmpty()) {
+        return List.of(message);
+      }
+      if (evictable.test(partner.get())) {
+        return List.of(message, partner.get());
+      }
+    }
+    return List.of();
+  }
+
+  static Optional<RbelElement> findPartner(RbelElement message) {
+    return message
+        .getFacet(TracingMessagePairFacet.class)
+        .flatMap(pair -> pair.getOtherMessage(message))
+        .or(
+            () ->
+                message
+                    .getFacet(RbelHttpResponseFacet.class)
+                    .map(RbelHttpResponseFacet::getRequest))
+        .or(
+            () ->
+                message
+                    .getFacet(RbelHttpRequestFacet.class)
+                    .map(RbelHttpRequestFacet::getResponse))
+        .filter(partner -> partner != message);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter.eviction;
+
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.util.RbelMessageHistory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Evicts the message that was accessed least recently. Adding a message to the history counts as
+ * an access, so messages that are never looked at leave the history in FIFO order.
+ */
+public class LruEvictionPolicy implements RbelBufferEvictionPolicy {
+
+  // guarded by this, iterates from the least to the most recently accessed message
+  private final LinkedHashMap<Long, RbelElement> messagesByAccessOrder =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  @Override
+  public synchronized void messageAdded(RbelElement message, long sequenceNumber) {
+    messagesByAccessOrder.put(sequenceNumber, message);
+  }
+
+  @Override
+  public synchronized void messageAccessed(RbelElement message, long sequenceNumber) {
+    messagesByAccessOrder.get(sequenceNumber);
+  }
+
+  @Override
+  public synchronized void messageRemoved(RbelElement message, long sequenceNumber) {
+    messagesByAccessOrder.remove(sequenceNumber, message);
+  }
+
+  @Override
+  public synchronized List<RbelElement> selectMessagesToEvict(
+      RbelMessageHistory history, Predicate<RbelElement> evictable) {
+    final Iterator<RbelElement> iterator = messagesByAccessOrder.values().iterator();
+    for (int i = 0; i < MAX_MESSAGES_SCANNED && iterator.hasNext(); i++) {
+      final RbelElement message = iterator.next();
+      if (evictable.test(message)) {
+        return List.of(message);
+      }
+    }
+    return List.of();
+  }
+}
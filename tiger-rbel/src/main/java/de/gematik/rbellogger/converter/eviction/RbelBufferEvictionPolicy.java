@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter.eviction;
+
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.util.RbelMessageHistory;
+import de.gematik.test.tiger.common.data.config.tigerproxy.RbelBufferEvictionStrategy;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Decides which messages leave the message history once the rbel buffer is full. The converter
+ * notifies the policy about every message entering, being accessed in and leaving the history and
+ * asks it for the next messages to evict until the buffer fits again.
+ *
+ * <p>Implementations are called concurrently from the recording and the parsing threads.
+ */
+public interface RbelBufferEvictionPolicy {
+
+  /** Upper bound of messages a policy looks at to find an evictable one. */
+  int MAX_MESSAGES_SCANNED = 64;
+
+  static RbelBufferEvictionPolicy forStrategy(RbelBufferEvictionStrategy strategy) {
+    return switch (strategy) {
+      case FIFO -> new FifoEvictionPolicy();
+      case LRU -> new LruEvictionPolicy();
+      case KEEP_PAIRS -> new KeepPairsEvictionPolicy();
+    };
+  }
+
+  default void messageAdded(RbelElement message, long sequenceNumber) {}
+
+  default void messageAccessed(RbelElement message, long sequenceNumber) {}
+
+  default void messageRemoved(RbelElement message, long sequenceNumber) {}
+
+  /**
+   * Returns the messages to evict next. Messages that should only leave the history together (e.g.
+   * a request and its response) are returned together. Only messages accepted by {@code
+   * evictable} may be returned, messages that are still parsed, processed or used by a validation
+   * are rejected by it. An empty list means that nothing can be evicted right now.
+   */
+  List<RbelElement> selectMessagesToEvict(
+      RbelMessageHistory history, Predicate<RbelElement> evictable);
+}
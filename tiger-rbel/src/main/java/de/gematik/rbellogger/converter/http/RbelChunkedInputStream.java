@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter.http;
+
+import de.gematik.rbellogger.exceptions.RbelConversionException;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Removes the chunked transfer-coding (RFC 9112, section 7.1) while reading. Chunk extensions and
+ * trailer fields are skipped. Both CRLF and bare LF are accepted as line endings, and a missing
+ * line break after the last-chunk is tolerated.
+ */
+public class RbelChunkedInputStream extends FilterInputStream {
+
+  private static final int MAX_CHUNK_SIZE_LINE_LENGTH = 1024;
+
+  private long remainingInChunk = 0;
+  private boolean firstChunk = true;
+  private boolean finished = false;
+
+  public RbelChunkedInputStream(InputStream in) {
+    super(in);
+  }
+
+  @Override
+  public int read() throws IOException {
+    final byte[] singleByte = new byte[1];
+    final int read = read(singleByte, 0, 1);
+    return read < 0 ? -1 : singleByte[0] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (remainingInChunk == 0 && !startNextChunk()) {
+      return -1;
+    }
+    final int read = in.read(buffer, offset, (int) Math.min(length, remainingInChunk));
+    if (read < 0) {
+      throw new RbelConversionException(
+          "Chunked content ended in the middle of a chunk (" + remainingInChunk + " bytes missing)");
+    }
+    remainingInChunk -= read;
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n <= 0) {
+      return 0;
+    }
+    final byte[] buffer = new byte[(int) Math.min(n, 8 * 1024)];
+    long skipped = 0;
+    while (skipped < n) {
+      final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+      if (read < 0) {
+        break;
+      }
+      skipped += read;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return (int) Math.min(in.available(), remainingInChunk);
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  private boolean startNextChunk() throws IOException {
+    if (finished) {
+      return false;
+    }
+    if (!firstChunk) {
+      final String lineAfterChunk = readLine();
+      if (lineAfterChunk == null || !lineAfterChunk.isEmpty()) {
+        throw new RbelConversionException("Chunk data is not followed by a line break");
+      }
+    }
+    firstChunk = false;
+    final String sizeLine = readLine();
+    if (sizeLine == null) {
+      throw new RbelConversionException(
+          "Detected incorrect use of chunked encoding: the last-chunk is missing");
+    }
+    remainingInChunk = parseChunkSize(sizeLine);
+    if (remainingInChunk == 0) {
+      finished = true;
+      skipTrailerFields();
+      return false;
+    }
+    return true;
+  }
+
+  private static long parseChunkSize(String sizeLine) {
+    final int extensionStart = sizeLine.indexOf(';');
+    final String size =
+        (extensionStart < 0 ? sizeLine : sizeLine.substring(0, extensionStart)).trim();
+    try {
+      final long result = Long.parseLong(size, 16);
+      if (result < 0) {
+        throw new NumberFormatException("negative chunk size");
+      }
+      return result;
+    } catch (NumberFormatException e) {
+      throw new RbelConversionException(
+          "Detected incorrect use of chunked encoding: Chunked was given as transfer-encoding, but"
+              + " '"
+              + size
+              + "' is not a valid chunk size. Message will not be parsed.",
+          e);
+    }
+  }
+
+  private void skipTrailerFields() throws IOException {
+    String trailerLine;
+    do {
+      trailerLine = readLine();
+    } while (trailerLine != null && !trailerLine.isEmpty());
+  }
+
+  /** Reads up to the next LF. Returns null if the stream ended before any byte could be read. */
+  private String readLine() throws IOException {
+    final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int nextByte;
+    while ((nextByte = in.read()) >= 0 && nextByte != '\n') {
+      if (line.size() >= MAX_CHUNK_SIZE_LINE_LENGTH) {
+        throw new RbelConversionException(
+            "Detected incorrect use of chunked encoding: line exceeds "
+                + MAX_CHUNK_SIZE_LINE_LENGTH
+                + " bytes");
+      }
+      line.write(nextByte);
+    }
+    if (nextByte < 0 && line.size() == 0) {
+      return null;
+    }
+    final String result = line.toString(StandardCharsets.US_ASCII);
+    return result.endsWith("\r") ? result.substring(0, result.length() - 1) : result;
+  }
+}
@@ -16,8 +16,10 @@
 
 package de.gematik.rbellogger.converter.http;
 
-import java.nio.charset.Charset;
+import java.io.IOException;
+import java.io.InputStream;
 
+/** Removes one content- or transfer-coding from an HTTP body while the body is being read. */
 public interface RbelHttpCodingConverter {
-  byte[] decode(byte[] bytes, String eol, Charset charset);
+  InputStream decode(InputStream encoded) throws IOException;
 }
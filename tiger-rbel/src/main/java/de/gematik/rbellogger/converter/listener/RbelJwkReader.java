@@ -17,6 +17,7 @@
 package de.gematik.rbellogger.converter.listener;
 
 import de.gematik.rbellogger.converter.RbelConverter;
+import de.gematik.rbellogger.converter.RbelConverterApplicability;
 import de.gematik.rbellogger.converter.RbelConverterPlugin;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.facet.RbelJsonFacet;
@@ -32,6 +33,11 @@ import org.jose4j.lang.JoseException;
 
 public class RbelJwkReader extends RbelConverterPlugin {
 
+  @Override
+  public RbelConverterApplicability getApplicability() {
+    return RbelConverterApplicability.elementWithFacet(RbelJsonFacet.class);
+  }
+
   @Override
   public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
     final List<RbelElement> keysList =
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.data;
+
+import de.gematik.rbellogger.data.facet.RbelFacet;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Facet storage of an {@link RbelElement}. Facets keep their insertion order, but type lookups are
+ * answered from an index keyed by the requested class. The index also covers lookups by
+ * superclasses and interfaces: for every requested class it stores the first assignable facet (or
+ * the fact that there is none). Adding a facet fills in the matching empty index entries, removing
+ * a facet drops the index. Facets may be added concurrently while other threads query the element.
+ */
+class IndexedFacetQueue extends AbstractQueue<RbelFacet> {
+
+  private static final Object NO_FACET = new Object();
+
+  private final Queue<RbelFacet> facets = new ConcurrentLinkedQueue<>();
+  // created on first lookup, most elements are never queried
+  private volatile Map<Class<?>, Object> typeIndex;
+  // lets child elements detect that the keys they cached might be outdated
+  private volatile int removalCount;
+
+  int getRemovalCount() {
+    return removalCount;
+  }
+
+  <T> Optional<T> findFirst(Class<T> clazz) {
+    final Object result = lookup(clazz);
+    return result == NO_FACET ? Optional.empty() : Optional.of(clazz.cast(result));
+  }
+
+  boolean containsFacetOfType(Class<?> clazz) {
+    return lookup(clazz) != NO_FACET;
+  }
+
+  private Object lookup(Class<?> clazz) {
+    final Map<Class<?>, Object> index = typeIndex;
+    if (index != null) {
+      final Object cached = index.get(clazz);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    synchronized (this) {
+      Map<Class<?>, Object> lockedIndex = typeIndex;
+      if (lockedIndex == null) {
+        lockedIndex = new ConcurrentHashMap<>();
+        typeIndex = lockedIndex;
+      }
+      return lockedIndex.computeIfAbsent(clazz, this::findFirstAssignable);
+    }
+  }
+
+  private Object findFirstAssignable(Class<?> clazz) {
+    for (RbelFacet facet : facets) {
+      if (clazz.isInstance(facet)) {
+        return facet;
+      }
+    }
+    return NO_FACET;
+  }
+
+  @Override
+  public synchronized boolean offer(RbelFacet facet) {
+    Objects.requireNonNull(facet);
+    facets.add(facet);
+    final Map<Class<?>, Object> index = typeIndex;
+    if (index != null) {
+      index.replaceAll(
+          (clazz, indexed) -> indexed == NO_FACET && clazz.isInstance(facet) ? facet : indexed);
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized RbelFacet poll() {
+    final RbelFacet result = facets.poll();
+    if (result != null) {
+      facetsRemoved();
+    }
+    return result;
+  }
+
+  @Override
+  public synchronized boolean remove(Object facet) {
+    final boolean removed = facets.remove(facet);
+    if (removed) {
+      facetsRemoved();
+    }
+    return removed;
+  }
+
+  private void facetsRemoved() {
+    typeIndex = null;
+    removalCount++;
+  }
+
+  @Override
+  public RbelFacet peek() {
+    return facets.peek();
+  }
+
+  @Override
+  public int size() {
+    return facets.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return facets.isEmpty();
+  }
+
+  @Override
+  public Iterator<RbelFacet> iterator() {
+    final Iterator<RbelFacet> delegate = facets.iterator();
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return delegate.hasNext();
+      }
+
+      @Override
+      public RbelFacet next() {
+        return delegate.next();
+      }
+
+      @Override
+      public void remove() {
+        synchronized (IndexedFacetQueue.this) {
+          delegate.remove();
+          facetsRemoved();
+        }
+      }
+    };
+  }
+
+  @Override
+  public Spliterator<RbelFacet> spliterator() {
+    // the default spliterator claims a fixed size, which does not hold during concurrent parsing
+    return facets.spliterator();
+  }
+}
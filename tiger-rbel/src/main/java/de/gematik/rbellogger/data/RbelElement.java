@@ -25,7 +25,6 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
@@ -43,19 +42,32 @@ public class RbelElement extends RbelPathAble {
   }
 
   private final String uuid;
-  private final RbelContent content;
+  private volatile RbelContent content;
 
   private final RbelElement parentNode;
-  private final Queue<RbelFacet> facets = new ConcurrentLinkedQueue<>();
+  @Getter(AccessLevel.NONE)
+  private final IndexedFacetQueue facets = new IndexedFacetQueue();
   @Setter private Optional<Charset> charset;
 
   private final long size;
   @Setter private long conversionTimeInNanos = 0;
 
+  @Getter(AccessLevel.NONE)
+  private volatile KeyInParent keyInParent;
+
   public byte[] getRawContent() {
     return content.isNull() ? null : content.toByteArray();
   }
 
+  /**
+   * Exchanges the content of a message while the element (and every reference to it) stays in
+   * place. Used to move the raw bytes of spilled messages out of memory and back. The size of the
+   * element is not changed.
+   */
+  public void swapContent(RbelContent newContent) {
+    this.content = newContent;
+  }
+
   public RbelElement() {
     this(null, null);
   }
@@ -167,26 +179,16 @@ public class RbelElement extends RbelPathAble {
         .addFacet(new RbelValueFacet<>(value));
   }
 
+  public Queue<RbelFacet> getFacets() {
+    return facets;
+  }
+
   public <T> Optional<T> getFacet(@NonNull Class<T> clazz) {
-    for (val facet : facets) {
-      if (clazz.isAssignableFrom(facet.getClass())) {
-        return Optional.of(clazz.cast(facet));
-      }
-    }
-    return Optional.empty();
+    return facets.findFirst(clazz);
   }
 
   public boolean hasFacet(Class<? extends RbelFacet> clazz) {
-    // please do not convert into for-each: highly performance critical method both for rendering
-    // and conversion.
-    // for-each is not massively slower, BUT IT IS! leave as is without performance verification.
-    for (Iterator<RbelFacet> iter = facets.iterator(); iter.hasNext(); ) {
-      var entry = iter.next();
-      if (entry != null && clazz.isAssignableFrom(entry.getClass())) {
-        return true;
-      }
-    }
-    return false;
+    return facets.containsFacetOfType(clazz);
   }
 
   public RbelElement addFacet(RbelFacet facet) {
@@ -275,18 +277,31 @@ public class RbelElement extends RbelPathAble {
 
   @Override
   public Optional<RbelElement> getFirst(String key) {
-    return getChildNodesWithKey().stream()
-        .filter(entry -> entry.getKey().equals(key))
-        .map(Map.Entry::getValue)
-        .findFirst();
+    for (RbelFacet facet : facets) {
+      for (RbelElement candidate : facet.getChildElements().getAll(key)) {
+        if (candidate != null) {
+          return Optional.of(candidate);
+        }
+      }
+    }
+    return Optional.empty();
   }
 
   @Override
   public List<RbelElement> getAll(String key) {
-    return getChildNodesWithKey().stream()
-        .filter(entry -> entry.getKey().equals(key))
-        .map(Map.Entry::getValue)
-        .toList();
+    List<RbelElement> result = List.of();
+    for (RbelFacet facet : facets) {
+      final List<RbelElement> facetResult = facet.getChildElements().getAll(key);
+      if (facetResult.isEmpty()) {
+        continue;
+      }
+      if (result.isEmpty()) {
+        result = facetResult;
+      } else {
+        result = Stream.concat(result.stream(), facetResult.stream()).toList();
+      }
+    }
+    return result.contains(null) ? result.stream().filter(Objects::nonNull).toList() : result;
   }
 
   public Optional<String> findKeyInParentElement() {
@@ -362,12 +377,37 @@ public class RbelElement extends RbelPathAble {
     if (parentNode == null) {
       return Optional.empty();
     }
-    for (Map.Entry<String, RbelElement> ptr : parentNode.getChildNodesWithKey().getValues()) {
-      if (ptr.getValue() == this) {
-        return Optional.ofNullable(ptr.getKey());
+    final int parentRemovalCount = parentNode.facets.getRemovalCount();
+    KeyInParent cached = keyInParent;
+    if (cached == null || !cached.isValid(parentRemovalCount)) {
+      parentNode.assignKeysToChildNodes(parentRemovalCount);
+      cached = keyInParent;
+    }
+    if (cached == null || !cached.isValid(parentRemovalCount)) {
+      throw new RbelException("Unable to find key for element " + this);
+    }
+    return Optional.ofNullable(cached.key);
+  }
+
+  /**
+   * Resolves the keys of all children in one pass, so asking every child for its key costs O(n)
+   * instead of O(n²). The first key under which a child appears wins.
+   */
+  private void assignKeysToChildNodes(int removalCount) {
+    final Set<RbelElement> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (RbelFacet facet : facets) {
+      final RbelMultiMap<RbelElement> childElements = facet.getChildElements();
+      final int modificationCount = childElements.getModificationCount();
+      for (Iterator<Entry<String, RbelElement>> iterator = childElements.iterator();
+          iterator.hasNext(); ) {
+        final Entry<String, RbelElement> entry = iterator.next();
+        final RbelElement child = entry.getValue();
+        if (child != null && child.parentNode == this && visited.add(child)) {
+          child.keyInParent =
+              new KeyInParent(entry.getKey(), removalCount, childElements, modificationCount);
+        }
       }
     }
-    throw new RbelException("Unable to find key for element " + this);
   }
 
   public void addOrReplaceFacet(RbelFacet facet) {
@@ -383,7 +423,9 @@ public class RbelElement extends RbelPathAble {
   }
 
   public Optional<RbelElement> findElement(String rbelPath) {
-    final List<RbelElement> resultList = findRbelPathMembers(rbelPath);
+    // two results are enough to decide, the full count is only needed for the error message
+    final List<RbelElement> resultList =
+        new RbelPathExecutor<>(this, rbelPath).executeLazily().limit(2).toList();
     if (resultList.isEmpty()) {
       return Optional.empty();
     }
@@ -394,7 +436,7 @@ public class RbelElement extends RbelPathAble {
         "RbelPath '"
             + rbelPath
             + "' is not unique! Found "
-            + resultList.size()
+            + findRbelPathMembers(rbelPath).size()
             + " elements, expected only one!");
   }
 
@@ -518,4 +560,21 @@ public class RbelElement extends RbelPathAble {
 
     return result;
   }
+
+  /**
+   * The key of an element in its parent. Stays valid as long as no facet was removed from the
+   * parent and the child map the key was found in is unchanged.
+   */
+  @RequiredArgsConstructor
+  private static class KeyInParent {
+    private final String key;
+    private final int parentRemovalCount;
+    private final RbelMultiMap<RbelElement> childElements;
+    private final int childElementsModificationCount;
+
+    private boolean isValid(int currentParentRemovalCount) {
+      return parentRemovalCount == currentParentRemovalCount
+          && childElements.getModificationCount() == childElementsModificationCount;
+    }
+  }
 }
@@ -17,13 +17,26 @@
 package de.gematik.rbellogger.data;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import org.apache.commons.lang3.tuple.Pair;
 
+/**
+ * Ordered multimap used for the child elements of facets. Entries keep their insertion order and
+ * can be appended concurrently. Once a map holds {@link #INDEX_THRESHOLD} entries, the first
+ * keyed lookup ({@link #get(Object)}, {@link #getAll(Object)}, {@link #containsKey(Object)})
+ * builds a hash index over the keys, which later appends keep up to date. Removals drop the index
+ * again. Small maps, most of them short-lived, are simply scanned.
+ */
 @Data
 public class RbelMultiMap<T> implements Map<String, T> {
 
@@ -35,8 +48,23 @@ public class RbelMultiMap<T> implements Map<String, T> {
             m1.putAll(m2);
             return m1;
           });
+  static final int INDEX_THRESHOLD = 8;
+
+  @Getter(AccessLevel.NONE)
   private final Queue<Entry<String, T>> values = new ConcurrentLinkedQueue<>();
 
+  // key -> entries in insertion order, only modified while holding the monitor of this map
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private volatile Map<String, Queue<Entry<String, T>>> keyIndex;
+
+  // incremented on every change, lets cached lookups on the entries detect that they are stale
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final AtomicInteger modificationCount = new AtomicInteger();
+
   @Override
   public int size() {
     return values.size();
@@ -49,6 +77,10 @@ public class RbelMultiMap<T> implements Map<String, T> {
 
   @Override
   public boolean containsKey(Object key) {
+    final Map<String, Queue<Entry<String, T>>> index = findOrBuildKeyIndex();
+    if (index != null) {
+      return key != null && index.containsKey(key);
+    }
     return values.stream().anyMatch(entry -> entry.getKey().equals(key));
   }
 
@@ -59,6 +91,12 @@ public class RbelMultiMap<T> implements Map<String, T> {
 
   @Override
   public T get(Object key) {
+    final Map<String, Queue<Entry<String, T>>> index = findOrBuildKeyIndex();
+    if (index != null) {
+      final Queue<Entry<String, T>> indexedEntries = key == null ? null : index.get(key);
+      final Entry<String, T> firstEntry = indexedEntries == null ? null : indexedEntries.peek();
+      return firstEntry == null ? null : firstEntry.getValue();
+    }
     return values.stream()
         .filter(entry -> entry.getKey().equals(key))
         .map(Entry::getValue)
@@ -67,6 +105,13 @@ public class RbelMultiMap<T> implements Map<String, T> {
   }
 
   public List<T> getAll(Object key) {
+    final Map<String, Queue<Entry<String, T>>> index = findOrBuildKeyIndex();
+    if (index != null) {
+      final Queue<Entry<String, T>> indexedEntries = key == null ? null : index.get(key);
+      return indexedEntries == null
+          ? List.of()
+          : indexedEntries.stream().map(Entry::getValue).toList();
+    }
     return values.stream()
         .filter(entry -> entry.getKey().equals(key))
         .map(Entry::getValue)
@@ -75,21 +120,30 @@ public class RbelMultiMap<T> implements Map<String, T> {
 
   @Override
   public T put(String key, T value) {
-    values.add(Pair.of(key, value));
+    append(Pair.of(key, value));
     return null;
   }
 
   public T put(Entry<String, T> value) {
-    values.add(value);
+    append(value);
     return null;
   }
 
+  private synchronized void append(Entry<String, T> entry) {
+    values.add(entry);
+    modificationCount.incrementAndGet();
+    final Map<String, Queue<Entry<String, T>>> index = keyIndex;
+    if (index != null) {
+      addToIndex(index, entry);
+    }
+  }
+
   @Override
   public T remove(Object key) {
     return removeAll(key.toString()).stream().findFirst().orElse(null);
   }
 
-  public List<T> removeAll(String key) {
+  public synchronized List<T> removeAll(String key) {
     if (key == null) {
       throw new NullPointerException();
     }
@@ -102,6 +156,10 @@ public class RbelMultiMap<T> implements Map<String, T> {
         removed.add(entry.getValue());
       }
     }
+    if (!removed.isEmpty()) {
+      keyIndex = null;
+      modificationCount.incrementAndGet();
+    }
     return removed;
   }
 
@@ -109,13 +167,15 @@ public class RbelMultiMap<T> implements Map<String, T> {
   @SuppressWarnings("java:S4968")
   public void putAll(Map<? extends String, ? extends T> m) {
     for (Entry<? extends String, ? extends T> entry : m.entrySet()) {
-      values.add(Pair.of(entry.getKey(), entry.getValue()));
+      append(Pair.of(entry.getKey(), entry.getValue()));
     }
   }
 
   @Override
-  public void clear() {
+  public synchronized void clear() {
     values.clear();
+    keyIndex = null;
+    modificationCount.incrementAndGet();
   }
 
   @Override
@@ -137,6 +197,20 @@ public class RbelMultiMap<T> implements Map<String, T> {
         "This method is not supported as it would not respect the order of the entries");
   }
 
+  /**
+   * The entries in insertion order, as a read-only view. Changes have to go through the map itself
+   * ({@link #put(String, Object)}, {@link #removeAll(String)}, {@link #iterator()}), so that the
+   * key index and the modification count stay consistent.
+   */
+  public Collection<Entry<String, T>> getValues() {
+    return Collections.unmodifiableCollection(values);
+  }
+
+  /** Changes with every modification of the entries. */
+  int getModificationCount() {
+    return modificationCount.get();
+  }
+
   public List<Entry<String, T>> entries() {
     return new ArrayList<>(values);
   }
@@ -158,6 +232,48 @@ public class RbelMultiMap<T> implements Map<String, T> {
   }
 
   public Iterator<Entry<String, T>> iterator() {
-    return values.iterator();
+    final Iterator<Entry<String, T>> iterator = values.iterator();
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Entry<String, T> next() {
+        return iterator.next();
+      }
+
+      @Override
+      public void remove() {
+        synchronized (RbelMultiMap.this) {
+          iterator.remove();
+          keyIndex = null;
+          modificationCount.incrementAndGet();
+        }
+      }
+    };
+  }
+
+  private Map<String, Queue<Entry<String, T>>> findOrBuildKeyIndex() {
+    final Map<String, Queue<Entry<String, T>>> index = keyIndex;
+    if (index != null || values.size() < INDEX_THRESHOLD) {
+      return index;
+    }
+    synchronized (this) {
+      if (keyIndex == null) {
+        final Map<String, Queue<Entry<String, T>>> newIndex = new ConcurrentHashMap<>();
+        values.forEach(entry -> addToIndex(newIndex, entry));
+        keyIndex = newIndex;
+      }
+      return keyIndex;
+    }
+  }
+
+  private static <T> void addToIndex(
+      Map<String, Queue<Entry<String, T>>> index, Entry<String, T> entry) {
+    if (entry.getKey() != null) {
+      index.computeIfAbsent(entry.getKey(), k -> new ConcurrentLinkedQueue<>()).add(entry);
+    }
   }
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.data.facet;
+
+import java.util.concurrent.CompletableFuture;
+import lombok.Value;
+
+/**
+ * Internal marker facet signalling the processing of the message preceding this one on the same
+ * connection (both directions). Only the processing state is referenced, so the preceding message
+ * itself can be evicted. This allows propagating messages of different connections concurrently
+ * while keeping the order within each connection.
+ */
+@Value
+public class PreviousConnectionMessageFacet implements RbelFacet {
+  CompletableFuture<Boolean> processed;
+}
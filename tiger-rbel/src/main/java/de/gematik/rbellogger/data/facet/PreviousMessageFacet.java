@@ -21,15 +21,10 @@ import de.gematik.rbellogger.data.RbelElement;
 import lombok.Value;
 
 /**
- * Internal marker facet storing a reference to the message being processed preceding this one. This
- * is used in mesh proxy setups to ensure proper order of propagation to downstream proxy.
+ * Internal marker facet storing a reference to the message preceding this one in the message
+ * history, i.e. the message with the previous sequence number.
  */
 @Value
 public class PreviousMessageFacet implements RbelFacet {
   RbelElement message;
-
-  public PreviousMessageFacet(RbelElement message) {
-    this.message = message;
-    message.addFacet(new MessageProcessingStateFacet());
-  }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.data.facet;
+
+import de.gematik.rbellogger.file.RbelSpillFile;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Internal facet of messages in a history with a spill tier. It remembers which facets were added
+ * by parsing (and are removed again when the message is spilled) and where the raw content of the
+ * message was spilled to. Access is guarded by the monitor of the facet.
+ */
+@Getter
+@Setter
+public class RbelMessageSpillFacet implements RbelFacet {
+
+  private Set<Class<? extends RbelFacet>> parsedFacetTypes;
+  private RbelSpillFile.Location spillLocation;
+  private boolean spilled;
+
+  public RbelMessageSpillFacet(Set<Class<? extends RbelFacet>> parsedFacetTypes) {
+    this.parsedFacetTypes = parsedFacetTypes;
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import static de.gematik.rbellogger.file.RbelFileWriter.MESSAGE_TIME;
+import static de.gematik.rbellogger.file.RbelFileWriter.MESSAGE_UUID;
+import static de.gematik.rbellogger.file.RbelFileWriter.PAIRED_MESSAGE_UUID;
+import static de.gematik.rbellogger.file.RbelFileWriter.RAW_MESSAGE_CONTENT;
+import static de.gematik.rbellogger.file.RbelFileWriter.RECEIVER_HOSTNAME;
+import static de.gematik.rbellogger.file.RbelFileWriter.SENDER_HOSTNAME;
+import static de.gematik.rbellogger.file.RbelFileWriter.SEQUENCE_NUMBER;
+
+import de.gematik.rbellogger.file.RbelBinaryFileReader.RbelBinaryFileException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONObject;
+
+/**
+ * Layout of the binary .tgr format. A file starts with {@link #MAGIC} and {@link #VERSION} and is
+ * followed by blocks. Every block starts with its type, the codec of its payload, the uncompressed
+ * and the stored length of the payload.
+ *
+ * <ul>
+ *   <li>Data blocks hold message records. A record consists of the length-prefixed metadata (uuid,
+ *       sequence number, hostnames, timestamp, paired uuid and the remaining metadata as JSON)
+ *       followed by the length-prefixed raw message.
+ *   <li>The index block is written when a file is closed and lists sequence number, uuid and
+ *       location of every record in the file.
+ *   <li>The end block is always the last block of a closed file and points to the index block.
+ * </ul>
+ *
+ * Readers skip blocks they do not need, so appending to a closed file keeps it readable.
+ */
+final class RbelBinaryFileFormat {
+
+  static final int MAGIC = 0x54475242; // "TGRB"
+  static final int VERSION = 1;
+  static final int FILE_HEADER_SIZE = 2 * Integer.BYTES;
+  static final int BLOCK_HEADER_SIZE = 2 + 2 * Integer.BYTES;
+  static final int END_BLOCK_SIZE = BLOCK_HEADER_SIZE + Long.BYTES;
+  static final byte DATA_BLOCK = 'D';
+  static final byte INDEX_BLOCK = 'I';
+  static final byte END_BLOCK = 'E';
+  static final byte CODEC_NONE = 0;
+  static final byte CODEC_DEFLATE = 1;
+  static final long NO_SEQUENCE_NUMBER = -1;
+  // the largest array the JVM can allocate, longer blocks can only come from corrupt files
+  static final int MAXIMUM_PAYLOAD_LENGTH = Integer.MAX_VALUE - 8;
+  private static final Set<String> BINARY_METADATA_KEYS =
+      Set.of(
+          MESSAGE_UUID,
+          SEQUENCE_NUMBER,
+          SENDER_HOSTNAME,
+          RECEIVER_HOSTNAME,
+          MESSAGE_TIME,
+          PAIRED_MESSAGE_UUID,
+          RAW_MESSAGE_CONTENT);
+
+  private RbelBinaryFileFormat() {}
+
+  static boolean startsWithMagic(byte[] content) {
+    return content.length >= Integer.BYTES
+        && ((content[0] & 0xFF) << 24
+                | (content[1] & 0xFF) << 16
+                | (content[2] & 0xFF) << 8
+                | (content[3] & 0xFF))
+            == MAGIC;
+  }
+
+  static long getSequenceNumber(JSONObject messageObject) {
+    return messageObject.optLong(SEQUENCE_NUMBER, NO_SEQUENCE_NUMBER);
+  }
+
+  static void writeRecord(DataOutputStream out, RbelFileRecord record) throws IOException {
+    final JSONObject messageObject = record.messageObject();
+    final ByteArrayOutputStream metadata = new ByteArrayOutputStream(256);
+    final DataOutputStream metadataOut = new DataOutputStream(metadata);
+    writeString(metadataOut, messageObject.optString(MESSAGE_UUID));
+    metadataOut.writeLong(getSequenceNumber(messageObject));
+    writeString(metadataOut, messageObject.optString(SENDER_HOSTNAME));
+    writeString(metadataOut, messageObject.optString(RECEIVER_HOSTNAME));
+    final String time = messageObject.optString(MESSAGE_TIME);
+    metadataOut.writeBoolean(StringUtils.isNotBlank(time));
+    if (StringUtils.isNotBlank(time)) {
+      final ZonedDateTime transmissionTime = ZonedDateTime.parse(time);
+      metadataOut.writeLong(transmissionTime.toEpochSecond());
+      metadataOut.writeInt(transmissionTime.getNano());
+      writeString(metadataOut, transmissionTime.getZone().getId());
+    }
+    writeString(metadataOut, messageObject.optString(PAIRED_MESSAGE_UUID));
+    final JSONObject additionalMetadata = new JSONObject();
+    messageObject.keySet().stream()
+        .filter(key -> !BINARY_METADATA_KEYS.contains(key))
+        .forEach(key -> additionalMetadata.put(key, messageObject.get(key)));
+    writeString(metadataOut, additionalMetadata.isEmpty() ? "" : additionalMetadata.toString());
+
+    out.writeInt(metadata.size());
+    metadata.writeTo(out);
+    out.writeInt(record.rawContent().length);
+    out.write(record.rawContent());
+  }
+
+  static RbelFileRecord readRecord(DataInputStream in) throws IOException {
+    final DataInputStream metadataIn = new DataInputStream(new ByteArrayInputStream(readBytes(in)));
+    final JSONObject messageObject = new JSONObject();
+    messageObject.put(MESSAGE_UUID, readString(metadataIn));
+    final long sequenceNumber = metadataIn.readLong();
+    messageObject.put(
+        SEQUENCE_NUMBER, sequenceNumber == NO_SEQUENCE_NUMBER ? "" : sequenceNumber);
+    messageObject.put(SENDER_HOSTNAME, readString(metadataIn));
+    messageObject.put(RECEIVER_HOSTNAME, readString(metadataIn));
+    if (metadataIn.readBoolean()) {
+      final Instant instant = Instant.ofEpochSecond(metadataIn.readLong(), metadataIn.readInt());
+      messageObject.put(
+          MESSAGE_TIME,
+          ZonedDateTime.ofInstant(instant, ZoneId.of(readString(metadataIn))).toString());
+    }
+    final String pairedUuid = readString(metadataIn);
+    if (!pairedUuid.isEmpty()) {
+      messageObject.put(PAIRED_MESSAGE_UUID, pairedUuid);
+    }
+    final String additionalMetadata = readString(metadataIn);
+    if (!additionalMetadata.isEmpty()) {
+      final JSONObject additionalObject = new JSONObject(additionalMetadata);
+      additionalObject.keySet().forEach(key -> messageObject.put(key, additionalObject.get(key)));
+    }
+    // fields appended by later versions remain in metadataIn and are ignored
+    return new RbelFileRecord(messageObject, readBytes(in));
+  }
+
+  static byte[] compress(byte[] content, byte codec) {
+    if (codec == CODEC_NONE) {
+      return content;
+    }
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(content);
+      deflater.finish();
+      final ByteArrayOutputStream result = new ByteArrayOutputStream(content.length / 2 + 64);
+      final byte[] buffer = new byte[64 * 1024];
+      while (!deflater.finished()) {
+        result.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return result.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  static byte[] decompress(byte[] payload, byte codec, int uncompressedLength) {
+    if (codec == CODEC_NONE) {
+      return payload;
+    }
+    if (codec != CODEC_DEFLATE) {
+      throw new RbelBinaryFileException("Unsupported block codec " + codec);
+    }
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(payload);
+      final byte[] result = new byte[uncompressedLength];
+      int length = 0;
+      while (length < uncompressedLength && !inflater.finished()) {
+        final int inflated = inflater.inflate(result, length, uncompressedLength - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != uncompressedLength) {
+        throw new RbelBinaryFileException(
+            "Corrupt block: expected " + uncompressedLength + " bytes, got " + length);
+      }
+      return result;
+    } catch (DataFormatException e) {
+      throw new RbelBinaryFileException("Corrupt block", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    final int length = in.readInt();
+    if (length < 0) {
+      throw new RbelBinaryFileException("Corrupt record: negative length " + length);
+    }
+    final byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+}
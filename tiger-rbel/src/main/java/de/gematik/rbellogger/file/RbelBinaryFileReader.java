@@ -0,0 +1,309 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import static de.gematik.rbellogger.file.RbelBinaryFileFormat.*;
+
+import de.gematik.test.tiger.exceptions.GenericTigerException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads files in the binary .tgr format (see {@link RbelBinaryFileFormat}). The records are read
+ * block by block, so only a single block is held in memory. Files that were closed properly carry
+ * an index, which allows reading single records by sequence number or uuid without scanning the
+ * file.
+ */
+@Slf4j
+public class RbelBinaryFileReader implements Iterator<RbelFileRecord>, Closeable {
+
+  private final DataInputStream in;
+  private long position;
+  private DataInputStream currentBlock;
+  private long currentBlockOffset;
+  private int currentBlockSize;
+  private RbelFileRecord nextRecord;
+  private IndexEntry nextIndexEntry;
+  private IndexEntry lastIndexEntry;
+
+  public RbelBinaryFileReader(InputStream inputStream) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(inputStream));
+    final int magic = in.readInt();
+    if (magic != MAGIC) {
+      throw new RbelBinaryFileException("Not a binary .tgr file");
+    }
+    final int version = in.readInt();
+    if (version > VERSION) {
+      throw new RbelBinaryFileException(
+          "Unsupported .tgr file version " + version + ", expected up to " + VERSION);
+    }
+    position = FILE_HEADER_SIZE;
+  }
+
+  public static boolean isBinaryContent(byte[] content) {
+    return startsWithMagic(content);
+  }
+
+  public static boolean isBinaryFile(Path file) throws IOException {
+    try (final InputStream inputStream = Files.newInputStream(file)) {
+      return startsWithMagic(inputStream.readNBytes(Integer.BYTES));
+    }
+  }
+
+  /**
+   * The index of the given file. It is read from the end of the file if the file was closed
+   * properly, otherwise it is rebuilt by scanning the file.
+   */
+  public static List<IndexEntry> readIndex(Path file) throws IOException {
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final Optional<byte[]> indexBlock =
+          readIndexOffset(channel).flatMap(offset -> readBlock(channel, offset, INDEX_BLOCK));
+      if (indexBlock.isPresent()) {
+        return decodeIndex(indexBlock.get());
+      }
+      log.info("No index found in {}, scanning the file", file);
+    } catch (RbelBinaryFileException e) {
+      log.warn("Unable to read the index of {}, scanning the file", file, e);
+    }
+    final List<IndexEntry> result = new ArrayList<>();
+    try (final RbelBinaryFileReader reader = new RbelBinaryFileReader(Files.newInputStream(file))) {
+      while (reader.hasNext()) {
+        reader.next();
+        result.add(reader.lastIndexEntry);
+      }
+    }
+    return result;
+  }
+
+  /** Reads a single record at the location given by an entry of {@link #readIndex(Path)}. */
+  public static RbelFileRecord readRecord(Path file, IndexEntry indexEntry) throws IOException {
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final byte[] block =
+          readBlock(channel, indexEntry.blockOffset(), DATA_BLOCK)
+              .orElseThrow(
+                  () ->
+                      new RbelBinaryFileException(
+                          "No data block at offset " + indexEntry.blockOffset()));
+      final DataInputStream blockIn = new DataInputStream(new ByteArrayInputStream(block));
+      blockIn.skipNBytes(indexEntry.offsetInBlock());
+      return RbelBinaryFileFormat.readRecord(blockIn);
+    }
+  }
+
+  /** The remaining records as a sequential stream, closing the stream closes the reader. */
+  public Stream<RbelFileRecord> records() {
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(this::close);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (nextRecord == null) {
+      try {
+        nextRecord = readNextRecord();
+      } catch (IOException e) {
+        throw new RbelBinaryFileException("Error while reading binary .tgr file", e);
+      }
+    }
+    return nextRecord != null;
+  }
+
+  @Override
+  public RbelFileRecord next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final RbelFileRecord result = nextRecord;
+    lastIndexEntry = nextIndexEntry;
+    nextRecord = null;
+    return result;
+  }
+
+  @Override
+  public void close() {
+    try {
+      in.close();
+    } catch (IOException e) {
+      throw new RbelBinaryFileException("Unable to close traffic file", e);
+    }
+  }
+
+  private RbelFileRecord readNextRecord() throws IOException {
+    while (currentBlock == null || currentBlock.available() == 0) {
+      if (!readNextDataBlock()) {
+        return null;
+      }
+    }
+    final int offsetInBlock = currentBlockSize - currentBlock.available();
+    final RbelFileRecord result = RbelBinaryFileFormat.readRecord(currentBlock);
+    nextIndexEntry =
+        new IndexEntry(
+            getSequenceNumber(result.messageObject()),
+            result.messageObject().optString(RbelFileWriter.MESSAGE_UUID),
+            currentBlockOffset,
+            offsetInBlock);
+    return result;
+  }
+
+  private boolean readNextDataBlock() throws IOException {
+    while (true) {
+      final int type = in.read();
+      if (type < 0) {
+        return false;
+      }
+      final long blockOffset = position;
+      try {
+        final byte codec = in.readByte();
+        final int uncompressedLength = in.readInt();
+        final int payloadLength = in.readInt();
+        checkBlockLengths(uncompressedLength, payloadLength, blockOffset);
+        position += BLOCK_HEADER_SIZE + payloadLength;
+        if (type != DATA_BLOCK) {
+          in.skipNBytes(payloadLength);
+          continue;
+        }
+        // read in steps, a corrupt length must not allocate more than the file holds
+        final byte[] payload = in.readNBytes(payloadLength);
+        if (payload.length != payloadLength) {
+          throw new EOFException();
+        }
+        final byte[] content = decompress(payload, codec, uncompressedLength);
+        currentBlock = new DataInputStream(new ByteArrayInputStream(content));
+        currentBlockOffset = blockOffset;
+        currentBlockSize = content.length;
+        return true;
+      } catch (EOFException e) {
+        log.warn("Traffic file ends within a block at byte {}, ignoring the block", blockOffset);
+        return false;
+      }
+    }
+  }
+
+  private static Optional<Long> readIndexOffset(FileChannel channel) throws IOException {
+    final long fileSize = channel.size();
+    if (fileSize < FILE_HEADER_SIZE + END_BLOCK_SIZE) {
+      return Optional.empty();
+    }
+    final ByteBuffer endBlock = ByteBuffer.allocate(END_BLOCK_SIZE);
+    readFully(channel, endBlock, fileSize - END_BLOCK_SIZE);
+    if (endBlock.get() != END_BLOCK
+        || endBlock.get() != CODEC_NONE
+        || endBlock.getInt() != Long.BYTES
+        || endBlock.getInt() != Long.BYTES) {
+      return Optional.empty();
+    }
+    return Optional.of(endBlock.getLong());
+  }
+
+  private static Optional<byte[]> readBlock(FileChannel channel, long offset, byte expectedType) {
+    try {
+      final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+      readFully(channel, header, offset);
+      final byte type = header.get();
+      final byte codec = header.get();
+      final int uncompressedLength = header.getInt();
+      final int payloadLength = header.getInt();
+      if (type != expectedType) {
+        return Optional.empty();
+      }
+      checkBlockLengths(uncompressedLength, payloadLength, offset);
+      if (payloadLength > channel.size() - offset - BLOCK_HEADER_SIZE) {
+        throw new RbelBinaryFileException(
+            "Corrupt block at byte " + offset + ": payload exceeds the end of the file");
+      }
+      final ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+      readFully(channel, payload, offset + BLOCK_HEADER_SIZE);
+      return Optional.of(decompress(payload.array(), codec, uncompressedLength));
+    } catch (IOException e) {
+      throw new RbelBinaryFileException("Unable to read block at offset " + offset, e);
+    }
+  }
+
+  private static void checkBlockLengths(int uncompressedLength, int payloadLength, long offset) {
+    if (payloadLength < 0
+        || payloadLength > MAXIMUM_PAYLOAD_LENGTH
+        || uncompressedLength < 0
+        || uncompressedLength > MAXIMUM_PAYLOAD_LENGTH) {
+      throw new RbelBinaryFileException(
+          "Corrupt block at byte "
+              + offset
+              + ": invalid payload length "
+              + payloadLength
+              + " (uncompressed "
+              + uncompressedLength
+              + ")");
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long offset)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of file at byte " + (offset + buffer.position()));
+      }
+    }
+    buffer.flip();
+  }
+
+  private static List<IndexEntry> decodeIndex(byte[] indexBlock) throws IOException {
+    final DataInputStream indexIn = new DataInputStream(new ByteArrayInputStream(indexBlock));
+    final int size = indexIn.readInt();
+    final List<IndexEntry> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(
+          new IndexEntry(
+              indexIn.readLong(), readString(indexIn), indexIn.readLong(), indexIn.readInt()));
+    }
+    return result;
+  }
+
+  /** Location of a single record in a binary .tgr file. */
+  public record IndexEntry(
+      long sequenceNumber, String uuid, long blockOffset, int offsetInBlock) {}
+
+  public static class RbelBinaryFileException extends GenericTigerException {
+    public RbelBinaryFileException(String message) {
+      super(message);
+    }
+
+    public RbelBinaryFileException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import static de.gematik.rbellogger.file.RbelBinaryFileFormat.*;
+
+import de.gematik.rbellogger.file.RbelBinaryFileReader.IndexEntry;
+import de.gematik.rbellogger.file.RbelBinaryFileReader.RbelBinaryFileException;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes messages in the binary .tgr format (see {@link RbelBinaryFileFormat}). Records are
+ * collected into blocks that are compressed as a whole, a block is written once it holds {@code
+ * messagesPerBlock} messages or {@link #MAXIMUM_BLOCK_SIZE} bytes, or when the writer is flushed.
+ * The index of all records is appended when the writer is closed.
+ */
+public class RbelBinaryFileWriter implements Closeable {
+
+  public static final int DEFAULT_MESSAGES_PER_BLOCK = 100;
+  static final int MAXIMUM_BLOCK_SIZE = 4 * 1024 * 1024;
+
+  private final DataOutputStream out;
+  private final byte codec;
+  private final int messagesPerBlock;
+  private final List<IndexEntry> index;
+  private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+  private final DataOutputStream blockOut = new DataOutputStream(block);
+  private int messagesInBlock = 0;
+  private long position;
+  private boolean closed = false;
+
+  public RbelBinaryFileWriter(OutputStream out, boolean compress, int messagesPerBlock)
+      throws IOException {
+    this(out, compress, messagesPerBlock, 0, new ArrayList<>());
+  }
+
+  private RbelBinaryFileWriter(
+      OutputStream out,
+      boolean compress,
+      int messagesPerBlock,
+      long position,
+      List<IndexEntry> index)
+      throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(out));
+    this.codec = compress ? CODEC_DEFLATE : CODEC_NONE;
+    this.messagesPerBlock = messagesPerBlock;
+    this.position = position;
+    this.index = index;
+    if (position == 0) {
+      this.out.writeInt(MAGIC);
+      this.out.writeInt(VERSION);
+      this.position = FILE_HEADER_SIZE;
+    }
+  }
+
+  /**
+   * Opens a writer that appends to the given file. The records already in the file are kept in
+   * the index, so the index written on close covers the whole file.
+   */
+  public static RbelBinaryFileWriter appendTo(Path file, boolean compress, int messagesPerBlock)
+      throws IOException {
+    return appendTo(
+        file,
+        Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+        compress,
+        messagesPerBlock);
+  }
+
+  /**
+   * Like {@link #appendTo(Path, boolean, int)}, but writes through the given stream, which has to
+   * append to the file. The stream is closed if the file can not be appended to.
+   */
+  public static RbelBinaryFileWriter appendTo(
+      Path file, OutputStream out, boolean compress, int messagesPerBlock) throws IOException {
+    final long fileSize = Files.size(file);
+    final List<IndexEntry> index = new ArrayList<>();
+    try {
+      if (fileSize > 0) {
+        if (!RbelBinaryFileReader.isBinaryFile(file)) {
+          throw new RbelBinaryFileException(
+              "Unable to append to '" + file + "': not a binary .tgr file");
+        }
+        index.addAll(RbelBinaryFileReader.readIndex(file));
+      }
+    } catch (IOException | RuntimeException e) {
+      out.close();
+      throw e;
+    }
+    return new RbelBinaryFileWriter(out, compress, messagesPerBlock, fileSize, index);
+  }
+
+  public synchronized void writeMessage(RbelFileRecord rbelFileRecord) throws IOException {
+    if (closed) {
+      throw new RbelBinaryFileException("Writer is already closed");
+    }
+    final int offsetInBlock = block.size();
+    writeRecord(blockOut, rbelFileRecord);
+    index.add(
+        new IndexEntry(
+            getSequenceNumber(rbelFileRecord.messageObject()),
+            rbelFileRecord.messageObject().optString(RbelFileWriter.MESSAGE_UUID),
+            position,
+            offsetInBlock));
+    messagesInBlock++;
+    if (messagesInBlock >= messagesPerBlock || block.size() >= MAXIMUM_BLOCK_SIZE) {
+      writeDataBlock();
+    }
+  }
+
+  /** Writes the current block, even if it is not full yet, and flushes the underlying stream. */
+  public synchronized void flush() throws IOException {
+    writeDataBlock();
+    out.flush();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      writeDataBlock();
+      final long indexOffset = position;
+      writeBlock(INDEX_BLOCK, codec, encodeIndex());
+      final ByteArrayOutputStream endBlock = new ByteArrayOutputStream(Long.BYTES);
+      new DataOutputStream(endBlock).writeLong(indexOffset);
+      writeBlock(END_BLOCK, CODEC_NONE, endBlock.toByteArray());
+    } finally {
+      out.close();
+    }
+  }
+
+  private void writeDataBlock() throws IOException {
+    if (messagesInBlock == 0) {
+      return;
+    }
+    writeBlock(DATA_BLOCK, codec, block.toByteArray());
+    block.reset();
+    messagesInBlock = 0;
+  }
+
+  private void writeBlock(byte type, byte blockCodec, byte[] content) throws IOException {
+    final byte[] payload = compress(content, blockCodec);
+    out.writeByte(type);
+    out.writeByte(blockCodec);
+    out.writeInt(content.length);
+    out.writeInt(payload.length);
+    out.write(payload);
+    position += BLOCK_HEADER_SIZE + payload.length;
+  }
+
+  private byte[] encodeIndex() throws IOException {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream(index.size() * 64 + 4);
+    final DataOutputStream indexOut = new DataOutputStream(result);
+    indexOut.writeInt(index.size());
+    for (IndexEntry entry : index) {
+      indexOut.writeLong(entry.sequenceNumber());
+      writeString(indexOut, entry.uuid());
+      indexOut.writeLong(entry.blockOffset());
+      indexOut.writeInt(entry.offsetInBlock());
+    }
+    return result.toByteArray();
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import de.gematik.test.tiger.exceptions.GenericTigerException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the lines of a .tgr file through a memory-mapped window that slides over the file, so that
+ * files larger than the heap can be read. Only the line currently returned is copied onto the heap.
+ * A line that does not fit into the window is read by mapping a larger one.
+ */
+public class RbelFileLineReader implements Iterator<String>, AutoCloseable {
+
+  static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final int windowSize;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long position;
+  private String nextLine;
+
+  public RbelFileLineReader(Path file) throws IOException {
+    this(file, DEFAULT_WINDOW_SIZE);
+  }
+
+  RbelFileLineReader(Path file, int windowSize) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.fileSize = channel.size();
+    this.windowSize = windowSize;
+  }
+
+  /** The remaining lines as a sequential stream, closing the stream closes the reader. */
+  public Stream<String> lines() {
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(this::close);
+  }
+
+  /** The number of bytes read so far. */
+  public long getPosition() {
+    return position;
+  }
+
+  public long getFileSize() {
+    return fileSize;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (nextLine == null) {
+      nextLine = readLine();
+    }
+    return nextLine != null;
+  }
+
+  @Override
+  public String next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final String result = nextLine;
+    nextLine = null;
+    return result;
+  }
+
+  @Override
+  public void close() {
+    try {
+      window = null;
+      channel.close();
+    } catch (IOException e) {
+      throw new RbelFileLineReaderException("Unable to close traffic file", e);
+    }
+  }
+
+  private String readLine() {
+    while (position < fileSize) {
+      if (window == null || position >= windowStart + window.limit()) {
+        mapWindow(position, windowSize);
+      }
+      final int lineStart = (int) (position - windowStart);
+      final int lineEnd = indexOfLineBreak(lineStart);
+      if (lineEnd >= 0) {
+        position = windowStart + lineEnd + 1;
+        return decode(lineStart, lineEnd);
+      }
+      final long windowEnd = windowStart + window.limit();
+      if (windowEnd == fileSize) {
+        position = fileSize;
+        return decode(lineStart, window.limit());
+      }
+      // the line continues behind the window
+      mapWindow(position, Math.max(windowSize, 2 * (windowEnd - position)));
+    }
+    return null;
+  }
+
+  private int indexOfLineBreak(int from) {
+    final int limit = window.limit();
+    for (int i = from; i < limit; i++) {
+      if (window.get(i) == '\n') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private String decode(int from, int to) {
+    final byte[] line = new byte[to - from];
+    window.get(from, line);
+    return new String(line, StandardCharsets.UTF_8);
+  }
+
+  private void mapWindow(long start, long size) {
+    final long mappedSize = Math.min(size, fileSize - start);
+    if (mappedSize > Integer.MAX_VALUE) {
+      throw new RbelFileLineReaderException(
+          "Line starting at byte " + start + " is too large to be read");
+    }
+    try {
+      window = channel.map(MapMode.READ_ONLY, start, mappedSize);
+      windowStart = start;
+    } catch (IOException e) {
+      throw new RbelFileLineReaderException("Unable to map traffic file at byte " + start, e);
+    }
+  }
+
+  public static class RbelFileLineReaderException extends GenericTigerException {
+    public RbelFileLineReaderException(String message) {
+      super(message);
+    }
+
+    public RbelFileLineReaderException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import org.json.JSONObject;
+
+/**
+ * A single message as stored in a .tgr file: the raw bytes of the message and the metadata written
+ * by the {@link RbelFilePreSaveListener}s (uuid, hostnames, timestamp, ...).
+ */
+public record RbelFileRecord(JSONObject messageObject, byte[] rawContent) {}
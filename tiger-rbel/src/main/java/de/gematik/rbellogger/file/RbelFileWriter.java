@@ -20,22 +20,43 @@ import de.gematik.rbellogger.converter.RbelConverter;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelElementConvertionPair;
 import de.gematik.rbellogger.data.RbelHostname;
+import de.gematik.rbellogger.data.facet.RbelHttpRequestFacet;
+import de.gematik.rbellogger.data.facet.RbelHttpResponseFacet;
+import de.gematik.rbellogger.data.facet.TracingMessagePairFacet;
 import de.gematik.rbellogger.util.RbelMessagePostProcessor;
 import de.gematik.test.tiger.exceptions.GenericTigerException;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONObject;
 
-@AllArgsConstructor
 @Slf4j
 public class RbelFileWriter {
   private static final String FILE_DIVIDER = "\n";
+  // messages that can be out of order in a file without being parsed out of order
+  static final int REORDERING_WINDOW_SIZE = 1000;
+  // messages submitted for parallel parsing that are not completed yet
+  static final int MAXIMUM_PENDING_MESSAGES = 1000;
+  // requests considered when pairing responses by order
+  private static final int RECENT_REQUESTS_FOR_PAIRING = 100;
   public static final String RAW_MESSAGE_CONTENT = "rawMessageContent";
   public static final String SENDER_HOSTNAME = "senderHostname";
   public static final String RECEIVER_HOSTNAME = "receiverHostname";
@@ -58,50 +79,201 @@ public class RbelFileWriter {
 
   private final RbelConverter rbelConverter;
 
+  /**
+   * Parse the messages of a file concurrently on the parsing executor of the converter, see {@link
+   * ParallelFileImport}. Messages of one connection are still parsed one after another.
+   */
+  @Setter private boolean parallelImport = false;
+
+  public RbelFileWriter(RbelConverter rbelConverter) {
+    this.rbelConverter = rbelConverter;
+  }
+
   public String convertToRbelFileString(RbelElement rbelElement) {
-    final JSONObject jsonObject =
-        new JSONObject(
-            Map.of(
-                RAW_MESSAGE_CONTENT,
-                    Base64.getEncoder().encodeToString(rbelElement.getRawContent()),
-                MESSAGE_UUID, rbelElement.getUuid()));
-    preSaveListener.forEach(listener -> listener.preSaveCallback(rbelElement, jsonObject));
+    return convertToRbelFileString(convertToRbelFileRecord(rbelElement));
+  }
 
+  /** The record as a line of a JSON lines .tgr file. The raw content is added to its metadata. */
+  public static String convertToRbelFileString(RbelFileRecord rbelFileRecord) {
+    final JSONObject jsonObject = rbelFileRecord.messageObject();
+    jsonObject.put(
+        RAW_MESSAGE_CONTENT, Base64.getEncoder().encodeToString(rbelFileRecord.rawContent()));
     return jsonObject + FILE_DIVIDER;
   }
 
+  /** The message with the metadata of the pre-save listeners, as stored in binary .tgr files. */
+  public RbelFileRecord convertToRbelFileRecord(RbelElement rbelElement) {
+    final JSONObject jsonObject = new JSONObject(Map.of(MESSAGE_UUID, rbelElement.getUuid()));
+    preSaveListener.forEach(listener -> listener.preSaveCallback(rbelElement, jsonObject));
+    return new RbelFileRecord(jsonObject, rbelElement.getRawContent());
+  }
+
+  /** Converts the messages into a complete binary .tgr file, including the index. */
+  public byte[] convertToBinaryRbelFile(Collection<RbelElement> rbelElements, boolean compress) {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    try (final RbelBinaryFileWriter binaryFileWriter =
+        new RbelBinaryFileWriter(
+            result, compress, RbelBinaryFileWriter.DEFAULT_MESSAGES_PER_BLOCK)) {
+      for (RbelElement rbelElement : rbelElements) {
+        binaryFileWriter.writeMessage(convertToRbelFileRecord(rbelElement));
+      }
+    } catch (IOException e) {
+      throw new RbelFileWritingException("Error while writing binary traffic file", e);
+    }
+    return result.toByteArray();
+  }
+
   public List<RbelElement> convertFromRbelFile(String rbelFileContent) {
+    final List<RbelElement> result = new ArrayList<>();
+    readRbelFileStream(
+        Arrays.stream(rbelFileContent.split(FILE_DIVIDER))
+            .filter(StringUtils::isNotBlank)
+            .map(RbelFileWriter::parseJsonLine),
+        result::add);
+    return result;
+  }
+
+  /** Converts the content of a .tgr file, in either the JSON lines or the binary format. */
+  public List<RbelElement> convertFromRbelFile(byte[] rbelFileContent) {
+    if (!RbelBinaryFileReader.isBinaryContent(rbelFileContent)) {
+      return convertFromRbelFile(new String(rbelFileContent, StandardCharsets.UTF_8));
+    }
+    final List<RbelElement> result = new ArrayList<>();
+    try (final RbelBinaryFileReader binaryFileReader =
+            new RbelBinaryFileReader(new ByteArrayInputStream(rbelFileContent));
+        final Stream<RbelFileRecord> records = binaryFileReader.records()) {
+      readRbelFileStream(records, result::add);
+    } catch (IOException e) {
+      throw new RbelFileReadingException("Error while reading binary traffic file", e);
+    }
+    return result;
+  }
+
+  /**
+   * Decodes the records of a .tgr file in either format while reading it from the stream, without
+   * parsing the messages. Together with {@link #convertFromRbelFileRecords} this allows decoding
+   * several files concurrently and parsing them in order afterwards.
+   */
+  public static List<RbelFileRecord> readRbelFileRecords(InputStream inputStream)
+      throws IOException {
+    final BufferedInputStream bufferedInput = new BufferedInputStream(inputStream);
+    bufferedInput.mark(Integer.BYTES);
+    final byte[] header = bufferedInput.readNBytes(Integer.BYTES);
+    bufferedInput.reset();
+    if (RbelBinaryFileReader.isBinaryContent(header)) {
+      try (final RbelBinaryFileReader binaryFileReader = new RbelBinaryFileReader(bufferedInput);
+          final Stream<RbelFileRecord> records = binaryFileReader.records()) {
+        return records.toList();
+      }
+    }
+    try (final BufferedReader reader =
+        new BufferedReader(new InputStreamReader(bufferedInput, StandardCharsets.UTF_8))) {
+      return reader
+          .lines()
+          .filter(StringUtils::isNotBlank)
+          .map(RbelFileWriter::parseJsonLine)
+          .toList();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /** Parses records decoded by {@link #readRbelFileRecords}, in the order of their sequence. */
+  public List<RbelElement> convertFromRbelFileRecords(List<RbelFileRecord> rbelFileRecords) {
+    final List<RbelElement> result = new ArrayList<>();
+    readRbelFileStream(rbelFileRecords.stream(), result::add);
+    return result;
+  }
+
+  /**
+   * Reads a .tgr file without loading it into memory, every message is handed to the consumer as
+   * soon as it is parsed. Files in the JSON lines format are memory-mapped and decoded line by
+   * line, binary files are read block by block.
+   */
+  public void readRbelFile(Path rbelFile, Consumer<RbelElement> messageConsumer)
+      throws IOException {
+    if (RbelBinaryFileReader.isBinaryFile(rbelFile)) {
+      try (final RbelBinaryFileReader binaryFileReader =
+              new RbelBinaryFileReader(Files.newInputStream(rbelFile));
+          final Stream<RbelFileRecord> records = binaryFileReader.records()) {
+        log.info("Reading {} bytes from binary file {}", Files.size(rbelFile), rbelFile);
+        readRbelFileStream(records, messageConsumer);
+      }
+      return;
+    }
+    try (final RbelFileLineReader lineReader = new RbelFileLineReader(rbelFile);
+        final Stream<String> lines = lineReader.lines()) {
+      log.info("Reading {} bytes from file {}", lineReader.getFileSize(), rbelFile);
+      readRbelFileStream(
+          lines.filter(StringUtils::isNotBlank).map(RbelFileWriter::parseJsonLine),
+          messageConsumer);
+    }
+  }
+
+  /** The raw content is decoded right away, so that it is not kept twice while being parsed. */
+  private static RbelFileRecord parseJsonLine(String line) {
+    final JSONObject messageObject = new JSONObject(line);
+    final Object rawMessageContent = messageObject.remove(RAW_MESSAGE_CONTENT);
+    if (!(rawMessageContent instanceof String rawContentString)) {
+      throw new RbelFileReadingException(
+          "Missing " + RAW_MESSAGE_CONTENT + " in object '" + messageObject + "'");
+    }
+    return new RbelFileRecord(messageObject, Base64.getDecoder().decode(rawContentString));
+  }
+
+  /**
+   * Parses the messages in the order of their sequence numbers. Messages are written (almost) in
+   * that order, so instead of sorting the whole file a window of {@link #REORDERING_WINDOW_SIZE}
+   * messages is kept and the message with the lowest sequence number in it is parsed next.
+   * Messages without sequence number keep their position relative to each other.
+   */
+  private void readRbelFileStream(
+      Stream<RbelFileRecord> rbelFileStream, Consumer<RbelElement> messageConsumer) {
+    final PriorityQueue<FileEntry> reorderingWindow = new PriorityQueue<>();
+    final AtomicLong numberOfMessages = new AtomicLong();
+    final AtomicLong numberOfHandledMessages = new AtomicLong();
+    final AtomicLong numberOfParsedMessages = new AtomicLong();
+    final Consumer<RbelElement> countingConsumer =
+        message -> {
+          numberOfParsedMessages.incrementAndGet();
+          messageConsumer.accept(message);
+        };
+    final FileImport fileImport =
+        parallelImport
+            ? new ParallelFileImport(countingConsumer)
+            : fileRecord -> parseFileRecord(fileRecord).ifPresent(countingConsumer);
+    final Consumer<FileEntry> parseEntry =
+        entry -> {
+          fileImport.importMessage(entry.fileRecord());
+          final long handledMessages = numberOfHandledMessages.incrementAndGet();
+          if (handledMessages % 500 == 0) {
+            log.info("Parsed {} messages, continuing...", handledMessages);
+          }
+        };
     // not parallel stream: we want to keep the order of the messages!
-    return readRbelFileStream(Arrays.stream(rbelFileContent.split(FILE_DIVIDER)));
-  }
-
-  private List<RbelElement> readRbelFileStream(Stream<String> rbelFileStream) {
-    final List<String> rawMessageStrings = rbelFileStream.filter(StringUtils::isNotBlank).toList();
-    log.info("Found {} messages in file, starting parsing...", rawMessageStrings.size());
-    AtomicInteger numberOfParsedMessages = new AtomicInteger(0);
-    final List<RbelElement> list =
-        rawMessageStrings.stream()
-            .peek( // NOSONAR
-                str -> {
-                  if ((numberOfParsedMessages.getAndIncrement() % 500) == 0
-                      && numberOfParsedMessages.get() > 0) {
-                    log.info("Parsed {} messages, continuing...", numberOfParsedMessages);
-                  }
-                })
-            .map(JSONObject::new)
-            .sorted(Comparator.comparing(json -> json.optInt(SEQUENCE_NUMBER, Integer.MAX_VALUE)))
-            .map(this::parseFileObject)
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .toList();
+    rbelFileStream.forEach(
+        fileRecord -> {
+          reorderingWindow.add(
+              new FileEntry(
+                  fileRecord.messageObject().optLong(SEQUENCE_NUMBER, Long.MAX_VALUE),
+                  numberOfMessages.getAndIncrement(),
+                  fileRecord));
+          if (reorderingWindow.size() > REORDERING_WINDOW_SIZE) {
+            parseEntry.accept(reorderingWindow.poll());
+          }
+        });
+    while (!reorderingWindow.isEmpty()) {
+      parseEntry.accept(reorderingWindow.poll());
+    }
+    fileImport.finish();
     log.info(
         "Parsing complete, parsed {} messages of {} available",
-        list.size(),
-        rawMessageStrings.size());
-    return list;
+        numberOfParsedMessages.get(),
+        numberOfMessages.get());
   }
 
-  private Optional<RbelElement> parseFileObject(JSONObject messageObject) {
+  private Optional<RbelElement> parseFileRecord(RbelFileRecord fileRecord) {
+    final JSONObject messageObject = fileRecord.messageObject();
     try {
       final String msgUuid = messageObject.optString(MESSAGE_UUID);
 
@@ -109,12 +281,7 @@ public class RbelFileWriter {
         return Optional.empty();
       }
 
-      final RbelElement rawMessageObject =
-          RbelElement.builder()
-              .rawContent(Base64.getDecoder().decode(messageObject.getString(RAW_MESSAGE_CONTENT)))
-              .uuid(msgUuid)
-              .parentNode(null)
-              .build();
+      final RbelElement rawMessageObject = buildRawMessage(fileRecord, msgUuid);
 
       RbelElementConvertionPair messageToConvert =
           Optional.ofNullable(messageObject.optString(PAIRED_MESSAGE_UUID, null))
@@ -131,15 +298,10 @@ public class RbelFileWriter {
       final RbelElement parsedMessage =
           rbelConverter.parseMessage(
               messageToConvert,
-              RbelHostname.fromString(messageObject.getString(SENDER_HOSTNAME)).orElse(null),
-              RbelHostname.fromString(messageObject.getString(RECEIVER_HOSTNAME)).orElse(null),
-              messageObject.has(MESSAGE_TIME)
-                  ? parseTransmissionTimeFromString(messageObject.getString(MESSAGE_TIME))
-                  : Optional.empty());
-      postConversionListener.forEach(
-          listener ->
-              listener.performMessagePostConversionProcessing(
-                  parsedMessage, rbelConverter, messageObject));
+              getHostname(messageObject, SENDER_HOSTNAME),
+              getHostname(messageObject, RECEIVER_HOSTNAME),
+              getTransmissionTime(messageObject));
+      triggerPostConversionListeners(parsedMessage, messageObject);
       return Optional.ofNullable(parsedMessage);
     } catch (Exception e) {
       throw new RbelFileReadingException(
@@ -147,6 +309,30 @@ public class RbelFileWriter {
     }
   }
 
+  private static RbelElement buildRawMessage(RbelFileRecord fileRecord, String msgUuid) {
+    return RbelElement.builder()
+        .rawContent(fileRecord.rawContent())
+        .uuid(msgUuid)
+        .parentNode(null)
+        .build();
+  }
+
+  private static RbelHostname getHostname(JSONObject messageObject, String key) {
+    return RbelHostname.fromString(messageObject.getString(key)).orElse(null);
+  }
+
+  private static Optional<ZonedDateTime> getTransmissionTime(JSONObject messageObject) {
+    return messageObject.has(MESSAGE_TIME)
+        ? parseTransmissionTimeFromString(messageObject.getString(MESSAGE_TIME))
+        : Optional.empty();
+  }
+
+  private void triggerPostConversionListeners(RbelElement message, JSONObject messageObject) {
+    postConversionListener.forEach(
+        listener ->
+            listener.performMessagePostConversionProcessing(message, rbelConverter, messageObject));
+  }
+
   private static Optional<ZonedDateTime> parseTransmissionTimeFromString(String time) {
     if (StringUtils.isBlank(time)) {
       return Optional.empty();
@@ -154,10 +340,149 @@ public class RbelFileWriter {
     return Optional.of(ZonedDateTime.parse(time));
   }
 
+  private interface FileImport {
+    void importMessage(RbelFileRecord fileRecord);
+
+    default void finish() {}
+  }
+
+  /**
+   * Submits the messages to the parsing executor of the converter, so that messages of different
+   * connections are parsed concurrently. Submission adds the messages to the history, so they are
+   * still published in the order of their sequence numbers. Parsed messages are completed (paired,
+   * post-processed and handed to the consumer) in the same order.
+   *
+   * <p>Parsing a response never waits for its request: pairing is resolved after parsing, through
+   * the uuid index of the converter or, for old files without {@link #PAIRED_MESSAGE_UUID}, by
+   * order.
+   */
+  @RequiredArgsConstructor
+  private class ParallelFileImport implements FileImport {
+
+    private final Consumer<RbelElement> messageConsumer;
+    private final Deque<PendingMessage> pendingMessages = new ArrayDeque<>();
+    private final Deque<RbelElement> recentRequests = new ArrayDeque<>();
+
+    @Override
+    public void importMessage(RbelFileRecord fileRecord) {
+      final JSONObject messageObject = fileRecord.messageObject();
+      final String msgUuid = messageObject.optString(MESSAGE_UUID);
+      if (rbelConverter.isMessageUuidAlreadyKnown(msgUuid)) {
+        return;
+      }
+      try {
+        final RbelElement message = buildRawMessage(fileRecord, msgUuid);
+        pendingMessages.add(
+            new PendingMessage(
+                messageObject,
+                message,
+                rbelConverter.parseMessageAsync(
+                    new RbelElementConvertionPair(message),
+                    getHostname(messageObject, SENDER_HOSTNAME),
+                    getHostname(messageObject, RECEIVER_HOSTNAME),
+                    getTransmissionTime(messageObject))));
+      } catch (RuntimeException e) {
+        throw new RbelFileReadingException(
+            "Error while converting from object '" + messageObject + "'", e);
+      }
+      while (pendingMessages.size() > MAXIMUM_PENDING_MESSAGES) {
+        completeOldestMessage();
+      }
+    }
+
+    @Override
+    public void finish() {
+      while (!pendingMessages.isEmpty()) {
+        completeOldestMessage();
+      }
+      rbelConverter.manageRbelBufferSize();
+    }
+
+    private void completeOldestMessage() {
+      final PendingMessage pendingMessage = pendingMessages.poll();
+      try {
+        final RbelElement parsedMessage = pendingMessage.parsedMessage().join();
+        pairWithRequest(parsedMessage, pendingMessage.messageObject());
+        triggerPostConversionListeners(parsedMessage, pendingMessage.messageObject());
+        if (parsedMessage.hasFacet(RbelHttpRequestFacet.class)) {
+          recentRequests.add(parsedMessage);
+          if (recentRequests.size() > RECENT_REQUESTS_FOR_PAIRING) {
+            recentRequests.poll();
+          }
+        }
+        messageConsumer.accept(parsedMessage);
+      } catch (RuntimeException e) {
+        throw new RbelFileReadingException(
+            "Error while converting from object '" + pendingMessage.messageObject() + "'", e);
+      } finally {
+        RbelConverter.setMessageFullyProcessed(pendingMessage.message());
+      }
+    }
+
+    private void pairWithRequest(RbelElement message, JSONObject messageObject) {
+      final Optional<RbelElement> request =
+          messageObject.has(PAIRED_MESSAGE_UUID)
+              ? rbelConverter.findMessageByUuid(messageObject.getString(PAIRED_MESSAGE_UUID))
+              : findRequestByOrder(message);
+      request.ifPresent(
+          req -> {
+            final var pairFacet =
+                TracingMessagePairFacet.builder().response(message).request(req).build();
+            req.addOrReplaceFacet(pairFacet);
+            message.addOrReplaceFacet(pairFacet);
+            RbelHttpRequestFacet.updateResponseOfRequestFacet(req, message);
+            RbelHttpResponseFacet.updateRequestOfResponseFacet(message, req);
+          });
+    }
+
+    /** The same fallback as {@link RbelElementByOrderConvertionPair}, for HTTP responses only. */
+    private Optional<RbelElement> findRequestByOrder(RbelElement message) {
+      if (!message.hasFacet(RbelHttpResponseFacet.class)) {
+        return Optional.empty();
+      }
+      final Iterator<RbelElement> iterator = recentRequests.descendingIterator();
+      while (iterator.hasNext()) {
+        final RbelElement request = iterator.next();
+        if (request
+            .getFacet(TracingMessagePairFacet.class)
+            .map(pair -> pair.getResponse() == message)
+            .orElse(true)) {
+          return Optional.of(request);
+        }
+      }
+      return Optional.empty();
+    }
+  }
+
+  private record PendingMessage(
+      JSONObject messageObject,
+      RbelElement message,
+      CompletableFuture<RbelElement> parsedMessage) {}
+
+  private record FileEntry(long sequenceNumber, long position, RbelFileRecord fileRecord)
+      implements Comparable<FileEntry> {
+    @Override
+    public int compareTo(FileEntry other) {
+      final int result = Long.compare(sequenceNumber, other.sequenceNumber);
+      return result != 0 ? result : Long.compare(position, other.position);
+    }
+  }
+
   private static class RbelFileReadingException extends GenericTigerException {
 
+    public RbelFileReadingException(String s) {
+      super(s);
+    }
+
     public RbelFileReadingException(String s, Exception e) {
       super(s, e);
     }
   }
+
+  private static class RbelFileWritingException extends GenericTigerException {
+
+    public RbelFileWritingException(String s, Exception e) {
+      super(s, e);
+    }
+  }
 }
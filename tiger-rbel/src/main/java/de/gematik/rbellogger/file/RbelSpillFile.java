@@ -0,0 +1,244 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import de.gematik.test.tiger.exceptions.GenericTigerException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Append-only store for raw message content, backed by files of a fixed chunk size. Entries are
+ * never removed individually: when the store grows beyond its budget the oldest chunk is deleted as
+ * a whole, and the keys of the entries it held are handed back to the caller.
+ *
+ * <p>All chunks live in one spill directory of their own, which is deleted on {@link #close()} or
+ * when the JVM shuts down. Chunks are accessed with positional reads and writes, so a dropped chunk
+ * is closed and deleted right away and the disk usage stays within the budget.
+ */
+@Slf4j
+public class RbelSpillFile implements AutoCloseable {
+
+  private final Path directory;
+  private final int chunkSize;
+  private final long maximumSize;
+  private final Deque<Chunk> chunks = new ArrayDeque<>();
+  private final Map<Long, Chunk> chunksByNumber = new ConcurrentHashMap<>();
+  private Path spillDirectory;
+  private Thread shutdownHook;
+  private long nextChunkNumber = 0;
+  private long size = 0;
+  private boolean closed = false;
+
+  public RbelSpillFile(Path directory, int chunkSize, long maximumSize) {
+    this.directory = directory;
+    this.chunkSize = chunkSize;
+    this.maximumSize = maximumSize;
+  }
+
+  public record Location(long chunkNumber, int offset, int length) {}
+
+  /** Stores the content. The key is returned by {@link #dropChunksExceedingBudget()}. */
+  public synchronized Location write(long key, byte[] content) {
+    if (closed) {
+      throw new SpillFileException("Spill file is closed");
+    }
+    Chunk chunk = chunks.peekLast();
+    if (chunk == null || chunk.remaining() < content.length) {
+      chunk = openChunk(Math.max(chunkSize, content.length));
+    }
+    final int offset = chunk.writePosition;
+    try {
+      final ByteBuffer buffer = ByteBuffer.wrap(content);
+      while (buffer.hasRemaining()) {
+        openChannel(chunk).write(buffer, (long) offset + buffer.position());
+      }
+    } catch (IOException e) {
+      throw new SpillFileException("Unable to write to spill file " + chunk.path, e);
+    }
+    chunk.writePosition += content.length;
+    chunk.keys.add(key);
+    return new Location(chunk.number, offset, content.length);
+  }
+
+  /** Reads the content back, empty if its chunk has been dropped in the meantime. */
+  public Optional<byte[]> read(Location location) {
+    final Chunk chunk = chunksByNumber.get(location.chunkNumber());
+    if (chunk == null) {
+      return Optional.empty();
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate(location.length());
+    try {
+      while (buffer.hasRemaining()) {
+        if (openChannel(chunk).read(buffer, (long) location.offset() + buffer.position()) < 0) {
+          throw new SpillFileException("Unexpected end of spill file " + chunk.path);
+        }
+      }
+    } catch (ClosedChannelException e) {
+      // the chunk was dropped or the reading thread was interrupted
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new SpillFileException("Unable to read from spill file " + chunk.path, e);
+    }
+    return Optional.of(buffer.array());
+  }
+
+  public boolean contains(Location location) {
+    return chunksByNumber.containsKey(location.chunkNumber());
+  }
+
+  /**
+   * Deletes the oldest chunks until the store fits its budget again (the chunk currently written
+   * to is always kept) and returns the keys of all entries that were lost.
+   */
+  public synchronized List<Long> dropChunksExceedingBudget() {
+    final List<Long> droppedKeys = new ArrayList<>();
+    while (size > maximumSize && chunks.size() > 1) {
+      final Chunk chunk = chunks.removeFirst();
+      chunksByNumber.remove(chunk.number);
+      size -= chunk.capacity;
+      droppedKeys.addAll(chunk.keys);
+      deleteChunkFile(chunk);
+    }
+    return droppedKeys;
+  }
+
+  /** Bytes reserved on disk. */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    chunks.forEach(this::deleteChunkFile);
+    chunks.clear();
+    chunksByNumber.clear();
+    size = 0;
+    if (spillDirectory != null) {
+      FileUtils.deleteQuietly(spillDirectory.toFile());
+      try {
+        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+      } catch (IllegalStateException e) {
+        // the JVM is shutting down already
+      }
+    }
+  }
+
+  private Chunk openChunk(int capacity) {
+    final long number = nextChunkNumber++;
+    try {
+      final Path path = getSpillDirectory().resolve("chunk-" + number + ".bin");
+      final FileChannel channel =
+          FileChannel.open(
+              path,
+              StandardOpenOption.CREATE_NEW,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      final Chunk chunk = new Chunk(number, path, capacity, channel);
+      chunks.addLast(chunk);
+      chunksByNumber.put(number, chunk);
+      size += capacity;
+      return chunk;
+    } catch (IOException e) {
+      throw new SpillFileException("Unable to create spill file in " + directory, e);
+    }
+  }
+
+  /**
+   * The channel of the chunk. An interrupted read closes the channel, so it is opened again as long
+   * as the chunk is still stored.
+   */
+  private FileChannel openChannel(Chunk chunk) throws IOException {
+    final FileChannel channel = chunk.channel;
+    if (channel.isOpen()) {
+      return channel;
+    }
+    synchronized (this) {
+      if (!chunk.channel.isOpen() && chunksByNumber.get(chunk.number) == chunk) {
+        chunk.channel =
+            FileChannel.open(chunk.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      }
+      return chunk.channel;
+    }
+  }
+
+  private Path getSpillDirectory() throws IOException {
+    if (spillDirectory == null) {
+      Files.createDirectories(directory);
+      final Path createdDirectory = Files.createTempDirectory(directory, "rbel-spill-");
+      shutdownHook =
+          new Thread(
+              () -> FileUtils.deleteQuietly(createdDirectory.toFile()), "rbel-spill-cleanup");
+      Runtime.getRuntime().addShutdownHook(shutdownHook);
+      spillDirectory = createdDirectory;
+    }
+    return spillDirectory;
+  }
+
+  private void deleteChunkFile(Chunk chunk) {
+    try {
+      chunk.channel.close();
+      Files.deleteIfExists(chunk.path);
+    } catch (IOException e) {
+      log.warn("Unable to delete spill file {}", chunk.path, e);
+    }
+  }
+
+  private static class Chunk {
+    private final long number;
+    private final Path path;
+    private final int capacity;
+    private volatile FileChannel channel;
+    private final List<Long> keys = new ArrayList<>();
+    private int writePosition = 0;
+
+    private Chunk(long number, Path path, int capacity, FileChannel channel) {
+      this.number = number;
+      this.path = path;
+      this.capacity = capacity;
+      this.channel = channel;
+    }
+
+    private int remaining() {
+      return capacity - writePosition;
+    }
+  }
+
+  public static class SpillFileException extends GenericTigerException {
+    public SpillFileException(String message) {
+      super(message);
+    }
+
+    public SpillFileException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import de.gematik.test.tiger.common.data.config.tigerproxy.RbelFileFormat;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TigerFileSaveInfo;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Writes the recorded traffic to a .tgr file on a dedicated thread, so that slow disks do not hold
+ * up the recording. Messages are handed over through a bounded queue and written in batches: each
+ * batch is written with a single flush, the file is synced to disk at most every {@link
+ * TigerFileSaveInfo#getSyncIntervalInMs()}. The file is rotated once it exceeds the configured size
+ * or age, rotated files are renamed to {@code <name>-<number>.tgr}.
+ */
+@Slf4j
+public class RbelTrafficFileWriter implements AutoCloseable {
+
+  private static final int MAXIMUM_BATCH_SIZE = 1000;
+  private static final long POLL_INTERVAL_MS = 100;
+  private static final AtomicInteger WRITER_COUNTER = new AtomicInteger();
+
+  private final Path file;
+  private final RbelFileFormat fileFormat;
+  private final boolean compressBinaryFile;
+  private final boolean dropMessagesWhenQueueFull;
+  private final long syncIntervalNanos;
+  private final long rotationSize;
+  private final long rotationAgeNanos;
+  private final BlockingQueue<RbelFileRecord> queue;
+  private final Thread writerThread;
+  private final LongAdder writtenMessages = new LongAdder();
+  private final LongAdder droppedMessages = new LongAdder();
+  private final LongAdder bytesWritten = new LongAdder();
+  private final LongAdder rotatedFiles = new LongAdder();
+  private volatile boolean closed = false;
+
+  // only accessed by the writer thread
+  private FileOutputStream fileOut;
+  private RecordSink sink;
+  private long fileSize;
+  private long fileOpenedNanos;
+  private long lastSyncNanos;
+  private boolean unsyncedData = false;
+  private int nextRotationNumber = 1;
+
+  private RbelTrafficFileWriter(TigerFileSaveInfo fileSaveInfo) {
+    this.file = Path.of(fileSaveInfo.getFilename());
+    this.fileFormat = fileSaveInfo.getFileFormat();
+    this.compressBinaryFile = fileSaveInfo.isCompressBinaryFile();
+    this.dropMessagesWhenQueueFull = fileSaveInfo.isDropMessagesWhenQueueFull();
+    this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fileSaveInfo.getSyncIntervalInMs());
+    this.rotationSize = fileSaveInfo.getRotateFileAfterKb() * 1024;
+    this.rotationAgeNanos = TimeUnit.MINUTES.toNanos(fileSaveInfo.getRotateFileAfterMinutes());
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, fileSaveInfo.getMaximumQueuedMessages()));
+    this.writerThread =
+        new Thread(
+            this::writeQueuedMessages, "rbel-file-writer-" + WRITER_COUNTER.incrementAndGet());
+    writerThread.setDaemon(true);
+  }
+
+  /**
+   * Starts the writer thread. The file is opened (appending to an existing one) when the first
+   * message is written.
+   */
+  public static RbelTrafficFileWriter create(TigerFileSaveInfo fileSaveInfo) {
+    final RbelTrafficFileWriter writer = new RbelTrafficFileWriter(fileSaveInfo);
+    writer.writerThread.start();
+    return writer;
+  }
+
+  /**
+   * Queues the message for writing. If the queue is full the caller waits, or the message is
+   * dropped if so configured. Messages queued after {@link #close()} are dropped.
+   */
+  public void write(RbelFileRecord rbelFileRecord) {
+    if (closed) {
+      droppedMessages.increment();
+      return;
+    }
+    if (dropMessagesWhenQueueFull) {
+      if (!queue.offer(rbelFileRecord)) {
+        droppedMessages.increment();
+      }
+      return;
+    }
+    try {
+      while (!queue.offer(rbelFileRecord, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        if (closed) {
+          droppedMessages.increment();
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      droppedMessages.increment();
+    }
+  }
+
+  public Statistics getStatistics() {
+    return Statistics.builder()
+        .queuedMessages(queue.size())
+        .maximumQueuedMessages(queue.size() + queue.remainingCapacity())
+        .writtenMessages(writtenMessages.sum())
+        .droppedMessages(droppedMessages.sum())
+        .bytesWritten(bytesWritten.sum())
+        .rotatedFiles(rotatedFiles.sum())
+        .build();
+  }
+
+  /** Writes all queued messages, syncs and closes the file. */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeQueuedMessages() {
+    final List<RbelFileRecord> batch = new ArrayList<>(MAXIMUM_BATCH_SIZE);
+    try {
+      while (!closed || !queue.isEmpty()) {
+        final RbelFileRecord first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, MAXIMUM_BATCH_SIZE - 1);
+          writeBatch(batch);
+          batch.clear();
+        }
+        syncIfDue();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      droppedMessages.add(queue.size());
+      queue.clear();
+      closeFile();
+    }
+  }
+
+  private void writeBatch(List<RbelFileRecord> batch) {
+    try {
+      if (sink != null && isRotationDue()) {
+        rotateFile();
+      }
+      if (sink == null) {
+        openFile();
+      }
+      for (RbelFileRecord rbelFileRecord : batch) {
+        sink.write(rbelFileRecord);
+      }
+      sink.flush();
+      writtenMessages.add(batch.size());
+      final long newFileSize = fileOut.getChannel().size();
+      bytesWritten.add(newFileSize - fileSize);
+      fileSize = newFileSize;
+      unsyncedData = true;
+    } catch (IOException | RuntimeException e) {
+      droppedMessages.add(batch.size());
+      log.warn("Error while saving {} message(s) to file '{}':", batch.size(), file, e);
+    }
+  }
+
+  private void syncIfDue() {
+    if (!unsyncedData
+        || syncIntervalNanos < 0
+        || System.nanoTime() - lastSyncNanos < syncIntervalNanos) {
+      return;
+    }
+    try {
+      fileOut.getFD().sync();
+      lastSyncNanos = System.nanoTime();
+      unsyncedData = false;
+    } catch (IOException e) {
+      log.warn("Error while syncing file '{}':", file, e);
+    }
+  }
+
+  private boolean isRotationDue() {
+    return (rotationSize > 0 && fileSize >= rotationSize)
+        || (rotationAgeNanos > 0 && System.nanoTime() - fileOpenedNanos >= rotationAgeNanos);
+  }
+
+  private void rotateFile() throws IOException {
+    closeFile();
+    final Path rotatedFile = nextRotatedFile();
+    Files.move(file, rotatedFile, StandardCopyOption.ATOMIC_MOVE);
+    rotatedFiles.increment();
+    log.info("Rotated traffic file to '{}'", rotatedFile);
+  }
+
+  private Path nextRotatedFile() {
+    final String fileName = file.getFileName().toString();
+    final String extension = FilenameUtils.getExtension(fileName);
+    Path result;
+    do {
+      result =
+          file.resolveSibling(
+              FilenameUtils.getBaseName(fileName)
+                  + "-"
+                  + nextRotationNumber++
+                  + (extension.isEmpty() ? "" : "." + extension));
+    } while (Files.exists(result));
+    return result;
+  }
+
+  private void openFile() throws IOException {
+    fileOut = new FileOutputStream(file.toFile(), true);
+    if (fileFormat == RbelFileFormat.BINARY) {
+      sink =
+          new BinarySink(
+              RbelBinaryFileWriter.appendTo(
+                  file,
+                  fileOut,
+                  compressBinaryFile,
+                  RbelBinaryFileWriter.DEFAULT_MESSAGES_PER_BLOCK));
+    } else {
+      sink = new JsonLinesSink(new BufferedOutputStream(fileOut));
+    }
+    fileSize = fileOut.getChannel().size();
+    fileOpenedNanos = System.nanoTime();
+    lastSyncNanos = fileOpenedNanos;
+  }
+
+  private void closeFile() {
+    if (sink == null) {
+      return;
+    }
+    try {
+      sink.close();
+      // the binary format appends its index on close, so the file is synced afterwards
+      try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.force(true);
+      }
+      unsyncedData = false;
+      final long closedFileSize = Files.size(file);
+      bytesWritten.add(closedFileSize - fileSize);
+      fileSize = closedFileSize;
+    } catch (IOException e) {
+      log.warn("Error while closing file '{}':", file, e);
+    } finally {
+      sink = null;
+    }
+  }
+
+  private interface RecordSink extends Closeable {
+    void write(RbelFileRecord rbelFileRecord) throws IOException;
+
+    /** Hands everything written so far to the operating system. */
+    void flush() throws IOException;
+  }
+
+  private record JsonLinesSink(OutputStream out) implements RecordSink {
+    @Override
+    public void write(RbelFileRecord rbelFileRecord) throws IOException {
+      out.write(
+          RbelFileWriter.convertToRbelFileString(rbelFileRecord).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  /** Every flushed batch becomes (at least) one block of the binary file. */
+  private record BinarySink(RbelBinaryFileWriter writer) implements RecordSink {
+    @Override
+    public void write(RbelFileRecord rbelFileRecord) throws IOException {
+      writer.writeMessage(rbelFileRecord);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      writer.close();
+    }
+  }
+
+  @Value
+  @Builder
+  public static class Statistics {
+    int queuedMessages;
+    int maximumQueuedMessages;
+    long writtenMessages;
+    long droppedMessages;
+    long bytesWritten;
+    long rotatedFiles;
+  }
+}
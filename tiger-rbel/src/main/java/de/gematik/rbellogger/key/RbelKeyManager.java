@@ -19,6 +19,7 @@ package de.gematik.rbellogger.key;
 import de.gematik.rbellogger.converter.RbelConverterPlugin;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.facet.RbelJsonFacet;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import java.util.*;
 import java.util.stream.Stream;
@@ -26,9 +27,21 @@ import javax.crypto.spec.SecretKeySpec;
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.util.encoders.Hex;
 
+/**
+ * Holds all keys known to the RbelLogger. Besides the list of all keys (ordered by precedence) the
+ * keys are indexed by name, name prefix, algorithm and fingerprint, so that the decrypting
+ * converters can narrow down the candidates for a given message instead of trying every key. On
+ * top of that the key that last succeeded for a given decryption context (a session, a key id in a
+ * header, ...) is remembered and can be tried first.
+ */
 @Slf4j
 public class RbelKeyManager {
 
+  public static final int MAXIMUM_REMEMBERED_DECRYPTION_CONTEXTS = 1024;
+  private static final Comparator<IndexedKey> KEY_ORDER =
+      Comparator.<IndexedKey>comparingInt(entry -> entry.key().getPrecedence())
+          .thenComparingLong(IndexedKey::sequenceNumber);
+
   public static final RbelConverterPlugin RBEL_IDP_TOKEN_KEY_LISTENER =
       RbelConverterPlugin.createPlugin(
           (element, converter) ->
@@ -56,11 +69,25 @@ public class RbelKeyManager {
                               .getRbelKeyManager()
                               .addKey("token_key", aesKey, RbelKey.PRECEDENCE_KEY_FOLDER)));
 
-  private final List<RbelKey> keyList = new ArrayList<>();
-  private final Set<RbelKey> keySet = new HashSet<>();
+  private final List<IndexedKey> keyList = new ArrayList<>();
+  private final Map<ByteBuffer, RbelKey> keysByFingerprint = new HashMap<>();
+  private final NavigableMap<String, List<IndexedKey>> keysByName = new TreeMap<>();
+  private final Map<String, List<IndexedKey>> keysByAlgorithm = new HashMap<>();
+  private final Map<String, List<IndexedKey>> privateKeysByPublicKeyName = new HashMap<>();
+  // access ordered: the context used least recently is forgotten first
+  private final Map<String, RbelKey> lastSuccessfulKeyByContext =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RbelKey> eldest) {
+              return size() > MAXIMUM_REMEMBERED_DECRYPTION_CONTEXTS;
+            }
+          });
+  private long nextSequenceNumber = 0;
+  private List<RbelKey> sortedKeysSnapshot = List.of();
 
   public synchronized RbelKeyManager addAll(Map<String, RbelKey> keys) {
-    keyList.addAll(keys.values());
+    keys.values().forEach(this::indexKey);
     return this;
   }
 
@@ -73,8 +100,7 @@ public class RbelKeyManager {
       log.trace("Skipping adding key: Key is already known!");
       return Optional.empty();
     } else {
-      keyList.add(rbelKey);
-      keySet.add(rbelKey);
+      indexKey(rbelKey);
 
       log.debug("Added key {} (Now there are {} keys known)", rbelKey.getKeyName(), keyList.size());
       return Optional.of(rbelKey);
@@ -92,26 +118,142 @@ public class RbelKeyManager {
     log.atTrace()
         .addArgument(() -> Hex.toHexString(key.getHash()))
         .log("Checking if key is already known: {}");
-    return keyList.stream().anyMatch(oldKey -> oldKey.equals(key));
+    return keysByFingerprint.containsKey(ByteBuffer.wrap(key.getHash()));
+  }
+
+  private void indexKey(RbelKey rbelKey) {
+    final IndexedKey entry = new IndexedKey(rbelKey, nextSequenceNumber++);
+    insertSorted(keyList, entry);
+    keysByFingerprint.putIfAbsent(ByteBuffer.wrap(rbelKey.getHash()), rbelKey);
+    if (rbelKey.getKeyName() != null) {
+      insertSorted(keysByName.computeIfAbsent(rbelKey.getKeyName(), k -> new ArrayList<>()), entry);
+    }
+    if (rbelKey.getKey() != null) {
+      insertSorted(
+          keysByAlgorithm.computeIfAbsent(
+              normalizeAlgorithm(rbelKey.getKey().getAlgorithm()), k -> new ArrayList<>()),
+          entry);
+    }
+    rbelKey
+        .getMatchingPublicKey()
+        .map(RbelKey::getKeyName)
+        .ifPresent(
+            publicKeyName ->
+                insertSorted(
+                    privateKeysByPublicKeyName.computeIfAbsent(
+                        publicKeyName, k -> new ArrayList<>()),
+                    entry));
+    sortedKeysSnapshot = null;
+  }
+
+  /**
+   * Inserts behind all entries of lower or equal precedence. Since entries are added in the order
+   * of their sequence number this keeps every list sorted by {@link #KEY_ORDER}.
+   */
+  private static void insertSorted(List<IndexedKey> list, IndexedKey entry) {
+    int position = list.size();
+    while (position > 0
+        && list.get(position - 1).key().getPrecedence() > entry.key().getPrecedence()) {
+      position--;
+    }
+    list.add(position, entry);
+  }
+
+  /** EC keys are reported as "EC", "ECDSA" or "ECDH" depending on the provider. */
+  private static String normalizeAlgorithm(String algorithm) {
+    if (algorithm == null) {
+      return "";
+    }
+    final String upperCaseAlgorithm = algorithm.toUpperCase(Locale.ROOT);
+    if (upperCaseAlgorithm.equals("ECDSA") || upperCaseAlgorithm.equals("ECDH")) {
+      return "EC";
+    }
+    return upperCaseAlgorithm;
+  }
+
+  private static Stream<RbelKey> toKeyStream(List<IndexedKey> entries) {
+    if (entries == null || entries.isEmpty()) {
+      return Stream.empty();
+    }
+    return entries.stream().map(IndexedKey::key).toList().stream();
   }
 
   public synchronized Stream<RbelKey> getAllKeys() {
-    return new ArrayList<>(keyList).stream().sorted(Comparator.comparing(RbelKey::getPrecedence));
+    if (sortedKeysSnapshot == null) {
+      sortedKeysSnapshot = keyList.stream().map(IndexedKey::key).toList();
+    }
+    return sortedKeysSnapshot.stream();
   }
 
   public synchronized Optional<RbelKey> findCorrespondingPrivateKey(String rbelKey) {
-    return getAllKeys()
-        .filter(candidate -> candidate.getMatchingPublicKey().isPresent())
-        .filter(
-            candidate ->
-                Objects.equals(candidate.getMatchingPublicKey().get().getKeyName(), rbelKey))
-        .findFirst();
+    return toKeyStream(privateKeysByPublicKeyName.get(rbelKey)).findFirst();
   }
 
   public synchronized Optional<RbelKey> findKeyByName(String keyName) {
-    return getAllKeys()
-        .filter(
-            candidate -> candidate.getKeyName() != null && candidate.getKeyName().equals(keyName))
-        .findFirst();
+    if (keyName == null) {
+      return Optional.empty();
+    }
+    return toKeyStream(keysByName.get(keyName)).findFirst();
+  }
+
+  /** All keys whose name starts with the given prefix, in the same order as {@link #getAllKeys}. */
+  public synchronized Stream<RbelKey> findKeysWithNamePrefix(String prefix) {
+    final Collection<List<IndexedKey>> matchingLists =
+        keysByName.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    if (matchingLists.size() == 1) {
+      return toKeyStream(matchingLists.iterator().next());
+    }
+    return matchingLists.stream()
+        .flatMap(List::stream)
+        .sorted(KEY_ORDER)
+        .map(IndexedKey::key)
+        .toList()
+        .stream();
+  }
+
+  /**
+   * All keys with the given algorithm (as reported by {@link Key#getAlgorithm()}, ignoring case),
+   * in the same order as {@link #getAllKeys}.
+   */
+  public synchronized Stream<RbelKey> findKeysByAlgorithm(String algorithm) {
+    return toKeyStream(keysByAlgorithm.get(normalizeAlgorithm(algorithm)));
+  }
+
+  /**
+   * Finds a key by its fingerprint, which is the SHA-256 hash over the encoded key (see {@link
+   * RbelKey#getHash()}).
+   */
+  public synchronized Optional<RbelKey> findKeyByFingerprint(byte[] fingerprint) {
+    return Optional.ofNullable(keysByFingerprint.get(ByteBuffer.wrap(fingerprint)));
   }
+
+  /**
+   * Remembers that the given key successfully decrypted a message in the given context. The
+   * context is chosen by the converter: a key id from a message header, a session identifier or
+   * simply the kind of message.
+   */
+  public void rememberSuccessfulKey(String decryptionContext, RbelKey rbelKey) {
+    lastSuccessfulKeyByContext.put(decryptionContext, rbelKey);
+  }
+
+  public Optional<RbelKey> findLastSuccessfulKey(String decryptionContext) {
+    return Optional.ofNullable(lastSuccessfulKeyByContext.get(decryptionContext));
+  }
+
+  /**
+   * Puts the key that last succeeded in the given context in front of the given candidates. The
+   * candidates are consumed lazily, so trying the remembered key first avoids looking at the
+   * remaining candidates at all.
+   */
+  public Stream<RbelKey> withLastSuccessfulKeyFirst(
+      String decryptionContext, Stream<RbelKey> candidates) {
+    final RbelKey lastSuccessfulKey = lastSuccessfulKeyByContext.get(decryptionContext);
+    if (lastSuccessfulKey == null) {
+      return candidates;
+    }
+    return Stream.concat(
+        Stream.of(lastSuccessfulKey), candidates.filter(key -> !key.equals(lastSuccessfulKey)));
+  }
+
+  private record IndexedKey(RbelKey key, long sequenceNumber) {}
 }
@@ -66,7 +66,8 @@ public class RbelHttpMessageWriter implements RbelElementWriter {
     if (isChunkedMessage(oldTargetElement)) {
       return array ->
           ArrayUtils.addAll(
-              (array.length + "\r\n").getBytes(oldTargetElement.getElementCharset()),
+              (Integer.toHexString(array.length) + "\r\n")
+                  .getBytes(oldTargetElement.getElementCharset()),
               ArrayUtils.addAll(
                   array, ("\r\n0\r\n").getBytes(oldTargetElement.getElementCharset())));
     } else {
@@ -27,6 +27,7 @@ import java.text.MessageFormat;
 import java.util.*;
 import java.util.function.BiPredicate;
 import javax.annotation.Nullable;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.SneakyThrows;
@@ -43,6 +44,13 @@ public class RbelContent {
   private int size = 0;
   private @Nullable ArrayList<byte[]> chunks;
 
+  // views created by subContent() start somewhere inside their first (shared) chunk
+  @Getter(AccessLevel.NONE)
+  private int offset = 0;
+
+  @Getter(AccessLevel.NONE)
+  private boolean sharedChunks = false;
+
   private WeakReference<byte[]> cachedByteArray = new WeakReference<>(null);
 
   public static RbelContent of(@Nullable byte[] content) {
@@ -78,11 +86,11 @@ public class RbelContent {
 
   private byte[] getChunk(int index) {
     assert chunks != null;
-    return chunks.get(index / chunkSize);
+    return chunks.get((offset + index) / chunkSize);
   }
 
   private int getIndexInChunk(int index) {
-    return index % chunkSize;
+    return (offset + index) % chunkSize;
   }
 
   private int getBeginIndexOfChunkContaining(int i) {
@@ -90,6 +98,7 @@ public class RbelContent {
   }
 
   public boolean add(byte aByte) {
+    copySharedChunksBeforeModification();
     byte[] lastChunk;
     int chunkIndex = getIndexInChunk(size);
     if (chunkIndex == 0) {
@@ -122,9 +131,14 @@ public class RbelContent {
   }
 
   public void append(byte[] array) {
+    copySharedChunksBeforeModification();
     if (chunks == null) {
       chunks = new ArrayList<>();
     }
+    if (array.length == 0) {
+      // an empty chunk would break the mapping of indices to chunks
+      return;
+    }
     if (size % chunkSize == 0 && array.length <= chunkSize) {
       chunks.add(array);
       size += array.length;
@@ -160,7 +174,47 @@ public class RbelContent {
   }
 
   public void append(RbelContent content) {
-    appendContent(content.getChunks(), content.size);
+    if (content.offset != 0) {
+      append(content.toByteArray());
+    } else {
+      appendContent(content.getChunks(), content.size);
+    }
+  }
+
+  /**
+   * Returns a view of the given range. The view shares the chunks of this content instead of
+   * copying the bytes, so nested elements can reference their part of the parent content. Appending
+   * to the view first copies the viewed bytes, the parent is never modified through a view.
+   */
+  public RbelContent subContent(int from, int to) {
+    checkRange(from, to);
+    final RbelContent result = builder().chunkSize(chunkSize).build();
+    if (chunks == null) {
+      return result;
+    }
+    result.chunks = new ArrayList<>();
+    if (from == to) {
+      return result;
+    }
+    final int physicalFrom = offset + from;
+    final int physicalTo = offset + to;
+    result.chunks.addAll(
+        chunks.subList(physicalFrom / chunkSize, (physicalTo - 1) / chunkSize + 1));
+    result.offset = physicalFrom % chunkSize;
+    result.size = to - from;
+    result.sharedChunks = true;
+    return result;
+  }
+
+  private void copySharedChunksBeforeModification() {
+    if (sharedChunks) {
+      final byte[] viewedBytes = subArrayWithoutChecks(0, size);
+      sharedChunks = false;
+      chunks = null;
+      offset = 0;
+      size = 0;
+      append(viewedBytes);
+    }
   }
 
   private void appendContent(Collection<byte[]> arrays, int bytesToAppend) {
@@ -184,6 +238,11 @@ public class RbelContent {
     return size;
   }
 
+  /** True for views created by {@link #subContent}, which do not own the bytes they show. */
+  boolean isSharingChunks() {
+    return sharedChunks;
+  }
+
   public boolean isEmpty() {
     return size == 0;
   }
@@ -209,28 +268,32 @@ public class RbelContent {
 
   @SneakyThrows
   public InputStream toInputStream() {
-    return BoundedInputStream.builder()
-        .setInputStream(
-            new SequenceInputStream(
-                new Enumeration<>() {
-                  final Iterator<byte[]> iterator =
-                      chunks != null ? chunks.iterator() : Collections.emptyIterator();
-
-                  @Override
-                  public boolean hasMoreElements() {
-                    return iterator.hasNext();
-                  }
-
-                  @Override
-                  public InputStream nextElement() {
-                    return new ByteArrayInputStream(iterator.next());
-                  }
-                }))
-        .setMaxCount(size)
-        .get();
+    final InputStream chunkStream =
+        new SequenceInputStream(
+            new Enumeration<>() {
+              final Iterator<byte[]> iterator =
+                  chunks != null ? chunks.iterator() : Collections.emptyIterator();
+
+              @Override
+              public boolean hasMoreElements() {
+                return iterator.hasNext();
+              }
+
+              @Override
+              public InputStream nextElement() {
+                return new ByteArrayInputStream(iterator.next());
+              }
+            });
+    chunkStream.skipNBytes(offset);
+    return BoundedInputStream.builder().setInputStream(chunkStream).setMaxCount(size).get();
   }
 
   public byte[] subArray(int from, int to) {
+    checkRange(from, to);
+    return subArrayWithoutChecks(from, to);
+  }
+
+  private void checkRange(int from, int to) {
     if (from < 0 || from > size) {
       throw new IndexOutOfBoundsException(MessageFormat.format("from: {0}", from));
     }
@@ -240,13 +303,11 @@ public class RbelContent {
     if (to < from) {
       throw new IndexOutOfBoundsException(MessageFormat.format("from: {0}, to: {1}", from, to));
     }
-    return subArrayWithoutChecks(from, to);
   }
 
   private byte[] subArrayWithoutChecks(int from, int to) {
-    if (from % chunkSize == 0 && from < size) {
-      assert chunks != null;
-      var chunk = chunks.get(from / chunkSize);
+    if (getIndexInChunk(from) == 0 && from < size) {
+      var chunk = getChunk(from);
       if (chunk.length == to - from) {
         return chunk;
       }
@@ -256,12 +317,7 @@ public class RbelContent {
     while (from < to) {
       byte[] currentChunk = getChunk(from);
       var indexInChunk = getIndexInChunk(from);
-      int restLength;
-      if ((to - 1) / chunkSize == from / chunkSize) {
-        restLength = getIndexInChunk(to - 1) + 1 - indexInChunk;
-      } else {
-        restLength = chunkSize - indexInChunk;
-      }
+      int restLength = Math.min(chunkSize - indexInChunk, to - from);
       System.arraycopy(currentChunk, indexInChunk, result, filled, restLength);
       filled += restLength;
       from += restLength;
@@ -339,7 +395,8 @@ public class RbelContent {
       var foundIndex = ArrayUtils.lastIndexOf(chunk, o, getIndexInChunk(i));
       var beginOfChunk = getBeginIndexOfChunkContaining(i);
       if (foundIndex >= 0) {
-        return beginOfChunk + foundIndex;
+        // a view might share bytes in front of its own start
+        return Math.max(beginOfChunk + foundIndex, -1);
       } else {
         i = beginOfChunk - 1; // right at end of previous chunk, if any
       }
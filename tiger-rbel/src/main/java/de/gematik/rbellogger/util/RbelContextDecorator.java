@@ -16,6 +16,7 @@
 
 package de.gematik.rbellogger.util;
 
+import com.google.common.base.Suppliers;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelMultiMap;
 import de.gematik.rbellogger.data.facet.*;
@@ -23,6 +24,7 @@ import de.gematik.test.tiger.common.jexl.TigerJexlContext;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -36,58 +38,73 @@ public class RbelContextDecorator {
   private static final int MAXIMUM_JEXL_ELEMENT_SIZE = 16_000;
   public static final String CONTENT = "content";
 
+  /**
+   * Adds the RBel specific variables to the context. Everything beyond a few facet lookups is
+   * registered lazily, since most expressions only touch one or two of these variables.
+   */
   public static void buildJexlMapContext(
       Object element, Optional<String> key, TigerJexlContext mapContext) {
     final Optional<RbelElement> parentElement = getParentElement(element);
 
     mapContext.put("parent", parentElement.orElse(null));
     final Optional<RbelElement> message = findMessage(element);
-    mapContext.put("message", message.map(RbelContextDecorator::convertToJexlMessage).orElse(null));
+    final Supplier<JexlMessage> jexlMessage =
+        Suppliers.memoize(
+            () -> message.map(RbelContextDecorator::convertToJexlMessage).orElse(null));
+    mapContext.putLazy("message", jexlMessage);
     if (element instanceof RbelElement rbelElement) {
-      mapContext.put(CONTENT, getMaxedOutContentOfElement(rbelElement));
-      mapContext.put("charset", rbelElement.getElementCharset().displayName());
-      mapContext.put("@", buildPositionDescriptor(rbelElement));
-      mapContext.put("pos", buildPositionDescriptor(rbelElement));
+      final Supplier<Map<String, Object>> positionDescriptor =
+          Suppliers.memoize(() -> buildPositionDescriptor(rbelElement));
+      mapContext.putLazy(CONTENT, () -> getMaxedOutContentOfElement(rbelElement));
+      mapContext.putLazy("charset", () -> rbelElement.getElementCharset().displayName());
+      mapContext.putLazy("@", positionDescriptor);
+      mapContext.putLazy("pos", positionDescriptor);
     }
 
     final Optional<RbelElement> requestMessage = tryToFindRequestMessage(element);
-    final Optional<JexlMessage> responseMessage =
-        tryToFindResponseMessage(element).map(RbelContextDecorator::convertToJexlMessage);
+    final Supplier<JexlMessage> responseMessage =
+        () ->
+            tryToFindResponseMessage(element)
+                .map(RbelContextDecorator::convertToJexlMessage)
+                .orElse(null);
     if (requestMessage
         .filter(msg -> message.isPresent())
         .map(msg -> message.get() == msg)
         .orElse(false)) {
-      mapContext.put("request", mapContext.get("message"));
-      mapContext.put("response", responseMessage.orElse(null));
+      mapContext.putLazy("request", jexlMessage);
+      mapContext.putLazy("response", responseMessage);
       mapContext.put("isRequest", true);
       mapContext.put("isResponse", false);
     } else {
-      mapContext.put(
-          "request", requestMessage.map(RbelContextDecorator::convertToJexlMessage).orElse(null));
-      mapContext.put("response", responseMessage.orElse(null));
+      mapContext.putLazy(
+          "request",
+          () -> requestMessage.map(RbelContextDecorator::convertToJexlMessage).orElse(null));
+      mapContext.putLazy("response", responseMessage);
       mapContext.put("isRequest", false);
       mapContext.put("isResponse", true);
     }
-    mapContext.put(
+    mapContext.putLazy(
         "facets",
-        Optional.ofNullable(element)
-            .filter(RbelElement.class::isInstance)
-            .map(RbelElement.class::cast)
-            .map(RbelElement::getFacets)
-            .stream()
-            .flatMap(Queue::stream)
-            .map(Object::getClass)
-            .map(Class::getSimpleName)
-            .collect(Collectors.toSet()));
-    mapContext.put(
-        "key", key.or(() -> tryToFindKeyFromParentMap(element, parentElement)).orElse(null));
-    mapContext.put(
+        () ->
+            Optional.ofNullable(element)
+                .filter(RbelElement.class::isInstance)
+                .map(RbelElement.class::cast)
+                .map(RbelElement::getFacets)
+                .stream()
+                .flatMap(Queue::stream)
+                .map(Object::getClass)
+                .map(Class::getSimpleName)
+                .collect(Collectors.toSet()));
+    mapContext.putLazy(
+        "key", () -> key.or(() -> tryToFindKeyFromParentMap(element, parentElement)).orElse(null));
+    mapContext.putLazy(
         "path",
-        Optional.ofNullable(element)
-            .filter(RbelElement.class::isInstance)
-            .map(RbelElement.class::cast)
-            .map(RbelElement::findNodePath)
-            .orElse(null));
+        () ->
+            Optional.ofNullable(element)
+                .filter(RbelElement.class::isInstance)
+                .map(RbelElement.class::cast)
+                .map(RbelElement::findNodePath)
+                .orElse(null));
   }
 
   private static String getMaxedOutContentOfElement(RbelElement element) {
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.util;
+
+import de.gematik.rbellogger.data.RbelElement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+/**
+ * Estimates how much heap a parsed message occupies. The raw content is only a part of it: every
+ * element of the parsed tree and every facet costs memory as well, and decoded children (e.g.
+ * base64 or decrypted payloads) carry content of their own. Children that are mere views of their
+ * parent content are counted without content.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class RbelElementSizeEstimator {
+
+  // element, uuid string, facet queue and content object
+  static final long ELEMENT_OVERHEAD_IN_BYTES = 256;
+  // facet object plus its slot in the queue, child maps are counted via the elements
+  static final long FACET_OVERHEAD_IN_BYTES = 64;
+
+  public static long estimateRetainedSize(RbelElement message) {
+    long result = message.getContent().size();
+    final Deque<RbelElement> elementsToVisit = new ArrayDeque<>();
+    elementsToVisit.push(message);
+    while (!elementsToVisit.isEmpty()) {
+      final RbelElement element = elementsToVisit.pop();
+      result += ELEMENT_OVERHEAD_IN_BYTES;
+      result += FACET_OVERHEAD_IN_BYTES * element.getFacets().size();
+      if (element != message && !element.getContent().isSharingChunks()) {
+        result += element.getContent().size();
+      }
+      element.getChildNodes().forEach(elementsToVisit::push);
+    }
+    return result;
+  }
+}
@@ -28,7 +28,6 @@ import java.util.regex.Pattern;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
 @Slf4j
@@ -110,6 +109,7 @@ public class RbelJexlExecutor {
     }
 
     List<String> resultingPaths = List.of(jexlExpression);
+    int pathIndex = 0;
     for (var potentialPath : extractPotentialRbelPaths(jexlExpression)) {
       if (!(potentialPath.startsWith("$.") || potentialPath.startsWith("@."))) {
         continue;
@@ -117,8 +117,10 @@ public class RbelJexlExecutor {
       List<String> previousIterationPaths = new ArrayList<>(resultingPaths);
       List<String> newPaths = new ArrayList<>();
       for (var expression : previousIterationPaths) {
-        evaluatePathsAndCollectAllResults(mapContext, potentialPath, expression, newPaths);
+        evaluatePathsAndCollectAllResults(
+            mapContext, potentialPath, pathIndex, expression, newPaths);
       }
+      pathIndex++;
       if (!newPaths.isEmpty()) {
         resultingPaths = newPaths;
       }
@@ -127,7 +129,11 @@ public class RbelJexlExecutor {
   }
 
   private static void evaluatePathsAndCollectAllResults(
-      TigerJexlContext mapContext, String potentialPath, String expression, List<String> newPaths) {
+      TigerJexlContext mapContext,
+      String potentialPath,
+      int pathIndex,
+      String expression,
+      List<String> newPaths) {
     final List<String> pathResults =
         new ArrayList<>(
             extractPathAndConvertToString(
@@ -141,11 +147,11 @@ public class RbelJexlExecutor {
         || pathResults.stream().anyMatch(s -> !CharMatcher.ascii().matchesAllOf(s))) {
       pathResults.add(null);
     }
-    for (String pathResult : pathResults) {
-      final String id =
-          "replacedPath_"
-              + RandomStringUtils.insecure().nextAlphabetic(20).toLowerCase(); // NOSONAR
-      mapContext.put(id, pathResult);
+    // the ids only depend on the position of the path and its result. This keeps the rewritten
+    // expressions stable, so they can be served from the compiled expression cache
+    for (int resultIndex = 0; resultIndex < pathResults.size(); resultIndex++) {
+      final String id = "replacedPath_" + pathIndex + "_" + resultIndex;
+      mapContext.put(id, pathResults.get(resultIndex));
       newPaths.add(expression.replace(potentialPath, id));
     }
   }
@@ -0,0 +1,450 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.util;
+
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.RbelParsingNotCompleteFacet;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * The message history of a converter, ordered by sequence number. Messages are stored in segments
+ * of fixed size and addressed directly by their sequence number. Appending neither locks nor
+ * waits: a message reserves its sequence number and writes its slot. Writers and readers move the
+ * end of the visible history over the contiguous written slots, so a message becomes visible once
+ * all messages before it are written. Messages leave the history only at the front ({@link
+ * #pollFirst()}) or are tombstoned in place ({@link #remove(long, RbelElement)}), so the order is
+ * never disturbed.
+ *
+ * <p>The history keeps a watermark below which every message is completely parsed. It is moved by
+ * {@link #advanceParsedWatermark()}, which has to be called whenever a message finishes parsing.
+ * Readers that only want parsed messages consult the watermark instead of scanning the history.
+ *
+ * <p>Inserting operations of {@link Deque} other than {@link #addLast} are not supported.
+ */
+@SuppressWarnings({"java:S1133", "java:S1123"})
+public class RbelMessageHistory extends AbstractCollection<RbelElement>
+    implements Deque<RbelElement> {
+
+  private static final int SEGMENT_SHIFT = 10;
+  private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+  private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+  // marks the slot of a message removed in place, an empty slot has not been written yet
+  private static final RbelElement REMOVED = new RbelElement();
+
+  private final Map<Long, AtomicReferenceArray<RbelElement>> segments = new ConcurrentHashMap<>();
+  private final AtomicLong reservedSequenceNumber = new AtomicLong();
+  // exclusive, all slots below are written and visible
+  private final AtomicLong publishedSequenceNumber = new AtomicLong();
+  // inclusive, messages below have been removed from the front
+  private final AtomicLong firstSequenceNumber = new AtomicLong();
+  // exclusive, messages below are parsed (or removed)
+  private final AtomicLong parsedWatermark = new AtomicLong();
+  private final AtomicInteger messageCount = new AtomicInteger();
+
+  /**
+   * Appends the message and returns its sequence number. The message has to carry its {@link
+   * RbelParsingNotCompleteFacet} before it is appended, otherwise the watermark might pass it.
+   */
+  public long append(RbelElement message) {
+    final long sequenceNumber = reservedSequenceNumber.getAndIncrement();
+    segments
+        .computeIfAbsent(
+            sequenceNumber >>> SEGMENT_SHIFT, key -> new AtomicReferenceArray<>(SEGMENT_SIZE))
+        .set(slotIndex(sequenceNumber), message);
+    messageCount.incrementAndGet();
+    publishWrittenSlots();
+    return sequenceNumber;
+  }
+
+  /**
+   * Moves the end of the visible history over all contiguous written slots and returns it. Slots
+   * still being written stop the end, later slots become visible once their predecessors are.
+   */
+  private long publishWrittenSlots() {
+    final long published = publishedSequenceNumber.get();
+    final long reserved = reservedSequenceNumber.get();
+    long candidate = published;
+    while (candidate < reserved && isWritten(candidate)) {
+      candidate++;
+    }
+    return candidate == published
+        ? published
+        : publishedSequenceNumber.accumulateAndGet(candidate, Math::max);
+  }
+
+  private boolean isWritten(long sequenceNumber) {
+    return sequenceNumber < firstSequenceNumber.get() || slot(sequenceNumber) != null;
+  }
+
+  public Optional<RbelElement> get(long sequenceNumber) {
+    if (sequenceNumber < firstSequenceNumber.get()
+        || sequenceNumber >= publishWrittenSlots()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(message(sequenceNumber));
+  }
+
+  /**
+   * Removes the message with the given sequence number, leaving a gap. Returns false if the slot
+   * does not hold the given message (anymore).
+   */
+  public boolean remove(long sequenceNumber, RbelElement message) {
+    final AtomicReferenceArray<RbelElement> segment =
+        segments.get(sequenceNumber >>> SEGMENT_SHIFT);
+    if (message != null
+        && segment != null
+        && segment.compareAndSet(slotIndex(sequenceNumber), message, REMOVED)) {
+      messageCount.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /** The sequence number of the oldest message that may still be in the history. */
+  public long getFirstSequenceNumber() {
+    return firstSequenceNumber.get();
+  }
+
+  /** The sequence number the next appended message will be given once it is visible. */
+  public long getEndSequenceNumber() {
+    return publishWrittenSlots();
+  }
+
+  /**
+   * The visible messages with a sequence number from {@code startSequenceNumber} (inclusive) to
+   * {@code endSequenceNumber} (exclusive). Removed messages leave gaps.
+   */
+  public List<RbelElement> getMessages(long startSequenceNumber, long endSequenceNumber) {
+    final List<RbelElement> result = new ArrayList<>();
+    new AscendingIterator(
+            startSequenceNumber,
+            () -> Math.min(endSequenceNumber, publishWrittenSlots()))
+        .forEachRemaining(result::add);
+    return result;
+  }
+
+  /** Moves the front of the history past messages that were removed in place. */
+  public void discardRemovedMessagesAtFront() {
+    long head = firstSequenceNumber.get();
+    while (head < publishWrittenSlots() && slot(head) == REMOVED) {
+      if (firstSequenceNumber.compareAndSet(head, head + 1) && slotIndex(head) == SEGMENT_MASK) {
+        segments.remove(head >>> SEGMENT_SHIFT);
+      }
+      head = firstSequenceNumber.get();
+    }
+  }
+
+  /** Moves the parsed watermark past all messages that are parsed by now. */
+  public void advanceParsedWatermark() {
+    long candidate = Math.max(parsedWatermark.get(), firstSequenceNumber.get());
+    final long published = publishWrittenSlots();
+    while (candidate < published) {
+      final RbelElement message = message(candidate);
+      if (message != null && message.hasFacet(RbelParsingNotCompleteFacet.class)) {
+        break;
+      }
+      candidate++;
+    }
+    parsedWatermark.accumulateAndGet(candidate, Math::max);
+  }
+
+  /** All messages below this sequence number are completely parsed. */
+  public long getParsedWatermark() {
+    return parsedWatermark.get();
+  }
+
+  /** The messages from the front up to the first message that is not completely parsed. */
+  public List<RbelElement> getParsedMessages() {
+    final long watermark = parsedWatermark.get();
+    final List<RbelElement> result = new ArrayList<>();
+    new AscendingIterator(firstSequenceNumber.get(), () -> watermark).forEachRemaining(result::add);
+    return result;
+  }
+
+  /**
+   * The messages between the parsed watermark and the given sequence number (exclusive). All
+   * messages that are still being parsed are among them, but so may be some parsed ones.
+   */
+  public List<RbelElement> getMessagesAboveParsedWatermark(long endSequenceNumber) {
+    final List<RbelElement> result = new ArrayList<>();
+    new AscendingIterator(
+            parsedWatermark.get(),
+            () -> Math.min(endSequenceNumber, publishWrittenSlots()))
+        .forEachRemaining(result::add);
+    return result;
+  }
+
+  @Override
+  public RbelElement pollFirst() {
+    while (true) {
+      final long head = firstSequenceNumber.get();
+      if (head >= publishWrittenSlots()) {
+        return null;
+      }
+      if (firstSequenceNumber.compareAndSet(head, head + 1)) {
+        final AtomicReferenceArray<RbelElement> segment = segments.get(head >>> SEGMENT_SHIFT);
+        final RbelElement slot = segment == null ? null : segment.getAndSet(slotIndex(head), null);
+        final RbelElement message = slot == REMOVED ? null : slot;
+        if (slotIndex(head) == SEGMENT_MASK) {
+          segments.remove(head >>> SEGMENT_SHIFT);
+        }
+        if (message != null) {
+          messageCount.decrementAndGet();
+          return message;
+        }
+      }
+    }
+  }
+
+  @Override
+  public RbelElement removeFirst() {
+    return nonEmpty(pollFirst());
+  }
+
+  @Override
+  public RbelElement poll() {
+    return pollFirst();
+  }
+
+  @Override
+  public RbelElement remove() {
+    return removeFirst();
+  }
+
+  @Override
+  public RbelElement pop() {
+    return removeFirst();
+  }
+
+  @Override
+  public void clear() {
+    while (pollFirst() != null) {
+      // drain
+    }
+  }
+
+  @Override
+  public void addLast(RbelElement message) {
+    append(message);
+  }
+
+  @Override
+  public boolean offerLast(RbelElement message) {
+    append(message);
+    return true;
+  }
+
+  @Override
+  public boolean add(RbelElement message) {
+    append(message);
+    return true;
+  }
+
+  @Override
+  public boolean offer(RbelElement message) {
+    return add(message);
+  }
+
+  @Override
+  public RbelElement peekFirst() {
+    final Iterator<RbelElement> iterator = iterator();
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+
+  @Override
+  public RbelElement peekLast() {
+    final Iterator<RbelElement> iterator = descendingIterator();
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+
+  @Override
+  public RbelElement getFirst() {
+    return nonEmpty(peekFirst());
+  }
+
+  @Override
+  public RbelElement getLast() {
+    return nonEmpty(peekLast());
+  }
+
+  @Override
+  public RbelElement peek() {
+    return peekFirst();
+  }
+
+  @Override
+  public RbelElement element() {
+    return getFirst();
+  }
+
+  @Override
+  public int size() {
+    return messageCount.get();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /** Weakly consistent: messages appended while iterating may or may not be returned. */
+  @Override
+  public Iterator<RbelElement> iterator() {
+    return new AscendingIterator(firstSequenceNumber.get(), this::publishWrittenSlots);
+  }
+
+  @Override
+  public Iterator<RbelElement> descendingIterator() {
+    return new DescendingIterator(publishWrittenSlots() - 1);
+  }
+
+  @Override
+  @Deprecated
+  public void addFirst(RbelElement message) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  @Deprecated
+  public boolean offerFirst(RbelElement message) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  @Deprecated
+  public void push(RbelElement message) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  @Deprecated
+  public RbelElement removeLast() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  @Deprecated
+  public RbelElement pollLast() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  @Deprecated
+  public boolean removeFirstOccurrence(Object o) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  @Deprecated
+  public boolean removeLastOccurrence(Object o) {
+    throw new UnsupportedOperationException();
+  }
+
+  private RbelElement slot(long sequenceNumber) {
+    final AtomicReferenceArray<RbelElement> segment =
+        segments.get(sequenceNumber >>> SEGMENT_SHIFT);
+    return segment == null ? null : segment.get(slotIndex(sequenceNumber));
+  }
+
+  /** The message in the slot, null if the slot is empty or the message was removed. */
+  private RbelElement message(long sequenceNumber) {
+    final RbelElement message = slot(sequenceNumber);
+    return message == REMOVED ? null : message;
+  }
+
+  private static int slotIndex(long sequenceNumber) {
+    return (int) (sequenceNumber & SEGMENT_MASK);
+  }
+
+  private static RbelElement nonEmpty(RbelElement message) {
+    if (message == null) {
+      throw new NoSuchElementException();
+    }
+    return message;
+  }
+
+  private class AscendingIterator implements Iterator<RbelElement> {
+
+    private final LongSupplier endSequenceNumber;
+    private long nextSequenceNumber;
+    private RbelElement nextMessage;
+
+    private AscendingIterator(long startSequenceNumber, LongSupplier endSequenceNumber) {
+      this.nextSequenceNumber = startSequenceNumber;
+      this.endSequenceNumber = endSequenceNumber;
+    }
+
+    @Override
+    public boolean hasNext() {
+      nextSequenceNumber = Math.max(nextSequenceNumber, firstSequenceNumber.get());
+      while (nextMessage == null && nextSequenceNumber < endSequenceNumber.getAsLong()) {
+        nextMessage = message(nextSequenceNumber++);
+      }
+      return nextMessage != null;
+    }
+
+    @Override
+    public RbelElement next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final RbelElement result = nextMessage;
+      nextMessage = null;
+      return result;
+    }
+  }
+
+  private class DescendingIterator implements Iterator<RbelElement> {
+
+    private long nextSequenceNumber;
+    private RbelElement nextMessage;
+
+    private DescendingIterator(long startSequenceNumber) {
+      this.nextSequenceNumber = startSequenceNumber;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (nextMessage == null && nextSequenceNumber >= firstSequenceNumber.get()) {
+        nextMessage = message(nextSequenceNumber--);
+      }
+      return nextMessage != null;
+    }
+
+    @Override
+    public RbelElement next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final RbelElement result = nextMessage;
+      nextMessage = null;
+      return result;
+    }
+  }
+}
@@ -83,6 +83,7 @@ public class RbelMessagesDequeFacade implements Deque<RbelElement> {
   public RbelElement getFirst() {
     final RbelElement result = remoteDeque.getFirst();
     rbelConverter.waitForAllElementsBeforeGivenToBeParsed(result);
+    rbelConverter.recordMessageAccess(result);
     return result;
   }
 
@@ -90,6 +91,7 @@ public class RbelMessagesDequeFacade implements Deque<RbelElement> {
   public RbelElement getLast() {
     final RbelElement result = remoteDeque.getLast();
     rbelConverter.waitForGivenElementToBeParsed(result);
+    rbelConverter.recordMessageAccess(result);
     return result;
   }
 
@@ -97,6 +99,7 @@ public class RbelMessagesDequeFacade implements Deque<RbelElement> {
   public RbelElement peekFirst() {
     final RbelElement result = remoteDeque.peekFirst();
     rbelConverter.waitForAllElementsBeforeGivenToBeParsed(result);
+    rbelConverter.recordMessageAccess(result);
     return result;
   }
 
@@ -104,6 +107,7 @@ public class RbelMessagesDequeFacade implements Deque<RbelElement> {
   public RbelElement peekLast() {
     final RbelElement result = remoteDeque.peekLast();
     rbelConverter.waitForAllElementsBeforeGivenToBeParsed(result);
+    rbelConverter.recordMessageAccess(result);
     return result;
   }
 
@@ -159,6 +163,7 @@ public class RbelMessagesDequeFacade implements Deque<RbelElement> {
   public RbelElement element() {
     final RbelElement result = remoteDeque.element();
     rbelConverter.waitForAllElementsBeforeGivenToBeParsed(result);
+    rbelConverter.recordMessageAccess(result);
     return result;
   }
 
@@ -166,6 +171,7 @@ public class RbelMessagesDequeFacade implements Deque<RbelElement> {
   public RbelElement peek() {
     final RbelElement result = remoteDeque.peek();
     rbelConverter.waitForAllElementsBeforeGivenToBeParsed(result);
+    rbelConverter.recordMessageAccess(result);
     return result;
   }
 
@@ -253,6 +259,7 @@ public class RbelMessagesDequeFacade implements Deque<RbelElement> {
     public RbelElement next() {
       final RbelElement result = remoteIterator.next();
       rbelConverter.waitForGivenElementToBeParsed(result);
+      rbelConverter.promoteSpilledMessage(result);
       return result;
     }
 
@@ -267,6 +274,7 @@ public class RbelMessagesDequeFacade implements Deque<RbelElement> {
       remoteIterator.forEachRemaining(
           element -> {
             rbelConverter.waitForGivenElementToBeParsed(element);
+            rbelConverter.promoteSpilledMessage(element);
             action.accept(element);
           });
     }
@@ -19,19 +19,17 @@ package de.gematik.rbellogger.util;
 import com.google.common.annotations.VisibleForTesting;
 import de.gematik.rbellogger.RbelOptions;
 import de.gematik.rbellogger.data.RbelElement;
-import de.gematik.rbellogger.exceptions.RbelPathException;
-import de.gematik.test.tiger.common.jexl.TigerJexlContext;
-import de.gematik.test.tiger.common.jexl.TigerJexlExecutor;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.function.BiPredicate;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
 
+/**
+ * Executes an RbelPath against a target element. The path is compiled into a cached {@link
+ * RbelPathQueryPlan}; {@link #executeLazily()} streams the results so that callers which only need
+ * the first few matches (e.g. {@link RbelElement#findElement(String)}) stop traversing early.
+ */
 @RequiredArgsConstructor
 @Slf4j
 public class RbelPathExecutor<T extends RbelPathAble> {
@@ -39,16 +37,6 @@ public class RbelPathExecutor<T extends RbelPathAble> {
   private final T targetObject;
   private final String rbelPath;
 
-  private static List<RbelPathAble> findAllChildrenRecursive(final RbelPathAble content) {
-    final List<? extends RbelPathAble> childNodes = content.getChildNodes();
-    List<RbelPathAble> result = new ArrayList<>(childNodes);
-    childNodes.stream()
-        .map(RbelPathExecutor::findAllChildrenRecursive)
-        .flatMap(List::stream)
-        .forEach(result::add);
-    return result;
-  }
-
   @VisibleForTesting
   public static List<String> splitRbelPathIntoKeys(String rbelPath) {
     final String[] split = rbelPath.substring(1).trim().split("\\.(?!(\\.|[^\\[]*]))");
@@ -72,57 +60,57 @@ public class RbelPathExecutor<T extends RbelPathAble> {
     return keys;
   }
 
-  private static List<? extends RbelPathAble> executeNamedSelection(
-      String functionExpression, RbelPathAble content, BiPredicate<String, String> keyPredicate) {
-    return Stream.of(functionExpression.split("\\|"))
-        .map(
-            s -> {
-              if (!s.startsWith("'") || !s.endsWith("'")) {
-                throw new RbelPathException(
-                    "Requiring all name selector to be surrounded by '. Violated by " + s);
-              }
-              return s.substring(1, s.length() - 1);
-            })
-        .map(s1 -> URLDecoder.decode(s1, StandardCharsets.UTF_8))
-        .map(
-            key ->
-                content.getChildNodesWithKey().stream()
-                    .filter(entry -> keyPredicate.test(key, entry.getKey()))
-                    .map(Map.Entry::getValue)
-                    .toList())
-        .flatMap(List::stream)
-        .toList();
+  public List<T> execute() {
+    final RbelPathQueryPlan plan = RbelPathQueryPlan.compile(rbelPath);
+    performPreExecutionLogging(plan);
+    if (RbelOptions.isActivateRbelPathDebugging()) {
+      return executeWithDebugLogging(plan);
+    }
+    return executePlan(plan).toList();
+  }
+
+  /**
+   * Returns the results as a lazy stream. Elements are only resolved as far as the stream is
+   * consumed, so {@code executeLazily().findFirst()} does not walk the whole tree.
+   */
+  public Stream<T> executeLazily() {
+    final RbelPathQueryPlan plan = RbelPathQueryPlan.compile(rbelPath);
+    performPreExecutionLogging(plan);
+    return executePlan(plan);
   }
 
   @SuppressWarnings("unchecked")
-  public List<T> execute() {
-    enforceCorrectRbelPathForm();
-    final List<String> keys = splitRbelPathIntoKeys(rbelPath);
-    List<T> candidates = List.of(targetObject);
-    performPreExecutionLogging(keys);
-    checkFurtherPreconditions(keys);
+  private Stream<T> executePlan(RbelPathQueryPlan plan) {
+    Stream<RbelPathAble> candidates = Stream.of(targetObject);
+    for (RbelPathQueryPlan.Step step : plan.getSteps()) {
+      candidates = applyStep(candidates, step);
+    }
+    return candidates.filter(RbelPathAble::shouldElementBeKeptInFinalResult).map(o -> (T) o);
+  }
 
-    for (String key : keys) {
-      if (RbelOptions.isActivateRbelPathDebugging()) {
-        log.info(
-            "Resolving key '{}' with candidates {}",
-            key,
-            candidates.stream()
-                .flatMap(el -> el.getChildNodesWithKey().stream())
-                .map(Map.Entry::getKey)
-                .toList());
-      }
-      List<T> lastIterationCandidates = candidates;
-      candidates =
+  private Stream<RbelPathAble> applyStep(
+      Stream<RbelPathAble> candidates, RbelPathQueryPlan.Step step) {
+    return candidates
+        .flatMap(element -> step.apply(element, targetObject))
+        .flatMap(element -> element.descendToContentNodeIfAdvised().stream())
+        .map(RbelPathAble.class::cast)
+        .distinct();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<T> executeWithDebugLogging(RbelPathQueryPlan plan) {
+    List<RbelPathAble> candidates = List.of(targetObject);
+    for (RbelPathQueryPlan.Step step : plan.getSteps()) {
+      log.info(
+          "Resolving key '{}' with candidates {}",
+          step.getKey(),
           candidates.stream()
-              .map(element -> resolveRbelPathElement(key, element))
-              .flatMap(List::stream)
-              .map(RbelPathAble::descendToContentNodeIfAdvised)
-              .flatMap(List::stream)
-              .map(o -> (T) o)
-              .distinct()
-              .toList();
-      if (candidates.isEmpty() && RbelOptions.isActivateRbelPathDebugging()) {
+              .flatMap(el -> el.getChildNodesWithKey().stream())
+              .map(Map.Entry::getKey)
+              .toList());
+      List<RbelPathAble> lastIterationCandidates = candidates;
+      candidates = applyStep(candidates.stream(), step).toList();
+      if (candidates.isEmpty()) {
         log.warn(
             "No more candidate-nodes in RbelPath execution! Last batch of candidates had {}"
                 + " elements: \n"
@@ -133,156 +121,33 @@ public class RbelPathExecutor<T extends RbelPathAble> {
     }
 
     final List<T> resultList =
-        candidates.stream().filter(RbelPathAble::shouldElementBeKeptInFinalResult).toList();
-    if (RbelOptions.isActivateRbelPathDebugging()) {
-      log.info(
-          "Returning {} result elements for RbelPath {} (Results are {})",
-          resultList.size(),
-          rbelPath,
-          getPathList(resultList));
-    }
+        candidates.stream()
+            .filter(RbelPathAble::shouldElementBeKeptInFinalResult)
+            .map(o -> (T) o)
+            .toList();
+    log.info(
+        "Returning {} result elements for RbelPath {} (Results are {})",
+        resultList.size(),
+        rbelPath,
+        getPathList(resultList));
     return resultList;
   }
 
-  private void performPreExecutionLogging(List<String> keys) {
+  private void performPreExecutionLogging(RbelPathQueryPlan plan) {
     if (RbelOptions.isActivateRbelPathDebugging()
         && targetObject instanceof RbelElement asRbelElement) {
+      final int levels =
+          Math.max(RbelOptions.getRbelPathTreeViewMinimumDepth(), plan.getSteps().size());
       log.info(
           "Executing RBelPath {} into element '{}' (limited view to {} levels):\n{}",
           rbelPath,
           targetObject.findNodePath(),
-          Math.max(RbelOptions.getRbelPathTreeViewMinimumDepth(), keys.size()),
-          asRbelElement.printTreeStructure(
-              Math.max(RbelOptions.getRbelPathTreeViewMinimumDepth(), keys.size()), false));
-    }
-  }
-
-  private void checkFurtherPreconditions(List<String> keys) {
-    if (keys.stream().anyMatch(s -> s.startsWith(" ") || s.endsWith(" "))) {
-      throw new RbelPathException(
-          "Found key with unescaped spaces in rbel-path '"
-              + rbelPath
-              + "'! (If intended, please escape using \"[' b b ']\")");
-    }
-  }
-
-  private void enforceCorrectRbelPathForm() {
-    if (!rbelPath.startsWith("$")) {
-      throw new RbelPathException(
-          "RbelPath expressions always start with $. (got '" + rbelPath + "')");
-    }
-  }
-
-  private List<? extends RbelPathAble> resolveRbelPathElement(
-      final String key, final RbelPathAble content) {
-    if (key.equals(".")) {
-      final List<RbelPathAble> wildcardResult = findAllChildrenRecursive(content);
-      wildcardResult.add(content);
-      return wildcardResult;
-    }
-    final String[] parts = key.split("\\[", 2);
-    final String selectorPart = parts[0];
-    List<? extends RbelPathAble> keySelectionResult =
-        executeNonFunctionalExpression(selectorPart, content);
-    if (parts.length == 1 || keySelectionResult.isEmpty()) {
-      return keySelectionResult;
-    } else {
-      return filterResultsThroughFunctionalSelector(
-          keySelectionResult, parts[1].substring(0, parts[1].length() - 1), selectorPart.isEmpty());
-    }
-  }
-
-  private List<? extends RbelPathAble> filterResultsThroughFunctionalSelector(
-      List<? extends RbelPathAble> keySelectionResult,
-      String functionalPart,
-      boolean selectorPartIsEmpty) {
-    if (RbelOptions.isActivateRbelPathDebugging()) {
-      log.info(
-          "Filtering resulting nodes '{}' through functional expression '{}'",
-          getPathList(keySelectionResult),
-          functionalPart);
-    }
-
-    if (NumberUtils.isParsable(functionalPart)) {
-      final int selectionIndex = Integer.parseInt(functionalPart);
-      if (keySelectionResult.size() <= selectionIndex) {
-        return Collections.emptyList();
-      }
-      return List.of(keySelectionResult.get(selectionIndex));
-    } else {
-      return keySelectionResult.stream()
-          .map(
-              candidate ->
-                  executeFunctionalExpression(functionalPart, candidate, selectorPartIsEmpty))
-          .flatMap(List::stream)
-          .toList();
-    }
-  }
-
-  private List<? extends RbelPathAble> executeNonFunctionalExpression(
-      String key, RbelPathAble content) {
-    if (key.equals("*")) {
-      return content.getChildNodes();
-    } else if (key.isEmpty()) {
-      return List.of(content);
-    } else {
-      return content.getAll(key);
-    }
-  }
-
-  private List<? extends RbelPathAble> executeFunctionalExpression(
-      final String functionExpression, final RbelPathAble content, boolean selectorPartIsEmpty) {
-    if (functionExpression.startsWith("'") && functionExpression.endsWith("'")) {
-      return executeNamedSelection(functionExpression, content, String::equals);
-    } else if (functionExpression.equals("*")) {
-      return content.getChildNodes();
-    } else if (functionExpression.startsWith("?")) {
-      if (functionExpression.startsWith("?(") && functionExpression.endsWith(")")) {
-        return findChildNodesByJexlExpression(
-            content,
-            functionExpression.substring(2, functionExpression.length() - 1),
-            selectorPartIsEmpty);
-      } else {
-        throw new RbelPathException(
-            "Invalid JEXL-Expression encountered (Does not start with '?(' and end with ')'): "
-                + functionExpression);
-      }
-    } else if (functionExpression.startsWith("~")) {
-      if (functionExpression.startsWith("~'") && functionExpression.endsWith("'")) {
-        return executeNamedSelection(
-            functionExpression.substring(1), content, String::equalsIgnoreCase);
-      } else {
-        throw new RbelPathException(
-            "Invalid JEXL-Expression encountered (Does not start with \"~'\"' and end with \")\"): "
-                + functionExpression);
-      }
-    } else {
-      throw new RbelPathException("Unknown function expression encountered: " + functionExpression);
-    }
-  }
-
-  private List<? extends RbelPathAble> findChildNodesByJexlExpression(
-      final RbelPathAble position, final String jexl, boolean selectorPartIsEmpty) {
-    List<RbelPathAble> candidates = new ArrayList<>();
-    if (selectorPartIsEmpty) {
-      candidates.addAll(position.getChildNodes());
-    } else {
-      candidates.add(position);
+          levels,
+          asRbelElement.printTreeStructure(levels, false));
     }
-    return candidates.stream()
-        .parallel()
-        .filter(
-            candidate ->
-                TigerJexlExecutor.matchesAsJexlExpression(
-                    jexl,
-                    new TigerJexlContext()
-                        .withKey(candidate.getKey().orElse(null))
-                        .withCurrentElement(candidate)
-                        .withRootElement(this.targetObject)))
-        .toList();
   }
 
-  private static <T extends RbelPathAble> List<String> getPathList(List<T> resultList) {
+  private static List<String> getPathList(List<? extends RbelPathAble> resultList) {
     return resultList.stream().map(RbelPathAble::findNodePath).map(path -> "$." + path).toList();
   }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.util;
+
+import de.gematik.rbellogger.RbelOptions;
+import de.gematik.rbellogger.exceptions.RbelPathException;
+import de.gematik.test.tiger.common.jexl.TigerJexlContext;
+import de.gematik.test.tiger.common.jexl.TigerJexlExecutor;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * Immutable, pre-parsed form of an RbelPath expression. Splitting the path into keys and
+ * interpreting selectors and functional expressions happens once in {@link #compile(String)}; the
+ * resulting steps are then applied to any number of target elements. Compiled plans are kept in a
+ * small bounded cache keyed by the path string, since the same few paths are evaluated over and
+ * over (validation, shading, JEXL conditions). The least recently used plan is dropped first.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public class RbelPathQueryPlan {
+
+  public static final int MAXIMUM_CACHE_SIZE = 1024;
+  private static final Map<String, RbelPathQueryPlan> PLAN_CACHE =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RbelPathQueryPlan> eldest) {
+              return size() > MAXIMUM_CACHE_SIZE;
+            }
+          });
+
+  private final String rbelPath;
+  private final List<Step> steps;
+
+  public static RbelPathQueryPlan compile(String rbelPath) {
+    final RbelPathQueryPlan cachedPlan = PLAN_CACHE.get(rbelPath);
+    if (cachedPlan != null) {
+      return cachedPlan;
+    }
+    final RbelPathQueryPlan plan = compileUncached(rbelPath);
+    PLAN_CACHE.put(rbelPath, plan);
+    return plan;
+  }
+
+  static int getCacheSize() {
+    return PLAN_CACHE.size();
+  }
+
+  private static RbelPathQueryPlan compileUncached(String rbelPath) {
+    if (!rbelPath.startsWith("$")) {
+      throw new RbelPathException(
+          "RbelPath expressions always start with $. (got '" + rbelPath + "')");
+    }
+    final List<String> keys = RbelPathExecutor.splitRbelPathIntoKeys(rbelPath);
+    if (keys.stream().anyMatch(s -> s.startsWith(" ") || s.endsWith(" "))) {
+      throw new RbelPathException(
+          "Found key with unescaped spaces in rbel-path '"
+              + rbelPath
+              + "'! (If intended, please escape using \"[' b b ']\")");
+    }
+    return new RbelPathQueryPlan(
+        rbelPath, keys.stream().map(RbelPathQueryPlan::compileStep).toList());
+  }
+
+  private static Step compileStep(String key) {
+    if (key.equals(".")) {
+      return new Step(key, null, null);
+    }
+    final String[] parts = key.split("\\[", 2);
+    final String selectorPart = parts[0];
+    if (parts.length == 1) {
+      return new Step(key, selectorPart, null);
+    }
+    final String functionalPart = parts[1].substring(0, parts[1].length() - 1);
+    return new Step(
+        key, selectorPart, compileFunctionalSelector(functionalPart, selectorPart.isEmpty()));
+  }
+
+  private static FunctionalSelector compileFunctionalSelector(
+      String functionalPart, boolean selectorPartIsEmpty) {
+    if (NumberUtils.isParsable(functionalPart)) {
+      final int selectionIndex = Integer.parseInt(functionalPart);
+      return (keySelectionResult, rootObject) ->
+          keySelectionResult.size() <= selectionIndex
+              ? Stream.empty()
+              : Stream.of(keySelectionResult.get(selectionIndex));
+    }
+    final CandidateFunction candidateFunction =
+        compileFunctionalExpression(functionalPart, selectorPartIsEmpty);
+    return (keySelectionResult, rootObject) ->
+        keySelectionResult.stream()
+            .flatMap(candidate -> candidateFunction.apply(candidate, rootObject).stream());
+  }
+
+  /**
+   * Syntax errors inside a functional expression are only reported once the expression is
+   * actually applied to a candidate, as they always have been.
+   */
+  private static CandidateFunction compileFunctionalExpression(
+      String functionExpression, boolean selectorPartIsEmpty) {
+    if (functionExpression.startsWith("'") && functionExpression.endsWith("'")) {
+      return compileNamedSelection(functionExpression, String::equals);
+    } else if (functionExpression.equals("*")) {
+      return (content, rootObject) -> content.getChildNodes();
+    } else if (functionExpression.startsWith("?")) {
+      if (functionExpression.startsWith("?(") && functionExpression.endsWith(")")) {
+        final String jexl = functionExpression.substring(2, functionExpression.length() - 1);
+        return (content, rootObject) ->
+            findChildNodesByJexlExpression(content, jexl, selectorPartIsEmpty, rootObject);
+      } else {
+        return failing(
+            "Invalid JEXL-Expression encountered (Does not start with '?(' and end with ')'): "
+                + functionExpression);
+      }
+    } else if (functionExpression.startsWith("~")) {
+      if (functionExpression.startsWith("~'") && functionExpression.endsWith("'")) {
+        return compileNamedSelection(functionExpression.substring(1), String::equalsIgnoreCase);
+      } else {
+        return failing(
+            "Invalid JEXL-Expression encountered (Does not start with \"~'\"' and end with \")\"): "
+                + functionExpression);
+      }
+    } else {
+      return failing("Unknown function expression encountered: " + functionExpression);
+    }
+  }
+
+  private static CandidateFunction compileNamedSelection(
+      String functionExpression, BiPredicate<String, String> keyPredicate) {
+    final String[] selectors = functionExpression.split("\\|");
+    for (String selector : selectors) {
+      if (!selector.startsWith("'") || !selector.endsWith("'")) {
+        return failing(
+            "Requiring all name selector to be surrounded by '. Violated by " + selector);
+      }
+    }
+    final List<String> names =
+        Stream.of(selectors)
+            .map(s -> s.substring(1, s.length() - 1))
+            .map(s -> URLDecoder.decode(s, StandardCharsets.UTF_8))
+            .toList();
+    return (content, rootObject) ->
+        names.stream()
+            .flatMap(
+                name ->
+                    content.getChildNodesWithKey().stream()
+                        .filter(entry -> keyPredicate.test(name, entry.getKey()))
+                        .map(Map.Entry::getValue))
+            .toList();
+  }
+
+  private static CandidateFunction failing(String message) {
+    return (content, rootObject) -> {
+      throw new RbelPathException(message);
+    };
+  }
+
+  private static List<? extends RbelPathAble> findChildNodesByJexlExpression(
+      RbelPathAble position, String jexl, boolean selectorPartIsEmpty, RbelPathAble rootObject) {
+    final List<? extends RbelPathAble> candidates =
+        selectorPartIsEmpty ? position.getChildNodes() : List.of(position);
+    return candidates.stream()
+        .parallel()
+        .filter(
+            candidate ->
+                TigerJexlExecutor.matchesAsJexlExpression(
+                    jexl,
+                    new TigerJexlContext()
+                        .withKey(candidate.getKey().orElse(null))
+                        .withCurrentElement(candidate)
+                        .withRootElement(rootObject)))
+        .toList();
+  }
+
+  private static Stream<RbelPathAble> findAllChildrenRecursive(RbelPathAble content) {
+    final List<? extends RbelPathAble> childNodes = content.getChildNodes();
+    return Stream.concat(
+        childNodes.stream(),
+        childNodes.stream().flatMap(RbelPathQueryPlan::findAllChildrenRecursive));
+  }
+
+  private static List<String> getPathList(List<? extends RbelPathAble> resultList) {
+    return resultList.stream().map(RbelPathAble::findNodePath).map(path -> "$." + path).toList();
+  }
+
+  @FunctionalInterface
+  private interface CandidateFunction {
+    List<? extends RbelPathAble> apply(RbelPathAble content, RbelPathAble rootObject);
+  }
+
+  @FunctionalInterface
+  private interface FunctionalSelector {
+    Stream<? extends RbelPathAble> filter(
+        List<? extends RbelPathAble> keySelectionResult, RbelPathAble rootObject);
+  }
+
+  /** One key of the path, e.g. {@code body}, {@code [?(...)]} or the recursive descent. */
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  public static class Step {
+
+    @Getter private final String key;
+    private final String selectorPart;
+    private final FunctionalSelector functionalSelector;
+
+    public boolean isRecursiveDescent() {
+      return selectorPart == null;
+    }
+
+    /**
+     * Lazily resolves this step for the given element. The recursive descent yields all children
+     * (breadth of each level first) and then the element itself, the same order as before.
+     */
+    public Stream<RbelPathAble> apply(RbelPathAble content, RbelPathAble rootObject) {
+      if (isRecursiveDescent()) {
+        return Stream.concat(findAllChildrenRecursive(content), Stream.of(content));
+      }
+      final List<? extends RbelPathAble> keySelectionResult = selectByKey(content);
+      if (functionalSelector == null || keySelectionResult.isEmpty()) {
+        return keySelectionResult.stream().map(RbelPathAble.class::cast);
+      }
+      if (RbelOptions.isActivateRbelPathDebugging()) {
+        log.info(
+            "Filtering resulting nodes '{}' through functional expression '{}'",
+            getPathList(keySelectionResult),
+            key);
+      }
+      return functionalSelector
+          .filter(keySelectionResult, rootObject)
+          .map(RbelPathAble.class::cast);
+    }
+
+    private List<? extends RbelPathAble> selectByKey(RbelPathAble content) {
+      if (selectorPart.equals("*")) {
+        return content.getChildNodes();
+      } else if (selectorPart.isEmpty()) {
+        return List.of(content);
+      } else {
+        return content.getAll(selectorPart);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return key;
+    }
+  }
+}
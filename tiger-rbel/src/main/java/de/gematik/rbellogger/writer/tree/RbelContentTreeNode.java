@@ -183,7 +183,9 @@ public class RbelContentTreeNode extends RbelPathAble {
   }
 
   public Optional<RbelContentTreeNode> findElement(String rbelPath) {
-    final List<RbelContentTreeNode> resultList = findRbelPathMembers(rbelPath);
+    // two results are enough to decide, the full count is only needed for the error message
+    final List<RbelContentTreeNode> resultList =
+        new RbelPathExecutor<>(this, rbelPath).executeLazily().limit(2).toList();
     if (resultList.isEmpty()) {
       return Optional.empty();
     }
@@ -194,7 +196,7 @@ public class RbelContentTreeNode extends RbelPathAble {
         "RbelPath '"
             + rbelPath
             + "' is not unique! Found "
-            + resultList.size()
+            + findRbelPathMembers(rbelPath).size()
             + " elements, expected only one!");
   }
 
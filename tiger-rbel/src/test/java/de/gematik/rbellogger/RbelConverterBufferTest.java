@@ -22,12 +22,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import de.gematik.rbellogger.configuration.RbelConfiguration;
 import de.gematik.rbellogger.converter.RbelConverter;
 import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.RbelElementConvertionPair;
+import de.gematik.rbellogger.data.facet.TracingMessagePairFacet;
+import de.gematik.rbellogger.file.RbelFileWriter;
+import de.gematik.test.tiger.common.data.config.tigerproxy.RbelBufferEvictionStrategy;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficSpillConfiguration;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class RbelConverterBufferTest {
 
@@ -75,4 +85,284 @@ class RbelConverterBufferTest {
             allParsedMessages.subList(
                 allParsedMessages.size() - rbelLoggerHistory.size(), allParsedMessages.size()));
   }
+
+  @Test
+  void evictedMessages_shouldNotBeFoundByUuidOrSequenceNumber() {
+    final String curlMessage = RandomStringUtils.insecure().nextAlphanumeric(5000);
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder().manageBuffer(true).rbelBufferSizeInMb(1).build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    var allParsedMessages = new LinkedList<RbelElement>();
+    for (int i = 0; i < 1024 * 1024 / curlMessage.getBytes().length + 1; i++) {
+      allParsedMessages.add(
+          rbelConverter.parseMessage(
+              curlMessage.getBytes(), null, null, Optional.of(ZonedDateTime.now())));
+    }
+
+    final RbelElement evictedMessage = allParsedMessages.getFirst();
+    final RbelElement latestMessage = allParsedMessages.getLast();
+    assertThat(rbelConverter.isMessageUuidAlreadyKnown(evictedMessage.getUuid())).isFalse();
+    assertThat(rbelConverter.findMessageByUuid(evictedMessage.getUuid())).isEmpty();
+    assertThat(rbelConverter.findMessageBySequenceNumber(0)).isEmpty();
+    assertThat(rbelConverter.findMessageByUuid(latestMessage.getUuid())).contains(latestMessage);
+    assertThat(rbelConverter.findMessageBySequenceNumber(allParsedMessages.size() - 1L))
+        .contains(latestMessage);
+
+    rbelConverter.clearAllMessages();
+    assertThat(rbelConverter.findMessageByUuid(latestMessage.getUuid())).isEmpty();
+  }
+
+  @Test
+  void parsedMessage_shouldBeAccountedWithFacetsAndChildren() throws IOException {
+    final String curlMessage =
+        readCurlFromFileWithCorrectedLineBreaks(
+            "src/test/resources/sampleMessages/jwtMessage.curl");
+    final RbelLogger rbelLogger =
+        RbelLogger.build(RbelConfiguration.builder().manageBuffer(true).build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    final RbelElement message =
+        rbelConverter.parseMessage(
+            curlMessage.getBytes(), null, null, Optional.of(ZonedDateTime.now()));
+
+    assertThat(rbelConverter.getCurrentBufferSize()).isGreaterThan(message.getSize());
+    rbelConverter.clearAllMessages();
+    assertThat(rbelConverter.getCurrentBufferSize()).isZero();
+  }
+
+  @Test
+  void lruEviction_shouldKeepRecentlyAccessedMessages() {
+    final String content = RandomStringUtils.insecure().nextAlphanumeric(5000);
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder()
+                .manageBuffer(true)
+                .rbelBufferSizeInMb(1)
+                .rbelBufferEvictionStrategy(RbelBufferEvictionStrategy.LRU)
+                .build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    final RbelElement accessedMessage =
+        rbelConverter.parseMessage(content.getBytes(), null, null, Optional.empty());
+    final RbelElement unaccessedMessage =
+        rbelConverter.parseMessage(content.getBytes(), null, null, Optional.empty());
+    for (int i = 0; i < 400; i++) {
+      rbelConverter.parseMessage(content.getBytes(), null, null, Optional.empty());
+      rbelConverter.findMessageByUuid(accessedMessage.getUuid());
+    }
+
+    assertThat(rbelConverter.isMessageUuidAlreadyKnown(accessedMessage.getUuid())).isTrue();
+    assertThat(rbelConverter.isMessageUuidAlreadyKnown(unaccessedMessage.getUuid())).isFalse();
+  }
+
+  @Test
+  void keepPairsEviction_shouldNeverKeepHalfAPair() {
+    final String body = RandomStringUtils.insecure().nextAlphanumeric(5000);
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder()
+                .manageBuffer(true)
+                .rbelBufferSizeInMb(1)
+                .rbelBufferEvictionStrategy(RbelBufferEvictionStrategy.KEEP_PAIRS)
+                .build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    for (int i = 0; i < 300; i++) {
+      final RbelElement request =
+          rbelConverter.parseMessage(
+              ("GET /pair/" + i + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(),
+              null,
+              null,
+              Optional.empty());
+      final RbelElement response =
+          RbelElement.builder()
+              .rawContent(
+                  ("HTTP/1.1 200 OK\r\nContent-Length: " + body.length() + "\r\n\r\n" + body)
+                      .getBytes())
+              .build();
+      rbelConverter.parseMessage(
+          new RbelElementConvertionPair(response, CompletableFuture.completedFuture(request)),
+          null,
+          null,
+          Optional.empty());
+    }
+
+    final List<RbelElement> history = List.copyOf(rbelLogger.getMessageHistory());
+    assertThat(history).isNotEmpty().hasSizeLessThan(600);
+    assertThat(history)
+        .allSatisfy(
+            message ->
+                assertThat(history)
+                    .contains(
+                        message
+                            .getFacet(TracingMessagePairFacet.class)
+                            .flatMap(pair -> pair.getOtherMessage(message))
+                            .orElseThrow()));
+  }
+
+  @Test
+  void pinnedMessage_shouldNotBeEvictedUntilUnpinned() {
+    final String content = RandomStringUtils.insecure().nextAlphanumeric(5000);
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder().manageBuffer(true).rbelBufferSizeInMb(1).build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    final RbelElement pinnedMessage =
+        rbelConverter.parseMessage(content.getBytes(), null, null, Optional.empty());
+    rbelConverter.pinMessage(pinnedMessage);
+    for (int i = 0; i < 400; i++) {
+      rbelConverter.parseMessage(content.getBytes(), null, null, Optional.empty());
+    }
+    assertThat(rbelConverter.isMessageUuidAlreadyKnown(pinnedMessage.getUuid())).isTrue();
+
+    rbelConverter.unpinMessage(pinnedMessage);
+    rbelConverter.parseMessage(content.getBytes(), null, null, Optional.empty());
+    assertThat(rbelConverter.isMessageUuidAlreadyKnown(pinnedMessage.getUuid())).isFalse();
+  }
+
+  @Test
+  void bufferOverflowWithSpilling_shouldKeepMessagesAndParseThemAgainOnAccess(
+      @TempDir Path spillDirectory) {
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder()
+                .manageBuffer(true)
+                .rbelBufferSizeInMb(1)
+                .trafficSpill(
+                    TrafficSpillConfiguration.builder()
+                        .enabled(true)
+                        .spillDirectory(spillDirectory.toString())
+                        .spillChunkSizeInMb(1)
+                        .build())
+                .build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    final String messageContent =
+        "{\"message\": \"" + RandomStringUtils.insecure().nextAlphanumeric(5000) + "\"}";
+    var allParsedMessages = new LinkedList<RbelElement>();
+    for (int i = 0; i < 400; i++) {
+      allParsedMessages.add(
+          rbelConverter.parseMessage(
+              messageContent.getBytes(), null, null, Optional.of(ZonedDateTime.now())));
+    }
+
+    final RbelElement spilledMessage = allParsedMessages.getFirst();
+    assertThat(rbelConverter.getSpillStore().isSpilled(spilledMessage)).isTrue();
+    assertThat(rbelConverter.getCurrentBufferSize()).isLessThanOrEqualTo(1024 * 1024);
+    assertThat(rbelConverter.getSpillStore().getStatistics().getDemotions()).isPositive();
+    assertThat(rbelLogger.getMessageList()).hasSize(400);
+
+    final RbelElement promotedMessage =
+        rbelConverter.findMessageByUuid(spilledMessage.getUuid()).orElseThrow();
+    assertThat(promotedMessage).isSameAs(spilledMessage);
+    assertThat(rbelConverter.getSpillStore().isSpilled(promotedMessage)).isFalse();
+    assertThat(promotedMessage.getRawStringContent()).isEqualTo(messageContent);
+    assertThat(promotedMessage.findElement("$.message")).isPresent();
+    assertThat(rbelConverter.getSpillStore().getStatistics().getPromotions()).isEqualTo(1);
+  }
+
+  @Test
+  void exportingHistoryWithSpilledMessages_shouldContainTheirContent(@TempDir Path spillDirectory) {
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder()
+                .manageBuffer(true)
+                .rbelBufferSizeInMb(1)
+                .trafficSpill(
+                    TrafficSpillConfiguration.builder()
+                        .enabled(true)
+                        .spillDirectory(spillDirectory.toString())
+                        .spillChunkSizeInMb(1)
+                        .build())
+                .build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    final String messageContent =
+        "{\"message\": \"" + RandomStringUtils.insecure().nextAlphanumeric(5000) + "\"}";
+    var allParsedMessages = new LinkedList<RbelElement>();
+    for (int i = 0; i < 400; i++) {
+      allParsedMessages.add(
+          rbelConverter.parseMessage(
+              messageContent.getBytes(), null, null, Optional.of(ZonedDateTime.now())));
+    }
+    assertThat(rbelConverter.getSpillStore().isSpilled(allParsedMessages.getFirst())).isTrue();
+
+    final RbelFileWriter rbelFileWriter = new RbelFileWriter(rbelConverter);
+    assertThat(rbelLogger.getMessageList())
+        .hasSize(400)
+        .allSatisfy(
+            message ->
+                assertThat(rbelFileWriter.convertToRbelFileRecord(message).rawContent())
+                    .isEqualTo(messageContent.getBytes()));
+    assertThat(rbelConverter.findMessagesBySequenceNumberRange(0, 10))
+        .hasSize(10)
+        .allSatisfy(message -> assertThat(message.findElement("$.message")).isPresent());
+  }
+
+  @Test
+  void iteratingHistoryWithSpilledMessages_shouldRestoreTheirContent(
+      @TempDir Path spillDirectory) {
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder()
+                .manageBuffer(true)
+                .rbelBufferSizeInMb(1)
+                .trafficSpill(
+                    TrafficSpillConfiguration.builder()
+                        .enabled(true)
+                        .spillDirectory(spillDirectory.toString())
+                        .spillChunkSizeInMb(1)
+                        .build())
+                .build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    final String content = RandomStringUtils.insecure().nextAlphanumeric(5000);
+    var allParsedMessages = new LinkedList<RbelElement>();
+    for (int i = 0; i < 400; i++) {
+      allParsedMessages.add(
+          rbelConverter.parseMessage(content.getBytes(), null, null, Optional.empty()));
+    }
+    final RbelElement spilledMessage = allParsedMessages.getFirst();
+    assertThat(rbelConverter.getSpillStore().isSpilled(spilledMessage)).isTrue();
+
+    final Iterator<RbelElement> iterator = rbelConverter.getMessageHistoryAsync().iterator();
+    assertThat(iterator.next()).isSameAs(spilledMessage);
+    assertThat(rbelConverter.getSpillStore().isSpilled(spilledMessage)).isFalse();
+    assertThat(spilledMessage.getRawStringContent()).isEqualTo(content);
+    assertThat(rbelConverter.getSpillStore().getStatistics().getPromotions()).isEqualTo(1);
+  }
+
+  @Test
+  void spillBudgetExceeded_shouldDropOldestSpilledMessages(@TempDir Path spillDirectory) {
+    final String content = RandomStringUtils.insecure().nextAlphanumeric(5000);
+    final RbelLogger rbelLogger =
+        RbelLogger.build(
+            RbelConfiguration.builder()
+                .manageBuffer(true)
+                .rbelBufferSizeInMb(1)
+                .trafficSpill(
+                    TrafficSpillConfiguration.builder()
+                        .enabled(true)
+                        .spillDirectory(spillDirectory.toString())
+                        .spillChunkSizeInMb(1)
+                        .maximumSpillSizeInMb(1)
+                        .build())
+                .build());
+    RbelConverter rbelConverter = rbelLogger.getRbelConverter();
+
+    var allParsedMessages = new LinkedList<RbelElement>();
+    for (int i = 0; i < 1000; i++) {
+      allParsedMessages.add(
+          rbelConverter.parseMessage(
+              content.getBytes(), null, null, Optional.of(ZonedDateTime.now())));
+    }
+
+    assertThat(rbelConverter.getSpillStore().getStatistics().getDroppedMessages()).isPositive();
+    assertThat(rbelConverter.isMessageUuidAlreadyKnown(allParsedMessages.getFirst().getUuid()))
+        .isFalse();
+    assertThat(rbelLogger.getMessageHistory()).contains(allParsedMessages.getLast());
+  }
 }
@@ -60,6 +60,23 @@ class JsonConverterTest {
         .doesNotHaveFacet(RbelJsonFacet.class);
   }
 
+  @Test
+  void nestedJson_childrenShouldKeepSourceBytes() {
+    final RbelElement convertedMessage =
+        RbelLogger.build()
+            .getRbelConverter()
+            .convertElement("{\"a\": {\"b\": [1, \"x\" ]}, \"c\": true}", null);
+
+    assertThat(convertedMessage)
+        .extractChildWithPath("$.a")
+        .hasStringContentEqualTo("{\"b\": [1, \"x\" ]}")
+        .andTheInitialElement()
+        .extractChildWithPath("$.a.b")
+        .hasStringContentEqualTo("[1, \"x\" ]");
+    assertThat(convertedMessage.findElement("$.a.b").orElseThrow().getContent().getChunks().get(0))
+        .isSameAs(convertedMessage.getContent().getChunks().get(0));
+  }
+
   @Test
   void shouldRenderCleanHtml() throws IOException {
     final RbelElement convertedMessage =
@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import de.gematik.rbellogger.RbelLogger;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.RbelElementConvertionPair;
+import de.gematik.rbellogger.data.RbelHostname;
 import de.gematik.rbellogger.data.facet.*;
 import de.gematik.rbellogger.exceptions.RbelConversionException;
 import de.gematik.rbellogger.renderer.RbelHtmlRenderer;
@@ -30,6 +31,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import org.apache.commons.io.FileUtils;
@@ -74,6 +77,46 @@ class RbelConverterTest {
         .contains("this exception should be ignored", this.getClass().getSimpleName());
   }
 
+  @Test
+  void convertElement_shouldOnlyOfferElementToApplicableConverters() {
+    final RbelConverter rbelConverter = RbelLogger.build().getRbelConverter();
+    rbelConverter.convertElement("{\"foo\": \"bar\"}", null);
+
+    final var statistics = rbelConverter.getConverterStatistics();
+    assertThat(statistics.get(RbelHttpResponseConverter.class.getName()).getAttempts()).isZero();
+    assertThat(statistics.get(RbelXmlConverter.class.getName()).getAttempts()).isZero();
+    assertThat(statistics.get(RbelJsonConverter.class.getName()).getSuccesses()).isPositive();
+  }
+
+  @Test
+  void dispatchIndex_shouldSkipConvertersWhosePreconditionsDoNotHold() {
+    final RbelConverter rbelConverter = RbelLogger.build().getRbelConverter();
+    rbelConverter.removeAllConverterPlugins();
+    final RecordingConverter startingWithTag =
+        new RecordingConverter(
+            RbelConverterApplicability.trimmedContentStartingWith("<".getBytes()), true);
+    final RecordingConverter afterNote =
+        new RecordingConverter(RbelConverterApplicability.elementWithFacet(RbelNoteFacet.class));
+    final RecordingConverter unrestricted =
+        new RecordingConverter(RbelConverterApplicability.always());
+    rbelConverter.addConverter(startingWithTag);
+    rbelConverter.addConverter(afterNote);
+    rbelConverter.addConverter(unrestricted);
+
+    rbelConverter.convertElement("  {\"foo\": 1}", null);
+    rbelConverter.convertElement("  <foo/>", null);
+
+    assertThat(startingWithTag.convertedContents).containsExactly("  <foo/>");
+    assertThat(afterNote.convertedContents).containsExactly("  <foo/>");
+    assertThat(unrestricted.convertedContents).containsExactly("  {\"foo\": 1}", "  <foo/>");
+    assertThat(startingWithTag.getStatistics())
+        .isEqualTo(RbelConverterPlugin.Statistics.builder().attempts(1).successes(1).build());
+    assertThat(afterNote.getStatistics())
+        .isEqualTo(RbelConverterPlugin.Statistics.builder().attempts(1).successes(0).build());
+    assertThat(unrestricted.getStatistics())
+        .isEqualTo(RbelConverterPlugin.Statistics.builder().attempts(2).successes(0).build());
+  }
+
   @Test
   void parseMessage_shouldFailBecauseContentIsNull() {
     final RbelConverter rbelConverter = RbelLogger.build().getRbelConverter();
@@ -122,4 +165,81 @@ class RbelConverterTest {
     assertThat(pair1B.getFacetOrFail(RbelHttpResponseFacet.class).getRequest()).isEqualTo(pair1A);
     assertThat(pair2B.getFacetOrFail(RbelHttpResponseFacet.class).getRequest()).isEqualTo(pair2A);
   }
+
+  @Test
+  void messagesOfOneConnection_shouldWaitForTheirPredecessorOnly() {
+    final RbelConverter rbelConverter = RbelLogger.build().getRbelConverter();
+    final RbelHostname client = RbelHostname.fromString("client:1234").orElseThrow();
+    final RbelHostname otherClient = RbelHostname.fromString("client:5678").orElseThrow();
+    final RbelHostname server = RbelHostname.fromString("server:443").orElseThrow();
+
+    final RbelElement request = parseUnfinished(rbelConverter, "request", client, server);
+    final RbelElement otherRequest =
+        parseUnfinished(rbelConverter, "other request", otherClient, server);
+    final RbelElement response = parseUnfinished(rbelConverter, "response", server, client);
+
+    assertThat(otherRequest.hasFacet(PreviousConnectionMessageFacet.class)).isFalse();
+    assertThat(response.getFacet(PreviousConnectionMessageFacet.class))
+        .map(PreviousConnectionMessageFacet::getProcessed)
+        .containsSame(request.getFacetOrFail(MessageProcessingStateFacet.class).getProcessed());
+
+    RbelConverter.setMessageFullyProcessed(response);
+    final RbelElement nextRequest = parseUnfinished(rbelConverter, "next request", client, server);
+    assertThat(nextRequest.hasFacet(PreviousConnectionMessageFacet.class)).isFalse();
+  }
+
+  @Test
+  void previousMessage_shouldBeTheMessageWithThePreviousSequenceNumber() {
+    final RbelConverter rbelConverter = RbelLogger.build().getRbelConverter();
+    final RbelHostname client = RbelHostname.fromString("client:1234").orElseThrow();
+    final RbelHostname server = RbelHostname.fromString("server:443").orElseThrow();
+
+    final RbelElement first = parseUnfinished(rbelConverter, "first", client, server);
+    final RbelElement second = parseUnfinished(rbelConverter, "second", server, client);
+
+    assertThat(first.hasFacet(PreviousMessageFacet.class)).isFalse();
+    assertThat(second.getFacet(PreviousMessageFacet.class))
+        .map(PreviousMessageFacet::getMessage)
+        .containsSame(first);
+    assertThat(first.hasFacet(MessageProcessingStateFacet.class)).isTrue();
+    assertThat(second.hasFacet(MessageProcessingStateFacet.class)).isTrue();
+  }
+
+  private static RbelElement parseUnfinished(
+      RbelConverter rbelConverter, String content, RbelHostname sender, RbelHostname receiver) {
+    return rbelConverter.parseMessage(
+        new RbelElementConvertionPair(new RbelElement(content.getBytes(), null)),
+        sender,
+        receiver,
+        Optional.empty(),
+        RbelConverter.FinishProcessing.NO);
+  }
+
+  private static class RecordingConverter extends RbelConverterPlugin {
+    private final RbelConverterApplicability applicability;
+    private final boolean addsFacet;
+    private final List<String> convertedContents = new ArrayList<>();
+
+    private RecordingConverter(RbelConverterApplicability applicability) {
+      this(applicability, false);
+    }
+
+    private RecordingConverter(RbelConverterApplicability applicability, boolean addsFacet) {
+      this.applicability = applicability;
+      this.addsFacet = addsFacet;
+    }
+
+    @Override
+    public RbelConverterApplicability getApplicability() {
+      return applicability;
+    }
+
+    @Override
+    public void consumeElement(RbelElement rbelElement, RbelConverter converter) {
+      convertedContents.add(rbelElement.getRawStringContent());
+      if (addsFacet) {
+        rbelElement.addFacet(new RbelNoteFacet("converted"));
+      }
+    }
+  }
 }
@@ -28,9 +28,12 @@ import de.gematik.rbellogger.data.facet.RbelHttpMessageFacet;
 import de.gematik.rbellogger.data.facet.RbelHttpRequestFacet;
 import de.gematik.rbellogger.data.facet.RbelNoteFacet;
 import de.gematik.rbellogger.data.facet.RbelNoteFacet.NoteStyling;
+import de.gematik.rbellogger.util.RbelContent;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -218,4 +221,81 @@ class RbelHttpRequestConverterTest {
         .asString()
         .contains(errorMessageContains);
   }
+
+  @Test
+  void gzippedBodyInSeveralChunks_shouldBeDecoded() throws IOException {
+    final ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+    try (var gzipStream = new GZIPOutputStream(gzipped)) {
+      gzipStream.write("{\"foo\": \"bar\"}".getBytes(StandardCharsets.UTF_8));
+    }
+    final byte[] gzippedBody = gzipped.toByteArray();
+    final int split = gzippedBody.length / 2;
+    final ByteArrayOutputStream message = new ByteArrayOutputStream();
+    message.write(
+        ("HTTP/1.1 200 OK\r\n"
+                + "Content-Encoding: gzip\r\n"
+                + "Transfer-Encoding: chunked\r\n\r\n"
+                + Integer.toHexString(split)
+                + "\r\n")
+            .getBytes(StandardCharsets.US_ASCII));
+    message.write(gzippedBody, 0, split);
+    message.write(
+        ("\r\n" + Integer.toHexString(gzippedBody.length - split) + "\r\n")
+            .getBytes(StandardCharsets.US_ASCII));
+    message.write(gzippedBody, split, gzippedBody.length - split);
+    message.write("\r\n0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+
+    final RbelElement response =
+        rbelConverter.convertElement(new RbelElement(message.toByteArray(), null));
+
+    assertThat(response)
+        .extractChildWithPath("$.body.foo")
+        .hasStringContentEqualTo("bar")
+        .andTheInitialElement()
+        .extractChildWithPath("$.reasonPhrase")
+        .hasStringContentEqualTo("OK");
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "'HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\nhel', INCOMPLETE, 2",
+    "'HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\nhelloGET /', COMPLETE, 43",
+    "'HTTP/1.1 200 OK\r\nContent-Le', INCOMPLETE, 1",
+    "'HTTP/1.1 200 OK\r\n\r\nread until the connection closes', UNKNOWN, 0",
+    "'HTTP/1.1 204 No Content\r\n\r\n', COMPLETE, 27",
+    "'HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhel', INCOMPLETE, 3",
+    "'HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n0\r\n\r\n', COMPLETE, 62",
+    "'GET /foo HTTP/1.1\r\nHost: localhost\r\n\r\nGET /bar', COMPLETE, 38",
+    "'some binary data', UNKNOWN, 0"
+  })
+  void findMessageFrame_shouldFrameStreamedHttpMessages(
+      String bufferedContent, RbelMessageFrame.State expectedState, int expectedBytes) {
+    final RbelMessageFrame frame =
+        rbelConverter.findMessageFrame(
+            RbelContent.of(bufferedContent.getBytes(StandardCharsets.US_ASCII)));
+
+    assertThat(frame.getState()).isEqualTo(expectedState);
+    assertThat(frame.getBytes()).isEqualTo(expectedBytes);
+  }
+
+  @Test
+  void chunkedBodyWithExtensionsAndTrailers_shouldBeDecoded() {
+    final String message =
+        "HTTP/1.1 200 OK\r\n"
+            + "Transfer-Encoding: chunked\r\n\r\n"
+            + "5;name=value\r\n"
+            + "Hello\r\n"
+            + "10;quoted=\"a;b\"\r\n"
+            + "0123456789abcdef\r\n"
+            + "0\r\n"
+            + "X-Checksum: 1234\r\n"
+            + "X-Other: foo\r\n\r\n";
+
+    final RbelElement response =
+        rbelConverter.convertElement(new RbelElement(message.getBytes(), null));
+
+    assertThat(response)
+        .extractChildWithPath("$.body")
+        .hasStringContentEqualTo("Hello0123456789abcdef");
+  }
 }
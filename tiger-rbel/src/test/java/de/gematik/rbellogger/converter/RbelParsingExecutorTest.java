@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.gematik.rbellogger.data.RbelHostname;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficParsingConfiguration;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TrafficParsingConfiguration.TrafficParsingBackpressure;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class RbelParsingExecutorTest {
+
+  @Test
+  void messagesOfOneConnection_shouldBeExecutedInOrder() throws InterruptedException {
+    try (var executor =
+        RbelParsingExecutor.create(
+            TrafficParsingConfiguration.builder().parsingThreads(4).build())) {
+      final String connection =
+          RbelParsingExecutor.connectionKey(
+              RbelHostname.fromString("client:1234").orElseThrow(),
+              RbelHostname.fromString("server:443").orElseThrow());
+      final List<Integer> executed = new CopyOnWriteArrayList<>();
+      final CountDownLatch done = new CountDownLatch(100);
+      for (int i = 0; i < 100; i++) {
+        final int number = i;
+        executor.execute(
+            connection,
+            () -> {
+              executed.add(number);
+              done.countDown();
+            });
+      }
+
+      assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(executed).isSorted().hasSize(100);
+    }
+  }
+
+  @Test
+  void bothDirectionsOfAConnection_shouldShareTheKey() {
+    final RbelHostname client = RbelHostname.fromString("client:1234").orElseThrow();
+    final RbelHostname server = RbelHostname.fromString("server:443").orElseThrow();
+
+    assertThat(RbelParsingExecutor.connectionKey(client, server))
+        .isEqualTo(RbelParsingExecutor.connectionKey(server, client));
+  }
+
+  @Test
+  void fullLaneWithDropPolicy_shouldRejectMessage() throws InterruptedException {
+    try (var executor =
+        RbelParsingExecutor.create(
+            TrafficParsingConfiguration.builder()
+                .parsingThreads(1)
+                .maximumQueuedMessages(1)
+                .backpressure(TrafficParsingBackpressure.DROP)
+                .build())) {
+      final CountDownLatch running = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      executor.execute(
+          "a",
+          () -> {
+            running.countDown();
+            awaitQuietly(release);
+          });
+      assertThat(running.await(10, TimeUnit.SECONDS)).isTrue();
+      executor.execute("a", () -> {});
+
+      assertThatThrownBy(() -> executor.execute("a", () -> {}))
+          .isInstanceOf(RejectedExecutionException.class);
+      assertThat(executor.getQueuedMessages()).isEqualTo(1);
+      release.countDown();
+    }
+  }
+
+  @Test
+  void fullLaneWithBlockPolicy_shouldNotStallOtherLanes() throws InterruptedException {
+    try (var executor =
+        RbelParsingExecutor.create(
+            TrafficParsingConfiguration.builder()
+                .parsingThreads(2)
+                .maximumQueuedMessages(2)
+                .backpressure(TrafficParsingBackpressure.BLOCK)
+                .build())) {
+      // "a" and "b" are mapped to different lanes
+      final CountDownLatch running = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      executor.execute(
+          "a",
+          () -> {
+            running.countDown();
+            awaitQuietly(release);
+          });
+      assertThat(running.await(10, TimeUnit.SECONDS)).isTrue();
+      executor.execute("a", () -> {});
+      final CountDownLatch blockedOrderingDone = new CountDownLatch(1);
+      final Thread blockedSubmitter =
+          new Thread(() -> executor.execute("a", blockedOrderingDone::countDown, () -> {}));
+      blockedSubmitter.start();
+
+      final CountDownLatch otherLaneDone = new CountDownLatch(2);
+      executor.execute("b", otherLaneDone::countDown, otherLaneDone::countDown);
+
+      assertThat(otherLaneDone.await(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(blockedOrderingDone.getCount()).isEqualTo(1);
+      release.countDown();
+      assertThat(blockedOrderingDone.await(10, TimeUnit.SECONDS)).isTrue();
+      blockedSubmitter.join(10_000);
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
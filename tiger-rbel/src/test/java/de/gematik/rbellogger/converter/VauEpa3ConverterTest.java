@@ -23,10 +23,20 @@ import de.gematik.rbellogger.RbelLogger;
 import de.gematik.rbellogger.captures.RbelFileReaderCapturer;
 import de.gematik.rbellogger.configuration.RbelConfiguration;
 import de.gematik.rbellogger.converter.initializers.RbelKeyFolderInitializer;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.RbelElementConvertionPair;
+import de.gematik.rbellogger.data.RbelHostname;
+import de.gematik.rbellogger.file.RbelFileWriter;
 import de.gematik.rbellogger.renderer.RbelHtmlRenderer;
 import java.io.File;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import lombok.SneakyThrows;
 import lombok.val;
 import org.junit.jupiter.api.BeforeAll;
@@ -139,4 +149,56 @@ public class VauEpa3ConverterTest {
         .extractChildWithPath("$.body.decrypted.body.resourceType")
         .hasStringContentEqualTo("Bundle");
   }
+
+  @Test
+  void interleavedSessions_shouldBeDecryptedIndependently() throws Exception {
+    final List<byte[]> rawMessages =
+        new RbelFileWriter(RbelLogger.build().getRbelConverter())
+            .convertFromRbelFile(Files.readString(Path.of("src/test/resources/vau3traffic.tgr")))
+                .stream()
+                .map(RbelElement::getRawContent)
+                .toList();
+    final RbelConverter converter =
+        RbelLogger.build(new RbelConfiguration().activateConversionFor("epa3-vau"))
+            .getRbelConverter();
+    final RbelHostname server = new RbelHostname("vau.gematik.de", 443);
+    final RbelHostname firstClient = new RbelHostname("client", 1111);
+    final RbelHostname secondClient = new RbelHostname("client", 2222);
+
+    final List<CompletableFuture<RbelElement>> firstSession = new ArrayList<>();
+    final List<CompletableFuture<RbelElement>> secondSession = new ArrayList<>();
+    for (int i = 0; i < rawMessages.size(); i++) {
+      final boolean isRequest = i % 2 == 0;
+      final byte[] secondSessionMessage =
+          new String(rawMessages.get(i), StandardCharsets.ISO_8859_1)
+              .replace("abcdefghij1234567890", "zyxwvutsrq0987654321")
+              .getBytes(StandardCharsets.ISO_8859_1);
+      firstSession.add(parseAsync(converter, rawMessages.get(i), firstClient, server, isRequest));
+      secondSession.add(
+          parseAsync(converter, secondSessionMessage, secondClient, server, isRequest));
+    }
+
+    for (List<CompletableFuture<RbelElement>> session : List.of(firstSession, secondSession)) {
+      assertThat(session.get(2).get()).hasChildWithPath("$.body.AEAD_ct.decrypted_content");
+      assertThat(session.get(4).get())
+          .extractChildWithPath("$.body.decrypted")
+          .hasStringContentEqualTo("Hello World");
+      assertThat(session.get(5).get())
+          .extractChildWithPath("$.body.decrypted")
+          .hasStringContentEqualTo("Right back at ya!");
+    }
+  }
+
+  private static CompletableFuture<RbelElement> parseAsync(
+      RbelConverter converter,
+      byte[] rawMessage,
+      RbelHostname client,
+      RbelHostname server,
+      boolean isRequest) {
+    return converter.parseMessageAsync(
+        new RbelElementConvertionPair(RbelElement.builder().rawContent(rawMessage).build()),
+        isRequest ? client : server,
+        isRequest ? server : client,
+        Optional.empty());
+  }
 }
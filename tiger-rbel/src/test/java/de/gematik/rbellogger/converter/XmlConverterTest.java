@@ -79,6 +79,43 @@ class XmlConverterTest {
         .isEqualTo("jetty-dir.css");
   }
 
+  @Test
+  void nestedXmlElements_shouldKeepSourceBytes() {
+    final RbelElement convertedMessage =
+        RbelLogger.build()
+            .getRbelConverter()
+            .convertElement(
+                "<root><!-- <ignored/> --><child  attr='1' >text<inner/></child></root>", null);
+
+    assertThat(convertedMessage)
+        .extractChildWithPath("$.root.child")
+        .hasStringContentEqualTo("<child  attr='1' >text<inner/></child>")
+        .andTheInitialElement()
+        .extractChildWithPath("$.root.child.inner")
+        .hasStringContentEqualTo("<inner/>");
+  }
+
+  @Test
+  void nestedXmlElementsWithInheritedNamespaces_shouldStayWellFormed() {
+    final RbelElement convertedMessage =
+        RbelLogger.build()
+            .getRbelConverter()
+            .convertElement(
+                "<soap:Envelope xmlns:soap=\"http://www.w3.org/2003/05/soap-envelope\">"
+                    + "<soap:Body><m:Ping xmlns:m=\"urn:ping\">1</m:Ping></soap:Body>"
+                    + "</soap:Envelope>",
+                null);
+
+    final RbelElement body = convertedMessage.findElement("$.Envelope.Body").orElseThrow();
+    assertThat(body.getRawStringContent())
+        .contains("xmlns:soap=\"http://www.w3.org/2003/05/soap-envelope\"");
+    assertThat(RbelLogger.build().getRbelConverter().convertElement(body.getRawContent(), null))
+        .hasFacet(RbelXmlFacet.class);
+    assertThat(convertedMessage)
+        .extractChildWithPath("$.Envelope.Body.Ping")
+        .hasStringContentEqualTo("<m:Ping xmlns:m=\"urn:ping\">1</m:Ping>");
+  }
+
   @Test
   void convertMessage_shouldGiveXmlBody() {
     final RbelElement convertedMessage =
@@ -50,4 +50,64 @@ class RbelElementTest {
 
     assertThat(originalElement.getUuid()).isEqualTo(renamedElement.getUuid());
   }
+
+  @Test
+  void facetAddedAfterLookup_shouldBeFoundBySupertype() {
+    final RbelElement element = new RbelElement("fo".getBytes(), null);
+    assertThat(element.hasFacet(RbelMessageInfoFacet.class)).isFalse();
+
+    final RbelResponseFacet responseFacet = new RbelResponseFacet("foo");
+    element.addFacet(new RbelNoteFacet("note")).addFacet(responseFacet);
+
+    assertThat(element.hasFacet(RbelMessageInfoFacet.class)).isTrue();
+    assertThat(element.getFacet(RbelFacet.class)).get().isInstanceOf(RbelNoteFacet.class);
+    assertThat(element.getFacet(RbelMessageInfoFacet.class)).containsSame(responseFacet);
+  }
+
+  @Test
+  void removedFacet_shouldNoLongerBeFound() {
+    final RbelElement element = new RbelElement("fo".getBytes(), null);
+    element.addFacet(new RbelNoteFacet("first")).addFacet(new RbelNoteFacet("second"));
+    assertThat(element.getFacetOrFail(RbelNoteFacet.class).getValue()).isEqualTo("first");
+
+    element.getFacets().removeIf(facet -> ((RbelNoteFacet) facet).getValue().equals("first"));
+    assertThat(element.getFacetOrFail(RbelNoteFacet.class).getValue()).isEqualTo("second");
+
+    element.removeFacetsOfType(RbelNoteFacet.class);
+    assertThat(element.hasFacet(RbelNoteFacet.class)).isFalse();
+    assertThat(element.getFacets()).isEmpty();
+  }
+
+  @Test
+  void getKey_shouldReturnFirstKeyInParent() {
+    final RbelElement parent = new RbelElement("{}".getBytes(), null);
+    final RbelElement first = new RbelElement("1".getBytes(), parent);
+    final RbelElement second = new RbelElement("2".getBytes(), parent);
+    parent.addFacet(
+        new RbelMapFacet(new RbelMultiMap<RbelElement>().with("a", first).with("b", second)));
+    parent.addFacet(new RbelMapFacet(new RbelMultiMap<RbelElement>().with("c", first)));
+
+    assertThat(first.getKey()).contains("a");
+    assertThat(second.getKey()).contains("b");
+    assertThat(parent.getAll("a")).containsExactly(first);
+    assertThat(parent.getFirst("c")).containsSame(first);
+
+    parent.removeFacetsOfType(RbelMapFacet.class);
+    parent.addFacet(new RbelMapFacet(new RbelMultiMap<RbelElement>().with("d", second)));
+    assertThat(second.getKey()).contains("d");
+  }
+
+  @Test
+  void getKey_shouldFollowChangesOfTheChildMap() {
+    final RbelElement parent = new RbelElement("{}".getBytes(), null);
+    final RbelElement child = new RbelElement("1".getBytes(), parent);
+    final RbelMultiMap<RbelElement> childNodes = new RbelMultiMap<RbelElement>().with("a", child);
+    parent.addFacet(new RbelMapFacet(childNodes));
+    assertThat(child.getKey()).contains("a");
+
+    childNodes.removeAll("a");
+    childNodes.put("b", child);
+
+    assertThat(child.getKey()).contains("b");
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+class RbelMultiMapTest {
+
+  @Test
+  void lookupsOnLargeMap_shouldRespectInsertionOrder() {
+    final RbelMultiMap<String> map = new RbelMultiMap<>();
+    IntStream.range(0, 2 * RbelMultiMap.INDEX_THRESHOLD)
+        .forEach(i -> map.put("key" + (i % 3), "value" + i));
+
+    assertThat(map.get("key1")).isEqualTo("value1");
+    assertThat(map.getAll("key2"))
+        .containsExactly("value2", "value5", "value8", "value11", "value14");
+    assertThat(map.containsKey("key0")).isTrue();
+    assertThat(map.containsKey("key3")).isFalse();
+    assertThat(map.getAll("key3")).isEmpty();
+  }
+
+  @Test
+  void removeThroughIteratorAfterIndexWasBuilt_shouldBeVisible() {
+    final RbelMultiMap<String> map = new RbelMultiMap<>();
+    IntStream.range(0, RbelMultiMap.INDEX_THRESHOLD)
+        .forEach(i -> map.put("key" + i, "value" + i));
+    assertThat(map.get("key0")).isEqualTo("value0");
+
+    final var iterator = map.iterator();
+    iterator.next();
+    iterator.remove();
+
+    assertThat(map.containsKey("key0")).isFalse();
+    assertThat(map.get("key0")).isNull();
+    assertThat(map.get("key1")).isEqualTo("value1");
+  }
+
+  @Test
+  void appendAndRemoveAfterIndexWasBuilt_shouldBeVisible() {
+    final RbelMultiMap<String> map = new RbelMultiMap<>();
+    IntStream.range(0, RbelMultiMap.INDEX_THRESHOLD)
+        .forEach(i -> map.put("key" + i, "value" + i));
+    assertThat(map.getAll("key0")).containsExactly("value0");
+
+    map.put("key0", "anotherValue");
+    assertThat(map.getAll("key0")).containsExactly("value0", "anotherValue");
+
+    assertThat(map.removeAll("key0")).containsExactly("value0", "anotherValue");
+    assertThat(map.containsKey("key0")).isFalse();
+    assertThat(map.get("key1")).isEqualTo("value1");
+  }
+
+  @Test
+  @SneakyThrows
+  void concurrentAppends_shouldAllBeIndexed() {
+    final RbelMultiMap<Integer> map = new RbelMultiMap<>();
+    IntStream.range(0, RbelMultiMap.INDEX_THRESHOLD).forEach(i -> map.put("initial", i));
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int i = 0; i < 1000; i++) {
+        final int value = i;
+        executor.submit(
+            () -> {
+              map.put("key" + (value % 10), value);
+              map.getAll("key" + (value % 10));
+            });
+      }
+    } finally {
+      executor.shutdown();
+      assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    assertThat(IntStream.range(0, 10).map(i -> map.getAll("key" + i).size()).sum())
+        .isEqualTo(1000);
+    assertThat(map.size()).isEqualTo(1000 + RbelMultiMap.INDEX_THRESHOLD);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.gematik.rbellogger.file.RbelBinaryFileReader.IndexEntry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RbelBinaryFileTest {
+
+  @Test
+  void writtenRecords_shouldBeReadWithAllMetadata(@TempDir Path directory) throws IOException {
+    final Path file = directory.resolve("traffic.tgr");
+    try (final RbelBinaryFileWriter writer = RbelBinaryFileWriter.appendTo(file, true, 2)) {
+      for (int i = 0; i < 5; i++) {
+        writer.writeMessage(buildRecord(i));
+      }
+    }
+
+    try (final RbelBinaryFileReader reader = new RbelBinaryFileReader(Files.newInputStream(file))) {
+      final List<RbelFileRecord> records = reader.records().toList();
+      assertThat(records).hasSize(5);
+      assertThat(records.get(3).messageObject().toMap())
+          .isEqualTo(buildRecord(3).messageObject().toMap());
+      assertThat(records.get(3).rawContent()).isEqualTo(buildRecord(3).rawContent());
+    }
+  }
+
+  @Test
+  void appendingToClosedFile_shouldKeepIndexOfWholeFile(@TempDir Path directory)
+      throws IOException {
+    final Path file = directory.resolve("traffic.tgr");
+    try (final RbelBinaryFileWriter writer = RbelBinaryFileWriter.appendTo(file, true, 2)) {
+      writer.writeMessage(buildRecord(0));
+      writer.writeMessage(buildRecord(1));
+      writer.writeMessage(buildRecord(2));
+    }
+    try (final RbelBinaryFileWriter writer = RbelBinaryFileWriter.appendTo(file, false, 2)) {
+      writer.writeMessage(buildRecord(3));
+    }
+
+    final List<IndexEntry> index = RbelBinaryFileReader.readIndex(file);
+    assertThat(index)
+        .extracting(IndexEntry::uuid)
+        .containsExactly("uuid0", "uuid1", "uuid2", "uuid3");
+    assertThat(index).extracting(IndexEntry::sequenceNumber).containsExactly(0L, 1L, 2L, 3L);
+    assertThat(RbelBinaryFileReader.readRecord(file, index.get(2)).rawContent())
+        .isEqualTo(buildRecord(2).rawContent());
+  }
+
+  @Test
+  void fileOfCrashedWriter_shouldBeIndexedByScanningCompleteBlocks(@TempDir Path directory)
+      throws IOException {
+    final Path file = directory.resolve("traffic.tgr");
+    final Path crashedFile = directory.resolve("crashed.tgr");
+    try (final RbelBinaryFileWriter writer = RbelBinaryFileWriter.appendTo(file, true, 1)) {
+      writer.writeMessage(buildRecord(0));
+      writer.writeMessage(buildRecord(1));
+      writer.flush();
+      Files.copy(file, crashedFile);
+    }
+    try (final FileChannel channel = FileChannel.open(crashedFile, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 1);
+    }
+
+    assertThat(RbelBinaryFileReader.readIndex(crashedFile))
+        .extracting(IndexEntry::uuid)
+        .containsExactly("uuid0");
+  }
+
+  @Test
+  void corruptPayloadLength_shouldFailWithParseError() throws IOException {
+    final ByteArrayOutputStream binaryFile = new ByteArrayOutputStream();
+    final RbelBinaryFileWriter writer = new RbelBinaryFileWriter(binaryFile, false, 1);
+    writer.writeMessage(buildRecord(0));
+    writer.flush();
+    final int payloadLengthOffset = RbelBinaryFileFormat.FILE_HEADER_SIZE + 2 + Integer.BYTES;
+
+    final byte[] negativeLength = binaryFile.toByteArray();
+    ByteBuffer.wrap(negativeLength).putInt(payloadLengthOffset, -1);
+    try (final RbelBinaryFileReader reader =
+        new RbelBinaryFileReader(new ByteArrayInputStream(negativeLength))) {
+      assertThatThrownBy(reader::hasNext)
+          .isInstanceOf(RbelBinaryFileReader.RbelBinaryFileException.class)
+          .hasMessageContaining("invalid payload length -1");
+    }
+
+    final byte[] lengthBeyondTheFile = binaryFile.toByteArray();
+    ByteBuffer.wrap(lengthBeyondTheFile).putInt(payloadLengthOffset, Integer.MAX_VALUE - 16);
+    try (final RbelBinaryFileReader reader =
+        new RbelBinaryFileReader(new ByteArrayInputStream(lengthBeyondTheFile))) {
+      assertThat(reader.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  void readRbelFileRecords_shouldDecodeBinaryAndJsonLinesStreams() throws IOException {
+    final ByteArrayOutputStream binaryFile = new ByteArrayOutputStream();
+    try (final RbelBinaryFileWriter writer = new RbelBinaryFileWriter(binaryFile, true, 2)) {
+      for (int i = 0; i < 5; i++) {
+        writer.writeMessage(buildRecord(i));
+      }
+    }
+    final String jsonLinesFile =
+        RbelFileWriter.convertToRbelFileString(buildRecord(0))
+            + "\n\n"
+            + RbelFileWriter.convertToRbelFileString(buildRecord(1));
+
+    assertThat(
+            RbelFileWriter.readRbelFileRecords(
+                new ByteArrayInputStream(binaryFile.toByteArray())))
+        .extracting(fileRecord -> fileRecord.messageObject().getString(RbelFileWriter.MESSAGE_UUID))
+        .containsExactly("uuid0", "uuid1", "uuid2", "uuid3", "uuid4");
+    final List<RbelFileRecord> jsonRecords =
+        RbelFileWriter.readRbelFileRecords(
+            new ByteArrayInputStream(jsonLinesFile.getBytes(StandardCharsets.UTF_8)));
+    assertThat(jsonRecords).hasSize(2);
+    assertThat(jsonRecords.get(1).rawContent()).isEqualTo(buildRecord(1).rawContent());
+  }
+
+  private static RbelFileRecord buildRecord(int number) {
+    final JSONObject messageObject = new JSONObject();
+    messageObject.put(RbelFileWriter.MESSAGE_UUID, "uuid" + number);
+    messageObject.put(RbelFileWriter.SEQUENCE_NUMBER, (long) number);
+    messageObject.put(RbelFileWriter.SENDER_HOSTNAME, "client:" + (40000 + number));
+    messageObject.put(RbelFileWriter.RECEIVER_HOSTNAME, "server:443");
+    messageObject.put(RbelFileWriter.MESSAGE_TIME, "2024-05-03T10:15:30.123456+02:00");
+    messageObject.put("bundledHostnameServer", "server");
+    if (number % 2 == 1) {
+      messageObject.put(RbelFileWriter.PAIRED_MESSAGE_UUID, "uuid" + (number - 1));
+    }
+    return new RbelFileRecord(
+        messageObject, ("message " + number).repeat(20).getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RbelFileLineReaderTest {
+
+  @Test
+  void linesSpanningWindows_shouldBeReadCompletely(@TempDir Path directory) throws IOException {
+    final String longLine = "x".repeat(100);
+    final Path file = directory.resolve("traffic.tgr");
+    Files.writeString(file, "first\n" + longLine + "\n\nälast");
+
+    try (final RbelFileLineReader reader = new RbelFileLineReader(file, 16)) {
+      assertThat(reader.lines().toList()).containsExactly("first", longLine, "", "älast");
+      assertThat(reader.getPosition()).isEqualTo(reader.getFileSize());
+    }
+  }
+
+  @Test
+  void emptyFile_shouldHaveNoLines(@TempDir Path directory) throws IOException {
+    final Path file = Files.createFile(directory.resolve("empty.tgr"));
+
+    try (final RbelFileLineReader reader = new RbelFileLineReader(file)) {
+      assertThat(reader.lines().toList()).isEqualTo(List.of());
+    }
+  }
+}
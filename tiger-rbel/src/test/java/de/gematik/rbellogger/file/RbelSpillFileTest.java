@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RbelSpillFileTest {
+
+  @Test
+  void droppedChunks_shouldBeDeletedRightAway(@TempDir Path directory) throws IOException {
+    final RbelSpillFile spillFile = new RbelSpillFile(directory, 16, 32);
+    final RbelSpillFile.Location first = spillFile.write(0, "first chunk 0123".getBytes());
+    spillFile.write(1, "second chunk 012".getBytes());
+    assertThat(spillFile.dropChunksExceedingBudget()).isEmpty();
+
+    final RbelSpillFile.Location third = spillFile.write(2, "third chunk 0123".getBytes());
+    spillFile.write(3, "fourth chunk 012".getBytes());
+
+    assertThat(spillFile.dropChunksExceedingBudget()).containsExactly(0L, 1L);
+    assertThat(spillFile.read(first)).isEmpty();
+    assertThat(spillFile.read(third)).contains("third chunk 0123".getBytes());
+    assertThat(countChunkFiles(directory)).isEqualTo(2);
+  }
+
+  @Test
+  void close_shouldDeleteTheSpillDirectory(@TempDir Path directory) throws IOException {
+    final RbelSpillFile spillFile = new RbelSpillFile(directory, 1024, 4096);
+    spillFile.write(0, "content".getBytes());
+    assertThat(countChunkFiles(directory)).isEqualTo(1);
+
+    spillFile.close();
+
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  private static long countChunkFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files.filter(Files::isRegularFile).count();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import de.gematik.test.tiger.common.data.config.tigerproxy.RbelFileFormat;
+import de.gematik.test.tiger.common.data.config.tigerproxy.TigerFileSaveInfo;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RbelTrafficFileWriterTest {
+
+  @Test
+  void closingWriter_shouldWriteAllQueuedMessages(@TempDir Path directory) throws IOException {
+    final Path file = directory.resolve("traffic.tgr");
+    final RbelTrafficFileWriter writer =
+        RbelTrafficFileWriter.create(
+            TigerFileSaveInfo.builder().filename(file.toString()).syncIntervalInMs(0).build());
+    for (int i = 0; i < 50; i++) {
+      writer.write(buildRecord(i));
+    }
+    writer.close();
+
+    assertThat(Files.readAllLines(file)).hasSize(50).allMatch(line -> line.contains("uuid"));
+    assertThat(writer.getStatistics())
+        .hasFieldOrPropertyWithValue("writtenMessages", 50L)
+        .hasFieldOrPropertyWithValue("droppedMessages", 0L)
+        .hasFieldOrPropertyWithValue("bytesWritten", Files.size(file));
+  }
+
+  @Test
+  void fileExceedingRotationSize_shouldBeRotated(@TempDir Path directory) throws IOException {
+    final Path file = directory.resolve("traffic.tgr");
+    final RbelTrafficFileWriter writer =
+        RbelTrafficFileWriter.create(
+            TigerFileSaveInfo.builder()
+                .filename(file.toString())
+                .fileFormat(RbelFileFormat.BINARY)
+                .compressBinaryFile(false)
+                .rotateFileAfterKb(1)
+                .build());
+    for (int i = 0; i < 3; i++) {
+      writer.write(buildRecord(i));
+      final long writtenMessages = i + 1L;
+      await()
+          .atMost(5, TimeUnit.SECONDS)
+          .until(() -> writer.getStatistics().getWrittenMessages() == writtenMessages);
+    }
+    writer.close();
+
+    assertThat(writer.getStatistics().getRotatedFiles()).isEqualTo(2);
+    assertThat(directory.resolve("traffic-1.tgr")).exists();
+    assertThat(directory.resolve("traffic-2.tgr")).exists();
+    assertThat(RbelBinaryFileReader.readIndex(file))
+        .extracting(RbelBinaryFileReader.IndexEntry::uuid)
+        .containsExactly("uuid2");
+  }
+
+  @Test
+  void messagesAfterClose_shouldBeDropped(@TempDir Path directory) {
+    final RbelTrafficFileWriter writer =
+        RbelTrafficFileWriter.create(
+            TigerFileSaveInfo.builder()
+                .filename(directory.resolve("traffic.tgr").toString())
+                .build());
+    writer.close();
+    writer.write(buildRecord(0));
+
+    assertThat(writer.getStatistics().getDroppedMessages()).isEqualTo(1);
+    assertThat(directory.resolve("traffic.tgr")).doesNotExist();
+  }
+
+  private static RbelFileRecord buildRecord(int number) {
+    final JSONObject messageObject = new JSONObject();
+    messageObject.put(RbelFileWriter.MESSAGE_UUID, "uuid" + number);
+    messageObject.put(RbelFileWriter.SENDER_HOSTNAME, "client:40000");
+    messageObject.put(RbelFileWriter.RECEIVER_HOSTNAME, "server:443");
+    return new RbelFileRecord(messageObject, "x".repeat(1500).getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -17,7 +17,7 @@
 package de.gematik.rbellogger.key;
 
 import static de.gematik.rbellogger.TestUtils.readCurlFromFileWithCorrectedLineBreaks;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 
@@ -28,6 +28,7 @@ import java.security.Key;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
+import javax.crypto.spec.SecretKeySpec;
 import org.junit.jupiter.api.Test;
 
 class RbelKeyManagerTest {
@@ -35,13 +36,17 @@ class RbelKeyManagerTest {
   private final RbelKeyManager keyManager = new RbelKeyManager();
 
   private Key mockKey() {
-    final byte[] bytes = new byte[32];
-    ThreadLocalRandom.current().nextBytes(bytes);
     var mock = mock(Key.class);
-    doReturn(bytes).when(mock).getEncoded();
+    doReturn(randomBytes()).when(mock).getEncoded();
     return mock;
   }
 
+  private static byte[] randomBytes() {
+    final byte[] bytes = new byte[32];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    return bytes;
+  }
+
   @Test
   void shouldFindPrivateKeyIfPresent() {
     RbelKey publicKey = RbelKey.builder().keyName("publicKey").key(mockKey()).build();
@@ -73,6 +78,50 @@ class RbelKeyManagerTest {
     assertThat(keyManager.findCorrespondingPrivateKey(publicKey.getKeyName())).isEmpty();
   }
 
+  @Test
+  void indexedLookups_shouldKeepPrecedenceOrder() {
+    RbelKey late = new RbelKey(new SecretKeySpec(randomBytes(), "AES"), "abc_late", 200);
+    RbelKey early = new RbelKey(new SecretKeySpec(randomBytes(), "AES"), "abc_early", 100);
+    RbelKey other = new RbelKey(new SecretKeySpec(randomBytes(), "HmacSHA256"), "xyz", 100);
+    keyManager.addKey(late);
+    keyManager.addKey(early);
+    keyManager.addKey(other);
+
+    assertThat(keyManager.findKeysWithNamePrefix("abc_").toList()).containsExactly(early, late);
+    assertThat(keyManager.findKeysByAlgorithm("aes").toList()).containsExactly(early, late);
+    assertThat(keyManager.getAllKeys().toList()).containsExactly(early, other, late);
+    assertThat(keyManager.findKeyByFingerprint(other.getHash())).get().isEqualTo(other);
+  }
+
+  @Test
+  void withLastSuccessfulKeyFirst_shouldPreferRememberedKey() {
+    RbelKey first = new RbelKey(new SecretKeySpec(randomBytes(), "AES"), "first", 0);
+    RbelKey second = new RbelKey(new SecretKeySpec(randomBytes(), "AES"), "second", 0);
+    keyManager.addKey(first);
+    keyManager.addKey(second);
+
+    keyManager.rememberSuccessfulKey("session", second);
+
+    assertThat(keyManager.withLastSuccessfulKeyFirst("session", keyManager.getAllKeys()).toList())
+        .containsExactly(second, first);
+    assertThat(keyManager.withLastSuccessfulKeyFirst("other", keyManager.getAllKeys()).toList())
+        .containsExactly(first, second);
+  }
+
+  @Test
+  void rememberedKeys_shouldForgetLeastRecentlyUsedContextFirst() {
+    RbelKey key = new RbelKey(new SecretKeySpec(randomBytes(), "AES"), "key", 0);
+    keyManager.rememberSuccessfulKey("used", key);
+    keyManager.rememberSuccessfulKey("unused", key);
+
+    for (int i = 0; i < RbelKeyManager.MAXIMUM_REMEMBERED_DECRYPTION_CONTEXTS; i++) {
+      keyManager.rememberSuccessfulKey("context" + i, key);
+      assertThat(keyManager.findLastSuccessfulKey("used")).contains(key);
+    }
+
+    assertThat(keyManager.findLastSuccessfulKey("unused")).isEmpty();
+  }
+
   @Test
   void shouldGrepJwkKeys() throws IOException {
     RbelConverter converter = RbelLogger.build().getRbelConverter();
@@ -65,6 +65,25 @@ class RbelContentTest {
     assertArrayEquals(bytes.subArray(11, 12), fourthChunk);
   }
 
+  @Test
+  void subContent_shouldShareChunksAndCopyOnAppend() {
+    byte[] input = "0123456789ABCDEFGHIJ".getBytes();
+    RbelContent parent = RbelContent.builder().chunkSize(8).content(List.of(input)).build();
+
+    RbelContent view = parent.subContent(5, 13);
+    assertEquals(8, view.size());
+    assertArrayEquals("56789ABC".getBytes(), view.toByteArray());
+    assertEquals(4, view.indexOf((byte) '9'));
+    assertEquals(-1, view.indexOf((byte) '4'));
+    assertEquals(-1, view.lastIndexOf((byte) '0'));
+    assertArrayEquals("89A".getBytes(), view.subContent(3, 6).toByteArray());
+    assertSame(parent.getChunks().get(1), view.getChunks().get(1));
+
+    view.append("xy".getBytes());
+    assertArrayEquals("56789ABCxy".getBytes(), view.toByteArray());
+    assertArrayEquals(input, parent.toByteArray());
+  }
+
   @Test
   void appendShort() {
     RbelContent bytes = RbelContent.builder().chunkSize(10).build();
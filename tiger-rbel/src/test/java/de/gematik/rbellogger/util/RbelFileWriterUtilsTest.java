@@ -20,11 +20,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import de.gematik.rbellogger.RbelLogger;
 import de.gematik.rbellogger.configuration.RbelConfiguration;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.RbelHostnameFacet;
+import de.gematik.rbellogger.data.facet.RbelTcpIpMessageFacet;
+import de.gematik.rbellogger.data.facet.TracingMessagePairFacet;
 import de.gematik.rbellogger.file.RbelFileWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class RbelFileWriterUtilsTest {
 
@@ -42,4 +52,90 @@ class RbelFileWriterUtilsTest {
 
     assertThat(rbelLogger.getMessageHistory()).hasSize(initialNumberOfMessage);
   }
+
+  @Test
+  void readFileStreaming_shouldParseSameMessagesAsReadingTheContent() throws IOException {
+    final RbelLogger contentLogger = RbelLogger.build(new RbelConfiguration());
+    final List<RbelElement> messagesFromContent =
+        new RbelFileWriter(contentLogger.getRbelConverter())
+            .convertFromRbelFile(
+                FileUtils.readFileToString(new File("src/test/resources/trafficLog.tgr")));
+
+    final RbelLogger streamingLogger = RbelLogger.build(new RbelConfiguration());
+    final List<RbelElement> streamedMessages = new ArrayList<>();
+    new RbelFileWriter(streamingLogger.getRbelConverter())
+        .readRbelFile(Path.of("src/test/resources/trafficLog.tgr"), streamedMessages::add);
+
+    assertThat(streamedMessages)
+        .isNotEmpty()
+        .map(RbelElement::getUuid)
+        .containsExactlyElementsOf(messagesFromContent.stream().map(RbelElement::getUuid).toList());
+    assertThat(streamingLogger.getMessageHistory()).hasSameSizeAs(messagesFromContent);
+  }
+
+  @Test
+  void parallelImport_shouldPublishAndPairMessagesLikeSequentialImport() throws IOException {
+    final String rawSavedMessages =
+        FileUtils.readFileToString(new File("src/test/resources/trafficLog.tgr"));
+    final List<RbelElement> sequentialMessages =
+        new RbelFileWriter(RbelLogger.build(new RbelConfiguration()).getRbelConverter())
+            .convertFromRbelFile(rawSavedMessages);
+
+    final RbelLogger parallelLogger = RbelLogger.build(new RbelConfiguration());
+    final RbelFileWriter parallelFileWriter = new RbelFileWriter(parallelLogger.getRbelConverter());
+    parallelFileWriter.setParallelImport(true);
+    final List<RbelElement> parallelMessages =
+        parallelFileWriter.convertFromRbelFile(rawSavedMessages);
+
+    assertThat(parallelMessages)
+        .map(RbelElement::getUuid)
+        .containsExactlyElementsOf(sequentialMessages.stream().map(RbelElement::getUuid).toList());
+    assertThat(parallelLogger.getMessageList()).containsExactlyElementsOf(parallelMessages);
+    for (int i = 0; i < parallelMessages.size(); i++) {
+      assertThat(parallelMessages.get(i).hasFacet(TracingMessagePairFacet.class))
+          .isEqualTo(sequentialMessages.get(i).hasFacet(TracingMessagePairFacet.class));
+    }
+  }
+
+  @Test
+  void binaryFile_shouldContainSameMessagesAsJsonLinesFile(@TempDir Path directory)
+      throws IOException {
+    final List<RbelElement> originalMessages =
+        new RbelFileWriter(RbelLogger.build(new RbelConfiguration()).getRbelConverter())
+            .convertFromRbelFile(
+                FileUtils.readFileToString(new File("src/test/resources/trafficLog.tgr")));
+    final RbelLogger writingLogger = RbelLogger.build(new RbelConfiguration());
+    final byte[] binaryFile =
+        new RbelFileWriter(writingLogger.getRbelConverter())
+            .convertToBinaryRbelFile(originalMessages, true);
+    final Path file = directory.resolve("traffic.tgr");
+    Files.write(file, binaryFile);
+
+    final RbelLogger readingLogger = RbelLogger.build(new RbelConfiguration());
+    final List<RbelElement> readMessages = new ArrayList<>();
+    new RbelFileWriter(readingLogger.getRbelConverter()).readRbelFile(file, readMessages::add);
+
+    assertThat(readMessages)
+        .isNotEmpty()
+        .map(RbelElement::getUuid)
+        .containsExactlyElementsOf(originalMessages.stream().map(RbelElement::getUuid).toList());
+    for (int i = 0; i < readMessages.size(); i++) {
+      assertThat(readMessages.get(i).getRawContent())
+          .isEqualTo(originalMessages.get(i).getRawContent());
+      assertThat(getSenderHostname(readMessages.get(i)))
+          .isPresent()
+          .isEqualTo(getSenderHostname(originalMessages.get(i)));
+    }
+    assertThat(
+            new RbelFileWriter(RbelLogger.build(new RbelConfiguration()).getRbelConverter())
+                .convertFromRbelFile(binaryFile))
+        .hasSameSizeAs(originalMessages);
+  }
+
+  private static Optional<String> getSenderHostname(RbelElement message) {
+    return message
+        .getFacet(RbelTcpIpMessageFacet.class)
+        .flatMap(facet -> facet.getSender().getFacet(RbelHostnameFacet.class))
+        .map(RbelHostnameFacet::toString);
+  }
 }
@@ -104,6 +104,30 @@ class RbelJexlExecutorTest {
         .isTrue();
   }
 
+  @Test
+  void iteratingDecoratedContext_shouldContainLazyVariables() {
+    final TigerJexlContext context =
+        TigerJexlExecutor.buildJexlMapContext(request, Optional.empty());
+
+    assertThat(context.containsKey("message")).isTrue();
+    assertThat(context.keySet()).contains("message", "content", "request", "response");
+    assertThat(context.allNonStandardValues()).containsKeys("message", "content", "request");
+  }
+
+  @Test
+  void repeatedRbelPathExpression_shouldBeServedFromExpressionCache() {
+    final String expression = "$.header.Host == 'localhost:8080'";
+    assertThat(TigerJexlExecutor.matchesAsJexlExpression(request, expression, Optional.empty()))
+        .isTrue();
+    final long missesBefore = TigerJexlExecutor.getExpressionCacheStatistics().getMisses();
+
+    assertThat(TigerJexlExecutor.matchesAsJexlExpression(request, expression, Optional.empty()))
+        .isTrue();
+
+    assertThat(TigerJexlExecutor.getExpressionCacheStatistics().getMisses())
+        .isEqualTo(missesBefore);
+  }
+
   @Test
   void checkResponseMapElements() {
     assertThat(
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 gematik GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.gematik.rbellogger.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.gematik.rbellogger.converter.RbelConverter;
+import de.gematik.rbellogger.data.RbelElement;
+import de.gematik.rbellogger.data.facet.RbelParsingNotCompleteFacet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.apache.commons.collections4.IteratorUtils;
+import org.junit.jupiter.api.Test;
+
+class RbelMessageHistoryTest {
+
+  private final RbelConverter converter = RbelConverter.builder().build();
+
+  @Test
+  void appendedMessages_shouldBeAddressableBySequenceNumberAcrossSegments() {
+    final RbelMessageHistory history = new RbelMessageHistory();
+    final List<RbelElement> messages = createMessages(3000);
+    messages.forEach(history::append);
+
+    assertThat(history).hasSize(3000).containsExactlyElementsOf(messages);
+    assertThat(history.get(2500)).contains(messages.get(2500));
+    assertThat(history.get(3000)).isEmpty();
+    assertThat(history.getFirst()).isSameAs(messages.get(0));
+    assertThat(history.getLast()).isSameAs(messages.get(2999));
+  }
+
+  @Test
+  void pollFirstAndRemove_shouldKeepTheOrderOfTheRemainingMessages() {
+    final RbelMessageHistory history = new RbelMessageHistory();
+    final List<RbelElement> messages = createMessages(2000);
+    messages.forEach(history::append);
+
+    for (int i = 0; i < 1500; i++) {
+      assertThat(history.pollFirst()).isSameAs(messages.get(i));
+    }
+    assertThat(history.remove(1600, messages.get(1600))).isTrue();
+    assertThat(history.remove(1600, messages.get(1600))).isFalse();
+
+    assertThat(history.get(1000)).isEmpty();
+    assertThat(history.get(1600)).isEmpty();
+    assertThat(history).hasSize(499).doesNotContain(messages.get(1600));
+    assertThat(IteratorUtils.toList(history.descendingIterator()))
+        .first()
+        .isSameAs(messages.get(1999));
+  }
+
+  @Test
+  void parsedWatermark_shouldStopAtTheFirstUnparsedMessage() {
+    final RbelMessageHistory history = new RbelMessageHistory();
+    final List<RbelElement> messages = createMessages(5);
+    messages.forEach(msg -> msg.addFacet(new RbelParsingNotCompleteFacet(converter)));
+    messages.forEach(history::append);
+
+    messages.get(0).removeFacetsOfType(RbelParsingNotCompleteFacet.class);
+    messages.get(2).removeFacetsOfType(RbelParsingNotCompleteFacet.class);
+    history.advanceParsedWatermark();
+    assertThat(history.getParsedWatermark()).isEqualTo(1);
+    assertThat(history.getParsedMessages()).containsExactly(messages.get(0));
+    assertThat(history.getMessagesAboveParsedWatermark(4))
+        .containsExactly(messages.get(1), messages.get(2), messages.get(3));
+
+    messages.get(1).removeFacetsOfType(RbelParsingNotCompleteFacet.class);
+    history.advanceParsedWatermark();
+    assertThat(history.getParsedWatermark()).isEqualTo(3);
+
+    history.remove(3, messages.get(3));
+    history.advanceParsedWatermark();
+    assertThat(history.getParsedWatermark()).isEqualTo(4);
+  }
+
+  @Test
+  void concurrentAppends_shouldAllBeVisibleInSequenceOrder() throws InterruptedException {
+    final RbelMessageHistory history = new RbelMessageHistory();
+    final List<RbelElement> messages = createMessages(10_000);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    messages.forEach(msg -> executor.execute(() -> history.append(msg)));
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(history).hasSize(10_000).containsExactlyInAnyOrderElementsOf(messages);
+    final List<RbelElement> bySequenceNumber = new ArrayList<>();
+    for (long i = 0; i < 10_000; i++) {
+      history.get(i).ifPresent(bySequenceNumber::add);
+    }
+    assertThat(bySequenceNumber).containsExactlyElementsOf(history);
+  }
+
+  @Test
+  void getMessagesInRange_shouldSkipRemovedMessagesAndStopAtTheEnd() {
+    final RbelMessageHistory history = new RbelMessageHistory();
+    final List<RbelElement> messages = createMessages(2000);
+    messages.forEach(history::append);
+    history.remove(1025, messages.get(1025));
+
+    assertThat(history.getMessages(1020, 1030))
+        .hasSize(9)
+        .doesNotContain(messages.get(1025))
+        .startsWith(messages.get(1020))
+        .endsWith(messages.get(1029));
+    assertThat(history.getMessages(1990, 5000)).hasSize(10);
+    assertThat(history.getEndSequenceNumber()).isEqualTo(2000);
+  }
+
+  private static List<RbelElement> createMessages(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> new RbelElement(Integer.toString(i).getBytes(), null))
+        .toList();
+  }
+}
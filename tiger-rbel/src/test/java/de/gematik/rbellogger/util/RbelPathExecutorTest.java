@@ -346,4 +346,45 @@ class RbelPathExecutorTest {
       RbelOptions.deactivateRbelPathDebugging();
     }
   }
+
+  @Test
+  void samePathTwice_shouldReuseCompiledPlan() {
+    final RbelPathQueryPlan plan = RbelPathQueryPlan.compile("$..topping.*[6]");
+
+    assertThat(RbelPathQueryPlan.compile("$..topping.*[6]")).isSameAs(plan);
+    assertThat(plan.getSteps())
+        .extracting(RbelPathQueryPlan.Step::getKey)
+        .containsExactly(".", "topping", "*[6]");
+  }
+
+  @Test
+  void fullPlanCache_shouldKeepRecentlyUsedPlans() {
+    final RbelPathQueryPlan frequentPlan = RbelPathQueryPlan.compile("$.frequently.used");
+    final RbelPathQueryPlan rarePlan = RbelPathQueryPlan.compile("$.rarely.used");
+    for (int i = 0; i < RbelPathQueryPlan.MAXIMUM_CACHE_SIZE; i++) {
+      RbelPathQueryPlan.compile("$.one.off" + i);
+      assertThat(RbelPathQueryPlan.compile("$.frequently.used")).isSameAs(frequentPlan);
+    }
+
+    assertThat(RbelPathQueryPlan.getCacheSize()).isEqualTo(RbelPathQueryPlan.MAXIMUM_CACHE_SIZE);
+    assertThat(RbelPathQueryPlan.compile("$.rarely.used")).isNotSameAs(rarePlan);
+  }
+
+  @Test
+  void executeLazily_shouldYieldSameResultsAsExecute() {
+    final RbelPathExecutor<RbelElement> executor =
+        new RbelPathExecutor<>(jsonElement, "$..[?(@.id == '5001')]");
+
+    assertThat(executor.executeLazily().toList()).containsExactlyElementsOf(executor.execute());
+    assertThat(new RbelPathExecutor<>(jsonElement, "$..id").executeLazily().findFirst())
+        .contains(jsonElement.findRbelPathMembers("$..id").get(0));
+  }
+
+  @Test
+  void findElementWithMultipleResults_shouldStillReportTotalCount() {
+    final int count = jsonElement.findRbelPathMembers("$..id").size();
+
+    assertThatThrownBy(() -> jsonElement.findElement("$..id"))
+        .hasMessageContaining("is not unique! Found " + count + " elements");
+  }
 }
@@ -21,6 +21,7 @@ import static org.awaitility.Awaitility.await;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import de.gematik.rbellogger.RbelLogger;
 import de.gematik.rbellogger.data.RbelElement;
 import de.gematik.rbellogger.data.facet.*;
 import de.gematik.rbellogger.util.RbelPathExecutor;
@@ -94,14 +95,12 @@ public class RbelMessageRetriever {
 
   @Getter private final LocalProxyRbelMessageListener localProxyRbelMessageListener;
 
-  @Setter @Getter protected RbelElement currentRequest;
+  @Getter protected RbelElement currentRequest;
 
   // contains either currentRequest or currentResponse
   private RbelElement lastFoundMessage;
 
-  @Setter(AccessLevel.PROTECTED)
-  @Getter
-  protected RbelElement currentResponse;
+  @Getter protected RbelElement currentResponse;
 
   private RbelMessageRetriever() {
     this(
@@ -129,6 +128,32 @@ public class RbelMessageRetriever {
     this.localProxyRbelMessageListener = localProxyRbelMessageListener;
   }
 
+  public void setCurrentRequest(RbelElement currentRequest) {
+    pinInsteadOf(this.currentRequest, currentRequest);
+    this.currentRequest = currentRequest;
+  }
+
+  protected void setCurrentResponse(RbelElement currentResponse) {
+    pinInsteadOf(this.currentResponse, currentResponse);
+    this.currentResponse = currentResponse;
+  }
+
+  /** Keeps the messages under validation from being evicted from the buffer of the proxy. */
+  private void pinInsteadOf(RbelElement previousMessage, RbelElement newMessage) {
+    Optional.ofNullable(tigerProxy)
+        .map(TigerProxy::getRbelLogger)
+        .map(RbelLogger::getRbelConverter)
+        .ifPresent(
+            rbelConverter -> {
+              if (newMessage != null) {
+                rbelConverter.pinMessage(newMessage);
+              }
+              if (previousMessage != null) {
+                rbelConverter.unpinMessage(previousMessage);
+              }
+            });
+  }
+
   private void registerJexlToolbox() {
     TigerJexlExecutor.registerAdditionalNamespace(
         RBEL_NAMESPACE, new RbelMessageRetriever.JexlToolbox());